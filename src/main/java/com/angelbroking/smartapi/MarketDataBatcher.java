@@ -0,0 +1,237 @@
+package com.angelbroking.smartapi;
+
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces single instrument quote requests into batched market data calls.
+ *
+ * Quotes requested within a short window are sent as one api.market.data call
+ * of up to {@link #MAX_TOKENS_PER_REQUEST} tokens, and every caller's future is
+ * completed with its own entry of the response. A batch is sent as soon as it
+ * is full or when the window elapses, whichever comes first. Instruments the
+ * server could not fetch complete exceptionally with a SmartAPIException
+ * carrying the server's error code.
+ */
+@Slf4j
+public class MarketDataBatcher implements Closeable {
+
+	/** Maximum number of tokens accepted by a single market data request. */
+	public static final int MAX_TOKENS_PER_REQUEST = 50;
+
+	/** Default time a batch waits for further requests before it is sent. */
+	public static final long DEFAULT_WINDOW_MILLIS = 5;
+
+	private final SmartConnectAsync smartConnectAsync;
+	private final String mode;
+	private final long windowMillis;
+	private final int maxTokens;
+	private final ScheduledExecutorService timer;
+	private final ReentrantLock lock = new ReentrantLock();
+	private Batch pending;
+	private boolean closed;
+
+	/**
+	 * Initializes a batcher with the default window and token limit.
+	 *
+	 * @param smartConnectAsync is the session used to send the batched requests.
+	 * @param mode              is the market data mode, i.e. LTP, OHLC or FULL.
+	 */
+	public MarketDataBatcher(SmartConnectAsync smartConnectAsync, String mode) {
+		this(smartConnectAsync, mode, DEFAULT_WINDOW_MILLIS, MAX_TOKENS_PER_REQUEST);
+	}
+
+	/**
+	 * Initializes a batcher.
+	 *
+	 * @param smartConnectAsync is the session used to send the batched requests.
+	 * @param mode              is the market data mode, i.e. LTP, OHLC or FULL.
+	 * @param windowMillis      is the time a batch waits for further requests.
+	 * @param maxTokens         is the maximum number of tokens per request, at most
+	 *                          {@link #MAX_TOKENS_PER_REQUEST}.
+	 */
+	public MarketDataBatcher(SmartConnectAsync smartConnectAsync, String mode, long windowMillis, int maxTokens) {
+		if (smartConnectAsync == null) {
+			throw new IllegalArgumentException("smartConnectAsync should not be null");
+		}
+		if (maxTokens < 1 || maxTokens > MAX_TOKENS_PER_REQUEST) {
+			throw new IllegalArgumentException("maxTokens should be between 1 and " + MAX_TOKENS_PER_REQUEST);
+		}
+		this.smartConnectAsync = smartConnectAsync;
+		this.mode = mode;
+		this.windowMillis = windowMillis;
+		this.maxTokens = maxTokens;
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "smartapi-marketdata-batcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+		this.timer = executor;
+	}
+
+	/**
+	 * Requests the quote of one instrument.
+	 *
+	 * @param exchange    is the exchange of the instrument, e.g. NSE.
+	 * @param symbolToken is the symbol token of the instrument.
+	 * @return future of the fetched entry of the market data response for the
+	 *         instrument.
+	 */
+	public CompletableFuture<JSONObject> quote(String exchange, String symbolToken) {
+		CompletableFuture<JSONObject> future = new CompletableFuture<>();
+		Batch full = null;
+		lock.lock();
+		try {
+			if (closed) {
+				future.completeExceptionally(new IllegalStateException("MarketDataBatcher is closed"));
+				return future;
+			}
+			if (pending == null) {
+				Batch batch = new Batch();
+				batch.timeout = timer.schedule(() -> flush(batch), windowMillis, TimeUnit.MILLISECONDS);
+				pending = batch;
+			}
+			pending.add(exchange, symbolToken, future);
+			if (pending.size >= maxTokens) {
+				full = pending;
+				pending = null;
+				full.timeout.cancel(false);
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (full != null) {
+			send(full);
+		}
+		return future;
+	}
+
+	/**
+	 * Sends the pending batch, if any, and stops accepting requests.
+	 */
+	@Override
+	public void close() {
+		Batch batch;
+		lock.lock();
+		try {
+			closed = true;
+			batch = pending;
+			pending = null;
+		} finally {
+			lock.unlock();
+		}
+		if (batch != null) {
+			batch.timeout.cancel(false);
+			send(batch);
+		}
+		timer.shutdown();
+	}
+
+	private void flush(Batch batch) {
+		lock.lock();
+		try {
+			if (pending != batch) {
+				return;
+			}
+			pending = null;
+		} finally {
+			lock.unlock();
+		}
+		send(batch);
+	}
+
+	private void send(Batch batch) {
+		JSONObject exchangeTokens = new JSONObject();
+		batch.callers.forEach((exchange, tokens) -> exchangeTokens.put(exchange, new JSONArray(tokens.keySet())));
+		JSONObject params = new JSONObject();
+		params.put("mode", mode);
+		params.put("exchangeTokens", exchangeTokens);
+
+		CompletableFuture<JSONObject> response;
+		try {
+			response = smartConnectAsync.marketData(params);
+		} catch (RuntimeException e) {
+			batch.failAll(e);
+			return;
+		}
+		response.whenComplete((data, error) -> {
+			if (error != null) {
+				batch.failAll(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+			} else {
+				batch.complete(data);
+			}
+		});
+	}
+
+	private static final class Batch {
+		private final Map<String, Map<String, List<CompletableFuture<JSONObject>>>> callers = new LinkedHashMap<>();
+		private int size;
+		private ScheduledFuture<?> timeout;
+
+		private void add(String exchange, String symbolToken, CompletableFuture<JSONObject> future) {
+			Map<String, List<CompletableFuture<JSONObject>>> tokens = callers.computeIfAbsent(exchange,
+					key -> new LinkedHashMap<>());
+			List<CompletableFuture<JSONObject>> futures = tokens.get(symbolToken);
+			if (futures == null) {
+				futures = new ArrayList<>(1);
+				tokens.put(symbolToken, futures);
+				size++;
+			}
+			futures.add(future);
+		}
+
+		private void complete(JSONObject data) {
+			JSONArray fetched = data == null ? null : data.optJSONArray("fetched");
+			if (fetched != null) {
+				for (int i = 0; i < fetched.length(); i++) {
+					JSONObject quote = fetched.getJSONObject(i);
+					take(quote.optString("exchange"), quote.optString("symbolToken"))
+							.forEach(future -> future.complete(quote));
+				}
+			}
+			JSONArray unfetched = data == null ? null : data.optJSONArray("unfetched");
+			if (unfetched != null) {
+				for (int i = 0; i < unfetched.length(); i++) {
+					JSONObject entry = unfetched.getJSONObject(i);
+					SmartAPIException error = new SmartAPIException(entry.optString("message"),
+							entry.optString("errorCode"));
+					take(entry.optString("exchange"), entry.optString("symbolToken"))
+							.forEach(future -> future.completeExceptionally(error));
+				}
+			}
+			callers.forEach((exchange, tokens) -> tokens.forEach((symbolToken, futures) -> {
+				SmartAPIException error = new SmartAPIException(
+						"No market data returned for " + exchange + ":" + symbolToken);
+				futures.forEach(future -> future.completeExceptionally(error));
+			}));
+		}
+
+		private List<CompletableFuture<JSONObject>> take(String exchange, String symbolToken) {
+			Map<String, List<CompletableFuture<JSONObject>>> tokens = callers.get(exchange);
+			List<CompletableFuture<JSONObject>> futures = tokens == null ? null : tokens.remove(symbolToken);
+			return futures == null ? new ArrayList<>(0) : futures;
+		}
+
+		private void failAll(Throwable error) {
+			log.error("market data batch of {} tokens failed {}", size, error.toString());
+			callers.values().forEach(tokens -> tokens.values()
+					.forEach(futures -> futures.forEach(future -> future.completeExceptionally(error))));
+		}
+	}
+}
@@ -1,7 +1,11 @@
 package com.angelbroking.smartapi;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Generates end-points for all smart api calls.
@@ -12,6 +16,16 @@ import java.util.Map;
 
 public class Routes {
 
+	/**
+	 * Keys of the routes which only read data, so sending a request twice has the
+	 * same effect as sending it once.
+	 */
+	public static final Set<String> IDEMPOTENT_READS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"api.user.profile", "api.order.book", "api.order.trade.book", "api.order.rms.data",
+			"api.order.rms.holding", "api.order.rms.AllHolding", "api.order.rms.position", "api.ltp.data",
+			"api.gtt.details", "api.gtt.list", "api.candle.data", "api.search.script.data", "api.market.data",
+			"api.margin.batch", "api.individual.order")));
+
 	public Map<String, String> routes;
 	private static String _rootUrl = "https://apiconnect.angelbroking.com";
 	private static String _loginUrl = _rootUrl+"/rest/auth/angelbroking/user/v1/loginByPassword";
@@ -58,6 +72,41 @@ public class Routes {
 		return _rootUrl + routes.get(key);
 	}
 
+	/**
+	 * Returns the key of the route a url belongs to. Routes ending with a path
+	 * separator, such as api.individual.order, match any url they prefix.
+	 *
+	 * @param url is the full url of a request.
+	 * @return key of the route, or null if the url is not a Smart API route.
+	 */
+	public String keyOf(String url) {
+		if (url == null || !url.startsWith(_rootUrl)) {
+			return null;
+		}
+		String path = url.substring(_rootUrl.length());
+		int query = path.indexOf('?');
+		if (query >= 0) {
+			path = path.substring(0, query);
+		}
+		return keyOfPath(path);
+	}
+
+	/**
+	 * Returns the key of the route a url path belongs to, regardless of the host.
+	 *
+	 * @param path is the path of a request, without query.
+	 * @return key of the route, or null if the path is not a Smart API route.
+	 */
+	public String keyOfPath(String path) {
+		for (Map.Entry<String, String> route : routes.entrySet()) {
+			String routePath = route.getValue();
+			if (routePath.equals(path) || (routePath.endsWith("/") && path.startsWith(routePath))) {
+				return route.getKey();
+			}
+		}
+		return null;
+	}
+
 	public String getLoginUrl() {
 		return _loginUrl;
 	}
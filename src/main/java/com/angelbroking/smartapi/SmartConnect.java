@@ -1,9 +1,24 @@
 package com.angelbroking.smartapi;
 
+import com.angelbroking.smartapi.cache.ResponseCache;
+import com.angelbroking.smartapi.gtt.GttRuleStore;
+import com.angelbroking.smartapi.historical.CandleSeries;
+import com.angelbroking.smartapi.http.ExecutionMode;
+import com.angelbroking.smartapi.http.HedgePolicy;
+import com.angelbroking.smartapi.http.RequestScheduler;
+import com.angelbroking.smartapi.http.RetryPolicy;
 import com.angelbroking.smartapi.http.SessionExpiryHook;
+import com.angelbroking.smartapi.http.SmartAPIClientConfig;
 import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.http.TokenGate;
 import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
 import com.angelbroking.smartapi.models.*;
+import com.angelbroking.smartapi.orders.BatchOrderResult;
+import com.angelbroking.smartapi.orders.BatchOrders;
+import com.angelbroking.smartapi.orders.OrderEntry;
+import com.angelbroking.smartapi.orders.OrderSequencing;
+import com.angelbroking.smartapi.risk.PreTradeRiskEngine;
+import com.google.gson.reflect.TypeToken;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.json.JSONArray;
@@ -13,8 +28,13 @@ import org.json.JSONObject;
 
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.net.Proxy;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.angelbroking.smartapi.utils.Constants.IO_EXCEPTION_ERROR_MSG;
 import static com.angelbroking.smartapi.utils.Constants.IO_EXCEPTION_OCCURRED;
@@ -29,11 +49,27 @@ public class SmartConnect {
 	public static boolean ENABLE_LOGGING = false;
 	private Proxy proxy = null;
 	private String apiKey;
-	private String accessToken;
-	private String refreshToken;
+	private volatile String accessToken;
+	private volatile String refreshToken;
 	private Routes routes = new Routes();
 	private String userId;
 	private SmartAPIRequestHandler smartAPIRequestHandler;
+	private SmartAPIClientConfig clientConfig;
+	private RequestScheduler requestScheduler;
+	private RetryPolicy retryPolicy;
+	private HedgePolicy hedgePolicy;
+	private volatile ResponseCache responseCache;
+	private TokenGate tokenGate;
+	private volatile OrderEntry orderEntry;
+	private volatile PreTradeRiskEngine riskEngine;
+	private volatile GttRuleStore gttRuleStore;
+	private final Lock requestHandlerLock = new ReentrantLock();
+
+	private static final Type ORDER_LIST = new TypeToken<List<Order>>() {}.getType();
+	private static final Type TRADE_LIST = new TypeToken<List<Trade>>() {}.getType();
+	private static final Type POSITION_LIST = new TypeToken<List<Position>>() {}.getType();
+	private static final Type HOLDING_LIST = new TypeToken<List<Holding>>() {}.getType();
+	private static final Type CANDLE_LIST = new TypeToken<List<Candle>>() {}.getType();
 
 	public SmartConnect() {
 
@@ -88,6 +124,13 @@ public class SmartConnect {
 			throw new NullPointerException();
 	}
 
+	/**
+	 * Returns true if an access token is set, e.g. after generateSession.
+	 */
+	public boolean hasAccessToken() {
+		return accessToken != null;
+	}
+
 	/**
 	 * Returns userId.
 	 *
@@ -132,6 +175,10 @@ public class SmartConnect {
 	 *                    and api secret.
 	 */
 	public void setAccessToken(String accessToken) {
+		ResponseCache cache = responseCache;
+		if (cache != null && accessToken != null && !accessToken.equals(this.accessToken)) {
+			cache.invalidateAll();
+		}
 		this.accessToken = accessToken;
 	}
 
@@ -145,6 +192,13 @@ public class SmartConnect {
 		this.refreshToken = refreshToken;
 	}
 
+	/**
+	 * Returns the refresh token, null if it is not set.
+	 */
+	public String getRefreshToken() {
+		return refreshToken;
+	}
+
 	/**
 	 * Retrieves login url
 	 *
@@ -155,6 +209,238 @@ public class SmartConnect {
 		return baseUrl;
 	}
 
+	/**
+	 * Returns the request handler used by this session. A handler is created if no
+	 * session has been generated yet.
+	 *
+	 * @return SmartAPIRequestHandler which executes all the http requests.
+	 */
+	public SmartAPIRequestHandler getSmartAPIRequestHandler() {
+		requestHandlerLock.lock();
+		try {
+			if (smartAPIRequestHandler == null) {
+				smartAPIRequestHandler = newRequestHandler();
+			}
+			return smartAPIRequestHandler;
+		} finally {
+			requestHandlerLock.unlock();
+		}
+	}
+
+	/**
+	 * Selects how http calls are executed.
+	 *
+	 * @param executionMode is PLATFORM_THREADS (default) or VIRTUAL_THREADS.
+	 */
+	public void setExecutionMode(ExecutionMode executionMode) {
+		setClientConfig(getClientConfig().toBuilder().executionMode(executionMode).build());
+	}
+
+	/**
+	 * Sets the timeouts, connection pool, protocols and concurrency limits of the
+	 * http client. Sessions with equal configs share one client.
+	 *
+	 * @param clientConfig is the config of the http client.
+	 */
+	public void setClientConfig(SmartAPIClientConfig clientConfig) {
+		if (clientConfig == null) {
+			throw new IllegalArgumentException("clientConfig should not be null");
+		}
+		requestHandlerLock.lock();
+		try {
+			this.clientConfig = clientConfig;
+			if (smartAPIRequestHandler != null) {
+				smartAPIRequestHandler.setClientConfig(clientConfig);
+			}
+		} finally {
+			requestHandlerLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the config of the http client, by default
+	 * {@link SmartAPIClientConfig#defaults()} with the proxy of this session.
+	 */
+	public SmartAPIClientConfig getClientConfig() {
+		requestHandlerLock.lock();
+		try {
+			if (clientConfig == null) {
+				clientConfig = SmartAPIClientConfig.builder().proxy(proxy).build();
+			}
+			return clientConfig;
+		} finally {
+			requestHandlerLock.unlock();
+		}
+	}
+
+	/**
+	 * Opens connections to the Smart API host ahead of the first request, e.g. at
+	 * startup, so the first order does not wait for the TLS handshake.
+	 *
+	 * @param connections is the number of connections to open; 1 is enough with
+	 *                    HTTP/2.
+	 * @return future which completes when the connections are established.
+	 */
+	public CompletableFuture<Void> prewarm(int connections) {
+		return getSmartAPIRequestHandler().prewarm(connections);
+	}
+
+	/**
+	 * Sets the client side rate limiter applied to all requests of this session.
+	 *
+	 * @param requestScheduler is the rate limiter, e.g.
+	 *                         RequestScheduler.withDefaultLimits(), or null to
+	 *                         disable throttling.
+	 */
+	public void setRequestScheduler(RequestScheduler requestScheduler) {
+		this.requestScheduler = requestScheduler;
+		if (smartAPIRequestHandler != null) {
+			smartAPIRequestHandler.setRequestScheduler(requestScheduler);
+		}
+	}
+
+	/**
+	 * Sets the retry policy of idempotent reads such as getLTP, getPosition,
+	 * getRMS and getHolding. Order placement and other mutating calls are never
+	 * retried.
+	 *
+	 * @param retryPolicy is the policy, e.g. RetryPolicy.defaults(), or null to
+	 *                    send reads once.
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+		if (smartAPIRequestHandler != null) {
+			smartAPIRequestHandler.setRetryPolicy(retryPolicy);
+		}
+	}
+
+	/**
+	 * Sets the hedge policy of idempotent reads: a duplicate request is sent when
+	 * a read is slower than the configured percentile, and the first response
+	 * wins. Order placement and other mutating calls are never hedged.
+	 *
+	 * @param hedgePolicy is the policy, e.g. HedgePolicy.defaults(), or null to
+	 *                    disable hedging.
+	 */
+	public void setHedgePolicy(HedgePolicy hedgePolicy) {
+		this.hedgePolicy = hedgePolicy;
+		if (smartAPIRequestHandler != null) {
+			smartAPIRequestHandler.setHedgePolicy(hedgePolicy);
+		}
+	}
+
+	/**
+	 * Sets the read-through cache of slowly changing data such as getProfile,
+	 * getRMS, getHolding, getAllHolding and gttRuleList. Orders, position
+	 * conversions and GTT calls made through this session invalidate the affected
+	 * entries; order updates received from elsewhere should call
+	 * {@link #invalidateOrderData()}. JSON responses are copied for every caller,
+	 * while typed responses such as the User of getProfile are shared and must be
+	 * treated as read-only.
+	 *
+	 * @param responseCache is the cache, e.g. ResponseCache.withDefaultTtls(), or
+	 *                      null to send every read.
+	 */
+	public void setResponseCache(ResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	public ResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	/**
+	 * Sets the pre-trade risk checks run before every order placement and
+	 * modification of this session, including those of its OrderEntry. Orders
+	 * failing a check are not sent.
+	 *
+	 * @param riskEngine is the engine, or null to send orders unchecked.
+	 */
+	public void setRiskEngine(PreTradeRiskEngine riskEngine) {
+		this.riskEngine = riskEngine;
+	}
+
+	public PreTradeRiskEngine getRiskEngine() {
+		return riskEngine;
+	}
+
+	/**
+	 * Sets the local mirror of the GTT rules which is updated after every GTT
+	 * rule created, modified or cancelled through this session.
+	 *
+	 * @param gttRuleStore is the store, or null to not update one.
+	 */
+	public void setGttRuleStore(GttRuleStore gttRuleStore) {
+		this.gttRuleStore = gttRuleStore;
+	}
+
+	public GttRuleStore getGttRuleStore() {
+		return gttRuleStore;
+	}
+
+	/**
+	 * Drops the cached funds, holdings, positions and order and trade books, e.g.
+	 * on an order update.
+	 */
+	public void invalidateOrderData() {
+		ResponseCache cache = responseCache;
+		if (cache != null) {
+			cache.invalidateOrderData();
+		}
+	}
+
+	private void invalidateGttRules() {
+		ResponseCache cache = responseCache;
+		if (cache != null) {
+			cache.invalidateGttRules();
+		}
+	}
+
+	private void gttRuleChanged(Integer id) {
+		GttRuleStore store = gttRuleStore;
+		if (store != null && id != null) {
+			store.refreshRule(id).exceptionally(e -> {
+				log.warn("failed to refresh gtt rule {} {}", id, e.toString());
+				return null;
+			});
+		}
+	}
+
+	private <T> T cached(String routeKey, String key, ResponseCache.Loader<T> loader)
+			throws SmartAPIException, IOException {
+		ResponseCache cache = responseCache;
+		return cache == null ? loader.load() : cache.get(routeKey, key, loader);
+	}
+
+	/**
+	 * Sets the gate supplying the access token of every request, see
+	 * {@link com.angelbroking.smartapi.session.SessionManager}, which sets itself
+	 * when started.
+	 *
+	 * @param tokenGate is the gate, or null to send requests with the access token
+	 *                  of this session as it was when they were built.
+	 */
+	public void setTokenGate(TokenGate tokenGate) {
+		requestHandlerLock.lock();
+		try {
+			this.tokenGate = tokenGate;
+			if (smartAPIRequestHandler != null) {
+				smartAPIRequestHandler.setTokenGate(tokenGate);
+			}
+		} finally {
+			requestHandlerLock.unlock();
+		}
+	}
+
+	private SmartAPIRequestHandler newRequestHandler() {
+		SmartAPIRequestHandler handler = SmartAPIRequestHandler.create(getClientConfig());
+		handler.setRequestScheduler(requestScheduler);
+		handler.setRetryPolicy(retryPolicy);
+		handler.setHedgePolicy(hedgePolicy);
+		handler.setTokenGate(tokenGate);
+		return handler;
+	}
+
 	/**
 	 * Do the token exchange with the `request_token` obtained after the login flow,
 	 * and retrieve the `access_token` required for all subsequent requests.
@@ -166,7 +452,7 @@ public class SmartConnect {
 	 */
 	public User generateSession(String clientCode, String password, String totp) {
 		try {
-			smartAPIRequestHandler = new SmartAPIRequestHandler(proxy);
+			getSmartAPIRequestHandler();
 
 			// Create JSON params object needed to be sent to api.
 			JSONObject params = new JSONObject();
@@ -220,6 +506,7 @@ public class SmartConnect {
 			tokenSet.setUserId(userId);
 			tokenSet.setAccessToken(accessToken);
 			tokenSet.setRefreshToken(refreshToken);
+			tokenSet.setFeedToken(response.getJSONObject("data").optString("feedToken", null));
 
 			return tokenSet;
 		} catch (Exception | SmartAPIException e) {
@@ -251,8 +538,8 @@ public class SmartConnect {
 	public User getProfile() {
 		try {
 			String url = routes.get("api.user.profile");
-			User user = new User().parseResponse(smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken));
-			return user;
+			return cached("api.user.profile", "",
+					() -> smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken, User.class));
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
@@ -272,39 +559,19 @@ public class SmartConnect {
 
 		try {
 			String url = routes.get("api.order.place");
-
-			JSONObject params = new JSONObject();
-
-			if (orderParams.exchange != null)
-				params.put("exchange", orderParams.exchange);
-			if (orderParams.tradingsymbol != null)
-				params.put("tradingsymbol", orderParams.tradingsymbol);
-			if (orderParams.transactiontype != null)
-				params.put("transactiontype", orderParams.transactiontype);
-			if (orderParams.quantity != null)
-				params.put("quantity", orderParams.quantity);
-			if (orderParams.price != null)
-				params.put("price", orderParams.price);
-			if (orderParams.producttype != null)
-				params.put("producttype", orderParams.producttype);
-			if (orderParams.ordertype != null)
-				params.put("ordertype", orderParams.ordertype);
-			if (orderParams.duration != null)
-				params.put("duration", orderParams.duration);
-			if (orderParams.price != null)
-				params.put("price", orderParams.price);
-			if (orderParams.symboltoken != null)
-				params.put("symboltoken", orderParams.symboltoken);
-			if (orderParams.squareoff != null)
-				params.put("squareoff", orderParams.squareoff);
-			if (orderParams.stoploss != null)
-				params.put("stoploss", orderParams.stoploss);
-			if (orderParams.triggerprice != null)
-				params.put("triggerprice", orderParams.triggerprice);
-
-			params.put("variety", variety);
-
-			JSONObject jsonObject = smartAPIRequestHandler.postRequest(this.apiKey, url, params, accessToken);
+			PreTradeRiskEngine engine = riskEngine;
+			if (engine != null) {
+				engine.enforce(orderParams);
+			}
+			JSONObject params = placeOrderParams(orderParams, variety);
+
+			JSONObject jsonObject;
+			try {
+				jsonObject = smartAPIRequestHandler.postRequest(this.apiKey, url, params, accessToken);
+			} finally {
+				// only orders that were sent can change the order data, whatever their outcome
+				invalidateOrderData();
+			}
 			Order order = new Order();
 			order.orderId = jsonObject.getJSONObject("data").getString("orderid");
 			log.info("order : {}",order);
@@ -328,30 +595,19 @@ public class SmartConnect {
 	public Order modifyOrder(String orderId, OrderParams orderParams, String variety) {
 		try {
 			String url = routes.get("api.order.modify");
-
-			JSONObject params = new JSONObject();
-
-			if (orderParams.exchange != null)
-				params.put("exchange", orderParams.exchange);
-			if (orderParams.tradingsymbol != null)
-				params.put("tradingsymbol", orderParams.tradingsymbol);
-			if (orderParams.symboltoken != null)
-				params.put("symboltoken", orderParams.symboltoken);
-			if (orderParams.quantity != null)
-				params.put("quantity", orderParams.quantity);
-			if (orderParams.price != null)
-				params.put("price", orderParams.price);
-			if (orderParams.producttype != null)
-				params.put("producttype", orderParams.producttype);
-			if (orderParams.ordertype != null)
-				params.put("ordertype", orderParams.ordertype);
-			if (orderParams.duration != null)
-				params.put("duration", orderParams.duration);
-
-			params.put("variety", variety);
-			params.put("orderid", orderId);
-
-			JSONObject jsonObject = smartAPIRequestHandler.postRequest(this.apiKey, url, params, accessToken);
+			PreTradeRiskEngine engine = riskEngine;
+			if (engine != null) {
+				engine.enforceModify(orderParams);
+			}
+			JSONObject params = modifyOrderParams(orderId, orderParams, variety);
+
+			JSONObject jsonObject;
+			try {
+				jsonObject = smartAPIRequestHandler.postRequest(this.apiKey, url, params, accessToken);
+			} finally {
+				// only orders that were sent can change the order data, whatever their outcome
+				invalidateOrderData();
+			}
 			Order order = new Order();
 			order.orderId = jsonObject.getJSONObject("data").getString("orderid");
 			return order;
@@ -373,9 +629,7 @@ public class SmartConnect {
 	public Order cancelOrder(String orderId, String variety) {
 		try {
 			String url = routes.get("api.order.cancel");
-			JSONObject params = new JSONObject();
-			params.put("variety", variety);
-			params.put("orderid", orderId);
+			JSONObject params = cancelOrderParams(orderId, variety);
 
 			JSONObject jsonObject = smartAPIRequestHandler.postRequest(this.apiKey, url, params, accessToken);
 			Order order = new Order();
@@ -384,6 +638,82 @@ public class SmartConnect {
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
+		} finally {
+			invalidateOrderData();
+		}
+	}
+
+	/**
+	 * Places orders concurrently, keeping the order of the orders of each
+	 * instrument.
+	 *
+	 * @param orders  are the Order params.
+	 * @param variety variety="regular". Order variety can be bo, co, amo,
+	 *                regular.
+	 * @return results, one per order in the order of the list.
+	 */
+	public List<BatchOrderResult> placeOrders(List<OrderParams> orders, String variety) {
+		return placeOrders(orders, variety, OrderSequencing.PER_SYMBOL);
+	}
+
+	/**
+	 * Places orders concurrently.
+	 *
+	 * @param orders     are the Order params.
+	 * @param variety    variety="regular". Order variety can be bo, co, amo,
+	 *                   regular.
+	 * @param sequencing is the order in which the orders are sent.
+	 * @return results, one per order in the order of the list.
+	 * @see BatchOrders
+	 */
+	public List<BatchOrderResult> placeOrders(List<OrderParams> orders, String variety, OrderSequencing sequencing) {
+		return new BatchOrders(getOrderEntry(), sequencing, BatchOrders.DEFAULT_MAX_IN_FLIGHT)
+				.placeOrders(orders, variety).join();
+	}
+
+	/**
+	 * Modifies open orders concurrently, keeping the order of the orders of each
+	 * instrument.
+	 *
+	 * @param orders  are the Order params by order id, in the iteration order of
+	 *                the map.
+	 * @param variety variety="regular". Order variety can be bo, co, amo,
+	 *                regular.
+	 * @return results, one per order in the iteration order of the map.
+	 */
+	public List<BatchOrderResult> modifyOrders(Map<String, OrderParams> orders, String variety) {
+		return new BatchOrders(getOrderEntry()).modifyOrders(orders, variety).join();
+	}
+
+	/**
+	 * Cancels orders concurrently.
+	 *
+	 * @param orderIds are the ids of the orders to be cancelled.
+	 * @param variety  variety="regular". Order variety can be bo, co, amo,
+	 *                 regular.
+	 * @return results, one per order id in the order of the list.
+	 */
+	public List<BatchOrderResult> cancelOrders(List<String> orderIds, String variety) {
+		return new BatchOrders(getOrderEntry()).cancelOrders(orderIds, variety).join();
+	}
+
+	/**
+	 * Returns the order entry path of this session, which sends orders from
+	 * prebuilt request templates and throws failures to the caller.
+	 */
+	public OrderEntry getOrderEntry() {
+		OrderEntry current = orderEntry;
+		if (current != null) {
+			return current;
+		}
+		requestHandlerLock.lock();
+		try {
+			if (orderEntry == null) {
+				orderEntry = new OrderEntry(this);
+			}
+			return orderEntry;
+		} finally {
+			requestHandlerLock.unlock();
 		}
 	}
 
@@ -462,8 +792,8 @@ public class SmartConnect {
 	public JSONObject getRMS() {
 		try {
 			String url = routes.get("api.order.rms.data");
-			JSONObject response = smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken);
-			return response.getJSONObject("data");
+			return cached("api.order.rms.data", "",
+					() -> smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken).getJSONObject("data"));
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
@@ -479,8 +809,8 @@ public class SmartConnect {
 	public JSONObject getHolding() {
 		try {
 			String url = routes.get("api.order.rms.holding");
-			JSONObject response = smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken);
-			return response;
+			return cached("api.order.rms.holding", "",
+					() -> smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken));
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
@@ -497,7 +827,8 @@ public class SmartConnect {
 	public JSONObject getAllHolding() throws SmartAPIException, IOException {
 		try {
 			String url = routes.get("api.order.rms.AllHolding");
-			return smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken);
+			return cached("api.order.rms.AllHolding", "",
+					() -> smartAPIRequestHandler.getRequest(this.apiKey, url, accessToken));
 		} catch (SmartAPIException ex) {
 			log.error("{} while getting all holdings {}", SMART_API_EXCEPTION_OCCURRED, ex.toString());
 			throw new SmartAPIException(String.format("%s in getting all holdings %s", SMART_API_EXCEPTION_ERROR_MSG, ex));
@@ -544,6 +875,8 @@ public class SmartConnect {
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
+		} finally {
+			invalidateOrderData();
 		}
 	}
 
@@ -586,10 +919,13 @@ public class SmartConnect {
 			Gtt gtt = new Gtt();
 			gtt.id = jsonObject.getJSONObject("data").getInt("id");
 			log.info("gtt : {}",gtt);
+			gttRuleChanged(gtt.id);
 			return gtt;
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
+		} finally {
+			invalidateGttRules();
 		}
 
 	}
@@ -633,6 +969,9 @@ public class SmartConnect {
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
+		} finally {
+			invalidateGttRules();
+			gttRuleChanged(id);
 		}
 
 	}
@@ -660,6 +999,9 @@ public class SmartConnect {
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
+		} finally {
+			invalidateGttRules();
+			gttRuleChanged(id);
 		}
 	}
 
@@ -704,9 +1046,11 @@ public class SmartConnect {
 			params.put("count", count);
 
 			String url = routes.get("api.gtt.list");
-			JSONObject response = smartAPIRequestHandler.postRequest(this.apiKey, url, params, accessToken);
-			log.info("response : {}",response);
-			return response.getJSONArray("data");
+			return cached("api.gtt.list", status + "|" + page + "|" + count, () -> {
+				JSONObject response = smartAPIRequestHandler.postRequest(this.apiKey, url, params, accessToken);
+				log.info("response : {}",response);
+				return response.getJSONArray("data");
+			});
 		} catch (Exception | SmartAPIException e) {
 			log.error(e.getMessage());
 			return null;
@@ -732,6 +1076,108 @@ public class SmartConnect {
 		}
 	}
 
+	/**
+	 * Retrieves the order book as typed orders. The response is decoded while it
+	 * is read, without an intermediate JSONObject.
+	 *
+	 * @return List of Order, null if the order book is empty.
+	 * @throws SmartAPIException is thrown for all Smart API trade related errors.
+	 * @throws IOException       is thrown when there is connection error.
+	 */
+	public List<Order> getOrderBook() throws SmartAPIException, IOException {
+		return getData("api.order.book", ORDER_LIST, "getting order book");
+	}
+
+	/**
+	 * Retrieves the trades executed today as typed trades.
+	 *
+	 * @return List of Trade, null if there are no trades.
+	 * @throws SmartAPIException is thrown for all Smart API trade related errors.
+	 * @throws IOException       is thrown when there is connection error.
+	 */
+	public List<Trade> getTradeBook() throws SmartAPIException, IOException {
+		return getData("api.order.trade.book", TRADE_LIST, "getting trade book");
+	}
+
+	/**
+	 * Retrieves the net and day positions as typed positions.
+	 *
+	 * @return List of Position, null if there are no positions.
+	 * @throws SmartAPIException is thrown for all Smart API trade related errors.
+	 * @throws IOException       is thrown when there is connection error.
+	 */
+	public List<Position> getPositions() throws SmartAPIException, IOException {
+		return getData("api.order.rms.position", POSITION_LIST, "getting positions");
+	}
+
+	/**
+	 * Retrieves the holdings as typed holdings.
+	 *
+	 * @return List of Holding, null if there are no holdings.
+	 * @throws SmartAPIException is thrown for all Smart API trade related errors.
+	 * @throws IOException       is thrown when there is connection error.
+	 */
+	public List<Holding> getHoldings() throws SmartAPIException, IOException {
+		return getData("api.order.rms.holding", HOLDING_LIST, "getting holdings");
+	}
+
+	/**
+	 * Get Historic Data as typed candles.
+	 *
+	 * @param params is historic data params.
+	 * @return List of Candle, null if there is no data for the range.
+	 * @throws SmartAPIException is thrown for all Smart API trade related errors.
+	 * @throws IOException       is thrown when there is connection error.
+	 */
+	public List<Candle> getCandles(JSONObject params) throws SmartAPIException, IOException {
+		try {
+			return getSmartAPIRequestHandler().postRequest(this.apiKey, routes.get("api.candle.data"), params,
+					accessToken, CANDLE_LIST);
+		} catch (SmartAPIException ex) {
+			log.error("{} while getting candles {}", SMART_API_EXCEPTION_OCCURRED, ex.toString());
+			throw ex;
+		} catch (IOException ex) {
+			log.error("{} while getting candles {}", IO_EXCEPTION_OCCURRED, ex.getMessage());
+			throw ex;
+		}
+	}
+
+	/**
+	 * Get Historic Data as primitive columns, decoded while the response is read.
+	 *
+	 * @param params is historic data params.
+	 * @return CandleSeries of the range, empty if there is no data for the range.
+	 * @throws SmartAPIException is thrown for all Smart API trade related errors.
+	 * @throws IOException       is thrown when there is connection error.
+	 */
+	public CandleSeries getCandleSeries(JSONObject params) throws SmartAPIException, IOException {
+		try {
+			CandleSeries series = getSmartAPIRequestHandler().postRequest(this.apiKey, routes.get("api.candle.data"),
+					params, accessToken, CandleSeries.class);
+			return series == null ? CandleSeries.empty() : series;
+		} catch (SmartAPIException ex) {
+			log.error("{} while getting candle series {}", SMART_API_EXCEPTION_OCCURRED, ex.toString());
+			throw ex;
+		} catch (IOException ex) {
+			log.error("{} while getting candle series {}", IO_EXCEPTION_OCCURRED, ex.getMessage());
+			throw ex;
+		}
+	}
+
+	private <T> T getData(String routeKey, Type dataType, String action) throws SmartAPIException, IOException {
+		try {
+			// typed responses are kept apart from the JSONObject ones of the same route
+			return cached(routeKey, "typed",
+					() -> getSmartAPIRequestHandler().getRequest(this.apiKey, routes.get(routeKey), accessToken, dataType));
+		} catch (SmartAPIException ex) {
+			log.error("{} while {} {}", SMART_API_EXCEPTION_OCCURRED, action, ex.toString());
+			throw ex;
+		} catch (IOException ex) {
+			log.error("{} while {} {}", IO_EXCEPTION_OCCURRED, action, ex.getMessage());
+			throw ex;
+		}
+	}
+
 	/**
 
 	 * Get Search Script Data.
@@ -808,21 +1254,7 @@ public class SmartConnect {
 	 */
 	public JSONObject getMarginDetails(List<MarginParams> marginParams) throws IOException, SmartAPIException {
 		try {
-			JSONArray positionsArray = new JSONArray();
-
-			for (MarginParams params : marginParams) {
-				JSONObject position = new JSONObject();
-				position.put("exchange", params.exchange);
-				position.put("qty", params.quantity);
-				position.put("price", params.price);
-				position.put("productType", params.productType);
-				position.put("token", params.token);
-				position.put("tradeType", params.tradeType);
-				positionsArray.put(position);
-			}
-
-			JSONObject requestBody = new JSONObject();
-			requestBody.put("positions", positionsArray);
+			JSONObject requestBody = marginParams(marginParams);
 
 			String url = routes.get("api.margin.batch");
 			JSONObject response = smartAPIRequestHandler.postRequest(this.apiKey, url, requestBody, accessToken);
@@ -860,5 +1292,115 @@ public class SmartConnect {
 		   throw new JSONException(String.format("%s  while fetching margin data %s", JSON_EXCEPTION_ERROR_MSG, ex.getMessage()));
 	   }
 	}
-}
 
+	/**
+	 * Builds the request body for placing an order.
+	 *
+	 * @param orderParams is Order params.
+	 * @param variety     is the order variety.
+	 * @return JSONObject to be sent to api.order.place.
+	 */
+	static JSONObject placeOrderParams(OrderParams orderParams, String variety) {
+		JSONObject params = new JSONObject();
+
+		if (orderParams.exchange != null)
+			params.put("exchange", orderParams.exchange);
+		if (orderParams.tradingsymbol != null)
+			params.put("tradingsymbol", orderParams.tradingsymbol);
+		if (orderParams.transactiontype != null)
+			params.put("transactiontype", orderParams.transactiontype);
+		if (orderParams.quantity != null)
+			params.put("quantity", orderParams.quantity);
+		if (orderParams.price != null)
+			params.put("price", orderParams.price);
+		if (orderParams.producttype != null)
+			params.put("producttype", orderParams.producttype);
+		if (orderParams.ordertype != null)
+			params.put("ordertype", orderParams.ordertype);
+		if (orderParams.duration != null)
+			params.put("duration", orderParams.duration);
+		if (orderParams.symboltoken != null)
+			params.put("symboltoken", orderParams.symboltoken);
+		if (orderParams.squareoff != null)
+			params.put("squareoff", orderParams.squareoff);
+		if (orderParams.stoploss != null)
+			params.put("stoploss", orderParams.stoploss);
+		if (orderParams.triggerprice != null)
+			params.put("triggerprice", orderParams.triggerprice);
+
+		params.put("variety", variety);
+		return params;
+	}
+
+	/**
+	 * Builds the request body for modifying an order.
+	 *
+	 * @param orderId     order id of the order being modified.
+	 * @param orderParams is Order params.
+	 * @param variety     is the order variety.
+	 * @return JSONObject to be sent to api.order.modify.
+	 */
+	static JSONObject modifyOrderParams(String orderId, OrderParams orderParams, String variety) {
+		JSONObject params = new JSONObject();
+
+		if (orderParams.exchange != null)
+			params.put("exchange", orderParams.exchange);
+		if (orderParams.tradingsymbol != null)
+			params.put("tradingsymbol", orderParams.tradingsymbol);
+		if (orderParams.symboltoken != null)
+			params.put("symboltoken", orderParams.symboltoken);
+		if (orderParams.quantity != null)
+			params.put("quantity", orderParams.quantity);
+		if (orderParams.price != null)
+			params.put("price", orderParams.price);
+		if (orderParams.producttype != null)
+			params.put("producttype", orderParams.producttype);
+		if (orderParams.ordertype != null)
+			params.put("ordertype", orderParams.ordertype);
+		if (orderParams.duration != null)
+			params.put("duration", orderParams.duration);
+
+		params.put("variety", variety);
+		params.put("orderid", orderId);
+		return params;
+	}
+
+	/**
+	 * Builds the request body for cancelling an order.
+	 *
+	 * @param orderId order id of the order to be cancelled.
+	 * @param variety is the order variety.
+	 * @return JSONObject to be sent to api.order.cancel.
+	 */
+	static JSONObject cancelOrderParams(String orderId, String variety) {
+		JSONObject params = new JSONObject();
+		params.put("variety", variety);
+		params.put("orderid", orderId);
+		return params;
+	}
+
+	/**
+	 * Builds the request body for a margin calculation.
+	 *
+	 * @param marginParams is margin data params.
+	 * @return JSONObject to be sent to api.margin.batch.
+	 */
+	static JSONObject marginParams(List<MarginParams> marginParams) {
+		JSONArray positionsArray = new JSONArray();
+
+		for (MarginParams params : marginParams) {
+			JSONObject position = new JSONObject();
+			position.put("exchange", params.exchange);
+			position.put("qty", params.quantity);
+			position.put("price", params.price);
+			position.put("productType", params.productType);
+			position.put("token", params.token);
+			position.put("tradeType", params.tradeType);
+			positionsArray.put(position);
+		}
+
+		JSONObject requestBody = new JSONObject();
+		requestBody.put("positions", positionsArray);
+		return requestBody;
+	}
+}
@@ -0,0 +1,298 @@
+package com.angelbroking.smartapi;
+
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.http.exceptions.RiskException;
+import com.angelbroking.smartapi.models.MarginParams;
+import com.angelbroking.smartapi.models.Order;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.models.User;
+import com.angelbroking.smartapi.risk.PreTradeRiskEngine;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link SmartConnect}.
+ *
+ * Every call is handed to OkHttp's dispatcher and returns immediately with a
+ * {@link CompletableFuture}, so many requests can be in flight without a thread
+ * per request. Unlike {@link SmartConnect}, failures are not swallowed: the
+ * future completes exceptionally with the IOException, JSONException or
+ * SmartAPIException raised for the call.
+ *
+ * Like {@link SmartConnect}, orders are checked by the risk engine of the
+ * session before they are sent, and orders and position conversions invalidate
+ * the cached order data of the session once they complete.
+ */
+public class SmartConnectAsync {
+
+	private final SmartConnect smartConnect;
+	private final Routes routes = new Routes();
+
+	/**
+	 * Initializes the async facade over an existing session.
+	 *
+	 * @param smartConnect is the session whose api key, access token and request
+	 *                     handler are used for all calls.
+	 */
+	public SmartConnectAsync(SmartConnect smartConnect) {
+		if (smartConnect == null) {
+			throw new IllegalArgumentException("smartConnect should not be null");
+		}
+		this.smartConnect = smartConnect;
+	}
+
+	/**
+	 * Get the profile details of the user.
+	 *
+	 * @return future of User which contains profile related data.
+	 */
+	public CompletableFuture<User> getProfile() {
+		return get("api.user.profile").thenApply(response -> new User().parseResponse(response));
+	}
+
+	/**
+	 * Places an order.
+	 *
+	 * @param orderParams is Order params.
+	 * @param variety     variety="regular". Order variety can be bo, co, amo,
+	 *                    regular.
+	 * @return future of Order which contains only orderId.
+	 */
+	public CompletableFuture<Order> placeOrder(OrderParams orderParams, String variety) {
+		PreTradeRiskEngine engine = smartConnect.getRiskEngine();
+		if (engine != null) {
+			try {
+				engine.enforce(orderParams);
+			} catch (RiskException e) {
+				return failed(e);
+			}
+		}
+		return orderDataChanged(post("api.order.place", SmartConnect.placeOrderParams(orderParams, variety)))
+				.thenApply(SmartConnectAsync::toOrder);
+	}
+
+	/**
+	 * Modifies an open order.
+	 *
+	 * @param orderId     order id of the order being modified.
+	 * @param orderParams is Order params.
+	 * @param variety     variety="regular". Order variety can be bo, co, amo,
+	 *                    regular.
+	 * @return future of Order which contains only orderId.
+	 */
+	public CompletableFuture<Order> modifyOrder(String orderId, OrderParams orderParams, String variety) {
+		PreTradeRiskEngine engine = smartConnect.getRiskEngine();
+		if (engine != null) {
+			try {
+				engine.enforceModify(orderParams);
+			} catch (RiskException e) {
+				return failed(e);
+			}
+		}
+		JSONObject params = SmartConnect.modifyOrderParams(orderId, orderParams, variety);
+		return orderDataChanged(post("api.order.modify", params)).thenApply(SmartConnectAsync::toOrder);
+	}
+
+	/**
+	 * Cancels an order.
+	 *
+	 * @param orderId order id of the order to be cancelled.
+	 * @param variety [variety="regular"]. Order variety can be bo, co, amo,
+	 *                regular.
+	 * @return future of Order which contains only orderId.
+	 */
+	public CompletableFuture<Order> cancelOrder(String orderId, String variety) {
+		return orderDataChanged(post("api.order.cancel", SmartConnect.cancelOrderParams(orderId, variety)))
+				.thenApply(SmartConnectAsync::toOrder);
+	}
+
+	/**
+	 * Retrieves the order book.
+	 *
+	 * @return future of the order book response.
+	 */
+	public CompletableFuture<JSONObject> getOrderHistory() {
+		return get("api.order.book");
+	}
+
+	/**
+	 * Retrieves last price.
+	 *
+	 * @param exchange      is the exchange of the instrument.
+	 * @param tradingSymbol is the trading symbol of the instrument.
+	 * @param symboltoken   is the symbol token of the instrument.
+	 * @return future of the data of the ltp response.
+	 */
+	public CompletableFuture<JSONObject> getLTP(String exchange, String tradingSymbol, String symboltoken) {
+		JSONObject params = new JSONObject();
+		params.put("exchange", exchange);
+		params.put("tradingsymbol", tradingSymbol);
+		params.put("symboltoken", symboltoken);
+		return post("api.ltp.data", params).thenApply(response -> response.getJSONObject("data"));
+	}
+
+	/**
+	 * Retrieves list of trades executed.
+	 *
+	 * @return future of the trade book response.
+	 */
+	public CompletableFuture<JSONObject> getTrades() {
+		return get("api.order.trade.book");
+	}
+
+	/**
+	 * Retrieves RMS.
+	 *
+	 * @return future of the data of the RMS response.
+	 */
+	public CompletableFuture<JSONObject> getRMS() {
+		return get("api.order.rms.data").thenApply(response -> response.getJSONObject("data"));
+	}
+
+	/**
+	 * Retrieves Holding.
+	 *
+	 * @return future of the holding response.
+	 */
+	public CompletableFuture<JSONObject> getHolding() {
+		return get("api.order.rms.holding");
+	}
+
+	/**
+	 * Retrieves All Holdings.
+	 *
+	 * @return future of the all holding response.
+	 */
+	public CompletableFuture<JSONObject> getAllHolding() {
+		return get("api.order.rms.AllHolding");
+	}
+
+	/**
+	 * Retrieves position.
+	 *
+	 * @return future of the position response.
+	 */
+	public CompletableFuture<JSONObject> getPosition() {
+		return get("api.order.rms.position");
+	}
+
+	/**
+	 * Converts a position.
+	 *
+	 * @param params is the position conversion params.
+	 * @return future of the conversion response.
+	 */
+	public CompletableFuture<JSONObject> convertPosition(JSONObject params) {
+		return orderDataChanged(post("api.order.rms.position.convert", params));
+	}
+
+	/**
+	 * Get Gtt Rule Details.
+	 *
+	 * @param id is gtt rule id.
+	 * @return future of the details of gtt rule.
+	 */
+	public CompletableFuture<JSONObject> gttRuleDetails(Integer id) {
+		JSONObject params = new JSONObject();
+		params.put("id", id);
+		return post("api.gtt.details", params).thenApply(response -> response.getJSONObject("data"));
+	}
+
+	/**
+	 * Get Gtt Rule List.
+	 *
+	 * @param status is list of gtt rule status.
+	 * @param page   is no of page
+	 * @param count  is the count of gtt rules
+	 * @return future of the detailed list of gtt rules, which is empty past the
+	 *         last page.
+	 */
+	public CompletableFuture<JSONArray> gttRuleList(List<String> status, Integer page, Integer count) {
+		JSONObject params = new JSONObject();
+		params.put("status", status);
+		params.put("page", page);
+		params.put("count", count);
+		return post("api.gtt.list", params).thenApply(response -> {
+			JSONArray data = response.optJSONArray("data");
+			return data == null ? new JSONArray() : data;
+		});
+	}
+
+	/**
+	 * Get Historic Data.
+	 *
+	 * @param params is historic data params.
+	 * @return future of the data of the historic data response.
+	 */
+	public CompletableFuture<String> candleData(JSONObject params) {
+		return post("api.candle.data", params).thenApply(response -> response.getString("data"));
+	}
+
+	/**
+	 * Get Market Data.
+	 *
+	 * @param params is market data params.
+	 * @return future of the data of the market data response.
+	 */
+	public CompletableFuture<JSONObject> marketData(JSONObject params) {
+		return post("api.market.data", params).thenApply(response -> response.getJSONObject("data"));
+	}
+
+	/**
+	 * Get Margin Data.
+	 *
+	 * @param marginParams is margin data params.
+	 * @return future of the margin data response.
+	 */
+	public CompletableFuture<JSONObject> getMarginDetails(List<MarginParams> marginParams) {
+		return post("api.margin.batch", SmartConnect.marginParams(marginParams));
+	}
+
+	/**
+	 * Get Individual Order Details.
+	 *
+	 * @param orderId is the unique order id.
+	 * @return future of the order details response.
+	 */
+	public CompletableFuture<JSONObject> getIndividualOrderDetails(String orderId) {
+		return handler().getRequestAsync(smartConnect.getApiKey(), routes.get("api.individual.order").concat(orderId),
+				smartConnect.getAccessToken());
+	}
+
+	private CompletableFuture<JSONObject> post(String routeKey, JSONObject params) {
+		return handler().postRequestAsync(smartConnect.getApiKey(), routes.get(routeKey), params,
+				smartConnect.getAccessToken());
+	}
+
+	private CompletableFuture<JSONObject> get(String routeKey) {
+		return handler().getRequestAsync(smartConnect.getApiKey(), routes.get(routeKey),
+				smartConnect.getAccessToken());
+	}
+
+	/**
+	 * Invalidates the cached order data of the session once a call completes,
+	 * whether it succeeded or not.
+	 */
+	private <T> CompletableFuture<T> orderDataChanged(CompletableFuture<T> call) {
+		return call.whenComplete((response, error) -> smartConnect.invalidateOrderData());
+	}
+
+	private static <T> CompletableFuture<T> failed(Throwable cause) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(cause);
+		return future;
+	}
+
+	private SmartAPIRequestHandler handler() {
+		return smartConnect.getSmartAPIRequestHandler();
+	}
+
+	private static Order toOrder(JSONObject response) {
+		Order order = new Order();
+		order.orderId = response.getJSONObject("data").getString("orderid");
+		return order;
+	}
+}
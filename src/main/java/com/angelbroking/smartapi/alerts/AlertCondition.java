@@ -0,0 +1,13 @@
+package com.angelbroking.smartapi.alerts;
+
+/**
+ * Condition of a {@link PriceAlert} on the last traded price.
+ */
+public enum AlertCondition {
+
+	/** Triggers when the last traded price is at or above the threshold. */
+	ABOVE,
+
+	/** Triggers when the last traded price is at or below the threshold. */
+	BELOW
+}
@@ -0,0 +1,273 @@
+package com.angelbroking.smartapi.alerts;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.FixedPoint;
+import com.angelbroking.smartapi.smartstream.models.LTP;
+import com.angelbroking.smartapi.smartstream.models.Quote;
+import com.angelbroking.smartapi.smartstream.models.SnapQuote;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates price alerts and stop conditions on the ticks of the market data
+ * stream.
+ *
+ * The alerts of an instrument are kept in two heaps: a min-heap of the
+ * thresholds to rise to and a max-heap of the thresholds to fall to. A tick
+ * only looks at the heads of both heaps, so it costs O(log n) per triggered
+ * alert and nothing else; a tick which triggers nothing is answered from two
+ * volatile bounds without taking a lock. Alerts are one-shot: a triggered alert
+ * calls its listener and, if it carries an order, places it through the
+ * OrderEntry of the session, pre-trade risk checks included.
+ *
+ * Feed the engine from a SmartStreamListener with {@link #onLTP},
+ * {@link #onQuote} or {@link #onSnapQuote}. Alerts may be added and cancelled
+ * from any thread.
+ */
+@Slf4j
+public class AlertEngine {
+
+	private final SmartConnect smartConnect;
+	private final Map<ExchangeType, Map<String, TokenAlerts>> alerts = new EnumMap<>(ExchangeType.class);
+	private final AtomicLong ids = new AtomicLong();
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Initializes an engine of alerts without orders.
+	 */
+	public AlertEngine() {
+		this(null);
+	}
+
+	/**
+	 * Initializes an engine.
+	 *
+	 * @param smartConnect is the session placing the orders of triggered alerts,
+	 *                     or null if alerts carry no orders.
+	 */
+	public AlertEngine(SmartConnect smartConnect) {
+		this.smartConnect = smartConnect;
+		for (ExchangeType exchangeType : ExchangeType.values()) {
+			alerts.put(exchangeType, new ConcurrentHashMap<>());
+		}
+	}
+
+	/**
+	 * Adds an alert.
+	 *
+	 * @param exchangeType is the exchange of the instrument.
+	 * @param token        is the symbol token of the instrument.
+	 * @param condition    is whether the price should rise or fall to the
+	 *                     threshold.
+	 * @param price        is the threshold in rupees.
+	 * @param listener     is called when the alert triggers.
+	 * @return the alert, which can be cancelled.
+	 */
+	public PriceAlert addAlert(ExchangeType exchangeType, String token, AlertCondition condition, double price,
+			AlertListener listener) {
+		return add(exchangeType, token, condition, price, null, null, listener);
+	}
+
+	/**
+	 * Adds an alert placing an order when it triggers, e.g. a stop loss.
+	 *
+	 * @param exchangeType is the exchange of the instrument.
+	 * @param token        is the symbol token of the instrument.
+	 * @param condition    is whether the price should rise or fall to the
+	 *                     threshold.
+	 * @param price        is the threshold in rupees.
+	 * @param orderParams  is the order to place.
+	 * @param variety      is the variety of the order, e.g. NORMAL.
+	 * @param listener     is called when the alert triggers and with the outcome
+	 *                     of the order.
+	 * @return the alert, which can be cancelled.
+	 */
+	public PriceAlert addOrderAlert(ExchangeType exchangeType, String token, AlertCondition condition, double price,
+			OrderParams orderParams, String variety, AlertListener listener) {
+		if (orderParams == null) {
+			throw new IllegalArgumentException("orderParams should not be null");
+		}
+		if (smartConnect == null) {
+			throw new IllegalStateException("AlertEngine has no session to place orders");
+		}
+		return add(exchangeType, token, condition, price, orderParams, variety, listener);
+	}
+
+	private PriceAlert add(ExchangeType exchangeType, String token, AlertCondition condition, double price,
+			OrderParams orderParams, String variety, AlertListener listener) {
+		if (exchangeType == null || token == null || condition == null || listener == null) {
+			throw new IllegalArgumentException("exchangeType, token, condition and listener should not be null");
+		}
+		PriceAlert alert = new PriceAlert(ids.incrementAndGet(), exchangeType, token, condition,
+				FixedPoint.fromDouble(price, exchangeType), orderParams, variety, listener);
+		alerts.get(exchangeType).computeIfAbsent(token, key -> new TokenAlerts()).add(alert);
+		size.incrementAndGet();
+		return alert;
+	}
+
+	/**
+	 * Cancels an alert.
+	 *
+	 * @return whether the alert was active.
+	 */
+	public boolean cancel(PriceAlert alert) {
+		TokenAlerts tokenAlerts = alerts.get(alert.getExchangeType()).get(alert.getToken());
+		if (tokenAlerts == null || !tokenAlerts.cancel(alert)) {
+			return false;
+		}
+		size.decrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Returns the number of active alerts.
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	public void onLTP(LTP ltp) {
+		onTick(ltp.getExchangeType(), ltp.getToken().getToken(), ltp.getLastTradedPrice());
+	}
+
+	public void onQuote(Quote quote) {
+		onTick(quote.getExchangeType(), quote.getToken().getToken(), quote.getLastTradedPrice());
+	}
+
+	public void onSnapQuote(SnapQuote snapQuote) {
+		onTick(snapQuote.getExchangeType(), snapQuote.getToken().getToken(), snapQuote.getLastTradedPrice());
+	}
+
+	/**
+	 * Evaluates the alerts of an instrument on a tick. Ticks without a positive
+	 * last traded price, as sent before the first trade of the session, are
+	 * ignored so that they cannot trigger BELOW alerts.
+	 *
+	 * @param lastTradedPrice is the price as sent by the stream, see
+	 *                        {@link FixedPoint}.
+	 */
+	public void onTick(ExchangeType exchangeType, String token, long lastTradedPrice) {
+		if (lastTradedPrice <= 0) {
+			return;
+		}
+		TokenAlerts tokenAlerts = alerts.get(exchangeType).get(token);
+		if (tokenAlerts == null) {
+			return;
+		}
+		List<PriceAlert> triggered = tokenAlerts.trigger(lastTradedPrice);
+		if (triggered == null) {
+			return;
+		}
+		size.addAndGet(-triggered.size());
+		for (PriceAlert alert : triggered) {
+			fire(alert, lastTradedPrice);
+		}
+	}
+
+	private void fire(PriceAlert alert, long lastTradedPrice) {
+		AlertListener listener = alert.getListener();
+		try {
+			listener.onAlert(alert, lastTradedPrice);
+		} catch (RuntimeException e) {
+			log.error("alert listener failed for alert {}", alert.getId(), e);
+		}
+		if (alert.getOrderParams() == null) {
+			return;
+		}
+		smartConnect.getOrderEntry().placeOrderAsync(alert.getOrderParams(), alert.getVariety())
+				.whenComplete((order, error) -> {
+					try {
+						if (error == null) {
+							listener.onOrderPlaced(alert, order);
+						} else {
+							log.error("order of alert {} failed {}", alert.getId(), error.toString());
+							listener.onOrderFailed(alert, error);
+						}
+					} catch (RuntimeException e) {
+						log.error("alert listener failed for alert {}", alert.getId(), e);
+					}
+				});
+	}
+
+	/**
+	 * The alerts of one instrument. The bounds mirror the heads of the heaps so
+	 * a tick crossing nothing needs no lock.
+	 */
+	private static final class TokenAlerts {
+		private final PriorityQueue<PriceAlert> above = new PriorityQueue<>(
+				Comparator.comparingLong(PriceAlert::getThreshold));
+		private final PriorityQueue<PriceAlert> below = new PriorityQueue<>(
+				Comparator.comparingLong(PriceAlert::getThreshold).reversed());
+		private volatile long lowestAbove = Long.MAX_VALUE;
+		private volatile long highestBelow = Long.MIN_VALUE;
+		// cancelled alerts still in the heaps, removed lazily
+		private int cancelled;
+
+		synchronized void add(PriceAlert alert) {
+			(alert.getCondition() == AlertCondition.ABOVE ? above : below).add(alert);
+			updateBounds();
+		}
+
+		synchronized boolean cancel(PriceAlert alert) {
+			if (!alert.deactivate()) {
+				return false;
+			}
+			cancelled++;
+			if (cancelled > (above.size() + below.size()) / 2) {
+				above.removeIf(queued -> !queued.isActive());
+				below.removeIf(queued -> !queued.isActive());
+				cancelled = 0;
+			}
+			updateBounds();
+			return true;
+		}
+
+		List<PriceAlert> trigger(long lastTradedPrice) {
+			if (lastTradedPrice < lowestAbove && lastTradedPrice > highestBelow) {
+				return null;
+			}
+			synchronized (this) {
+				List<PriceAlert> triggered = new ArrayList<>();
+				poll(above, lastTradedPrice, triggered);
+				poll(below, lastTradedPrice, triggered);
+				updateBounds();
+				return triggered.isEmpty() ? null : triggered;
+			}
+		}
+
+		private void poll(PriorityQueue<PriceAlert> heap, long lastTradedPrice, List<PriceAlert> triggered) {
+			while (!heap.isEmpty() && heap.peek().isCrossedBy(lastTradedPrice)) {
+				PriceAlert alert = heap.poll();
+				if (alert.deactivate()) {
+					triggered.add(alert);
+				} else {
+					cancelled--;
+				}
+			}
+		}
+
+		private void updateBounds() {
+			while (!above.isEmpty() && !above.peek().isActive()) {
+				above.poll();
+				cancelled--;
+			}
+			while (!below.isEmpty() && !below.peek().isActive()) {
+				below.poll();
+				cancelled--;
+			}
+			lowestAbove = above.isEmpty() ? Long.MAX_VALUE : above.peek().getThreshold();
+			highestBelow = below.isEmpty() ? Long.MIN_VALUE : below.peek().getThreshold();
+		}
+	}
+}
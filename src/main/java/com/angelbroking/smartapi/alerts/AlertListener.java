@@ -0,0 +1,32 @@
+package com.angelbroking.smartapi.alerts;
+
+import com.angelbroking.smartapi.models.Order;
+
+/**
+ * Callback of a {@link PriceAlert}. It is called on the thread feeding the
+ * ticks into the {@link AlertEngine}, or on the thread completing the order of
+ * the alert, and should return quickly.
+ */
+public interface AlertListener {
+
+	/**
+	 * Called once when the alert triggers.
+	 *
+	 * @param alert           is the triggered alert.
+	 * @param lastTradedPrice is the price of the tick which triggered it, as sent
+	 *                        by the stream.
+	 */
+	void onAlert(PriceAlert alert, long lastTradedPrice);
+
+	/**
+	 * Called when the order of a triggered alert is placed.
+	 */
+	default void onOrderPlaced(PriceAlert alert, Order order) {
+	}
+
+	/**
+	 * Called when the order of a triggered alert fails.
+	 */
+	default void onOrderFailed(PriceAlert alert, Throwable error) {
+	}
+}
@@ -0,0 +1,68 @@
+package com.angelbroking.smartapi.alerts;
+
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.FixedPoint;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A one-shot condition on the last traded price of an instrument, registered
+ * with {@link AlertEngine#addAlert}.
+ */
+@Getter
+@ToString(exclude = "listener")
+public final class PriceAlert {
+
+	private final long id;
+	private final ExchangeType exchangeType;
+	private final String token;
+	private final AlertCondition condition;
+
+	/** The threshold as a stream price, see {@link FixedPoint}. */
+	private final long threshold;
+
+	/** The order placed when the alert triggers, or null. */
+	private final OrderParams orderParams;
+	private final String variety;
+	private final AlertListener listener;
+	private volatile boolean active = true;
+
+	PriceAlert(long id, ExchangeType exchangeType, String token, AlertCondition condition, long threshold,
+			OrderParams orderParams, String variety, AlertListener listener) {
+		this.id = id;
+		this.exchangeType = exchangeType;
+		this.token = token;
+		this.condition = condition;
+		this.threshold = threshold;
+		this.orderParams = orderParams;
+		this.variety = variety;
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the threshold in rupees.
+	 */
+	public double getPrice() {
+		return FixedPoint.toDouble(threshold, exchangeType);
+	}
+
+	/**
+	 * Returns whether the alert has neither triggered nor been cancelled.
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	boolean deactivate() {
+		if (!active) {
+			return false;
+		}
+		active = false;
+		return true;
+	}
+
+	boolean isCrossedBy(long lastTradedPrice) {
+		return condition == AlertCondition.ABOVE ? lastTradedPrice >= threshold : lastTradedPrice <= threshold;
+	}
+}
@@ -0,0 +1,256 @@
+package com.angelbroking.smartapi.cache;
+
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of slowly changing REST data, such as the profile, RMS
+ * limits, holdings and GTT rules.
+ *
+ * Every route has its own time to live; routes without one are not cached.
+ * When several threads miss the same entry at once, one of them sends the
+ * request and the others wait for its response, so a burst of reads costs one
+ * request. Failures are never cached. Entries of the routes affected by orders,
+ * such as funds, positions and holdings, are dropped by
+ * {@link #invalidateOrderData()}, which {@link com.angelbroking.smartapi.SmartConnect}
+ * calls after every order, position conversion or GTT call it makes; order
+ * updates received from elsewhere, e.g. the order update websocket, should call
+ * it as well. Cached JSON objects and arrays are copied for every caller, so a
+ * caller may modify its copy; any other cached value is shared between callers
+ * and must be treated as read-only.
+ */
+public class ResponseCache {
+
+	/** Routes whose data changes when an order is placed, modified or filled. */
+	public static final Set<String> ORDER_DATA_ROUTES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"api.order.rms.data", "api.order.rms.holding", "api.order.rms.AllHolding", "api.order.rms.position",
+			"api.order.book", "api.order.trade.book")));
+
+	/** Routes whose data changes when a GTT rule is created, modified or cancelled. */
+	public static final Set<String> GTT_ROUTES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"api.gtt.list", "api.gtt.details")));
+
+	private final Map<String, Long> ttlNanos = new ConcurrentHashMap<>();
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+	private final LongSupplier nanoClock;
+
+	/**
+	 * Creates a cache without any route configured.
+	 */
+	public ResponseCache() {
+		this(System::nanoTime);
+	}
+
+	ResponseCache(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * Creates a cache of the profile for 5 minutes, holdings for 30 seconds, GTT
+	 * rules for 5 seconds and RMS limits for 2 seconds.
+	 */
+	public static ResponseCache withDefaultTtls() {
+		return new ResponseCache()
+				.setTtl("api.user.profile", 5, TimeUnit.MINUTES)
+				.setTtl("api.order.rms.holding", 30, TimeUnit.SECONDS)
+				.setTtl("api.order.rms.AllHolding", 30, TimeUnit.SECONDS)
+				.setTtl("api.gtt.list", 5, TimeUnit.SECONDS)
+				.setTtl("api.order.rms.data", 2, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Sets how long the responses of a route are served from the cache.
+	 *
+	 * @param routeKey is the key of the route in Routes, e.g. api.order.rms.data.
+	 * @param ttl      is the time to live; 0 disables caching of the route.
+	 * @return this cache.
+	 */
+	public ResponseCache setTtl(String routeKey, long ttl, TimeUnit unit) {
+		if (ttl < 0) {
+			throw new IllegalArgumentException("ttl should not be negative");
+		}
+		if (ttl == 0) {
+			ttlNanos.remove(routeKey);
+			invalidate(routeKey);
+		} else {
+			ttlNanos.put(routeKey, unit.toNanos(ttl));
+		}
+		return this;
+	}
+
+	/**
+	 * Returns whether responses of a route are cached.
+	 */
+	public boolean isCached(String routeKey) {
+		return ttlNanos.containsKey(routeKey);
+	}
+
+	/**
+	 * Returns the cached response of a route, loading it on a miss.
+	 *
+	 * @param routeKey is the key of the route.
+	 * @param key      tells apart responses of the same route, e.g. by params.
+	 * @param loader   sends the request on a miss.
+	 * @return the cached or loaded response, a copy of it for JSON.
+	 * @throws IOException       as thrown by the loader.
+	 * @throws SmartAPIException as thrown by the loader.
+	 */
+	public <T> T get(String routeKey, String key, Loader<T> loader) throws IOException, SmartAPIException {
+		Long ttl = ttlNanos.get(routeKey);
+		if (ttl == null) {
+			return loader.load();
+		}
+		Key entryKey = new Key(routeKey, key);
+		while (true) {
+			Entry entry = entries.get(entryKey);
+			if (entry != null && entry.isFresh(nanoClock.getAsLong())) {
+				return copyOf(entry.<T>await());
+			}
+			Entry loading = new Entry();
+			boolean owner = entry == null ? entries.putIfAbsent(entryKey, loading) == null
+					: entries.replace(entryKey, entry, loading);
+			if (owner) {
+				return copyOf(load(entryKey, loading, ttl, loader));
+			}
+		}
+	}
+
+	private <T> T load(Key entryKey, Entry entry, long ttl, Loader<T> loader) throws IOException, SmartAPIException {
+		T value;
+		try {
+			value = loader.load();
+		} catch (IOException | RuntimeException | Error e) {
+			entries.remove(entryKey, entry);
+			entry.value.completeExceptionally(e);
+			throw e;
+		} catch (SmartAPIException e) {
+			entries.remove(entryKey, entry);
+			entry.value.completeExceptionally(e);
+			throw e;
+		}
+		entry.expiresAt = nanoClock.getAsLong() + ttl;
+		entry.value.complete(value);
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T copyOf(T value) {
+		if (value instanceof JSONObject) {
+			return (T) new JSONObject(value.toString());
+		}
+		if (value instanceof JSONArray) {
+			return (T) new JSONArray(value.toString());
+		}
+		return value;
+	}
+
+	/**
+	 * Drops the cached responses of a route.
+	 */
+	public void invalidate(String routeKey) {
+		entries.keySet().removeIf(key -> key.routeKey.equals(routeKey));
+	}
+
+	/**
+	 * Drops the cached responses of the routes affected by orders, see
+	 * {@link #ORDER_DATA_ROUTES}.
+	 */
+	public void invalidateOrderData() {
+		entries.keySet().removeIf(key -> ORDER_DATA_ROUTES.contains(key.routeKey));
+	}
+
+	/**
+	 * Drops the cached GTT rules, see {@link #GTT_ROUTES}.
+	 */
+	public void invalidateGttRules() {
+		entries.keySet().removeIf(key -> GTT_ROUTES.contains(key.routeKey));
+	}
+
+	/**
+	 * Drops all cached responses, e.g. when the session changes.
+	 */
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	/**
+	 * Sends the request of a cache miss.
+	 */
+	@FunctionalInterface
+	public interface Loader<T> {
+		T load() throws IOException, SmartAPIException;
+	}
+
+	private static final class Key {
+		private final String routeKey;
+		private final String key;
+
+		Key(String routeKey, String key) {
+			this.routeKey = routeKey;
+			this.key = key == null ? "" : key;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return routeKey.equals(other.routeKey) && key.equals(other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(routeKey, key);
+		}
+	}
+
+	private static final class Entry {
+		private final CompletableFuture<Object> value = new CompletableFuture<>();
+		private volatile long expiresAt;
+
+		boolean isFresh(long now) {
+			if (!value.isDone()) {
+				return true;
+			}
+			return !value.isCompletedExceptionally() && now - expiresAt < 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T await() throws IOException, SmartAPIException {
+			try {
+				return (T) value.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for a response being loaded");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof SmartAPIException) {
+					throw (SmartAPIException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new IOException(cause);
+			}
+		}
+	}
+}
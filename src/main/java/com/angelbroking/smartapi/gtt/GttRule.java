@@ -0,0 +1,56 @@
+package com.angelbroking.smartapi.gtt;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.json.JSONObject;
+
+/**
+ * A GTT rule as held by {@link GttRuleStore}.
+ */
+@Getter
+@ToString
+public final class GttRule {
+
+	private final int id;
+	private final String status;
+	private final String exchange;
+	private final String tradingSymbol;
+	private final String symbolToken;
+	private final String transactionType;
+	private final String productType;
+	private final double price;
+	private final int quantity;
+	private final double triggerPrice;
+	private final int disclosedQty;
+	private final String expiryDate;
+
+	GttRule(int id, String status, String exchange, String tradingSymbol, String symbolToken, String transactionType,
+			String productType, double price, int quantity, double triggerPrice, int disclosedQty, String expiryDate) {
+		this.id = id;
+		this.status = status;
+		this.exchange = exchange;
+		this.tradingSymbol = tradingSymbol;
+		this.symbolToken = symbolToken;
+		this.transactionType = transactionType;
+		this.productType = productType;
+		this.price = price;
+		this.quantity = quantity;
+		this.triggerPrice = triggerPrice;
+		this.disclosedQty = disclosedQty;
+		this.expiryDate = expiryDate;
+	}
+
+	/**
+	 * Parses a rule of the api.gtt.list or api.gtt.details response.
+	 *
+	 * @param json is the rule.
+	 * @param id   is the id of the rule if the json does not carry it.
+	 */
+	static GttRule fromJson(JSONObject json, int id) {
+		return new GttRule(json.optInt("id", id), json.optString("status", null), json.optString("exchange", null),
+				json.optString("tradingsymbol", null), json.optString("symboltoken", null),
+				json.optString("transactiontype", null), json.optString("producttype", null),
+				json.optDouble("price", 0), json.optInt("qty", 0), json.optDouble("triggerprice", 0),
+				json.optInt("disclosedqty", 0), json.optString("expirydate", null));
+	}
+}
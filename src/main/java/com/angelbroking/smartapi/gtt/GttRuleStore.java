@@ -0,0 +1,316 @@
+package com.angelbroking.smartapi.gtt;
+
+import com.angelbroking.smartapi.SmartConnectAsync;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local mirror of the GTT rules of an account.
+ *
+ * {@link #refresh()} loads all rules of the tracked statuses, requesting
+ * several pages of api.gtt.list at once. The rules are then kept up to date
+ * one at a time with {@link #refreshRule(int)}, which SmartConnect calls after
+ * gttCreateRule, gttModifyRule and gttCancelRule once the store is set with
+ * {@link com.angelbroking.smartapi.SmartConnect#setGttRuleStore}. A rule which
+ * leaves the tracked statuses, e.g. when it is cancelled or triggered, is
+ * dropped.
+ *
+ * Rules are indexed by id and by instrument, where they are kept sorted by
+ * trigger price, so the rules whose trigger is near the last traded price of
+ * an instrument are found with a binary search and without any REST call.
+ * Reads never block; updates are serialized.
+ */
+@Slf4j
+public class GttRuleStore {
+
+	/** Statuses of the rules which are tracked by default, i.e. live rules. */
+	public static final List<String> DEFAULT_STATUSES = Collections.unmodifiableList(Arrays.asList("NEW", "ACTIVE"));
+
+	/** Default number of rules requested per page. */
+	public static final int DEFAULT_PAGE_SIZE = 50;
+
+	/** Default number of pages requested at once. */
+	public static final int DEFAULT_PAGES_IN_FLIGHT = 4;
+
+	private static final String ALL_STATUSES = "FORALL";
+	private static final GttRule[] NO_RULES = new GttRule[0];
+
+	private final SmartConnectAsync smartConnectAsync;
+	private final List<String> statuses;
+	private final int pageSize;
+	private final int pagesInFlight;
+	private final Object lock = new Object();
+	private volatile Index index = new Index();
+	// ids updated while a full refresh is in flight, guarded by lock
+	private Set<Integer> updatedDuringRefresh;
+	private CompletableFuture<Void> refreshing;
+
+	/**
+	 * Initializes an empty store of the live rules.
+	 *
+	 * @param smartConnectAsync is the session used to fetch the rules.
+	 */
+	public GttRuleStore(SmartConnectAsync smartConnectAsync) {
+		this(smartConnectAsync, DEFAULT_STATUSES, DEFAULT_PAGE_SIZE, DEFAULT_PAGES_IN_FLIGHT);
+	}
+
+	/**
+	 * Initializes an empty store.
+	 *
+	 * @param smartConnectAsync is the session used to fetch the rules.
+	 * @param statuses          are the statuses of the rules to track, e.g. NEW
+	 *                          and ACTIVE.
+	 * @param pageSize          is the number of rules requested per page.
+	 * @param pagesInFlight     is the number of pages requested at once.
+	 */
+	public GttRuleStore(SmartConnectAsync smartConnectAsync, List<String> statuses, int pageSize, int pagesInFlight) {
+		if (smartConnectAsync == null) {
+			throw new IllegalArgumentException("smartConnectAsync should not be null");
+		}
+		if (statuses == null || statuses.isEmpty()) {
+			throw new IllegalArgumentException("statuses should not be empty");
+		}
+		if (pageSize < 1 || pagesInFlight < 1) {
+			throw new IllegalArgumentException("pageSize and pagesInFlight should be positive");
+		}
+		this.smartConnectAsync = smartConnectAsync;
+		this.statuses = Collections.unmodifiableList(new ArrayList<>(statuses));
+		this.pageSize = pageSize;
+		this.pagesInFlight = pagesInFlight;
+	}
+
+	/**
+	 * Reloads all rules. A refresh requested while one is in flight joins it.
+	 *
+	 * @return future completed once the new rules are visible.
+	 */
+	public CompletableFuture<Void> refresh() {
+		CompletableFuture<Void> refreshed;
+		synchronized (lock) {
+			if (refreshing != null) {
+				return refreshing;
+			}
+			refreshed = new CompletableFuture<>();
+			refreshing = refreshed;
+			updatedDuringRefresh = new HashSet<>();
+		}
+		CompletableFuture<List<GttRule>> rules;
+		try {
+			rules = fetchPages(1, new ArrayList<>());
+		} catch (RuntimeException e) {
+			rules = new CompletableFuture<>();
+			rules.completeExceptionally(e);
+		}
+		rules.whenComplete((fetched, error) -> {
+			synchronized (lock) {
+				if (error == null) {
+					Index fresh = new Index();
+					for (GttRule rule : fetched) {
+						fresh.put(rule);
+					}
+					// rules updated one by one meanwhile are newer than the pages
+					for (Integer id : updatedDuringRefresh) {
+						fresh.remove(id);
+						GttRule current = index.byId.get(id);
+						if (current != null) {
+							fresh.put(current);
+						}
+					}
+					index = fresh;
+				}
+				updatedDuringRefresh = null;
+				refreshing = null;
+			}
+			if (error == null) {
+				log.debug("loaded {} gtt rules", index.byId.size());
+				refreshed.complete(null);
+			} else {
+				refreshed.completeExceptionally(error);
+			}
+		});
+		return refreshed;
+	}
+
+	private CompletableFuture<List<GttRule>> fetchPages(int firstPage, List<GttRule> rules) {
+		List<CompletableFuture<JSONArray>> pages = new ArrayList<>(pagesInFlight);
+		for (int i = 0; i < pagesInFlight; i++) {
+			pages.add(smartConnectAsync.gttRuleList(statuses, firstPage + i, pageSize));
+		}
+		return CompletableFuture.allOf(pages.toArray(new CompletableFuture[0])).thenCompose(done -> {
+			for (CompletableFuture<JSONArray> page : pages) {
+				JSONArray data = page.join();
+				for (int i = 0; i < data.length(); i++) {
+					JSONObject json = data.getJSONObject(i);
+					rules.add(GttRule.fromJson(json, json.getInt("id")));
+				}
+				if (data.length() < pageSize) {
+					return CompletableFuture.completedFuture(rules);
+				}
+			}
+			return fetchPages(firstPage + pagesInFlight, rules);
+		});
+	}
+
+	/**
+	 * Reloads one rule, e.g. after it was created, modified or cancelled.
+	 *
+	 * @param id is the id of the rule.
+	 * @return future of the rule, which is null if it is no longer tracked.
+	 */
+	public CompletableFuture<GttRule> refreshRule(int id) {
+		return smartConnectAsync.gttRuleDetails(id).thenApply(json -> {
+			GttRule rule = json == null ? null : GttRule.fromJson(json, id);
+			if (rule != null && !isTracked(rule.getStatus())) {
+				rule = null;
+			}
+			synchronized (lock) {
+				index.remove(id);
+				if (rule != null) {
+					index.put(rule);
+				}
+				if (updatedDuringRefresh != null) {
+					updatedDuringRefresh.add(id);
+				}
+			}
+			return rule;
+		});
+	}
+
+	private boolean isTracked(String status) {
+		return status == null || statuses.contains(ALL_STATUSES) || statuses.contains(status);
+	}
+
+	/**
+	 * Returns a rule by its id, or null if it is not tracked.
+	 */
+	public GttRule getRule(int id) {
+		return index.byId.get(id);
+	}
+
+	/**
+	 * Returns all tracked rules.
+	 */
+	public Collection<GttRule> getRules() {
+		return Collections.unmodifiableCollection(index.byId.values());
+	}
+
+	/**
+	 * Returns the rules of an instrument in ascending order of trigger price.
+	 *
+	 * @param exchange    is the exchange, e.g. NSE.
+	 * @param symbolToken is the symbol token of the instrument.
+	 */
+	public List<GttRule> getRules(String exchange, String symbolToken) {
+		return Collections.unmodifiableList(Arrays.asList(index.rules(exchange, symbolToken)));
+	}
+
+	/**
+	 * Returns the rules of an instrument whose trigger price is within a band
+	 * around the last traded price, in ascending order of trigger price.
+	 *
+	 * @param exchange        is the exchange, e.g. NSE.
+	 * @param symbolToken     is the symbol token of the instrument.
+	 * @param lastTradedPrice is the last traded price in rupees.
+	 * @param band            is the distance relative to the last traded price,
+	 *                        e.g. 0.01 for triggers within 1%.
+	 */
+	public List<GttRule> getRulesNear(String exchange, String symbolToken, double lastTradedPrice, double band) {
+		GttRule[] rules = index.rules(exchange, symbolToken);
+		double low = lastTradedPrice * (1 - band);
+		double high = lastTradedPrice * (1 + band);
+		int from = lowerBound(rules, low);
+		int to = from;
+		while (to < rules.length && rules[to].getTriggerPrice() <= high) {
+			to++;
+		}
+		if (from == to) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(rules, from, to)));
+	}
+
+	/**
+	 * Returns the number of tracked rules.
+	 */
+	public int size() {
+		return index.byId.size();
+	}
+
+	private static int lowerBound(GttRule[] rules, double triggerPrice) {
+		int low = 0;
+		int high = rules.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (rules[mid].getTriggerPrice() < triggerPrice) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static String instrumentKey(String exchange, String symbolToken) {
+		return exchange + ':' + symbolToken;
+	}
+
+	/**
+	 * Rules by id and by instrument; the rules of an instrument are an array
+	 * sorted by trigger price which is replaced on every change, so readers
+	 * never see it half updated. Only changed under the lock of the store.
+	 */
+	private static final class Index {
+		private final Map<Integer, GttRule> byId = new ConcurrentHashMap<>();
+		private final Map<String, GttRule[]> byInstrument = new ConcurrentHashMap<>();
+
+		GttRule[] rules(String exchange, String symbolToken) {
+			GttRule[] rules = byInstrument.get(instrumentKey(exchange, symbolToken));
+			return rules == null ? NO_RULES : rules;
+		}
+
+		void put(GttRule rule) {
+			remove(rule.getId());
+			byId.put(rule.getId(), rule);
+			String key = instrumentKey(rule.getExchange(), rule.getSymbolToken());
+			GttRule[] rules = byInstrument.getOrDefault(key, NO_RULES);
+			int at = lowerBound(rules, rule.getTriggerPrice());
+			GttRule[] updated = new GttRule[rules.length + 1];
+			System.arraycopy(rules, 0, updated, 0, at);
+			updated[at] = rule;
+			System.arraycopy(rules, at, updated, at + 1, rules.length - at);
+			byInstrument.put(key, updated);
+		}
+
+		void remove(int id) {
+			GttRule rule = byId.remove(id);
+			if (rule == null) {
+				return;
+			}
+			String key = instrumentKey(rule.getExchange(), rule.getSymbolToken());
+			GttRule[] rules = byInstrument.getOrDefault(key, NO_RULES);
+			List<GttRule> remaining = new ArrayList<>(rules.length);
+			for (GttRule other : rules) {
+				if (other.getId() != id) {
+					remaining.add(other);
+				}
+			}
+			if (remaining.isEmpty()) {
+				byInstrument.remove(key);
+			} else {
+				byInstrument.put(key, remaining.toArray(NO_RULES));
+			}
+		}
+	}
+}
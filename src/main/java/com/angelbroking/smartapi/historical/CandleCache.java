@@ -0,0 +1,215 @@
+package com.angelbroking.smartapi.historical;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent cache of historic candles, one file per exchange, symbol token,
+ * interval and trading day.
+ *
+ * A day file holds a 16 byte header (magic, version, candle count) followed by
+ * the columns of the day: timestamps, open, high, low, close and volume, each
+ * as a block of 8 byte values. Files are read through a memory mapping straight
+ * into the primitive columns of a {@link CandleSeries} and written to a
+ * temporary file which is then moved into place, so a reader never sees a
+ * partly written day. Only days before the current day of the exchange are
+ * stored; the candles of the current day are not final yet.
+ */
+@Slf4j
+public class CandleCache {
+
+	/** Time zone of the exchange, which decides the day a candle belongs to. */
+	public static final ZoneId EXCHANGE_ZONE = ZoneId.of("Asia/Kolkata");
+
+	static final int MAGIC = 0x53434453;
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	private static final int COLUMNS = 6;
+	private static final String SUFFIX = ".candles";
+	private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+	private final Path directory;
+	private final Clock clock;
+
+	/**
+	 * Initializes a cache in a directory, which is created on the first write.
+	 *
+	 * @param directory is the root directory of the cache files.
+	 */
+	public CandleCache(Path directory) {
+		this(directory, Clock.system(EXCHANGE_ZONE));
+	}
+
+	CandleCache(Path directory, Clock clock) {
+		if (directory == null) {
+			throw new IllegalArgumentException("directory should not be null");
+		}
+		this.directory = directory;
+		this.clock = clock;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns whether the candles of a day are final and may be cached.
+	 */
+	public boolean isCacheable(LocalDate day) {
+		return day.isBefore(LocalDate.now(clock.withZone(EXCHANGE_ZONE)));
+	}
+
+	/**
+	 * Reads the cached candles of a day.
+	 *
+	 * @return the candles, which are empty for a cached day without trading, or
+	 *         null if the day is not cached or its file is unreadable.
+	 */
+	public CandleSeries get(String exchange, String symbolToken, CandleInterval interval, LocalDate day) {
+		Path file = path(exchange, symbolToken, interval, day);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length < HEADER_SIZE) {
+				throw new IOException("truncated header");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			return read(buffer, length);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			log.warn("discarding candle cache file {} {}", file, e.toString());
+			delete(file);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the candles of a day. Days which are not {@link #isCacheable
+	 * cacheable} are ignored.
+	 *
+	 * @param series are the candles of the whole day, in ascending time order.
+	 */
+	public void put(String exchange, String symbolToken, CandleInterval interval, LocalDate day, CandleSeries series)
+			throws IOException {
+		if (!isCacheable(day)) {
+			return;
+		}
+		Path file = path(exchange, symbolToken, interval, day);
+		Files.createDirectories(file.getParent());
+		Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = write(series);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			delete(temp);
+		}
+	}
+
+	/**
+	 * Removes the cached candles of a day.
+	 */
+	public void invalidate(String exchange, String symbolToken, CandleInterval interval, LocalDate day) {
+		delete(path(exchange, symbolToken, interval, day));
+	}
+
+	Path path(String exchange, String symbolToken, CandleInterval interval, LocalDate day) {
+		return directory.resolve(checkName("exchange", exchange)).resolve(checkName("symbolToken", symbolToken))
+				.resolve(interval.name()).resolve(day + SUFFIX);
+	}
+
+	/**
+	 * Keeps a name from escaping the cache directory, e.g. with a separator or a
+	 * parent reference.
+	 */
+	private static String checkName(String field, String name) {
+		if (name == null || !SAFE_NAME.matcher(name).matches()) {
+			throw new IllegalArgumentException(field + " should only contain letters, digits, '-' and '_': " + name);
+		}
+		return name;
+	}
+
+	static CandleSeries read(ByteBuffer buffer, long length) throws IOException {
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IOException("bad magic");
+		}
+		if (buffer.getShort(4) != VERSION) {
+			throw new IOException("unsupported version " + buffer.getShort(4));
+		}
+		int count = buffer.getInt(8);
+		if (count < 0 || length != HEADER_SIZE + (long) count * COLUMNS * 8) {
+			throw new IOException("size does not match count " + count);
+		}
+		if (count == 0) {
+			return CandleSeries.empty();
+		}
+		long[] timestamps = new long[count];
+		double[] open = new double[count];
+		double[] high = new double[count];
+		double[] low = new double[count];
+		double[] close = new double[count];
+		long[] volume = new long[count];
+		int column = count * 8;
+		column(buffer, HEADER_SIZE, column).asLongBuffer().get(timestamps);
+		column(buffer, HEADER_SIZE + column, column).asDoubleBuffer().get(open);
+		column(buffer, HEADER_SIZE + 2 * column, column).asDoubleBuffer().get(high);
+		column(buffer, HEADER_SIZE + 3 * column, column).asDoubleBuffer().get(low);
+		column(buffer, HEADER_SIZE + 4 * column, column).asDoubleBuffer().get(close);
+		column(buffer, HEADER_SIZE + 5 * column, column).asLongBuffer().get(volume);
+		return new CandleSeries(timestamps, open, high, low, close, volume);
+	}
+
+	static ByteBuffer write(CandleSeries series) {
+		int count = series.size();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + count * COLUMNS * 8);
+		buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count).putInt(0);
+		buffer.asLongBuffer().put(series.getTimestamps());
+		int column = count * 8;
+		column(buffer, HEADER_SIZE + column, column).asDoubleBuffer().put(series.getOpens());
+		column(buffer, HEADER_SIZE + 2 * column, column).asDoubleBuffer().put(series.getHighs());
+		column(buffer, HEADER_SIZE + 3 * column, column).asDoubleBuffer().put(series.getLows());
+		column(buffer, HEADER_SIZE + 4 * column, column).asDoubleBuffer().put(series.getCloses());
+		column(buffer, HEADER_SIZE + 5 * column, column).asLongBuffer().put(series.getVolumes());
+		((Buffer) buffer).clear();
+		return buffer;
+	}
+
+	private static ByteBuffer column(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer column = buffer.duplicate();
+		// Buffer casts keep the Java 8 signatures when built on a newer JDK
+		((Buffer) column).limit(offset + length);
+		((Buffer) column).position(offset);
+		return column.slice();
+	}
+
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("could not delete {} {}", file, e.toString());
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.angelbroking.smartapi.historical;
+
+/**
+ * Candle intervals of the historic data api with the longest date range the
+ * server accepts for each in a single request.
+ */
+public enum CandleInterval {
+
+	ONE_MINUTE(30),
+	THREE_MINUTE(60),
+	FIVE_MINUTE(100),
+	TEN_MINUTE(100),
+	FIFTEEN_MINUTE(200),
+	THIRTY_MINUTE(200),
+	ONE_HOUR(400),
+	ONE_DAY(2000);
+
+	private final int maxDaysPerRequest;
+
+	CandleInterval(int maxDaysPerRequest) {
+		this.maxDaysPerRequest = maxDaysPerRequest;
+	}
+
+	/**
+	 * Returns the longest date range, in days, of a single request.
+	 */
+	public int getMaxDaysPerRequest() {
+		return maxDaysPerRequest;
+	}
+}
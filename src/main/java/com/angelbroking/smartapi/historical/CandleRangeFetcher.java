@@ -0,0 +1,249 @@
+package com.angelbroking.smartapi.historical;
+
+import com.angelbroking.smartapi.Routes;
+import com.angelbroking.smartapi.SmartConnect;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches historic candles over date ranges longer than a single request
+ * allows.
+ *
+ * The range is split into chunks of the longest range the server accepts for
+ * the interval, at most {@link #getMaxConcurrency()} chunks are in flight at a
+ * time, and the chunks are joined into one {@link CandleSeries} in date order.
+ * Requests go through the request handler of the session, so a rate limiter set
+ * with {@link SmartConnect#setRequestScheduler} paces them; the default limits
+ * allow 3 historic data requests per second.
+ *
+ * With a {@link CandleCache} the range is resolved day by day: cached days are
+ * read from disk and only the runs of missing days are requested, each widened
+ * to whole days so that finished days can be stored for the next run.
+ */
+@Slf4j
+public class CandleRangeFetcher {
+
+	/** Default number of chunks requested concurrently. */
+	public static final int DEFAULT_MAX_CONCURRENCY = 3;
+
+	private static final DateTimeFormatter PARAM_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+	private final SmartConnect smartConnect;
+	private final int maxConcurrency;
+	private final CandleCache cache;
+	private final String url = new Routes().get("api.candle.data");
+
+	/**
+	 * Initializes a fetcher with {@link #DEFAULT_MAX_CONCURRENCY}.
+	 *
+	 * @param smartConnect is the session used for the requests.
+	 */
+	public CandleRangeFetcher(SmartConnect smartConnect) {
+		this(smartConnect, DEFAULT_MAX_CONCURRENCY);
+	}
+
+	/**
+	 * Initializes a fetcher.
+	 *
+	 * @param smartConnect   is the session used for the requests.
+	 * @param maxConcurrency is the number of chunks requested concurrently.
+	 */
+	public CandleRangeFetcher(SmartConnect smartConnect, int maxConcurrency) {
+		this(smartConnect, maxConcurrency, null);
+	}
+
+	/**
+	 * Initializes a fetcher which consults a candle cache before requesting.
+	 *
+	 * @param smartConnect   is the session used for the requests.
+	 * @param maxConcurrency is the number of chunks requested concurrently.
+	 * @param cache          is the cache of finished days, or null to always
+	 *                       request the whole range.
+	 */
+	public CandleRangeFetcher(SmartConnect smartConnect, int maxConcurrency, CandleCache cache) {
+		if (smartConnect == null) {
+			throw new IllegalArgumentException("smartConnect should not be null");
+		}
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maxConcurrency should be at least 1");
+		}
+		this.smartConnect = smartConnect;
+		this.maxConcurrency = maxConcurrency;
+		this.cache = cache;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	public CandleCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Fetches the candles of an instrument between two dates, both inclusive.
+	 *
+	 * @param exchange    is the exchange of the instrument, e.g. NSE.
+	 * @param symbolToken is the symbol token of the instrument.
+	 * @param interval    is the candle interval.
+	 * @param from        is the start of the range.
+	 * @param to          is the end of the range.
+	 * @return future of the candles of the whole range, which completes
+	 *         exceptionally if any chunk fails.
+	 */
+	public CompletableFuture<CandleSeries> fetch(String exchange, String symbolToken, CandleInterval interval,
+			LocalDateTime from, LocalDateTime to) {
+		if (from.isAfter(to)) {
+			throw new IllegalArgumentException("from should not be after to");
+		}
+		if (cache != null) {
+			return fetchCached(exchange, symbolToken, interval, from, to);
+		}
+		return fetchChunks(exchange, symbolToken, interval, split(interval, from, to))
+				.thenApply(CandleSeries::concat);
+	}
+
+	private CompletableFuture<CandleSeries> fetchCached(String exchange, String symbolToken, CandleInterval interval,
+			LocalDateTime from, LocalDateTime to) {
+		List<CandleSeries> days = new ArrayList<>();
+		List<LocalDate[]> missing = new ArrayList<>();
+		for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+			CandleSeries cached = cache.isCacheable(day) ? cache.get(exchange, symbolToken, interval, day) : null;
+			days.add(cached);
+			if (cached != null) {
+				continue;
+			}
+			LocalDate[] last = missing.isEmpty() ? null : missing.get(missing.size() - 1);
+			if (last != null && last[1].plusDays(1).equals(day)) {
+				last[1] = day;
+			} else {
+				missing.add(new LocalDate[]{day, day});
+			}
+		}
+		long fromMillis = from.atZone(CandleCache.EXCHANGE_ZONE).toInstant().toEpochMilli();
+		long toMillis = to.atZone(CandleCache.EXCHANGE_ZONE).toInstant().toEpochMilli();
+		if (missing.isEmpty()) {
+			return CompletableFuture.completedFuture(CandleSeries.concat(days).between(fromMillis, toMillis));
+		}
+
+		List<LocalDateTime[]> chunks = new ArrayList<>();
+		for (LocalDate[] run : missing) {
+			chunks.addAll(split(interval, run[0].atStartOfDay(), run[1].atTime(LocalTime.of(23, 59))));
+		}
+		return fetchChunks(exchange, symbolToken, interval, chunks).thenApply(parts -> {
+			CandleSeries fetched = CandleSeries.concat(parts);
+			LocalDate first = from.toLocalDate();
+			for (int i = 0; i < days.size(); i++) {
+				if (days.get(i) != null) {
+					continue;
+				}
+				LocalDate day = first.plusDays(i);
+				CandleSeries candles = fetched.between(startOf(day), startOf(day.plusDays(1)) - 1);
+				days.set(i, candles);
+				if (cache.isCacheable(day)) {
+					try {
+						cache.put(exchange, symbolToken, interval, day, candles);
+					} catch (IOException e) {
+						log.warn("could not cache candles of {}:{} on {} {}", exchange, symbolToken, day, e.toString());
+					}
+				}
+			}
+			return CandleSeries.concat(days).between(fromMillis, toMillis);
+		});
+	}
+
+	private static long startOf(LocalDate day) {
+		return day.atStartOfDay(CandleCache.EXCHANGE_ZONE).toInstant().toEpochMilli();
+	}
+
+	private CompletableFuture<List<CandleSeries>> fetchChunks(String exchange, String symbolToken,
+			CandleInterval interval, List<LocalDateTime[]> chunks) {
+		@SuppressWarnings("unchecked")
+		CompletableFuture<CandleSeries>[] results = new CompletableFuture[chunks.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = new CompletableFuture<>();
+		}
+		AtomicInteger next = new AtomicInteger();
+		AtomicBoolean failed = new AtomicBoolean();
+		for (int i = 0; i < Math.min(maxConcurrency, chunks.size()); i++) {
+			startNext(exchange, symbolToken, interval, chunks, results, next, failed);
+		}
+		return CompletableFuture.allOf(results)
+				.thenApply(ignored -> {
+					List<CandleSeries> parts = new ArrayList<>(results.length);
+					for (CompletableFuture<CandleSeries> result : results) {
+						parts.add(result.join());
+					}
+					return parts;
+				});
+	}
+
+	private void startNext(String exchange, String symbolToken, CandleInterval interval, List<LocalDateTime[]> chunks,
+			CompletableFuture<CandleSeries>[] results, AtomicInteger next, AtomicBoolean failed) {
+		int index = next.getAndIncrement();
+		if (index >= chunks.size()) {
+			return;
+		}
+		if (failed.get()) {
+			results[index].cancel(false);
+			startNext(exchange, symbolToken, interval, chunks, results, next, failed);
+			return;
+		}
+		LocalDateTime[] chunk = chunks.get(index);
+		JSONObject params = new JSONObject();
+		params.put("exchange", exchange);
+		params.put("symboltoken", symbolToken);
+		params.put("interval", interval.name());
+		params.put("fromdate", PARAM_FORMAT.format(chunk[0]));
+		params.put("todate", PARAM_FORMAT.format(chunk[1]));
+
+		CompletableFuture<CandleSeries> request;
+		try {
+			request = smartConnect.getSmartAPIRequestHandler().postRequestAsync(smartConnect.getApiKey(), url, params,
+					smartConnect.getAccessToken(), CandleSeries.class);
+		} catch (RuntimeException e) {
+			request = new CompletableFuture<>();
+			request.completeExceptionally(e);
+		}
+		request.whenComplete((series, error) -> {
+			if (error != null) {
+				failed.set(true);
+				log.error("historic data of {}:{} from {} to {} failed {}", exchange, symbolToken, chunk[0], chunk[1],
+						error.toString());
+				results[index].completeExceptionally(error);
+			} else {
+				results[index].complete(series == null ? CandleSeries.empty() : series);
+			}
+			startNext(exchange, symbolToken, interval, chunks, results, next, failed);
+		});
+	}
+
+	/**
+	 * Splits a range into consecutive chunks no longer than the interval allows
+	 * per request. Chunks start one minute after the end of the previous one.
+	 */
+	static List<LocalDateTime[]> split(CandleInterval interval, LocalDateTime from, LocalDateTime to) {
+		List<LocalDateTime[]> chunks = new ArrayList<>();
+		LocalDateTime start = from;
+		while (!start.isAfter(to)) {
+			LocalDateTime end = start.plusDays(interval.getMaxDaysPerRequest());
+			if (end.isAfter(to)) {
+				end = to;
+			}
+			chunks.add(new LocalDateTime[]{start, end});
+			start = end.plusMinutes(1);
+		}
+		return chunks;
+	}
+}
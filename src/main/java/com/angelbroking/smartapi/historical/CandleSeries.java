@@ -0,0 +1,327 @@
+package com.angelbroking.smartapi.historical;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Candles of one instrument stored as primitive columns.
+ *
+ * The series is decoded straight from the historic data response, without a
+ * JSONArray or a boxed value per field. Timestamps are epoch milliseconds. The
+ * arrays returned by the column getters are the series' own storage, sized to
+ * {@link #size()}, and must not be modified.
+ */
+@JsonAdapter(CandleSeries.Adapter.class)
+public final class CandleSeries {
+
+	private static final CandleSeries EMPTY = new Builder(0).build();
+
+	private final long[] timestamps;
+	private final double[] open;
+	private final double[] high;
+	private final double[] low;
+	private final double[] close;
+	private final long[] volume;
+
+	CandleSeries(long[] timestamps, double[] open, double[] high, double[] low, double[] close,
+			long[] volume) {
+		this.timestamps = timestamps;
+		this.open = open;
+		this.high = high;
+		this.low = low;
+		this.close = close;
+		this.volume = volume;
+	}
+
+	/**
+	 * Returns a series without candles.
+	 */
+	public static CandleSeries empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Joins series of consecutive date ranges into one. Candles which do not come
+	 * after the last candle already taken, e.g. the shared boundary candle of two
+	 * ranges, are dropped.
+	 *
+	 * @param parts are the series in ascending order of their ranges.
+	 */
+	public static CandleSeries concat(List<CandleSeries> parts) {
+		int capacity = 0;
+		for (CandleSeries part : parts) {
+			capacity += part.size();
+		}
+		Builder builder = new Builder(capacity);
+		for (CandleSeries part : parts) {
+			for (int i = 0; i < part.size(); i++) {
+				if (builder.size == 0 || part.timestamps[i] > builder.timestamps[builder.size - 1]) {
+					builder.add(part.timestamps[i], part.open[i], part.high[i], part.low[i], part.close[i],
+							part.volume[i]);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns the candles whose timestamps lie in a range.
+	 *
+	 * @param fromMillis is the start of the range in epoch milliseconds,
+	 *                   inclusive.
+	 * @param toMillis   is the end of the range in epoch milliseconds, inclusive.
+	 */
+	public CandleSeries between(long fromMillis, long toMillis) {
+		return range(lowerBound(fromMillis), toMillis == Long.MAX_VALUE ? size() : lowerBound(toMillis + 1));
+	}
+
+	/**
+	 * Returns the candles at the indexes [start, end).
+	 */
+	CandleSeries range(int start, int end) {
+		if (start == 0 && end == size()) {
+			return this;
+		}
+		if (start >= end) {
+			return EMPTY;
+		}
+		return new CandleSeries(Arrays.copyOfRange(timestamps, start, end), Arrays.copyOfRange(open, start, end),
+				Arrays.copyOfRange(high, start, end), Arrays.copyOfRange(low, start, end),
+				Arrays.copyOfRange(close, start, end), Arrays.copyOfRange(volume, start, end));
+	}
+
+	/**
+	 * Returns the index of the first candle at or after the timestamp.
+	 */
+	int lowerBound(long timestamp) {
+		int low = 0;
+		int high = timestamps.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timestamps[mid] < timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	public int size() {
+		return timestamps.length;
+	}
+
+	public boolean isEmpty() {
+		return timestamps.length == 0;
+	}
+
+	public long getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	public double getOpen(int index) {
+		return open[index];
+	}
+
+	public double getHigh(int index) {
+		return high[index];
+	}
+
+	public double getLow(int index) {
+		return low[index];
+	}
+
+	public double getClose(int index) {
+		return close[index];
+	}
+
+	public long getVolume(int index) {
+		return volume[index];
+	}
+
+	public long[] getTimestamps() {
+		return timestamps;
+	}
+
+	public double[] getOpens() {
+		return open;
+	}
+
+	public double[] getHighs() {
+		return high;
+	}
+
+	public double[] getLows() {
+		return low;
+	}
+
+	public double[] getCloses() {
+		return close;
+	}
+
+	public long[] getVolumes() {
+		return volume;
+	}
+
+	@Override
+	public String toString() {
+		return "CandleSeries [size=" + size() + (isEmpty() ? "" : ", from=" + Instant.ofEpochMilli(timestamps[0])
+				+ ", to=" + Instant.ofEpochMilli(timestamps[size() - 1])) + "]";
+	}
+
+	/**
+	 * Parses a timestamp of the historic data api, e.g.
+	 * 2023-09-06T11:15:00+05:30, to epoch milliseconds.
+	 */
+	static long parseTimestamp(String text) {
+		if (text.length() != 25 || text.charAt(10) != 'T' || (text.charAt(19) != '+' && text.charAt(19) != '-')) {
+			return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+		}
+		int year = digits(text, 0, 4);
+		int month = digits(text, 5, 2);
+		int day = digits(text, 8, 2);
+		int hour = digits(text, 11, 2);
+		int minute = digits(text, 14, 2);
+		int second = digits(text, 17, 2);
+		int offsetSeconds = digits(text, 20, 2) * 3600 + digits(text, 23, 2) * 60;
+		if (text.charAt(19) == '-') {
+			offsetSeconds = -offsetSeconds;
+		}
+		long epochSecond = epochDay(year, month, day) * 86400L + hour * 3600L + minute * 60L + second - offsetSeconds;
+		return epochSecond * 1000L;
+	}
+
+	private static int digits(String text, int from, int length) {
+		int value = 0;
+		for (int i = from; i < from + length; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new NumberFormatException("Invalid timestamp " + text);
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	// days from civil, proleptic Gregorian calendar
+	private static long epochDay(int year, int month, int day) {
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+
+	/**
+	 * Collects candles into growing primitive columns.
+	 */
+	static final class Builder {
+		private long[] timestamps;
+		private double[] open;
+		private double[] high;
+		private double[] low;
+		private double[] close;
+		private long[] volume;
+		private int size;
+
+		Builder(int capacity) {
+			timestamps = new long[capacity];
+			open = new double[capacity];
+			high = new double[capacity];
+			low = new double[capacity];
+			close = new double[capacity];
+			volume = new long[capacity];
+		}
+
+		void add(long timestamp, double o, double h, double l, double c, long v) {
+			if (size == timestamps.length) {
+				int capacity = Math.max(16, size * 2);
+				timestamps = Arrays.copyOf(timestamps, capacity);
+				open = Arrays.copyOf(open, capacity);
+				high = Arrays.copyOf(high, capacity);
+				low = Arrays.copyOf(low, capacity);
+				close = Arrays.copyOf(close, capacity);
+				volume = Arrays.copyOf(volume, capacity);
+			}
+			timestamps[size] = timestamp;
+			open[size] = o;
+			high[size] = h;
+			low[size] = l;
+			close[size] = c;
+			volume[size] = v;
+			size++;
+		}
+
+		CandleSeries build() {
+			if (size == timestamps.length) {
+				return new CandleSeries(timestamps, open, high, low, close, volume);
+			}
+			return new CandleSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(open, size),
+					Arrays.copyOf(high, size), Arrays.copyOf(low, size), Arrays.copyOf(close, size),
+					Arrays.copyOf(volume, size));
+		}
+	}
+
+	static final class Adapter extends TypeAdapter<CandleSeries> {
+
+		private static final int INITIAL_CAPACITY = 256;
+
+		@Override
+		public void write(JsonWriter out, CandleSeries series) throws IOException {
+			if (series == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginArray();
+			for (int i = 0; i < series.size(); i++) {
+				out.beginArray();
+				out.value(OffsetDateTime.ofInstant(Instant.ofEpochMilli(series.timestamps[i]), ZoneOffset.UTC)
+						.toString());
+				out.value(series.open[i]);
+				out.value(series.high[i]);
+				out.value(series.low[i]);
+				out.value(series.close[i]);
+				out.value(series.volume[i]);
+				out.endArray();
+			}
+			out.endArray();
+		}
+
+		@Override
+		public CandleSeries read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return EMPTY;
+			}
+			Builder builder = new Builder(INITIAL_CAPACITY);
+			in.beginArray();
+			while (in.hasNext()) {
+				in.beginArray();
+				long timestamp = parseTimestamp(in.nextString());
+				double o = in.nextDouble();
+				double h = in.nextDouble();
+				double l = in.nextDouble();
+				double c = in.nextDouble();
+				long v = in.nextLong();
+				while (in.hasNext()) {
+					in.skipValue();
+				}
+				in.endArray();
+				builder.add(timestamp, o, h, l, c, v);
+			}
+			in.endArray();
+			return builder.build();
+		}
+	}
+}
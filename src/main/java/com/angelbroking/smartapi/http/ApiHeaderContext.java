@@ -0,0 +1,184 @@
+package com.angelbroking.smartapi.http;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process wide cache of the client identification headers.
+ *
+ * Resolving the identity involves a DNS lookup, an HTTP call and a scan of the
+ * network interfaces, so it is done once, on first use, and shared by every
+ * {@link SmartAPIRequestHandler}. The static part of the headers is prebuilt
+ * per request type; a request only adds its authorization and api key on top.
+ * A failed resolution is not cached and is retried by the next request.
+ */
+@Slf4j
+public final class ApiHeaderContext {
+
+	static final String USER_AGENT = "javasmartapiconnect/3.0.0";
+
+	private static final String ACCEPT = "application/json";
+	private static final String USER_TYPE = "USER";
+	private static final String SOURCE_ID = "WEB";
+
+	private static final ApiHeaderContext SHARED = new ApiHeaderContext(new SystemApiHeaderSource());
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile ApiHeaderSource source;
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Initializes a context which resolves its headers from the given source.
+	 *
+	 * @param source is the source of the client identity.
+	 */
+	public ApiHeaderContext(ApiHeaderSource source) {
+		if (source == null) {
+			throw new IllegalArgumentException("source should not be null");
+		}
+		this.source = source;
+	}
+
+	/**
+	 * Returns the context shared by all request handlers of the process.
+	 */
+	public static ApiHeaderContext shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Replaces the source of the client identity. The headers are resolved again
+	 * from the new source on next use.
+	 *
+	 * @param source is the source of the client identity.
+	 */
+	public void setSource(ApiHeaderSource source) {
+		if (source == null) {
+			throw new IllegalArgumentException("source should not be null");
+		}
+		lock.lock();
+		try {
+			this.source = source;
+			this.snapshot = null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Resolves the headers again, e.g. after the network of the machine changed.
+	 * Requests keep using the previous headers until the new ones are available.
+	 *
+	 * @throws IOException if the identity could not be resolved.
+	 */
+	public void refresh() throws IOException {
+		lock.lock();
+		try {
+			snapshot = load();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the current headers, resolving them on first use.
+	 *
+	 * @throws IOException if the identity could not be resolved.
+	 */
+	public Snapshot snapshot() throws IOException {
+		Snapshot current = snapshot;
+		if (current != null) {
+			return current;
+		}
+		lock.lock();
+		try {
+			if (snapshot == null) {
+				snapshot = load();
+			}
+			return snapshot;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private Snapshot load() throws IOException {
+		long start = System.nanoTime();
+		ClientIdentity identity = source.resolve();
+		if (identity == null) {
+			throw new IOException("client identity could not be resolved");
+		}
+		log.info("client identity {} resolved in {} ms", identity, (System.nanoTime() - start) / 1_000_000);
+		return new Snapshot(identity);
+	}
+
+	/**
+	 * Immutable set of headers derived from one resolution of the client
+	 * identity.
+	 */
+	public static final class Snapshot {
+
+		private final ClientIdentity identity;
+		private final Headers getHeaders;
+		private final Headers postHeaders;
+
+		private Snapshot(ClientIdentity identity) {
+			this.identity = identity;
+			this.postHeaders = identityHeaders(identity, new Headers.Builder()).build();
+			this.getHeaders = postHeaders.newBuilder().add("User-Agent", USER_AGENT).build();
+		}
+
+		private static Headers.Builder identityHeaders(ClientIdentity identity, Headers.Builder builder) {
+			builder.add("Content-Type", ACCEPT);
+			addIfKnown(builder, "X-ClientLocalIP", identity.getClientLocalIP());
+			addIfKnown(builder, "X-ClientPublicIP", identity.getClientPublicIP());
+			addIfKnown(builder, "X-MACAddress", identity.getMacAddress());
+			builder.add("Accept", ACCEPT);
+			builder.add("X-UserType", USER_TYPE);
+			builder.add("X-SourceID", SOURCE_ID);
+			return builder;
+		}
+
+		private static void addIfKnown(Headers.Builder builder, String name, String value) {
+			if (value != null) {
+				builder.add(name, value);
+			}
+		}
+
+		public ClientIdentity getIdentity() {
+			return identity;
+		}
+
+		/**
+		 * Returns the static headers of GET requests.
+		 */
+		public Headers getHeaders() {
+			return getHeaders;
+		}
+
+		/**
+		 * Returns the static headers of POST requests.
+		 */
+		public Headers postHeaders() {
+			return postHeaders;
+		}
+
+		/**
+		 * Returns the headers in the JSON form of
+		 * {@link SmartAPIRequestHandler#apiHeaders()}.
+		 */
+		public JSONObject toJSONObject() {
+			JSONObject headers = new JSONObject();
+			headers.put("clientLocalIP", identity.getClientLocalIP());
+			headers.put("clientPublicIP", identity.getClientPublicIP());
+			headers.put("macAddress", identity.getMacAddress());
+			headers.put("accept", ACCEPT);
+			headers.put("userType", USER_TYPE);
+			headers.put("sourceID", SOURCE_ID);
+			return headers;
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.angelbroking.smartapi.http;
+
+import java.io.IOException;
+
+/**
+ * Resolves the {@link ClientIdentity} used for the request headers.
+ *
+ * The default source inspects the local network and looks up the public IP
+ * address; a fixed identity can be supplied instead, e.g. in offline tests:
+ *
+ * <pre>
+ * ApiHeaderContext.shared().setSource(() -&gt; new ClientIdentity("127.0.0.1", "127.0.0.1", "00-00-00-00-00-00"));
+ * </pre>
+ */
+@FunctionalInterface
+public interface ApiHeaderSource {
+
+	/**
+	 * @return the identity of this client.
+	 * @throws IOException if the identity could not be resolved.
+	 */
+	ClientIdentity resolve() throws IOException;
+}
@@ -0,0 +1,27 @@
+package com.angelbroking.smartapi.http;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Identification of the client machine sent with every Smart API request.
+ */
+@Getter
+@ToString
+public final class ClientIdentity {
+
+	private final String clientLocalIP;
+	private final String clientPublicIP;
+	private final String macAddress;
+
+	/**
+	 * @param clientLocalIP  is the IP address of the local host.
+	 * @param clientPublicIP is the public IP address of the client.
+	 * @param macAddress     is the MAC address of the client, null if unknown.
+	 */
+	public ClientIdentity(String clientLocalIP, String clientPublicIP, String macAddress) {
+		this.clientLocalIP = clientLocalIP;
+		this.clientPublicIP = clientPublicIP;
+		this.macAddress = macAddress;
+	}
+}
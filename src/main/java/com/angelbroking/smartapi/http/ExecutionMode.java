@@ -0,0 +1,21 @@
+package com.angelbroking.smartapi.http;
+
+/**
+ * Selects how {@link SmartAPIRequestHandler} runs http calls.
+ */
+public enum ExecutionMode {
+
+	/**
+	 * OkHttp defaults: a cached platform thread pool with 64 concurrent requests
+	 * and at most 5 per host.
+	 */
+	PLATFORM_THREADS,
+
+	/**
+	 * Asynchronous calls run on virtual threads and the dispatcher and
+	 * connection pool are sized for thousands of concurrent requests. Requires
+	 * JDK 21 or newer at runtime, otherwise the handler falls back to
+	 * {@link #PLATFORM_THREADS}.
+	 */
+	VIRTUAL_THREADS
+}
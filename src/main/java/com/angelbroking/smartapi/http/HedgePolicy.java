@@ -0,0 +1,137 @@
+package com.angelbroking.smartapi.http;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedged requests for idempotent reads.
+ *
+ * When a read has not completed after the configured percentile of the recent
+ * latencies of its route, a duplicate request is sent and the first response
+ * wins; the slower call is cancelled. With a percentile of 0.95 about one read
+ * in twenty is duplicated, while the latency tail is cut to roughly the
+ * percentile plus one round trip. Until a route has seen
+ * {@link #getMinSamples()} responses the initial delay is used. The policy is
+ * applied to the routes in
+ * {@link com.angelbroking.smartapi.Routes#IDEMPOTENT_READS} only.
+ */
+@Getter
+@ToString(exclude = "windows")
+public class HedgePolicy {
+
+	private static final int WINDOW_SIZE = 256;
+	private static final int RECOMPUTE_EVERY = 16;
+
+	private final double percentile;
+	private final long initialDelayMillis;
+	private final long minDelayMillis;
+	private final long maxDelayMillis;
+	private final int minSamples;
+	private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+	private final AtomicLong hedgesSent = new AtomicLong();
+
+	/**
+	 * Creates a hedge policy.
+	 *
+	 * @param percentile         is the share of reads expected to complete before
+	 *                           a hedge is sent, e.g. 0.95.
+	 * @param initialDelayMillis is the delay used until enough latencies are known.
+	 * @param minDelayMillis     is the lower bound of the delay.
+	 * @param maxDelayMillis     is the upper bound of the delay.
+	 * @param minSamples         is the number of latencies needed before the
+	 *                           percentile is used.
+	 */
+	public HedgePolicy(double percentile, long initialDelayMillis, long minDelayMillis, long maxDelayMillis,
+			int minSamples) {
+		if (percentile <= 0 || percentile >= 1) {
+			throw new IllegalArgumentException("percentile should be between 0 and 1");
+		}
+		if (minDelayMillis < 0 || maxDelayMillis < minDelayMillis || initialDelayMillis < minDelayMillis
+				|| initialDelayMillis > maxDelayMillis) {
+			throw new IllegalArgumentException("delays should satisfy 0 <= min <= initial <= max");
+		}
+		if (minSamples < 1 || minSamples > WINDOW_SIZE) {
+			throw new IllegalArgumentException("minSamples should be between 1 and " + WINDOW_SIZE);
+		}
+		this.percentile = percentile;
+		this.initialDelayMillis = initialDelayMillis;
+		this.minDelayMillis = minDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		this.minSamples = minSamples;
+	}
+
+	/**
+	 * Creates a policy hedging at the 95th percentile, between 20ms and 2s,
+	 * starting at 500ms.
+	 */
+	public static HedgePolicy defaults() {
+		return new HedgePolicy(0.95, 500, 20, 2000, 20);
+	}
+
+	/**
+	 * Returns the number of duplicate requests sent so far.
+	 */
+	public long getHedgesSent() {
+		return hedgesSent.get();
+	}
+
+	/**
+	 * Returns the delay after which a read of a route is hedged.
+	 */
+	public long delayMillis(String routeKey) {
+		LatencyWindow window = windows.get(routeKey);
+		long delay = window == null ? -1 : window.percentileMillis(percentile, minSamples);
+		if (delay < 0) {
+			return initialDelayMillis;
+		}
+		return Math.max(minDelayMillis, Math.min(maxDelayMillis, delay));
+	}
+
+	void recordLatency(String routeKey, long millis) {
+		windows.computeIfAbsent(routeKey, key -> new LatencyWindow()).record(millis);
+	}
+
+	void recordHedge() {
+		hedgesSent.incrementAndGet();
+	}
+
+	/**
+	 * Latencies of the most recent responses of one route.
+	 */
+	private static final class LatencyWindow {
+		private final long[] samples = new long[WINDOW_SIZE];
+		private int count;
+		private int next;
+		private int sinceUpdate;
+		private long cached = -1;
+		private double cachedPercentile;
+
+		synchronized void record(long millis) {
+			samples[next] = millis;
+			next = (next + 1) % WINDOW_SIZE;
+			if (count < WINDOW_SIZE) {
+				count++;
+			}
+			sinceUpdate++;
+		}
+
+		synchronized long percentileMillis(double percentile, int minSamples) {
+			if (count < minSamples) {
+				return -1;
+			}
+			if (cached < 0 || sinceUpdate >= RECOMPUTE_EVERY || cachedPercentile != percentile) {
+				long[] sorted = Arrays.copyOf(samples, count);
+				Arrays.sort(sorted);
+				cached = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+				cachedPercentile = percentile;
+				sinceUpdate = 0;
+			}
+			return cached;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.angelbroking.smartapi.http;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Token bucket settings for one route.
+ */
+@Getter
+@ToString
+public class RateLimit {
+
+	/** Default time a request may queue for a permit before it is rejected. */
+	public static final long DEFAULT_MAX_WAIT_MILLIS = 2000;
+
+	private final double permitsPerSecond;
+	private final int burst;
+	private final long maxWaitMillis;
+
+	/**
+	 * Creates a rate limit.
+	 *
+	 * @param permitsPerSecond is the sustained rate at which permits are refilled.
+	 * @param burst            is the number of permits that can be taken at once
+	 *                         after an idle period.
+	 * @param maxWaitMillis    is how long a request may queue for a permit; 0
+	 *                         rejects requests as soon as the bucket is empty.
+	 */
+	public RateLimit(double permitsPerSecond, int burst, long maxWaitMillis) {
+		if (permitsPerSecond <= 0 || burst < 1 || maxWaitMillis < 0) {
+			throw new IllegalArgumentException(
+					"permitsPerSecond and burst should be positive and maxWaitMillis should not be negative");
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	/**
+	 * Creates a rate limit whose burst equals one second worth of permits and
+	 * which queues requests for up to {@link #DEFAULT_MAX_WAIT_MILLIS}.
+	 *
+	 * @param permitsPerSecond is the sustained rate at which permits are refilled.
+	 */
+	public static RateLimit perSecond(double permitsPerSecond) {
+		return new RateLimit(permitsPerSecond, (int) Math.max(1, Math.ceil(permitsPerSecond)), DEFAULT_MAX_WAIT_MILLIS);
+	}
+}
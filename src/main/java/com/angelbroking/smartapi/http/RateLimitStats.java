@@ -0,0 +1,68 @@
+package com.angelbroking.smartapi.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wait time metrics of one rate limited route.
+ */
+public class RateLimitStats {
+
+	private final LongAdder acquired = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder delayed = new LongAdder();
+	private final LongAdder totalWaitNanos = new LongAdder();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	void recordAcquired(long waitNanos) {
+		acquired.increment();
+		if (waitNanos > 0) {
+			delayed.increment();
+			totalWaitNanos.add(waitNanos);
+			maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+		}
+	}
+
+	void recordRejected() {
+		rejected.increment();
+	}
+
+	/** Returns the number of requests which obtained a permit. */
+	public long getAcquired() {
+		return acquired.sum();
+	}
+
+	/** Returns the number of requests rejected by the limiter. */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/** Returns the number of requests which had to queue for a permit. */
+	public long getDelayed() {
+		return delayed.sum();
+	}
+
+	/** Returns the total time requests spent queueing, in milliseconds. */
+	public long getTotalWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+	}
+
+	/** Returns the longest time a single request spent queueing, in milliseconds. */
+	public long getMaxWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+	}
+
+	/** Returns the mean queueing time over all acquired requests, in milliseconds. */
+	public double getAverageWaitMillis() {
+		long count = acquired.sum();
+		return count == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+	}
+
+	@Override
+	public String toString() {
+		return "RateLimitStats [acquired=" + getAcquired() + ", rejected=" + getRejected() + ", delayed="
+				+ getDelayed() + ", averageWaitMillis=" + getAverageWaitMillis() + ", maxWaitMillis="
+				+ getMaxWaitMillis() + "]";
+	}
+}
@@ -0,0 +1,14 @@
+package com.angelbroking.smartapi.http;
+
+/**
+ * Priority of a request waiting for a rate limit permit. Waiters with a higher
+ * priority are served first, waiters of equal priority in arrival order.
+ */
+public enum RequestPriority {
+
+	/** Order placement and manipulation, served before everything else. */
+	ORDER,
+
+	/** Quotes, books, historical data and all other reads. */
+	DATA
+}
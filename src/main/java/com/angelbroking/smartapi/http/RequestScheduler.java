@@ -0,0 +1,270 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.http.exceptions.RateLimitException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side rate limiter for Smart API requests.
+ *
+ * Each route key of {@link com.angelbroking.smartapi.Routes} can be given its
+ * own token bucket, and an optional global bucket caps the total request rate
+ * of the session. Requests queue for a permit up to the configured maximum wait
+ * and are rejected with {@link RateLimitException} beyond it. Order routes are
+ * served ahead of data routes whenever both are waiting on the same bucket.
+ * Routes without a configured limit are not throttled.
+ */
+@Slf4j
+public class RequestScheduler {
+
+	/** Route key under which the global bucket reports its metrics. */
+	public static final String GLOBAL = "*";
+
+	private static final Set<String> ORDER_ROUTES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"api.order.place", "api.order.modify", "api.order.cancel", "api.order.rms.position.convert",
+			"api.gtt.create", "api.gtt.modify", "api.gtt.cancel")));
+
+	private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+	private volatile Limiter globalLimiter;
+
+	/**
+	 * Creates a scheduler with the per second limits published for Smart API.
+	 * Limits can be overridden per route with {@link #setLimit}.
+	 */
+	public static RequestScheduler withDefaultLimits() {
+		RequestScheduler scheduler = new RequestScheduler();
+		scheduler.setLimit("api.order.place", RateLimit.perSecond(20));
+		scheduler.setLimit("api.order.modify", RateLimit.perSecond(20));
+		scheduler.setLimit("api.order.cancel", RateLimit.perSecond(20));
+		scheduler.setLimit("api.order.rms.position.convert", RateLimit.perSecond(10));
+		scheduler.setLimit("api.gtt.create", RateLimit.perSecond(10));
+		scheduler.setLimit("api.gtt.modify", RateLimit.perSecond(10));
+		scheduler.setLimit("api.gtt.cancel", RateLimit.perSecond(10));
+		scheduler.setLimit("api.gtt.details", RateLimit.perSecond(10));
+		scheduler.setLimit("api.gtt.list", RateLimit.perSecond(10));
+		scheduler.setLimit("api.ltp.data", RateLimit.perSecond(10));
+		scheduler.setLimit("api.market.data", RateLimit.perSecond(10));
+		scheduler.setLimit("api.candle.data", RateLimit.perSecond(3));
+		scheduler.setLimit("api.margin.batch", RateLimit.perSecond(10));
+		scheduler.setLimit("api.individual.order", RateLimit.perSecond(10));
+		scheduler.setLimit("api.user.profile", RateLimit.perSecond(3));
+		scheduler.setLimit("api.order.rms.data", RateLimit.perSecond(2));
+		scheduler.setLimit("api.order.book", RateLimit.perSecond(1));
+		scheduler.setLimit("api.order.trade.book", RateLimit.perSecond(1));
+		scheduler.setLimit("api.order.rms.holding", RateLimit.perSecond(1));
+		scheduler.setLimit("api.order.rms.AllHolding", RateLimit.perSecond(1));
+		scheduler.setLimit("api.order.rms.position", RateLimit.perSecond(1));
+		scheduler.setLimit("api.search.script.data", RateLimit.perSecond(1));
+		return scheduler;
+	}
+
+	/**
+	 * Sets the limit of a route, replacing any previous limit and its metrics.
+	 *
+	 * @param routeKey  is the key of the route in Routes, e.g. api.order.place.
+	 * @param rateLimit is the limit to apply.
+	 * @return this scheduler.
+	 */
+	public RequestScheduler setLimit(String routeKey, RateLimit rateLimit) {
+		limiters.put(routeKey, new Limiter(rateLimit));
+		return this;
+	}
+
+	/**
+	 * Sets a limit shared by all requests of the session, in addition to the per
+	 * route limits.
+	 *
+	 * @param rateLimit is the limit to apply, or null to remove the global limit.
+	 * @return this scheduler.
+	 */
+	public RequestScheduler setGlobalLimit(RateLimit rateLimit) {
+		globalLimiter = rateLimit == null ? null : new Limiter(rateLimit);
+		return this;
+	}
+
+	/**
+	 * Returns the priority with which requests of a route wait for permits.
+	 *
+	 * @param routeKey is the key of the route in Routes.
+	 */
+	public static RequestPriority priorityOf(String routeKey) {
+		return ORDER_ROUTES.contains(routeKey) ? RequestPriority.ORDER : RequestPriority.DATA;
+	}
+
+	/**
+	 * Blocks until the request may be sent.
+	 *
+	 * @param routeKey is the key of the route in Routes, null for requests which
+	 *                 do not belong to a known route.
+	 * @throws RateLimitException   if no permit became available within the
+	 *                              maximum wait.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public void acquire(String routeKey) throws RateLimitException, InterruptedException {
+		RequestPriority priority = priorityOf(routeKey);
+		Limiter routeLimiter = routeKey == null ? null : limiters.get(routeKey);
+		if (routeLimiter != null) {
+			routeLimiter.acquire(routeKey, priority);
+		}
+		Limiter global = globalLimiter;
+		if (global != null) {
+			try {
+				global.acquire(GLOBAL, priority);
+			} catch (RateLimitException | InterruptedException e) {
+				if (routeLimiter != null) {
+					routeLimiter.bucket.release();
+				}
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Reserves a permit for a request without blocking, for requests sent
+	 * asynchronously once their permit is granted. A reservation queues with the
+	 * same priority as a blocked {@link #acquire}, so order routes are still
+	 * served ahead of data reservations waiting on the same bucket. Cancelling
+	 * the returned future gives up the reservation.
+	 *
+	 * @param routeKey is the key of the route in Routes, null for requests which
+	 *                 do not belong to a known route.
+	 * @return a future completed once the request may be sent, or completed
+	 *         exceptionally with {@link RateLimitException} if no permit is due
+	 *         within the maximum wait.
+	 */
+	public CompletableFuture<Void> reserve(String routeKey) {
+		RequestPriority priority = priorityOf(routeKey);
+		Limiter routeLimiter = routeKey == null ? null : limiters.get(routeKey);
+		Limiter global = globalLimiter;
+		CompletableFuture<Void> reservation = new CompletableFuture<>();
+		CompletableFuture<Long> route = routeLimiter == null ? CompletableFuture.completedFuture(0L)
+				: routeLimiter.reserve(routeKey, priority);
+		reservation.whenComplete((ignored, error) -> {
+			if (reservation.isCancelled()) {
+				route.cancel(false);
+			}
+		});
+		route.whenComplete((routeWaited, routeError) -> {
+			if (routeError != null) {
+				reservation.completeExceptionally(routeError);
+				return;
+			}
+			if (routeLimiter != null) {
+				routeLimiter.stats.recordAcquired(routeWaited);
+			}
+			CompletableFuture<Long> shared = global == null ? CompletableFuture.completedFuture(0L)
+					: global.reserve(GLOBAL, priority);
+			reservation.whenComplete((ignored, error) -> {
+				if (reservation.isCancelled()) {
+					shared.cancel(false);
+				}
+			});
+			shared.whenComplete((sharedWaited, sharedError) -> {
+				if (sharedError != null) {
+					if (routeLimiter != null) {
+						routeLimiter.bucket.release();
+					}
+					reservation.completeExceptionally(sharedError);
+				} else {
+					if (global != null) {
+						global.stats.recordAcquired(sharedWaited);
+					}
+					if (!reservation.complete(null)) {
+						if (routeLimiter != null) {
+							routeLimiter.bucket.release();
+						}
+						if (global != null) {
+							global.bucket.release();
+						}
+					}
+				}
+			});
+		});
+		return reservation;
+	}
+
+	/**
+	 * Returns the permits reserved for a request which is not sent, e.g. because
+	 * it was cancelled before its permit was due.
+	 *
+	 * @param routeKey is the key the permits were reserved with.
+	 */
+	public void release(String routeKey) {
+		Limiter routeLimiter = routeKey == null ? null : limiters.get(routeKey);
+		if (routeLimiter != null) {
+			routeLimiter.bucket.release();
+		}
+		Limiter global = globalLimiter;
+		if (global != null) {
+			global.bucket.release();
+		}
+	}
+
+	/**
+	 * Returns the metrics of a route, or of the global bucket for {@link #GLOBAL}.
+	 *
+	 * @return RateLimitStats of the route, or null if the route is not limited.
+	 */
+	public RateLimitStats getStats(String routeKey) {
+		Limiter limiter = GLOBAL.equals(routeKey) ? globalLimiter : limiters.get(routeKey);
+		return limiter == null ? null : limiter.stats;
+	}
+
+	/**
+	 * Returns the metrics of all limited routes keyed by route key.
+	 */
+	public Map<String, RateLimitStats> getStats() {
+		Map<String, RateLimitStats> stats = new ConcurrentHashMap<>();
+		limiters.forEach((key, limiter) -> stats.put(key, limiter.stats));
+		Limiter global = globalLimiter;
+		if (global != null) {
+			stats.put(GLOBAL, global.stats);
+		}
+		return stats;
+	}
+
+	private static final class Limiter {
+		private final RateLimit rateLimit;
+		private final TokenBucket bucket;
+		private final RateLimitStats stats = new RateLimitStats();
+
+		private Limiter(RateLimit rateLimit) {
+			this.rateLimit = rateLimit;
+			this.bucket = new TokenBucket(rateLimit);
+		}
+
+		private void acquire(String routeKey, RequestPriority priority)
+				throws RateLimitException, InterruptedException {
+			long waited = bucket.acquire(priority, TimeUnit.MILLISECONDS.toNanos(rateLimit.getMaxWaitMillis()));
+			if (waited < 0) {
+				throw rejected(routeKey);
+			}
+			stats.recordAcquired(waited);
+		}
+
+		private CompletableFuture<Long> reserve(String routeKey, RequestPriority priority) {
+			CompletableFuture<Long> permit = bucket.reserve(priority,
+					TimeUnit.MILLISECONDS.toNanos(rateLimit.getMaxWaitMillis()));
+			if (permit.getNow(0L) < 0) {
+				CompletableFuture<Long> failed = new CompletableFuture<>();
+				failed.completeExceptionally(rejected(routeKey));
+				return failed;
+			}
+			return permit;
+		}
+
+		private RateLimitException rejected(String routeKey) {
+			stats.recordRejected();
+			log.warn("rate limit exceeded for {} with {}", routeKey, rateLimit);
+			return new RateLimitException("Rate limit exceeded for " + routeKey, "429");
+		}
+	}
+}
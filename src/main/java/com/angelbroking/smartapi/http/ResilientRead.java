@@ -0,0 +1,177 @@
+package com.angelbroking.smartapi.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs one idempotent read under a {@link RetryPolicy} and a
+ * {@link HedgePolicy}, either of which may be null.
+ */
+final class ResilientRead<T> {
+
+	private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "smartapi-read-policy");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Supplier<CompletableFuture<T>> attempt;
+	private final String routeKey;
+	private final RetryPolicy retryPolicy;
+	private final HedgePolicy hedgePolicy;
+	private final CompletableFuture<T> result = new CompletableFuture<>();
+	private final List<CompletableFuture<T>> calls = new ArrayList<>();
+	private final List<ScheduledFuture<?>> timers = new ArrayList<>();
+
+	private ResilientRead(Supplier<CompletableFuture<T>> attempt, String routeKey, RetryPolicy retryPolicy,
+			HedgePolicy hedgePolicy) {
+		this.attempt = attempt;
+		this.routeKey = routeKey;
+		this.retryPolicy = retryPolicy;
+		this.hedgePolicy = hedgePolicy;
+	}
+
+	/**
+	 * Starts a read.
+	 *
+	 * @param attempt  sends the request once and decodes the response.
+	 * @param routeKey is the key of the route, under which latencies are kept.
+	 * @return future of the first successful response, or of the last failure
+	 *         once the failure is not retryable or the attempts are used up.
+	 *         Cancelling it cancels the calls in flight.
+	 */
+	static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> attempt, String routeKey,
+			RetryPolicy retryPolicy, HedgePolicy hedgePolicy) {
+		ResilientRead<T> read = new ResilientRead<>(attempt, routeKey, retryPolicy, hedgePolicy);
+		read.result.whenComplete((value, error) -> read.cancelAll());
+		read.run(1);
+		return read.result;
+	}
+
+	private void run(int attemptNumber) {
+		if (result.isDone()) {
+			return;
+		}
+		Round round = new Round(attemptNumber);
+		round.send();
+		if (hedgePolicy != null) {
+			schedule(round::hedge, hedgePolicy.delayMillis(routeKey));
+		}
+	}
+
+	private synchronized void schedule(Runnable task, long delayMillis) {
+		if (!result.isDone()) {
+			timers.add(TIMER.schedule(task, delayMillis, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	private synchronized void track(CompletableFuture<T> call) {
+		if (result.isDone()) {
+			call.cancel(false);
+		} else {
+			calls.add(call);
+		}
+	}
+
+	private synchronized void cancelAll() {
+		for (ScheduledFuture<?> timer : timers) {
+			timer.cancel(false);
+		}
+		for (CompletableFuture<T> call : calls) {
+			call.cancel(false);
+		}
+		timers.clear();
+		calls.clear();
+	}
+
+	/**
+	 * One attempt, made of the primary call and at most one hedge.
+	 */
+	private final class Round {
+		private final int attemptNumber;
+		private int inFlight;
+		private boolean closed;
+
+		Round(int attemptNumber) {
+			this.attemptNumber = attemptNumber;
+		}
+
+		void send() {
+			synchronized (this) {
+				inFlight++;
+			}
+			call();
+		}
+
+		void hedge() {
+			synchronized (this) {
+				// a finished attempt, successful or not, is not hedged
+				if (closed || result.isDone()) {
+					return;
+				}
+				inFlight++;
+			}
+			hedgePolicy.recordHedge();
+			call();
+		}
+
+		private void call() {
+			long started = System.nanoTime();
+			CompletableFuture<T> call;
+			try {
+				call = attempt.get();
+			} catch (RuntimeException e) {
+				call = new CompletableFuture<>();
+				call.completeExceptionally(e);
+			}
+			track(call);
+			call.whenComplete((value, error) -> completed(value, error, started));
+		}
+
+		private void completed(T value, Throwable error, long started) {
+			if (error == null) {
+				if (hedgePolicy != null) {
+					hedgePolicy.recordLatency(routeKey, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+				}
+				synchronized (this) {
+					closed = true;
+				}
+				result.complete(value);
+				return;
+			}
+			synchronized (this) {
+				inFlight--;
+				if (closed || inFlight > 0) {
+					// the other call of this attempt may still succeed
+					return;
+				}
+				closed = true;
+			}
+			Throwable cause = unwrap(error);
+			if (result.isDone()) {
+				return;
+			}
+			if (retryPolicy != null && attemptNumber < retryPolicy.getMaxAttempts() && retryPolicy.isRetryable(cause)) {
+				schedule(() -> run(attemptNumber + 1), retryPolicy.backoffMillis(attemptNumber + 1));
+			} else {
+				result.completeExceptionally(cause);
+			}
+		}
+	}
+
+	static Throwable unwrap(Throwable error) {
+		while ((error instanceof CompletionException || error instanceof ExecutionException)
+				&& error.getCause() != null) {
+			error = error.getCause();
+		}
+		return error;
+	}
+}
@@ -0,0 +1,85 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.http.exceptions.DataException;
+import com.angelbroking.smartapi.http.exceptions.GeneralException;
+import com.angelbroking.smartapi.http.exceptions.NetworkException;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retries with exponential backoff for idempotent reads.
+ *
+ * Only failures which may pass on their own are retried: connection errors and
+ * timeouts, {@link NetworkException}, {@link GeneralException} and
+ * {@link DataException}, the latter being raised for non-JSON responses such as
+ * a gateway error page. Token, input, permission, order and client side rate
+ * limit failures are returned at once. The policy is applied to the routes in
+ * {@link com.angelbroking.smartapi.Routes#IDEMPOTENT_READS} only, never to
+ * order placement or other mutating routes.
+ */
+@Getter
+@ToString
+public class RetryPolicy {
+
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+	private final long maxBackoffMillis;
+	private final double multiplier;
+
+	/**
+	 * Creates a retry policy.
+	 *
+	 * @param maxAttempts          is the number of attempts including the first.
+	 * @param initialBackoffMillis is the wait before the second attempt.
+	 * @param maxBackoffMillis     caps the wait between attempts.
+	 * @param multiplier           is the growth of the wait per attempt.
+	 */
+	public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis, double multiplier) {
+		if (maxAttempts < 1 || initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis
+				|| multiplier < 1) {
+			throw new IllegalArgumentException("maxAttempts should be positive, backoffs should not be negative "
+					+ "with max not below initial, and multiplier should be at least 1");
+		}
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.maxBackoffMillis = maxBackoffMillis;
+		this.multiplier = multiplier;
+	}
+
+	/**
+	 * Creates a policy of 3 attempts waiting 100ms and then 200ms, with jitter.
+	 */
+	public static RetryPolicy defaults() {
+		return new RetryPolicy(3, 100, 1000, 2);
+	}
+
+	/**
+	 * Returns whether a failed attempt may be retried.
+	 */
+	public boolean isRetryable(Throwable error) {
+		if (error instanceof InterruptedIOException && !(error instanceof SocketTimeoutException)) {
+			return false;
+		}
+		return error instanceof IOException || error instanceof NetworkException
+				|| error instanceof GeneralException || error instanceof DataException;
+	}
+
+	/**
+	 * Returns the wait before an attempt: half of the exponential backoff plus a
+	 * random share of the other half, so clients which failed together do not
+	 * retry together.
+	 *
+	 * @param attempt is the number of the attempt about to be made, from 2.
+	 */
+	long backoffMillis(int attempt) {
+		double backoff = initialBackoffMillis * Math.pow(multiplier, Math.max(0, attempt - 2));
+		long capped = (long) Math.min(maxBackoffMillis, backoff);
+		long half = capped / 2;
+		return half + (capped - half == 0 ? 0 : ThreadLocalRandom.current().nextLong(capped - half + 1));
+	}
+}
@@ -0,0 +1,258 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.SmartConnect;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the http client shared by request handlers.
+ *
+ * Handlers built from equal configs share one OkHttpClient, and with it the
+ * connection pool and dispatcher, see {@link SmartAPIClientFactory}. Limits
+ * which are not set explicitly follow the {@link ExecutionMode}: OkHttp's
+ * defaults for platform threads, and thousands of concurrent requests for
+ * virtual threads.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class SmartAPIClientConfig {
+
+	private static final int DEFAULT_MAX_REQUESTS = 64;
+	private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+	private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+	private static final int VIRTUAL_THREAD_MAX_REQUESTS = 4096;
+	private static final int VIRTUAL_THREAD_MAX_IDLE_CONNECTIONS = 64;
+
+	private final Proxy proxy;
+	private final ExecutionMode executionMode;
+	private final long connectTimeoutMillis;
+	private final long readTimeoutMillis;
+	private final long writeTimeoutMillis;
+	private final long callTimeoutMillis;
+	@Getter(AccessLevel.NONE)
+	private final Integer maxIdleConnections;
+	private final long keepAliveMillis;
+	private final boolean http2;
+	@Getter(AccessLevel.NONE)
+	private final Integer maxRequests;
+	@Getter(AccessLevel.NONE)
+	private final Integer maxRequestsPerHost;
+	private final boolean logging;
+
+	private SmartAPIClientConfig(Builder builder) {
+		this.proxy = builder.proxy;
+		this.executionMode = builder.executionMode;
+		this.connectTimeoutMillis = builder.connectTimeoutMillis;
+		this.readTimeoutMillis = builder.readTimeoutMillis;
+		this.writeTimeoutMillis = builder.writeTimeoutMillis;
+		this.callTimeoutMillis = builder.callTimeoutMillis;
+		this.maxIdleConnections = builder.maxIdleConnections;
+		this.keepAliveMillis = builder.keepAliveMillis;
+		this.http2 = builder.http2;
+		this.maxRequests = builder.maxRequests;
+		this.maxRequestsPerHost = builder.maxRequestsPerHost;
+		this.logging = builder.logging == null ? SmartConnect.ENABLE_LOGGING : builder.logging;
+	}
+
+	/**
+	 * Returns the default settings.
+	 */
+	public static SmartAPIClientConfig defaults() {
+		return builder().build();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns a builder initialized with the settings of this config.
+	 */
+	public Builder toBuilder() {
+		Builder builder = new Builder();
+		builder.proxy = proxy;
+		builder.executionMode = executionMode;
+		builder.connectTimeoutMillis = connectTimeoutMillis;
+		builder.readTimeoutMillis = readTimeoutMillis;
+		builder.writeTimeoutMillis = writeTimeoutMillis;
+		builder.callTimeoutMillis = callTimeoutMillis;
+		builder.maxIdleConnections = maxIdleConnections;
+		builder.keepAliveMillis = keepAliveMillis;
+		builder.http2 = http2;
+		builder.maxRequests = maxRequests;
+		builder.maxRequestsPerHost = maxRequestsPerHost;
+		builder.logging = logging;
+		return builder;
+	}
+
+	private boolean virtualThreads() {
+		return executionMode == ExecutionMode.VIRTUAL_THREADS && VirtualThreads.isSupported();
+	}
+
+	public int getMaxIdleConnections() {
+		if (maxIdleConnections != null) {
+			return maxIdleConnections;
+		}
+		return virtualThreads() ? VIRTUAL_THREAD_MAX_IDLE_CONNECTIONS : DEFAULT_MAX_IDLE_CONNECTIONS;
+	}
+
+	public int getMaxRequests() {
+		if (maxRequests != null) {
+			return maxRequests;
+		}
+		return virtualThreads() ? VIRTUAL_THREAD_MAX_REQUESTS : DEFAULT_MAX_REQUESTS;
+	}
+
+	public int getMaxRequestsPerHost() {
+		if (maxRequestsPerHost != null) {
+			return maxRequestsPerHost;
+		}
+		return virtualThreads() ? VIRTUAL_THREAD_MAX_REQUESTS : DEFAULT_MAX_REQUESTS_PER_HOST;
+	}
+
+	public static final class Builder {
+		private Proxy proxy;
+		private ExecutionMode executionMode = ExecutionMode.PLATFORM_THREADS;
+		private long connectTimeoutMillis = 10000;
+		private long readTimeoutMillis = 10000;
+		private long writeTimeoutMillis = 10000;
+		private long callTimeoutMillis;
+		private Integer maxIdleConnections;
+		private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+		private boolean http2 = true;
+		private Integer maxRequests;
+		private Integer maxRequestsPerHost;
+		private Boolean logging;
+
+		private Builder() {
+
+		}
+
+		/**
+		 * Sets the proxy requests are sent through, null for a direct connection.
+		 */
+		public Builder proxy(Proxy proxy) {
+			this.proxy = proxy;
+			return this;
+		}
+
+		/**
+		 * Sets the threads asynchronous calls run on.
+		 */
+		public Builder executionMode(ExecutionMode executionMode) {
+			if (executionMode == null) {
+				throw new IllegalArgumentException("executionMode should not be null");
+			}
+			this.executionMode = executionMode;
+			return this;
+		}
+
+		/**
+		 * Sets the connect timeout, default 10 seconds.
+		 */
+		public Builder connectTimeout(long timeout, TimeUnit unit) {
+			this.connectTimeoutMillis = nonNegative(timeout, unit);
+			return this;
+		}
+
+		/**
+		 * Sets the read timeout, default 10 seconds.
+		 */
+		public Builder readTimeout(long timeout, TimeUnit unit) {
+			this.readTimeoutMillis = nonNegative(timeout, unit);
+			return this;
+		}
+
+		/**
+		 * Sets the write timeout, default 10 seconds.
+		 */
+		public Builder writeTimeout(long timeout, TimeUnit unit) {
+			this.writeTimeoutMillis = nonNegative(timeout, unit);
+			return this;
+		}
+
+		/**
+		 * Sets the timeout of a whole call including redirects and retries, default
+		 * 0 for none.
+		 */
+		public Builder callTimeout(long timeout, TimeUnit unit) {
+			this.callTimeoutMillis = nonNegative(timeout, unit);
+			return this;
+		}
+
+		/**
+		 * Sets the number of idle connections kept in the pool.
+		 */
+		public Builder maxIdleConnections(int maxIdleConnections) {
+			this.maxIdleConnections = positive(maxIdleConnections, "maxIdleConnections");
+			return this;
+		}
+
+		/**
+		 * Sets how long an idle connection is kept, default 5 minutes.
+		 */
+		public Builder keepAlive(long keepAlive, TimeUnit unit) {
+			this.keepAliveMillis = nonNegative(keepAlive, unit);
+			return this;
+		}
+
+		/**
+		 * Enables HTTP/2, default true. Without it every concurrent request needs its
+		 * own HTTP/1.1 connection.
+		 */
+		public Builder http2(boolean http2) {
+			this.http2 = http2;
+			return this;
+		}
+
+		/**
+		 * Sets the number of requests the dispatcher runs concurrently.
+		 */
+		public Builder maxRequests(int maxRequests) {
+			this.maxRequests = positive(maxRequests, "maxRequests");
+			return this;
+		}
+
+		/**
+		 * Sets the number of requests the dispatcher runs concurrently against one
+		 * host. All Smart API routes share one host.
+		 */
+		public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+			this.maxRequestsPerHost = positive(maxRequestsPerHost, "maxRequestsPerHost");
+			return this;
+		}
+
+		/**
+		 * Enables logging of request and response bodies, default
+		 * {@link SmartConnect#ENABLE_LOGGING} at the time the config is built.
+		 */
+		public Builder logging(boolean logging) {
+			this.logging = logging;
+			return this;
+		}
+
+		public SmartAPIClientConfig build() {
+			return new SmartAPIClientConfig(this);
+		}
+
+		private static long nonNegative(long timeout, TimeUnit unit) {
+			if (timeout < 0) {
+				throw new IllegalArgumentException("timeout should not be negative");
+			}
+			return unit.toMillis(timeout);
+		}
+
+		private static int positive(int value, String name) {
+			if (value < 1) {
+				throw new IllegalArgumentException(name + " should be at least 1");
+			}
+			return value;
+		}
+	}
+}
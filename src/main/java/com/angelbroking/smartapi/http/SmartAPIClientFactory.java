@@ -0,0 +1,124 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.Routes;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide cache of the OkHttp clients used by request handlers.
+ *
+ * One client is built per distinct {@link SmartAPIClientConfig}, so logging in
+ * again, or creating more sessions with the same settings, reuses the warm
+ * connection pool and the dispatcher threads instead of starting from cold
+ * sockets.
+ */
+@Slf4j
+public final class SmartAPIClientFactory {
+
+	private static final Map<SmartAPIClientConfig, OkHttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+	private SmartAPIClientFactory() {
+
+	}
+
+	/**
+	 * Returns the client for a config, building it on first use.
+	 */
+	public static OkHttpClient client(SmartAPIClientConfig config) {
+		return CLIENTS.computeIfAbsent(config, SmartAPIClientFactory::build);
+	}
+
+	static OkHttpClient build(SmartAPIClientConfig config) {
+		OkHttpClient.Builder builder = new OkHttpClient.Builder()
+				.connectTimeout(config.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.readTimeout(config.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.writeTimeout(config.getWriteTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.callTimeout(config.getCallTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAliveMillis(),
+						TimeUnit.MILLISECONDS))
+				.protocols(config.isHttp2() ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+						: Collections.singletonList(Protocol.HTTP_1_1));
+		if (config.getProxy() != null) {
+			builder.proxy(config.getProxy());
+		}
+
+		Dispatcher dispatcher;
+		if (config.getExecutionMode() == ExecutionMode.VIRTUAL_THREADS && VirtualThreads.isSupported()) {
+			dispatcher = new Dispatcher(VirtualThreads.newThreadPerTaskExecutor("smartapi-http-"));
+		} else {
+			if (config.getExecutionMode() == ExecutionMode.VIRTUAL_THREADS) {
+				log.warn("virtual threads are not supported by this JVM, falling back to platform threads");
+			}
+			dispatcher = new Dispatcher();
+		}
+		dispatcher.setMaxRequests(config.getMaxRequests());
+		dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+		builder.dispatcher(dispatcher);
+
+		if (config.isLogging()) {
+			HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+			logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+			builder.addInterceptor(logging);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Opens connections to the Smart API host ahead of the first request, so that
+	 * DNS lookup, TCP and TLS handshakes are not paid by it.
+	 *
+	 * @param client      is the client whose pool receives the connections.
+	 * @param connections is the number of connections to open. With HTTP/2 one
+	 *                    connection carries all requests, with HTTP/1.1 every
+	 *                    concurrent request needs its own.
+	 * @return future which completes when all connections are established, and
+	 *         exceptionally if any could not be.
+	 */
+	public static CompletableFuture<Void> prewarm(OkHttpClient client, int connections) {
+		return prewarm(client, new Routes().get("api.user.profile"), connections);
+	}
+
+	static CompletableFuture<Void> prewarm(OkHttpClient client, String url, int connections) {
+		if (connections < 1) {
+			throw new IllegalArgumentException("connections should be at least 1");
+		}
+		List<CompletableFuture<Void>> futures = new ArrayList<>(connections);
+		for (int i = 0; i < connections; i++) {
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			// any response, e.g. 401 without a token, leaves the connection in the pool
+			client.newCall(new Request.Builder().url(url).head().build()).enqueue(new Callback() {
+				@Override
+				public void onFailure(Call call, IOException e) {
+					log.warn("prewarming {} failed {}", url, e.toString());
+					future.completeExceptionally(e);
+				}
+
+				@Override
+				public void onResponse(Call call, Response response) {
+					response.close();
+					future.complete(null);
+				}
+			});
+			futures.add(future);
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+}
@@ -1,441 +1,816 @@
-package com.angelbroking.smartapi.http;
-
-import com.angelbroking.smartapi.SmartConnect;
-import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
-import lombok.extern.slf4j.Slf4j;
-import okhttp3.FormBody;
-import okhttp3.HttpUrl;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.InetAddress;
-import java.net.NetworkInterface;
-import java.net.Proxy;
-import java.net.URL;
-import java.util.Enumeration;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-
-/**
- * Request handler for all Http requests
- */
-@Slf4j
-public class SmartAPIRequestHandler {
-
-	private OkHttpClient client;
-	private String USER_AGENT = "javasmartapiconnect/3.0.0";
-	JSONObject apiheader = apiHeaders();
-
-	/**
-	 * Initialize request handler.
-	 * 
-	 * @param proxy to be set for making requests.
-	 */
-	public SmartAPIRequestHandler(Proxy proxy) {
-		OkHttpClient.Builder builder = new OkHttpClient.Builder();
-		builder.connectTimeout(10000, TimeUnit.MILLISECONDS);
-		if (proxy != null) {
-			builder.proxy(proxy);
-		}
-
-		HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-		logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-		if (SmartConnect.ENABLE_LOGGING) {
-			client = builder.addInterceptor(logging).build();
-		} else {
-			client = builder.build();
-		}
-	}
-
-	public JSONObject apiHeaders() {
-		try {
-			JSONObject headers = new JSONObject();
-
-			// Local IP Address
-			InetAddress localHost = InetAddress.getLocalHost();
-			String clientLocalIP = localHost.getHostAddress();
-			headers.put("clientLocalIP", clientLocalIP);
-
-			// Public IP Address
-			URL urlName = new URL("http://checkip.amazonaws.com");
-			BufferedReader sc = new BufferedReader(new InputStreamReader(urlName.openStream()));
-			String clientPublicIP = sc.readLine().trim();
-			headers.put("clientPublicIP", clientPublicIP);
-			String macAddress = null;
-			// MAC Address
-			// get all network interfaces of the current system
-			Enumeration<NetworkInterface> networkInterface = NetworkInterface.getNetworkInterfaces();
-			// iterate over all interfaces
-			while (networkInterface.hasMoreElements()) {
-				// get an interface
-				NetworkInterface network = networkInterface.nextElement();
-				// get its hardware or mac address
-				byte[] macAddressBytes = network.getHardwareAddress();
-				if (macAddressBytes != null) {
-					// initialize a string builder to hold mac address
-					StringBuilder macAddressStr = new StringBuilder();
-					// iterate over the bytes of mac address
-					for (int i = 0; i < macAddressBytes.length; i++) {
-						// convert byte to string in hexadecimal form
-						macAddressStr.append(String.format("%02X%s", macAddressBytes[i],
-								(i < macAddressBytes.length - 1) ? "-" : ""));
-					}
-
-					macAddress = macAddressStr.toString();
-					if (macAddress != null) {
-						break;
-					}
-				}
-			}
-			headers.put("macAddress", macAddress);
-			String accept = "application/json";
-			headers.put("accept", accept);
-			String userType = "USER";
-			headers.put("userType", userType);
-			String sourceID = "WEB";
-			headers.put("sourceID", sourceID);
-
-			log.info("headers : {}",headers);
-			return headers;
-		} catch (Exception e) {
-			log.error(e.getMessage());
-			return null;
-		}
-
-	}
-
-	/**
-	 * Makes a POST request.
-	 * 
-	 * @return JSONObject which is received by Smart API.
-	 * @param url         is the endpoint to which request has to be sent.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of params which has to be sent in the body.
-	 * @throws IOException       is thrown when there is a connection related error.
-	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
-	 * @throws JSONException     is thrown for parsing errors.
-	 */
-	public JSONObject postRequest(String apiKey, String url, JSONObject params)
-			throws IOException, JSONException, SmartAPIException {
-
-		Request request = createPostRequest(apiKey, url, params);
-		Response response = client.newCall(request).execute();
-		String body = response.body().string();
-		return new SmartAPIResponseHandler().handle(response, body);
-
-	}
-
-	/**
-	 * Makes a POST request.
-	 * 
-	 * @return JSONObject which is received by Smart API Trade.
-	 * @param url         is the endpoint to which request has to be sent.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of params which has to be sent in the body.
-	 * @throws IOException       is thrown when there is a connection related error.
-	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
-	 * @throws JSONException     is thrown for parsing errors.
-	 */
-	public JSONObject postRequest(String apiKey, String url, JSONObject params, String accessToken)
-			throws IOException, SmartAPIException, JSONException {
-		Request request = createPostRequest(apiKey, url, params, accessToken);
-		Response response = client.newCall(request).execute();
-		String body = response.body().string();
-		return new SmartAPIResponseHandler().handle(response, body);
-	}
-
-	/**
-	 * Make a JSON POST request.
-	 * 
-	 * @param url         is the endpoint to which request has to be sent.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param jsonArray   is the JSON array of params which has to be sent in the
-	 *                    body.
-	 * @throws IOException       is thrown when there is a connection related error.
-	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
-	 * @throws JSONException     is thrown for parsing errors.
-	 */
-	public JSONObject postRequestJSON(String url, JSONArray jsonArray, String apiKey, String accessToken)
-			throws IOException, SmartAPIException, JSONException {
-		Request request = createJsonPostRequest(url, jsonArray, apiKey, accessToken);
-		Response response = client.newCall(request).execute();
-		String body = response.body().string();
-		return new SmartAPIResponseHandler().handle(response, body);
-	}
-
-	/**
-	 * Makes a PUT request.
-	 * 
-	 * @return JSONObject which is received by Smart API Trade.
-	 * @param url         is the endpoint to which request has to be sent.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of params which has to be sent in the body.
-	 * @throws IOException       is thrown when there is a connection related error.
-	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
-	 * @throws JSONException     is thrown for parsing errors.
-	 */
-	public JSONObject putRequest(String url, Map<String, Object> params, String apiKey, String accessToken)
-			throws IOException, SmartAPIException, JSONException {
-		Request request = createPutRequest(url, params, apiKey, accessToken);
-		Response response = client.newCall(request).execute();
-		String body = response.body().string();
-		return new SmartAPIResponseHandler().handle(response, body);
-	}
-
-	/**
-	 * Makes a DELETE request.
-	 * 
-	 * @return JSONObject which is received by Smart API Trade.
-	 * @param url         is the endpoint to which request has to be sent.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of params which has to be sent in the query
-	 *                    params.
-	 * @throws IOException       is thrown when there is a connection related error.
-	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
-	 * @throws JSONException     is thrown for parsing errors.
-	 */
-	public JSONObject deleteRequest(String url, Map<String, Object> params, String apiKey, String accessToken)
-			throws IOException, SmartAPIException, JSONException {
-		Request request = createDeleteRequest(url, params, apiKey, accessToken);
-		Response response = client.newCall(request).execute();
-		String body = response.body().string();
-		return new SmartAPIResponseHandler().handle(response, body);
-	}
-
-	/**
-	 * Makes a GET request.
-	 * 
-	 * @return JSONObject which is received by Smart API Trade.
-	 * @param url         is the endpoint to which request has to be sent.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param commonKey   is the key that has to be sent in query param for quote
-	 *                    calls.
-	 * @param values      is the values that has to be sent in query param like 265,
-	 *                    256265, NSE:INFY.
-	 * @throws IOException       is thrown when there is a connection related error.
-	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
-	 * @throws JSONException     is thrown for parsing errors.
-	 */
-	public JSONObject getRequest(String apiKey, String url, String accessToken)
-			throws IOException, SmartAPIException, JSONException {
-		Request request = createGetRequest(apiKey, url, accessToken);
-		Response response = client.newCall(request).execute();
-		String body = response.body().string();
-		return new SmartAPIResponseHandler().handle(response, body);
-	}
-
-	/**
-	 * Creates a GET request.
-	 * 
-	 * @param url         is the endpoint to which request has to be done.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @throws IOException
-	 */
-	public Request createGetRequest(String apiKey, String url, String accessToken) throws IOException {
-
-		HttpUrl.Builder httpBuilder = HttpUrl.parse(url).newBuilder();
-
-		String privateKey = apiKey;
-
-		return new Request.Builder().url(httpBuilder.build()).header("User-Agent", USER_AGENT)
-				.header("Authorization", "Bearer " + accessToken).header("Content-Type", "application/json")
-				.header("X-ClientLocalIP", apiheader.getString("clientLocalIP"))
-				.header("X-ClientPublicIP", apiheader.getString("clientPublicIP"))
-				.header("X-MACAddress", apiheader.getString("macAddress"))
-				.header("Accept", apiheader.getString("accept")).header("X-PrivateKey", privateKey)
-				.header("X-UserType", apiheader.getString("userType"))
-				.header("X-SourceID", apiheader.getString("sourceID")).build();
-	}
-
-	/**
-	 * Creates a GET request.
-	 * 
-	 * @param url         is the endpoint to which request has to be done.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param commonKey   is the key that has to be sent in query param for quote
-	 *                    calls.
-	 * @param values      is the values that has to be sent in query param like 265,
-	 *                    256265, NSE:INFY.
-	 */
-	public Request createGetRequest(String url, String commonKey, String[] values, String apiKey, String accessToken) {
-		HttpUrl.Builder httpBuilder = HttpUrl.parse(url).newBuilder();
-		for (int i = 0; i < values.length; i++) {
-			httpBuilder.addQueryParameter(commonKey, values[i]);
-		}
-		return new Request.Builder().url(httpBuilder.build()).header("User-Agent", USER_AGENT)
-				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
-				.build();
-	}
-
-	/**
-	 * Creates a POST request.
-	 * 
-	 * @param url         is the endpoint to which request has to be done.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of data that has to be sent in the body.
-	 */
-	public Request createPostRequest(String apiKey, String url, JSONObject params) {
-		try {
-
-			MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-			RequestBody body = RequestBody.create(params.toString(), JSON);
-
-			String privateKey = apiKey;
-			Request request = new Request.Builder().url(url).post(body).header("Content-Type", "application/json")
-					.header("X-ClientLocalIP", apiheader.getString("clientLocalIP"))
-					.header("X-ClientPublicIP", apiheader.getString("clientPublicIP"))
-					.header("X-MACAddress", apiheader.getString("macAddress"))
-					.header("Accept", apiheader.getString("accept")).header("X-PrivateKey", privateKey)
-					.header("X-UserType", apiheader.getString("userType"))
-					.header("X-SourceID", apiheader.getString("sourceID")).build();
-			return request;
-		} catch (Exception e) {
-			log.error("exception createPostRequest");
-			log.error(e.getMessage());
-			return null;
-		}
-	}
-
-	/**
-	 * Creates a POST request.
-	 * 
-	 * @param url         is the endpoint to which request has to be done.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of data that has to be sent in the body.
-	 */
-	public Request createPostRequest(String apiKey, String url, JSONObject params, String accessToken) {
-		try {
-
-			MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-			RequestBody body = RequestBody.create(params.toString(), JSON);
-
-			String privateKey = apiKey;
-
-			Request request = new Request.Builder().url(url).post(body).header("Content-Type", "application/json")
-					.header("Authorization", "Bearer " + accessToken)
-					.header("X-ClientLocalIP", apiheader.getString("clientLocalIP"))
-					.header("X-ClientPublicIP", apiheader.getString("clientPublicIP"))
-					.header("X-MACAddress", apiheader.getString("macAddress"))
-					.header("Accept", apiheader.getString("accept")).header("X-PrivateKey", privateKey)
-					.header("X-UserType", apiheader.getString("userType"))
-					.header("X-SourceID", apiheader.getString("sourceID")).build();
-			return request;
-		} catch (Exception e) {
-			log.error(e.getMessage());
-			return null;
-		}
-	}
-
-	/**
-	 * Create a POST request with body type JSON.
-	 * 
-	 * @param url         is the endpoint to which request has to be done.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param jsonArray   is the JSONArray of data that has to be sent in the body.
-	 */
-	public Request createJsonPostRequest(String url, JSONArray jsonArray, String apiKey, String accessToken) {
-		MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-
-		RequestBody body = RequestBody.create(jsonArray.toString(), JSON);
-		Request request = new Request.Builder().url(url).header("User-Agent", USER_AGENT)
-				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
-				.post(body).build();
-		return request;
-	}
-
-	/**
-	 * Makes a POST request.
-	 *
-	 * @return JSONObject which is received by Smart API Trade.
-	 * @param url         is the endpoint to which request has to be sent.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of params which has to be sent in the body.
-	 * @throws IOException       is thrown when there is a connection related error.
-	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
-	 * @throws JSONException     is thrown for parsing errors.
-	 */
-	public String postRequestJSONObject(String apiKey, String url, JSONObject params, String accessToken)
-			throws IOException, SmartAPIException, JSONException {
-		Request request = createPostRequest(apiKey, url, params, accessToken);
-		Response response = client.newCall(request).execute();
-		String body = response.body().string();
-		return new SmartAPIResponseHandler().handler(response, body);
-	}
-
-	/**
-	 * Creates a PUT request.
-	 * 
-	 * @param url         is the endpoint to which request has to be done.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of data that has to be sent in the body.
-	 */
-	public Request createPutRequest(String url, Map<String, Object> params, String apiKey, String accessToken) {
-		FormBody.Builder builder = new FormBody.Builder();
-		for (Map.Entry<String, Object> entry : params.entrySet()) {
-			builder.add(entry.getKey(), entry.getValue().toString());
-		}
-		RequestBody requestBody = builder.build();
-		Request request = new Request.Builder().url(url).put(requestBody).header("User-Agent", USER_AGENT)
-				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
-				.build();
-		return request;
-	}
-
-	/**
-	 * Creates a DELETE request.
-	 * 
-	 * @param url         is the endpoint to which request has to be done.
-	 * @param apiKey      is the api key of the Smart API Connect app.
-	 * @param accessToken is the access token obtained after successful login
-	 *                    process.
-	 * @param params      is the map of data that has to be sent in the query
-	 *                    params.
-	 */
-	public Request createDeleteRequest(String url, Map<String, Object> params, String apiKey, String accessToken) {
-		HttpUrl.Builder httpBuilder = HttpUrl.parse(url).newBuilder();
-		for (Map.Entry<String, Object> entry : params.entrySet()) {
-			httpBuilder.addQueryParameter(entry.getKey(), entry.getValue().toString());
-		}
-
-		Request request = new Request.Builder().url(httpBuilder.build()).delete().header("User-Agent", USER_AGENT)
-				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
-				.build();
-		return request;
-	}
-
-}
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.Routes;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Type;
+import java.net.Proxy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request handler for all Http requests
+ */
+@Slf4j
+public class SmartAPIRequestHandler {
+
+	private static final String BEARER = "Bearer ";
+	private static final String REFRESH_PATH = HttpUrl.get(new Routes().get("api.refresh")).encodedPath();
+
+	private final Routes routes = new Routes();
+	private volatile RequestScheduler requestScheduler;
+	private volatile RetryPolicy retryPolicy;
+	private volatile HedgePolicy hedgePolicy;
+	private volatile TokenGate tokenGate;
+	private volatile SmartAPIClientConfig clientConfig;
+	private volatile OkHttpClient client;
+	private String USER_AGENT = ApiHeaderContext.USER_AGENT;
+	private volatile ApiHeaderContext apiHeaderContext = ApiHeaderContext.shared();
+
+	/**
+	 * Initialize request handler.
+	 * 
+	 * @param proxy to be set for making requests.
+	 */
+	public SmartAPIRequestHandler(Proxy proxy) {
+		this(proxy, ExecutionMode.PLATFORM_THREADS);
+	}
+
+	/**
+	 * Initialize request handler.
+	 *
+	 * @param proxy         to be set for making requests.
+	 * @param executionMode selects the threads used for asynchronous calls and
+	 *                      the concurrency limits of the http client.
+	 */
+	public SmartAPIRequestHandler(Proxy proxy, ExecutionMode executionMode) {
+		this(SmartAPIClientConfig.builder().proxy(proxy).executionMode(executionMode).build(), null);
+	}
+
+	private SmartAPIRequestHandler(SmartAPIClientConfig clientConfig, RequestScheduler requestScheduler) {
+		setClientConfig(clientConfig);
+		this.requestScheduler = requestScheduler;
+	}
+
+	/**
+	 * Creates a request handler on the shared client of a config.
+	 *
+	 * @param clientConfig selects the timeouts, connection pool, protocols and
+	 *                     concurrency limits of the http client.
+	 */
+	public static SmartAPIRequestHandler create(SmartAPIClientConfig clientConfig) {
+		return new SmartAPIRequestHandler(clientConfig, null);
+	}
+
+	/**
+	 * Switches to the shared client of another config. Calls already in flight
+	 * finish on the previous client.
+	 *
+	 * @param clientConfig is the config of the client to use.
+	 */
+	public void setClientConfig(SmartAPIClientConfig clientConfig) {
+		if (clientConfig == null) {
+			throw new IllegalArgumentException("clientConfig should not be null");
+		}
+		this.clientConfig = clientConfig;
+		this.client = gated(SmartAPIClientFactory.client(clientConfig));
+	}
+
+	public SmartAPIClientConfig getClientConfig() {
+		return clientConfig;
+	}
+
+	/**
+	 * Opens connections to the Smart API host ahead of the first request.
+	 *
+	 * @param connections is the number of connections to open.
+	 * @return future which completes when the connections are established.
+	 * @see SmartAPIClientFactory#prewarm(OkHttpClient, int)
+	 */
+	public CompletableFuture<Void> prewarm(int connections) {
+		return SmartAPIClientFactory.prewarm(client, connections);
+	}
+
+	/**
+	 * Returns the client identification headers.
+	 *
+	 * @return JSONObject of the headers, or null if they could not be resolved.
+	 */
+	public JSONObject apiHeaders() {
+		try {
+			return apiHeaderContext.snapshot().toJSONObject();
+		} catch (Exception e) {
+			log.error(e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Sets the context the client identification headers are taken from. By
+	 * default the process wide {@link ApiHeaderContext#shared()} context is used.
+	 *
+	 * @param apiHeaderContext is the context to use.
+	 */
+	public void setApiHeaderContext(ApiHeaderContext apiHeaderContext) {
+		if (apiHeaderContext == null) {
+			throw new IllegalArgumentException("apiHeaderContext should not be null");
+		}
+		this.apiHeaderContext = apiHeaderContext;
+	}
+
+	/**
+	 * Makes a POST request.
+	 * 
+	 * @return JSONObject which is received by Smart API.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of params which has to be sent in the body.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public JSONObject postRequest(String apiKey, String url, JSONObject params)
+			throws IOException, JSONException, SmartAPIException {
+
+		Request request = createPostRequest(apiKey, url, params);
+		Response response = execute(request);
+		String body = response.body().string();
+		return new SmartAPIResponseHandler().handle(response, body);
+
+	}
+
+	/**
+	 * Makes a POST request.
+	 * 
+	 * @return JSONObject which is received by Smart API Trade.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of params which has to be sent in the body.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public JSONObject postRequest(String apiKey, String url, JSONObject params, String accessToken)
+			throws IOException, SmartAPIException, JSONException {
+		return call(createPostRequest(apiKey, url, params, accessToken), JSON_DECODER);
+	}
+
+	/**
+	 * Make a JSON POST request.
+	 * 
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param jsonArray   is the JSON array of params which has to be sent in the
+	 *                    body.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public JSONObject postRequestJSON(String url, JSONArray jsonArray, String apiKey, String accessToken)
+			throws IOException, SmartAPIException, JSONException {
+		Request request = createJsonPostRequest(url, jsonArray, apiKey, accessToken);
+		Response response = execute(request);
+		String body = response.body().string();
+		return new SmartAPIResponseHandler().handle(response, body);
+	}
+
+	/**
+	 * Makes a PUT request.
+	 * 
+	 * @return JSONObject which is received by Smart API Trade.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of params which has to be sent in the body.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public JSONObject putRequest(String url, Map<String, Object> params, String apiKey, String accessToken)
+			throws IOException, SmartAPIException, JSONException {
+		Request request = createPutRequest(url, params, apiKey, accessToken);
+		Response response = execute(request);
+		String body = response.body().string();
+		return new SmartAPIResponseHandler().handle(response, body);
+	}
+
+	/**
+	 * Makes a DELETE request.
+	 * 
+	 * @return JSONObject which is received by Smart API Trade.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of params which has to be sent in the query
+	 *                    params.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public JSONObject deleteRequest(String url, Map<String, Object> params, String apiKey, String accessToken)
+			throws IOException, SmartAPIException, JSONException {
+		Request request = createDeleteRequest(url, params, apiKey, accessToken);
+		Response response = execute(request);
+		String body = response.body().string();
+		return new SmartAPIResponseHandler().handle(response, body);
+	}
+
+	/**
+	 * Makes a GET request.
+	 * 
+	 * @return JSONObject which is received by Smart API Trade.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param commonKey   is the key that has to be sent in query param for quote
+	 *                    calls.
+	 * @param values      is the values that has to be sent in query param like 265,
+	 *                    256265, NSE:INFY.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public JSONObject getRequest(String apiKey, String url, String accessToken)
+			throws IOException, SmartAPIException, JSONException {
+		return call(createGetRequest(apiKey, url, accessToken), JSON_DECODER);
+	}
+
+	/**
+	 * Makes a GET request and decodes the data of the response into the given
+	 * type while it is read from the network.
+	 *
+	 * @return the data of the response, or null if it carries no data.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param dataType    is the type of the data, e.g. a model class or a List of
+	 *                    models.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public <T> T getRequest(String apiKey, String url, String accessToken, Type dataType)
+			throws IOException, SmartAPIException, JSONException {
+		return call(createGetRequest(apiKey, url, accessToken),
+				response -> new SmartAPIResponseHandler().<T>handle(response, dataType));
+	}
+
+	/**
+	 * Makes a POST request and decodes the data of the response into the given
+	 * type while it is read from the network.
+	 *
+	 * @return the data of the response, or null if it carries no data.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param params      is the map of params which has to be sent in the body.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param dataType    is the type of the data, e.g. a model class or a List of
+	 *                    models.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public <T> T postRequest(String apiKey, String url, JSONObject params, String accessToken, Type dataType)
+			throws IOException, SmartAPIException, JSONException {
+		return call(createPostRequest(apiKey, url, params, accessToken),
+				response -> new SmartAPIResponseHandler().<T>handle(response, dataType));
+	}
+
+	/**
+	 * Makes a POST request without blocking the calling thread.
+	 *
+	 * @return CompletableFuture which completes with the JSONObject received by
+	 *         Smart API, or exceptionally with IOException, JSONException or
+	 *         SmartAPIException.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param params      is the map of params which has to be sent in the body.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 */
+	public CompletableFuture<JSONObject> postRequestAsync(String apiKey, String url, JSONObject params,
+			String accessToken) {
+		return enqueue(createPostRequest(apiKey, url, params, accessToken));
+	}
+
+	/**
+	 * Makes a POST request without blocking the calling thread and decodes the
+	 * data of the response into the given type while it is read from the network.
+	 *
+	 * @return CompletableFuture which completes with the data of the response, or
+	 *         exceptionally with IOException, JSONException or SmartAPIException.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param params      is the map of params which has to be sent in the body.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param dataType    is the type of the data, e.g. a model class or a List of
+	 *                    models.
+	 */
+	public <T> CompletableFuture<T> postRequestAsync(String apiKey, String url, JSONObject params, String accessToken,
+			Type dataType) {
+		return enqueue(createPostRequest(apiKey, url, params, accessToken),
+				response -> new SmartAPIResponseHandler().<T>handle(response, dataType));
+	}
+
+	/**
+	 * Makes a GET request without blocking the calling thread.
+	 *
+	 * @return CompletableFuture which completes with the JSONObject received by
+	 *         Smart API, or exceptionally with IOException, JSONException or
+	 *         SmartAPIException.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 */
+	public CompletableFuture<JSONObject> getRequestAsync(String apiKey, String url, String accessToken) {
+		try {
+			return enqueue(createGetRequest(apiKey, url, accessToken));
+		} catch (IOException e) {
+			CompletableFuture<JSONObject> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+	/**
+	 * Sends a request which was built by the caller, e.g. from a prebuilt
+	 * template.
+	 *
+	 * @return JSONObject which is received by Smart API.
+	 * @param request is the request to send.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors,
+	 *                           including responses whose status is false.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public JSONObject send(Request request) throws IOException, SmartAPIException, JSONException {
+		Response response = execute(request);
+		String body = response.body().string();
+		SmartAPIResponseHandler responseHandler = new SmartAPIResponseHandler();
+		return responseHandler.checkStatus(responseHandler.handle(response, body));
+	}
+
+	/**
+	 * Sends a request which was built by the caller without blocking the calling
+	 * thread.
+	 *
+	 * @return CompletableFuture which completes with the JSONObject received by
+	 *         Smart API, or exceptionally with IOException, JSONException or
+	 *         SmartAPIException, e.g. for a response whose status is false.
+	 * @param request is the request to send.
+	 */
+	public CompletableFuture<JSONObject> sendAsync(Request request) {
+		return enqueue(request);
+	}
+
+	/**
+	 * Returns the context the client identification headers are taken from.
+	 */
+	public ApiHeaderContext getApiHeaderContext() {
+		return apiHeaderContext;
+	}
+
+	/**
+	 * Sets the rate limiter consulted before every request is sent.
+	 *
+	 * @param requestScheduler is the limiter to use, or null to send requests
+	 *                         without throttling.
+	 */
+	public void setRequestScheduler(RequestScheduler requestScheduler) {
+		this.requestScheduler = requestScheduler;
+	}
+
+	/**
+	 * Returns the rate limiter of this handler, null if requests are not
+	 * throttled.
+	 */
+	public RequestScheduler getRequestScheduler() {
+		return requestScheduler;
+	}
+
+	/**
+	 * Sets the retry policy of idempotent reads, see
+	 * {@link com.angelbroking.smartapi.Routes#IDEMPOTENT_READS}. Other routes are
+	 * never retried.
+	 *
+	 * @param retryPolicy is the policy, or null to send reads once.
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Sets the hedge policy of idempotent reads, see
+	 * {@link com.angelbroking.smartapi.Routes#IDEMPOTENT_READS}. Other routes are
+	 * never hedged.
+	 *
+	 * @param hedgePolicy is the policy, or null to send no duplicate requests.
+	 */
+	public void setHedgePolicy(HedgePolicy hedgePolicy) {
+		this.hedgePolicy = hedgePolicy;
+	}
+
+	public HedgePolicy getHedgePolicy() {
+		return hedgePolicy;
+	}
+
+	/**
+	 * Sets the gate which supplies the access token of every request carrying a
+	 * bearer token, so tokens renewed in the background are used by requests
+	 * already built or queued, and requests made during a renewal wait for it
+	 * briefly. The renewal request itself passes through unchanged.
+	 *
+	 * @param tokenGate is the gate, or null to send requests with the token they
+	 *                  were built with.
+	 */
+	public void setTokenGate(TokenGate tokenGate) {
+		this.tokenGate = tokenGate;
+		this.client = gated(SmartAPIClientFactory.client(clientConfig));
+	}
+
+	public TokenGate getTokenGate() {
+		return tokenGate;
+	}
+
+	/**
+	 * Returns the shared client, with the token gate in front of it when one is
+	 * set. The gated client shares the connection pool and dispatcher of the
+	 * shared one.
+	 */
+	private OkHttpClient gated(OkHttpClient shared) {
+		return tokenGate == null ? shared : shared.newBuilder().addInterceptor(this::authorize).build();
+	}
+
+	private Response authorize(Interceptor.Chain chain) throws IOException {
+		Request request = chain.request();
+		TokenGate gate = tokenGate;
+		String authorization = request.header("Authorization");
+		if (gate == null || authorization == null || !authorization.startsWith(BEARER)
+				|| REFRESH_PATH.equals(request.url().encodedPath())) {
+			return chain.proceed(request);
+		}
+		String token = authorization.substring(BEARER.length());
+		String current = gate.accessToken(token);
+		if (current != null && !current.equals(token)) {
+			request = request.newBuilder().header("Authorization", BEARER + current).build();
+		}
+		return chain.proceed(request);
+	}
+
+	/**
+	 * Sends a request and decodes its response on the calling thread. Idempotent
+	 * reads go through the retry and hedge policies when any is set.
+	 */
+	private <T> T call(Request request, ResponseDecoder<T> decoder) throws IOException, SmartAPIException {
+		String readRoute = readRoute(request);
+		if (readRoute == null) {
+			try (Response response = execute(request)) {
+				return decoder.decode(response);
+			}
+		}
+		CompletableFuture<T> future = ResilientRead.start(() -> enqueueOnce(request, decoder), readRoute,
+				retryPolicy, hedgePolicy);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for " + request.url());
+		} catch (ExecutionException e) {
+			Throwable cause = ResilientRead.unwrap(e);
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof SmartAPIException) {
+				throw (SmartAPIException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Returns the route key of a request if a read policy applies to it.
+	 */
+	private String readRoute(Request request) {
+		if (request == null || (retryPolicy == null && hedgePolicy == null)) {
+			return null;
+		}
+		String key = routes.keyOfPath(request.url().encodedPath());
+		return key != null && Routes.IDEMPOTENT_READS.contains(key) ? key : null;
+	}
+
+	/**
+	 * Executes a request on the calling thread once the rate limiter allows it.
+	 */
+	private Response execute(Request request) throws IOException, SmartAPIException {
+		acquirePermit(requestScheduler, request);
+		return client.newCall(request).execute();
+	}
+
+	/**
+	 * Hands a request to OkHttp's dispatcher and completes the returned future from
+	 * the callback. Cancelling the future cancels the underlying call. When a rate
+	 * limiter is set, a permit is reserved up front and the call is handed to the
+	 * dispatcher once the permit is granted, so no thread waits for it; a request
+	 * cancelled before then is not sent and gives up its reservation.
+	 */
+	private CompletableFuture<JSONObject> enqueue(Request request) {
+		return enqueue(request, JSON_DECODER);
+	}
+
+	private <T> CompletableFuture<T> enqueue(Request request, ResponseDecoder<T> decoder) {
+		String readRoute = readRoute(request);
+		if (readRoute == null) {
+			return enqueueOnce(request, decoder);
+		}
+		return ResilientRead.start(() -> enqueueOnce(request, decoder), readRoute, retryPolicy, hedgePolicy);
+	}
+
+	private <T> CompletableFuture<T> enqueueOnce(Request request, ResponseDecoder<T> decoder) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		if (request == null) {
+			future.completeExceptionally(new SmartAPIException("request could not be created"));
+			return future;
+		}
+		final Call call = client.newCall(request);
+		final Callback callback = new Callback() {
+			@Override
+			public void onFailure(Call call, IOException e) {
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response) {
+				try (ResponseBody responseBody = response.body()) {
+					future.complete(decoder.decode(response));
+				} catch (Exception | SmartAPIException e) {
+					future.completeExceptionally(e);
+				}
+			}
+		};
+		final RequestScheduler scheduler = requestScheduler;
+		if (scheduler == null) {
+			call.enqueue(callback);
+		} else {
+			final String routeKey = routes.keyOf(request.url().toString());
+			CompletableFuture<Void> permit = scheduler.reserve(routeKey);
+			permit.whenComplete((granted, error) -> {
+				if (error != null) {
+					future.completeExceptionally(error);
+				} else if (future.isDone()) {
+					scheduler.release(routeKey);
+				} else {
+					call.enqueue(callback);
+				}
+			});
+			future.whenComplete((result, throwable) -> {
+				if (future.isCancelled()) {
+					permit.cancel(false);
+				}
+			});
+		}
+		future.whenComplete((result, throwable) -> {
+			if (future.isCancelled()) {
+				call.cancel();
+			}
+		});
+		return future;
+	}
+
+	private static final ResponseDecoder<JSONObject> JSON_DECODER = response -> {
+		SmartAPIResponseHandler handler = new SmartAPIResponseHandler();
+		return handler.checkStatus(handler.handle(response, response.body().string()));
+	};
+
+	private interface ResponseDecoder<T> {
+		T decode(Response response) throws IOException, SmartAPIException;
+	}
+
+	private void acquirePermit(RequestScheduler scheduler, Request request) throws IOException, SmartAPIException {
+		if (scheduler == null) {
+			return;
+		}
+		try {
+			scheduler.acquire(routes.keyOf(request.url().toString()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a rate limit permit");
+		}
+	}
+
+	/**
+	 * Creates a GET request.
+	 *
+	 * @param url         is the endpoint to which request has to be done.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @throws IOException
+	 */
+	public Request createGetRequest(String apiKey, String url, String accessToken) throws IOException {
+
+		HttpUrl.Builder httpBuilder = HttpUrl.parse(url).newBuilder();
+
+		String privateKey = apiKey;
+
+		return new Request.Builder().url(httpBuilder.build()).headers(apiHeaderContext.snapshot().getHeaders())
+				.header("Authorization", "Bearer " + accessToken).header("X-PrivateKey", privateKey).build();
+	}
+
+	/**
+	 * Creates a GET request.
+	 * 
+	 * @param url         is the endpoint to which request has to be done.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param commonKey   is the key that has to be sent in query param for quote
+	 *                    calls.
+	 * @param values      is the values that has to be sent in query param like 265,
+	 *                    256265, NSE:INFY.
+	 */
+	public Request createGetRequest(String url, String commonKey, String[] values, String apiKey, String accessToken) {
+		HttpUrl.Builder httpBuilder = HttpUrl.parse(url).newBuilder();
+		for (int i = 0; i < values.length; i++) {
+			httpBuilder.addQueryParameter(commonKey, values[i]);
+		}
+		return new Request.Builder().url(httpBuilder.build()).header("User-Agent", USER_AGENT)
+				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
+				.build();
+	}
+
+	/**
+	 * Creates a POST request.
+	 * 
+	 * @param url         is the endpoint to which request has to be done.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of data that has to be sent in the body.
+	 */
+	public Request createPostRequest(String apiKey, String url, JSONObject params) {
+		try {
+
+			MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+			RequestBody body = RequestBody.create(params.toString(), JSON);
+
+			String privateKey = apiKey;
+			Request request = new Request.Builder().url(url).post(body)
+					.headers(apiHeaderContext.snapshot().postHeaders()).header("X-PrivateKey", privateKey).build();
+			return request;
+		} catch (Exception e) {
+			log.error("exception createPostRequest");
+			log.error(e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a POST request.
+	 * 
+	 * @param url         is the endpoint to which request has to be done.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of data that has to be sent in the body.
+	 */
+	public Request createPostRequest(String apiKey, String url, JSONObject params, String accessToken) {
+		try {
+
+			MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+			RequestBody body = RequestBody.create(params.toString(), JSON);
+
+			String privateKey = apiKey;
+
+			Request request = new Request.Builder().url(url).post(body)
+					.headers(apiHeaderContext.snapshot().postHeaders()).header("Authorization", "Bearer " + accessToken)
+					.header("X-PrivateKey", privateKey).build();
+			return request;
+		} catch (Exception e) {
+			log.error(e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Create a POST request with body type JSON.
+	 * 
+	 * @param url         is the endpoint to which request has to be done.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param jsonArray   is the JSONArray of data that has to be sent in the body.
+	 */
+	public Request createJsonPostRequest(String url, JSONArray jsonArray, String apiKey, String accessToken) {
+		MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+		RequestBody body = RequestBody.create(jsonArray.toString(), JSON);
+		Request request = new Request.Builder().url(url).header("User-Agent", USER_AGENT)
+				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
+				.post(body).build();
+		return request;
+	}
+
+	/**
+	 * Makes a POST request.
+	 *
+	 * @return JSONObject which is received by Smart API Trade.
+	 * @param url         is the endpoint to which request has to be sent.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of params which has to be sent in the body.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public String postRequestJSONObject(String apiKey, String url, JSONObject params, String accessToken)
+			throws IOException, SmartAPIException, JSONException {
+		Request request = createPostRequest(apiKey, url, params, accessToken);
+		Response response = execute(request);
+		String body = response.body().string();
+		return new SmartAPIResponseHandler().handler(response, body);
+	}
+
+	/**
+	 * Creates a PUT request.
+	 * 
+	 * @param url         is the endpoint to which request has to be done.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of data that has to be sent in the body.
+	 */
+	public Request createPutRequest(String url, Map<String, Object> params, String apiKey, String accessToken) {
+		FormBody.Builder builder = new FormBody.Builder();
+		for (Map.Entry<String, Object> entry : params.entrySet()) {
+			builder.add(entry.getKey(), entry.getValue().toString());
+		}
+		RequestBody requestBody = builder.build();
+		Request request = new Request.Builder().url(url).put(requestBody).header("User-Agent", USER_AGENT)
+				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
+				.build();
+		return request;
+	}
+
+	/**
+	 * Creates a DELETE request.
+	 * 
+	 * @param url         is the endpoint to which request has to be done.
+	 * @param apiKey      is the api key of the Smart API Connect app.
+	 * @param accessToken is the access token obtained after successful login
+	 *                    process.
+	 * @param params      is the map of data that has to be sent in the query
+	 *                    params.
+	 */
+	public Request createDeleteRequest(String url, Map<String, Object> params, String apiKey, String accessToken) {
+		HttpUrl.Builder httpBuilder = HttpUrl.parse(url).newBuilder();
+		for (Map.Entry<String, Object> entry : params.entrySet()) {
+			httpBuilder.addQueryParameter(entry.getKey(), entry.getValue().toString());
+		}
+
+		Request request = new Request.Builder().url(httpBuilder.build()).delete().header("User-Agent", USER_AGENT)
+				.header("X-Smart API-Version", "3").header("Authorization", "token " + apiKey + ":" + accessToken)
+				.build();
+		return request;
+	}
+
+}
@@ -1,12 +1,19 @@
 package com.angelbroking.smartapi.http;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.List;
 
 import com.angelbroking.smartapi.http.exceptions.ApiKeyException;
 import com.angelbroking.smartapi.models.SearchScripResponseDTO;
+import com.angelbroking.smartapi.utils.JsonMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -23,6 +30,7 @@ import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
 import com.angelbroking.smartapi.http.exceptions.TokenException;
 
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 import static com.angelbroking.smartapi.utils.Constants.APIKEY_EXCEPTION_MESSAGE;
 import static com.angelbroking.smartapi.utils.Constants.TOKEN_EXCEPTION_MESSAGE;
@@ -51,11 +59,133 @@ public class SmartAPIResponseHandler {
 			return jsonObject;
 		} else {
 			throw new DataException("Unexpected content type received from server: " + response.header("Content-Type")
-					+ " " + response.body().string(), "AG8001");
+					+ " " + body, "AG8001");
 		}
 	}
 
+	/**
+	 * Raises the error of a response whose status is false, which
+	 * {@link #handle(Response, String)} passes through.
+	 *
+	 * @param jsonObject is the response.
+	 * @return the response, if its status is not false.
+	 * @throws SmartAPIException is thrown for the errorcode of the response.
+	 */
+	public JSONObject checkStatus(JSONObject jsonObject) throws SmartAPIException {
+		if (!jsonObject.has("status") || jsonObject.optBoolean("status", true)) {
+			return jsonObject;
+		}
+		String code = jsonObject.optString("errorcode", jsonObject.optString("errorCode"));
+		String message = jsonObject.optString("message", null);
+		if (code.isEmpty()) {
+			throw new SmartAPIException(message, code);
+		}
+		throw dealWithException(message, code);
+	}
+
+	/**
+	 * Decodes the data of a response straight from the response body into the
+	 * given type, without building an intermediate String or JSONObject.
+	 *
+	 * @param response is the response, whose body is consumed but not closed.
+	 * @param dataType is the type of the data field, e.g. a model class or a
+	 *                 List of models.
+	 * @return the decoded data, or null if the response carries no data.
+	 * @throws IOException       is thrown when the body could not be read.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 * @throws JSONException     is thrown for parsing errors.
+	 */
+	public <T> T handle(Response response, Type dataType) throws IOException, SmartAPIException, JSONException {
+		ResponseBody body = response.body();
+		String contentType = response.header("Content-Type");
+		if (contentType == null || !contentType.contains("json")) {
+			throw new DataException("Unexpected content type received from server: " + contentType + " "
+					+ (body == null ? "" : body.string()), "AG8001");
+		}
+		Gson gson = JsonMapper.gson();
+		@SuppressWarnings("unchecked")
+		TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(dataType));
+		try (JsonReader reader = gson.newJsonReader(body.charStream())) {
+			return readEnvelope(reader, adapter, dataType == String.class);
+		} catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+			throw new JSONException("Error parsing response body: " + e.getMessage());
+		}
+	}
+
+	private <T> T readEnvelope(JsonReader reader, TypeAdapter<T> adapter, boolean stringData)
+			throws IOException, SmartAPIException {
+		boolean hasStatus = false;
+		boolean hasSuccess = false;
+		boolean status = true;
+		String message = null;
+		String code = null;
+		T data = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+			case "status":
+				hasStatus = true;
+				status = readBoolean(reader);
+				break;
+			case "success":
+				hasSuccess = true;
+				status = readBoolean(reader);
+				break;
+			case "message":
+				message = readString(reader);
+				break;
+			case "errorcode":
+			case "errorCode":
+				code = readString(reader);
+				break;
+			case "data":
+				JsonToken token = reader.peek();
+				if (token == JsonToken.NULL || (token == JsonToken.STRING && !stringData)) {
+					// error responses carry "" or null in place of the data
+					reader.skipValue();
+				} else {
+					data = adapter.read(reader);
+				}
+				break;
+			default:
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		boolean hasCode = code != null && !code.isEmpty();
+		if (hasCode && (!hasStatus || hasSuccess || !status)) {
+			throw dealWithException(message, code);
+		}
+		if (!status) {
+			throw new SmartAPIException(message, code);
+		}
+		return data;
+	}
+
+	private static boolean readBoolean(JsonReader reader) throws IOException {
+		JsonToken token = reader.peek();
+		if (token == JsonToken.NULL) {
+			reader.nextNull();
+			return false;
+		}
+		return token == JsonToken.BOOLEAN ? reader.nextBoolean() : Boolean.parseBoolean(reader.nextString());
+	}
+
+	private static String readString(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		return reader.nextString();
+	}
+
 	private SmartAPIException dealWithException(JSONObject jsonObject, String code) throws JSONException {
+		return dealWithException(jsonObject.optString("message"), code);
+	}
+
+	private SmartAPIException dealWithException(String message, String code) {
 
 		switch (code) {
 		// if there is a token exception, generate a signal to logout the user.
@@ -66,22 +196,22 @@ public class SmartAPIResponseHandler {
 			if (SmartConnect.sessionExpiryHook != null) {
 				SmartConnect.sessionExpiryHook.sessionExpired();
 			}
-			return new TokenException(jsonObject.getString("message"), code);
+			return new TokenException(message, code);
 
 		case "AG8001":
                 return new TokenException(TOKEN_EXCEPTION_MESSAGE, code);
             case "AG8002":
-                return new DataException(jsonObject.getString("message"), code);
+                return new DataException(message, code);
 
 		case "AB1004":
 		case "AB2000":
-			return new GeneralException(jsonObject.getString("message"), code);
+			return new GeneralException(message, code);
 
 		case "AB1003":
 		case "AB1005":
 		case "AB1012":
 		case "AB1002":
-			return new InputException(jsonObject.getString("message"), code);
+			return new InputException(message, code);
 
 		case "AB1008":
 		case "AB1009":
@@ -90,19 +220,19 @@ public class SmartAPIResponseHandler {
 		case "AB1015":
 		case "AB1016":
 		case "AB1017":
-			return new OrderException(jsonObject.getString("message"), code);
+			return new OrderException(message, code);
 
 		case "NetworkException":
-			return new NetworkException(jsonObject.getString("message"), code);
+			return new NetworkException(message, code);
 
 		case "AB1000":
 		case "AB1001":
 		case "AB1011":
-			return new PermissionException(jsonObject.getString("message"), code);
+			return new PermissionException(message, code);
             case "AG8004":
                 return new ApiKeyException(APIKEY_EXCEPTION_MESSAGE, code);
 		default:
-			return new SmartAPIException(jsonObject.getString("data not found"));
+			return new SmartAPIException(message, code);
 		}
 	}
 
@@ -149,9 +279,8 @@ public class SmartAPIResponseHandler {
     }
 
     private List<SearchScripResponseDTO> parseStockDTOList(JSONArray dataArray) throws JSONException, SmartAPIException {
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
-            return objectMapper.readValue(dataArray.toString(), new TypeReference<List<SearchScripResponseDTO>>() {
+            return JsonMapper.objectMapper().readValue(dataArray.toString(), new TypeReference<List<SearchScripResponseDTO>>() {
             });
         } catch (IOException e) {
             log.error("Error parsing JSON data array.", e);
@@ -0,0 +1,63 @@
+package com.angelbroking.smartapi.http;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+/**
+ * Resolves the client identity from the local host, the first network
+ * interface with a hardware address and checkip.amazonaws.com.
+ */
+@Slf4j
+public class SystemApiHeaderSource implements ApiHeaderSource {
+
+	private static final String PUBLIC_IP_URL = "http://checkip.amazonaws.com";
+	private static final int PUBLIC_IP_TIMEOUT_MILLIS = 3000;
+
+	@Override
+	public ClientIdentity resolve() throws IOException {
+		String clientLocalIP = InetAddress.getLocalHost().getHostAddress();
+		String clientPublicIP = publicIP();
+		String macAddress = macAddress();
+		return new ClientIdentity(clientLocalIP, clientPublicIP, macAddress);
+	}
+
+	private static String publicIP() throws IOException {
+		URLConnection connection = new URL(PUBLIC_IP_URL).openConnection();
+		connection.setConnectTimeout(PUBLIC_IP_TIMEOUT_MILLIS);
+		connection.setReadTimeout(PUBLIC_IP_TIMEOUT_MILLIS);
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII))) {
+			String line = reader.readLine();
+			if (line == null) {
+				throw new IOException("empty response from " + PUBLIC_IP_URL);
+			}
+			return line.trim();
+		}
+	}
+
+	private static String macAddress() throws IOException {
+		Enumeration<NetworkInterface> networkInterfaces = NetworkInterface.getNetworkInterfaces();
+		while (networkInterfaces != null && networkInterfaces.hasMoreElements()) {
+			byte[] macAddressBytes = networkInterfaces.nextElement().getHardwareAddress();
+			if (macAddressBytes != null) {
+				StringBuilder macAddress = new StringBuilder();
+				for (int i = 0; i < macAddressBytes.length; i++) {
+					macAddress.append(String.format("%02X%s", macAddressBytes[i],
+							(i < macAddressBytes.length - 1) ? "-" : ""));
+				}
+				return macAddress.toString();
+			}
+		}
+		log.warn("no network interface with a hardware address found");
+		return null;
+	}
+}
@@ -0,0 +1,250 @@
+package com.angelbroking.smartapi.http;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket with a priority ordered wait queue.
+ *
+ * Only the head of the queue may take a permit; it parks until the next permit
+ * is due while everybody behind it parks until they become the head. A
+ * ReentrantLock is used instead of synchronized so that waiting virtual threads
+ * do not pin their carrier. Reservations queue in the same order without a
+ * thread, and are granted by a shared timer once they are at the head and
+ * their permit is due.
+ */
+final class TokenBucket {
+
+	private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "smartapi-rate-limit");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final double permitsPerNano;
+	private final double capacity;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+	private double permits;
+	private long lastRefillNanos;
+	private long sequence;
+	private boolean wakeUpScheduled;
+
+	TokenBucket(RateLimit rateLimit) {
+		this.permitsPerNano = rateLimit.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+		this.capacity = rateLimit.getBurst();
+		this.permits = capacity;
+		this.lastRefillNanos = System.nanoTime();
+	}
+
+	/**
+	 * Takes one permit, queueing for at most maxWaitNanos.
+	 *
+	 * @return the time spent waiting in nanoseconds, or -1 if no permit could be
+	 *         obtained in time.
+	 */
+	long acquire(RequestPriority priority, long maxWaitNanos) throws InterruptedException {
+		long start = System.nanoTime();
+		lock.lock();
+		try {
+			refill(start);
+			if (waiters.isEmpty() && permits >= 1) {
+				permits -= 1;
+				return 0;
+			}
+			if (estimateWaitNanos(priority) > maxWaitNanos) {
+				return -1;
+			}
+			Waiter waiter = new Waiter(priority, sequence++, start, lock.newCondition(), null);
+			waiters.add(waiter);
+			long deadline = start + maxWaitNanos;
+			try {
+				while (true) {
+					long now = System.nanoTime();
+					refill(now);
+					boolean head = waiters.peek() == waiter;
+					if (head && permits >= 1) {
+						permits -= 1;
+						waiters.poll();
+						dispatch();
+						return now - start;
+					}
+					long remaining = deadline - now;
+					if (remaining <= 0) {
+						waiters.remove(waiter);
+						dispatch();
+						return -1;
+					}
+					waiter.condition.awaitNanos(head ? Math.min(remaining, nanosUntilNextPermit()) : remaining);
+				}
+			} catch (InterruptedException e) {
+				waiters.remove(waiter);
+				dispatch();
+				throw e;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Queues for one permit without waiting for it. The reservation is served in
+	 * the same priority order as the threads blocked in {@link #acquire}, so a
+	 * later request of a higher priority is still served ahead of it. Cancelling
+	 * the returned future gives up the place in the queue, or the permit if it
+	 * was granted already.
+	 *
+	 * @return a future completed with the time spent waiting in nanoseconds once
+	 *         the permit is taken, or with -1 if no permit is due within
+	 *         maxWaitNanos.
+	 */
+	CompletableFuture<Long> reserve(RequestPriority priority, long maxWaitNanos) {
+		long start = System.nanoTime();
+		CompletableFuture<Long> permit = new CompletableFuture<>();
+		Waiter waiter;
+		lock.lock();
+		try {
+			refill(start);
+			if (waiters.isEmpty() && permits >= 1) {
+				permits -= 1;
+				waiter = null;
+			} else if (estimateWaitNanos(priority) > maxWaitNanos) {
+				permit.complete(-1L);
+				return permit;
+			} else {
+				waiter = new Waiter(priority, sequence++, start, null, permit);
+				waiters.add(waiter);
+				dispatch();
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (waiter == null) {
+			permit.complete(0L);
+		} else {
+			permit.whenComplete((waited, error) -> {
+				if (permit.isCancelled()) {
+					cancel(waiter);
+				}
+			});
+		}
+		return permit;
+	}
+
+	/**
+	 * Returns a permit that was taken but not used.
+	 */
+	void release() {
+		lock.lock();
+		try {
+			permits = Math.min(capacity, permits + 1);
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void refill(long now) {
+		if (now > lastRefillNanos) {
+			permits = Math.min(capacity, permits + (now - lastRefillNanos) * permitsPerNano);
+			lastRefillNanos = now;
+		}
+	}
+
+	private long nanosUntilNextPermit() {
+		return Math.max(1, (long) Math.ceil((1 - permits) / permitsPerNano));
+	}
+
+	private long estimateWaitNanos(RequestPriority priority) {
+		int ahead = 0;
+		for (Waiter waiter : waiters) {
+			if (waiter.priority.compareTo(priority) <= 0) {
+				ahead++;
+			}
+		}
+		double missing = ahead + 1 - permits;
+		return missing <= 0 ? 0 : (long) Math.ceil(missing / permitsPerNano);
+	}
+
+	/**
+	 * Grants the permits of the reservations at the head of the queue that are
+	 * due, and wakes the thread at the head otherwise. Must hold the lock.
+	 */
+	private void dispatch() {
+		Waiter head = waiters.peek();
+		while (head != null && head.reservation != null) {
+			long now = System.nanoTime();
+			refill(now);
+			if (permits < 1) {
+				if (!wakeUpScheduled) {
+					wakeUpScheduled = true;
+					TIMER.schedule(this::wakeUp, nanosUntilNextPermit(), TimeUnit.NANOSECONDS);
+				}
+				return;
+			}
+			permits -= 1;
+			waiters.poll();
+			Waiter granted = head;
+			TIMER.execute(() -> grant(granted, now));
+			head = waiters.peek();
+		}
+		if (head != null) {
+			head.condition.signal();
+		}
+	}
+
+	private void wakeUp() {
+		lock.lock();
+		try {
+			wakeUpScheduled = false;
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void grant(Waiter waiter, long grantedNanos) {
+		if (!waiter.reservation.complete(grantedNanos - waiter.startNanos)) {
+			release();
+		}
+	}
+
+	private void cancel(Waiter waiter) {
+		lock.lock();
+		try {
+			if (waiters.remove(waiter)) {
+				dispatch();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Waiter implements Comparable<Waiter> {
+		private final RequestPriority priority;
+		private final long sequence;
+		private final long startNanos;
+		private final Condition condition;
+		private final CompletableFuture<Long> reservation;
+
+		private Waiter(RequestPriority priority, long sequence, long startNanos, Condition condition,
+				CompletableFuture<Long> reservation) {
+			this.priority = priority;
+			this.sequence = sequence;
+			this.startNanos = startNanos;
+			this.condition = condition;
+			this.reservation = reservation;
+		}
+
+		@Override
+		public int compareTo(Waiter other) {
+			int byPriority = priority.compareTo(other.priority);
+			return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.angelbroking.smartapi.http;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Supplies the access token requests are sent with while a session is renewed
+ * in the background, see
+ * {@link com.angelbroking.smartapi.session.SessionManager}.
+ */
+public interface TokenGate {
+
+	/**
+	 * Returns the access token a request should be sent with. A request built with
+	 * the token being renewed waits briefly for the renewal; a request built with
+	 * a token which was replaced gets the current one.
+	 *
+	 * @param accessToken is the token the request was built with.
+	 * @return the token to send, which is the given one if it is current or
+	 *         unknown to the gate.
+	 * @throws InterruptedIOException if interrupted while waiting.
+	 */
+	String accessToken(String accessToken) throws InterruptedIOException;
+}
@@ -0,0 +1,34 @@
+package com.angelbroking.smartapi.http;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access point for virtual threads.
+ *
+ * This is the Java 8 variant which reports virtual threads as unavailable. The
+ * multi-release jar carries a JDK 21 variant under META-INF/versions/21 that
+ * creates a thread-per-task executor backed by virtual threads.
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+
+	}
+
+	/**
+	 * Returns true if the running JVM supports virtual threads.
+	 */
+	static boolean isSupported() {
+		return false;
+	}
+
+	/**
+	 * Creates an executor which starts a new virtual thread for every task.
+	 *
+	 * @param namePrefix is the prefix of the thread names.
+	 * @throws UnsupportedOperationException if virtual threads are not supported.
+	 */
+	static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+		throw new UnsupportedOperationException("virtual threads require JDK 21 or newer");
+	}
+}
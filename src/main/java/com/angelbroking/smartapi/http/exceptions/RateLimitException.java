@@ -0,0 +1,17 @@
+package com.angelbroking.smartapi.http.exceptions;
+
+/**
+ * Exception raised when a request is rejected by the client side rate limiter
+ * because no permit became available within the allowed wait.
+ * Default code is 429.
+ */
+
+public class RateLimitException extends SmartAPIException {
+
+    private static final long serialVersionUID = 1L;
+
+    // initialize rate limit exception and call constructor of Base Exception
+    public RateLimitException(String message, String code){
+        super(message, code);
+    }
+}
@@ -0,0 +1,17 @@
+package com.angelbroking.smartapi.http.exceptions;
+
+/**
+ * Exception raised when an order is rejected by the client side pre-trade risk
+ * checks before it is sent. The code is the name of the failed check, e.g.
+ * MAX_QUANTITY.
+ */
+
+public class RiskException extends SmartAPIException {
+
+    private static final long serialVersionUID = 1L;
+
+    // initialize risk exception and call constructor of Base Exception
+    public RiskException(String message, String code){
+        super(message, code);
+    }
+}
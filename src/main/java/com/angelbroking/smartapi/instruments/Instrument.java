@@ -0,0 +1,129 @@
+package com.angelbroking.smartapi.instruments;
+
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import lombok.Getter;
+
+/**
+ * One row of the scrip master.
+ *
+ * Strike and tick size are kept as published in the scrip master, where they
+ * are scaled by 100 (paise).
+ */
+@Getter
+public final class Instrument {
+
+	private final String token;
+	private final String symbol;
+	private final String name;
+	private final String expiry;
+	private final double strike;
+	private final int lotSize;
+	private final String instrumentType;
+	private final String exchange;
+	private final double tickSize;
+
+	Instrument(String token, String symbol, String name, String expiry, double strike, int lotSize,
+			String instrumentType, String exchange, double tickSize) {
+		this.token = token;
+		this.symbol = symbol;
+		this.name = name;
+		this.expiry = expiry;
+		this.strike = strike;
+		this.lotSize = lotSize;
+		this.instrumentType = instrumentType;
+		this.exchange = exchange;
+		this.tickSize = tickSize;
+	}
+
+	/**
+	 * Returns the exchange type of the instrument on the streaming api.
+	 *
+	 * @throws IllegalArgumentException if the exchange has no streaming segment.
+	 */
+	public ExchangeType getExchangeType() {
+		return exchangeType(exchange);
+	}
+
+	/**
+	 * Returns the token identifying the instrument on the streaming api.
+	 */
+	public TokenID toTokenID() {
+		return new TokenID(getExchangeType(), token);
+	}
+
+	/**
+	 * Fills the exchange, trading symbol and symbol token of an order.
+	 *
+	 * @return the order params given.
+	 */
+	public OrderParams applyTo(OrderParams orderParams) {
+		orderParams.exchange = exchange;
+		orderParams.tradingsymbol = symbol;
+		orderParams.symbolToken = token;
+		orderParams.symboltoken = token;
+		return orderParams;
+	}
+
+	/**
+	 * Returns the websocket exchange type of an exchange of the REST api, e.g.
+	 * NSE_CM for NSE.
+	 *
+	 * @throws IllegalArgumentException if the exchange is unknown.
+	 */
+	public static ExchangeType exchangeType(String exchange) {
+		switch (exchange) {
+		case "NSE":
+			return ExchangeType.NSE_CM;
+		case "NFO":
+			return ExchangeType.NSE_FO;
+		case "BSE":
+			return ExchangeType.BSE_CM;
+		case "BFO":
+			return ExchangeType.BSE_FO;
+		case "MCX":
+			return ExchangeType.MCX_FO;
+		case "NCDEX":
+			return ExchangeType.NCX_FO;
+		case "CDS":
+			return ExchangeType.CDE_FO;
+		default:
+			throw new IllegalArgumentException("No exchange type for " + exchange);
+		}
+	}
+
+	/**
+	 * Returns the exchange of the REST api of a websocket exchange type, e.g. NSE
+	 * for NSE_CM.
+	 *
+	 * @throws IllegalArgumentException if there is no such exchange.
+	 */
+	public static String exchange(ExchangeType exchangeType) {
+		switch (exchangeType) {
+		case NSE_CM:
+			return "NSE";
+		case NSE_FO:
+			return "NFO";
+		case BSE_CM:
+			return "BSE";
+		case BSE_FO:
+			return "BFO";
+		case MCX_FO:
+			return "MCX";
+		case NCX_FO:
+			return "NCDEX";
+		case CDE_FO:
+			return "CDS";
+		default:
+			throw new IllegalArgumentException("No exchange for " + exchangeType);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Instrument [exchange=" + exchange + ", symbol=" + symbol + ", token=" + token + ", name=" + name
+				+ ", expiry=" + expiry + ", strike=" + strike + ", lotSize=" + lotSize + ", instrumentType="
+				+ instrumentType + ", tickSize=" + tickSize + "]";
+	}
+}
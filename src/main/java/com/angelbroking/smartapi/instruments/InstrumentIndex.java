@@ -0,0 +1,386 @@
+package com.angelbroking.smartapi.instruments;
+
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline index over the scrip master, e.g. OpenAPIScripMaster.json.
+ *
+ * The rows are held as columns of arrays, with the exchange and instrument type
+ * strings shared between rows. Two open addressing hash tables map (exchange,
+ * symbol token) and (exchange, trading symbol) to a row, so resolving a
+ * {@link TokenID} or the fields of an order needs no request and no allocation
+ * besides the returned {@link Instrument}. Prefix searches over trading symbols
+ * run on a sorted permutation of the rows, which serves as a flattened trie:
+ * the rows sharing a prefix are one contiguous range, found by binary search.
+ * The index is immutable and safe for concurrent use.
+ */
+public final class InstrumentIndex {
+
+	private final int size;
+	private final String[] tokens;
+	private final String[] symbols;
+	private final String[] names;
+	private final String[] expiries;
+	private final double[] strikes;
+	private final int[] lotSizes;
+	private final String[] instrumentTypes;
+	private final String[] exchanges;
+	private final double[] tickSizes;
+
+	// row + 1 per slot, 0 marks an empty slot
+	private final int[] tokenTable;
+	private final int[] symbolTable;
+	private final int mask;
+
+	// upper case trading symbols, sharing the symbol when it is upper case already
+	private final String[] searchKeys;
+	// rows in ascending order of upper case trading symbol
+	private final int[] bySymbol;
+
+	private InstrumentIndex(Columns columns) {
+		size = columns.size;
+		tokens = Arrays.copyOf(columns.tokens, size);
+		symbols = Arrays.copyOf(columns.symbols, size);
+		names = Arrays.copyOf(columns.names, size);
+		expiries = Arrays.copyOf(columns.expiries, size);
+		strikes = Arrays.copyOf(columns.strikes, size);
+		lotSizes = Arrays.copyOf(columns.lotSizes, size);
+		instrumentTypes = Arrays.copyOf(columns.instrumentTypes, size);
+		exchanges = Arrays.copyOf(columns.exchanges, size);
+		tickSizes = Arrays.copyOf(columns.tickSizes, size);
+
+		int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+		mask = capacity - 1;
+		tokenTable = new int[capacity];
+		symbolTable = new int[capacity];
+		for (int row = 0; row < size; row++) {
+			insert(tokenTable, tokens, row);
+			insert(symbolTable, symbols, row);
+		}
+
+		searchKeys = new String[size];
+		Integer[] order = new Integer[size];
+		for (int row = 0; row < size; row++) {
+			searchKeys[row] = symbols[row].toUpperCase(Locale.ROOT);
+			order[row] = row;
+		}
+		Arrays.sort(order, (a, b) -> {
+			int result = searchKeys[a].compareTo(searchKeys[b]);
+			return result != 0 ? result : exchanges[a].compareTo(exchanges[b]);
+		});
+		bySymbol = new int[size];
+		for (int i = 0; i < size; i++) {
+			bySymbol[i] = order[i];
+		}
+	}
+
+	/**
+	 * Loads the index from a scrip master file.
+	 */
+	public static InstrumentIndex load(Path file) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return load(in);
+		}
+	}
+
+	/**
+	 * Loads the index from a scrip master stream, a JSON array of rows with the
+	 * fields token, symbol, name, expiry, strike, lotsize, instrumenttype,
+	 * exch_seg and tick_size. The stream is read to its end but not closed.
+	 */
+	public static InstrumentIndex load(InputStream in) throws IOException {
+		JsonReader reader = new JsonReader(
+				new InputStreamReader(new BufferedInputStream(in), StandardCharsets.UTF_8));
+		Columns columns = new Columns();
+		try {
+			reader.beginArray();
+			while (reader.hasNext()) {
+				columns.read(reader);
+			}
+			reader.endArray();
+		} catch (IllegalStateException | NumberFormatException | JsonParseException e) {
+			throw new IOException("Invalid scrip master " + e.getMessage(), e);
+		}
+		return new InstrumentIndex(columns);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the row at an index, in the order of the scrip master.
+	 */
+	public Instrument get(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("row " + row + " of " + size);
+		}
+		return new Instrument(tokens[row], symbols[row], names[row], expiries[row], strikes[row], lotSizes[row],
+				instrumentTypes[row], exchanges[row], tickSizes[row]);
+	}
+
+	/**
+	 * Returns the row of a symbol token on an exchange, or -1.
+	 */
+	public int indexOfToken(String exchange, String token) {
+		return find(tokenTable, tokens, exchange, token);
+	}
+
+	/**
+	 * Returns the row of a trading symbol on an exchange, or -1.
+	 */
+	public int indexOfSymbol(String exchange, String symbol) {
+		return find(symbolTable, symbols, exchange, symbol);
+	}
+
+	/**
+	 * Returns the instrument of a symbol token on an exchange, e.g. (NSE, 3045),
+	 * or null.
+	 */
+	public Instrument byToken(String exchange, String token) {
+		int row = indexOfToken(exchange, token);
+		return row < 0 ? null : get(row);
+	}
+
+	/**
+	 * Returns the instrument of a streaming token, or null.
+	 */
+	public Instrument byTokenID(TokenID tokenID) {
+		return byToken(Instrument.exchange(tokenID.getExchangeType()), tokenID.getToken());
+	}
+
+	/**
+	 * Returns the instrument of a trading symbol on an exchange, e.g. (NSE,
+	 * SBIN-EQ), or null.
+	 */
+	public Instrument bySymbol(String exchange, String symbol) {
+		int row = indexOfSymbol(exchange, symbol);
+		return row < 0 ? null : get(row);
+	}
+
+	/**
+	 * Returns the symbol token of a trading symbol on an exchange, or null.
+	 */
+	public String tokenOf(String exchange, String symbol) {
+		int row = indexOfSymbol(exchange, symbol);
+		return row < 0 ? null : tokens[row];
+	}
+
+	/**
+	 * Returns the streaming token of a trading symbol on an exchange, or null.
+	 */
+	public TokenID tokenID(String exchange, String symbol) {
+		int row = indexOfSymbol(exchange, symbol);
+		return row < 0 ? null : new TokenID(Instrument.exchangeType(exchanges[row]), tokens[row]);
+	}
+
+	/**
+	 * Finds instruments whose trading symbol starts with a prefix, ignoring case,
+	 * in ascending order of trading symbol.
+	 *
+	 * @param prefix is the start of the trading symbol.
+	 * @param limit  is the maximum number of results.
+	 */
+	public List<Instrument> search(String prefix, int limit) {
+		return search(null, prefix, limit);
+	}
+
+	/**
+	 * Finds instruments of an exchange whose trading symbol starts with a prefix,
+	 * ignoring case, in ascending order of trading symbol.
+	 *
+	 * @param exchange is the exchange, or null for all exchanges.
+	 * @param prefix   is the start of the trading symbol.
+	 * @param limit    is the maximum number of results.
+	 */
+	public List<Instrument> search(String exchange, String prefix, int limit) {
+		if (limit <= 0) {
+			return Collections.emptyList();
+		}
+		String key = prefix.toUpperCase(Locale.ROOT);
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (searchKeys[bySymbol[mid]].compareTo(key) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		List<Instrument> result = new ArrayList<>(Math.min(limit, 16));
+		for (int i = low; i < size && result.size() < limit; i++) {
+			int row = bySymbol[i];
+			if (!searchKeys[row].startsWith(key)) {
+				break;
+			}
+			if (exchange == null || exchange.equals(exchanges[row])) {
+				result.add(get(row));
+			}
+		}
+		return result;
+	}
+
+	private void insert(int[] table, String[] keys, int row) {
+		int slot = hash(exchanges[row], keys[row]) & mask;
+		while (table[slot] != 0) {
+			int other = table[slot] - 1;
+			if (keys[other].equals(keys[row]) && exchanges[other].equals(exchanges[row])) {
+				// the first row of a duplicate key wins
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = row + 1;
+	}
+
+	private int find(int[] table, String[] keys, String exchange, String key) {
+		if (exchange == null || key == null) {
+			return -1;
+		}
+		int slot = hash(exchange, key) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			int row = entry - 1;
+			if (keys[row].equals(key) && exchanges[row].equals(exchange)) {
+				return row;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private static int hash(String exchange, String key) {
+		int h = key.hashCode() * 31 + exchange.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Growing columns filled while reading the scrip master.
+	 */
+	private static final class Columns {
+		private final Map<String, String> shared = new HashMap<>();
+		private int size;
+		private String[] tokens = new String[1024];
+		private String[] symbols = new String[1024];
+		private String[] names = new String[1024];
+		private String[] expiries = new String[1024];
+		private double[] strikes = new double[1024];
+		private int[] lotSizes = new int[1024];
+		private String[] instrumentTypes = new String[1024];
+		private String[] exchanges = new String[1024];
+		private double[] tickSizes = new double[1024];
+
+		void read(JsonReader reader) throws IOException {
+			String token = null;
+			String symbol = null;
+			String name = "";
+			String expiry = "";
+			double strike = 0;
+			int lotSize = 0;
+			String instrumentType = "";
+			String exchange = null;
+			double tickSize = 0;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+				case "token":
+					token = string(reader);
+					break;
+				case "symbol":
+					symbol = string(reader);
+					break;
+				case "name":
+					name = string(reader);
+					break;
+				case "expiry":
+					expiry = shared(string(reader));
+					break;
+				case "strike":
+					strike = number(reader);
+					break;
+				case "lotsize":
+					lotSize = (int) number(reader);
+					break;
+				case "instrumenttype":
+					instrumentType = shared(string(reader));
+					break;
+				case "exch_seg":
+					exchange = shared(string(reader));
+					break;
+				case "tick_size":
+					tickSize = number(reader);
+					break;
+				default:
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			if (token == null || token.isEmpty() || symbol == null || exchange == null) {
+				return;
+			}
+			if (size == tokens.length) {
+				grow();
+			}
+			tokens[size] = token;
+			symbols[size] = symbol;
+			names[size] = name;
+			expiries[size] = expiry;
+			strikes[size] = strike;
+			lotSizes[size] = lotSize;
+			instrumentTypes[size] = instrumentType;
+			exchanges[size] = exchange;
+			tickSizes[size] = tickSize;
+			size++;
+		}
+
+		private void grow() {
+			int capacity = size * 2;
+			tokens = Arrays.copyOf(tokens, capacity);
+			symbols = Arrays.copyOf(symbols, capacity);
+			names = Arrays.copyOf(names, capacity);
+			expiries = Arrays.copyOf(expiries, capacity);
+			strikes = Arrays.copyOf(strikes, capacity);
+			lotSizes = Arrays.copyOf(lotSizes, capacity);
+			instrumentTypes = Arrays.copyOf(instrumentTypes, capacity);
+			exchanges = Arrays.copyOf(exchanges, capacity);
+			tickSizes = Arrays.copyOf(tickSizes, capacity);
+		}
+
+		private String shared(String value) {
+			String existing = shared.putIfAbsent(value, value);
+			return existing == null ? value : existing;
+		}
+
+		private static String string(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return "";
+			}
+			return reader.nextString();
+		}
+
+		private static double number(JsonReader reader) throws IOException {
+			String value = string(reader).trim();
+			return value.isEmpty() ? 0 : Double.parseDouble(value);
+		}
+	}
+}
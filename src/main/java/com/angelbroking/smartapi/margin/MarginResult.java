@@ -0,0 +1,35 @@
+package com.angelbroking.smartapi.margin;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Margin of a basket as calculated by {@link MarginService}.
+ *
+ * A basket of more legs than fit in one request is sent in several batches;
+ * the totals and margin components are then the sums over the batches, and
+ * the data of each batch response is kept in {@link #getBatches()}.
+ */
+@Getter
+@ToString
+public class MarginResult {
+
+	/** Total margin required for the basket, in rupees. */
+	private final double totalMarginRequired;
+
+	/** Components of the margin, e.g. spanMargin or netPremium, in rupees. */
+	private final Map<String, Double> marginComponents;
+
+	/** The data object of the response of every batch. */
+	private final List<JSONObject> batches;
+
+	MarginResult(double totalMarginRequired, Map<String, Double> marginComponents, List<JSONObject> batches) {
+		this.totalMarginRequired = totalMarginRequired;
+		this.marginComponents = marginComponents;
+		this.batches = batches;
+	}
+}
@@ -0,0 +1,272 @@
+package com.angelbroking.smartapi.margin;
+
+import com.angelbroking.smartapi.SmartConnectAsync;
+import com.angelbroking.smartapi.http.SmartAPIResponseHandler;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.models.MarginParams;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Calculates the margin of baskets with api.margin.batch, deduplicating and
+ * caching the requests.
+ *
+ * Identical legs of a basket, i.e. of the same exchange, token, product, side
+ * and price, are merged into one leg of their total quantity. The legs are
+ * ordered by their key of exchange, token, quantity, price bucket, product and
+ * side, and split into batches of at most {@link #MAX_POSITIONS_PER_REQUEST}
+ * which are sent concurrently. The response of a batch is cached for a short
+ * time under the keys of its legs, so the same basket requested again in any
+ * order, at prices within the same buckets, is served locally; concurrent
+ * requests of the same batch share one call. A cached batch keeps the margin
+ * of the prices it was first requested at.
+ *
+ * The server offsets hedged legs against each other only within one request,
+ * so the margin of a basket split into several batches may be higher than the
+ * margin of the whole basket.
+ */
+public class MarginService {
+
+	/** Maximum number of positions accepted by a single margin request. */
+	public static final int MAX_POSITIONS_PER_REQUEST = 50;
+
+	/** Default time a batch response is cached. */
+	public static final long DEFAULT_TTL_MILLIS = 5000;
+
+	/** Default width of a price bucket, relative to the price. */
+	public static final double DEFAULT_PRICE_BUCKET = 0.005;
+
+	private static final int PRUNE_THRESHOLD = 10_000;
+
+	private static final SmartAPIResponseHandler RESPONSE_HANDLER = new SmartAPIResponseHandler();
+
+	private final Function<List<MarginParams>, CompletableFuture<JSONObject>> fetcher;
+	private final LongSupplier nanoClock;
+	private final long ttlNanos;
+	private final double logPriceBucket;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Initializes a service with the default TTL and price bucket.
+	 *
+	 * @param smartConnectAsync is the session used to send the margin requests.
+	 */
+	public MarginService(SmartConnectAsync smartConnectAsync) {
+		this(smartConnectAsync, DEFAULT_TTL_MILLIS, DEFAULT_PRICE_BUCKET);
+	}
+
+	/**
+	 * Initializes a service.
+	 *
+	 * @param smartConnectAsync is the session used to send the margin requests.
+	 * @param ttlMillis         is the time a batch response is cached, 0 to not
+	 *                          cache responses.
+	 * @param priceBucket       is the width of a price bucket relative to the
+	 *                          price, e.g. 0.005 for 0.5%.
+	 */
+	public MarginService(SmartConnectAsync smartConnectAsync, long ttlMillis, double priceBucket) {
+		this(fetcher(smartConnectAsync), ttlMillis, priceBucket, System::nanoTime);
+	}
+
+	MarginService(Function<List<MarginParams>, CompletableFuture<JSONObject>> fetcher, long ttlMillis,
+			double priceBucket, LongSupplier nanoClock) {
+		if (ttlMillis < 0) {
+			throw new IllegalArgumentException("ttlMillis should not be negative");
+		}
+		if (!(priceBucket > 0 && priceBucket < 1)) {
+			throw new IllegalArgumentException("priceBucket should be between 0 and 1");
+		}
+		this.fetcher = fetcher;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.logPriceBucket = Math.log1p(priceBucket);
+		this.nanoClock = nanoClock;
+	}
+
+	private static Function<List<MarginParams>, CompletableFuture<JSONObject>> fetcher(
+			SmartConnectAsync smartConnectAsync) {
+		if (smartConnectAsync == null) {
+			throw new IllegalArgumentException("smartConnectAsync should not be null");
+		}
+		return smartConnectAsync::getMarginDetails;
+	}
+
+	/**
+	 * Calculates the margin of a basket.
+	 *
+	 * @param marginParams are the legs of the basket.
+	 * @return future of the margin, which completes exceptionally with the
+	 *         exception of the first failed batch.
+	 */
+	public CompletableFuture<MarginResult> getMargin(List<MarginParams> marginParams) {
+		if (marginParams == null || marginParams.isEmpty()) {
+			throw new IllegalArgumentException("marginParams should not be empty");
+		}
+		// legs at different prices within one bucket share a key
+		Map<String, List<MarginParams>> legs = new TreeMap<>();
+		for (MarginParams leg : merge(marginParams)) {
+			legs.computeIfAbsent(legKey(leg), key -> new ArrayList<>(1)).add(leg);
+		}
+		List<CompletableFuture<JSONObject>> batches = new ArrayList<>();
+		List<MarginParams> batch = new ArrayList<>();
+		StringBuilder batchKey = new StringBuilder();
+		for (Map.Entry<String, List<MarginParams>> sameKey : legs.entrySet()) {
+			for (MarginParams leg : sameKey.getValue()) {
+				batch.add(leg);
+				batchKey.append(sameKey.getKey()).append(';');
+				if (batch.size() == MAX_POSITIONS_PER_REQUEST) {
+					batches.add(fetch(batchKey.toString(), batch));
+					batch = new ArrayList<>();
+					batchKey.setLength(0);
+				}
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(fetch(batchKey.toString(), batch));
+		}
+		return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+				.thenApply(done -> combine(batches));
+	}
+
+	/**
+	 * Drops all cached batch responses, e.g. after prices moved sharply.
+	 */
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	/**
+	 * Merges identical legs into one leg of their total quantity, keeping the
+	 * order of their first occurrence.
+	 */
+	static List<MarginParams> merge(List<MarginParams> marginParams) {
+		Map<String, MarginParams> merged = new LinkedHashMap<>();
+		for (MarginParams leg : marginParams) {
+			if (leg == null || leg.token == null) {
+				throw new IllegalArgumentException("every leg should have a token");
+			}
+			String key = leg.exchange + '|' + leg.token + '|' + leg.productType + '|' + leg.tradeType + '|'
+					+ leg.price;
+			int quantity = leg.quantity == null ? 0 : leg.quantity;
+			MarginParams existing = merged.get(key);
+			if (existing == null) {
+				MarginParams copy = new MarginParams();
+				copy.exchange = leg.exchange;
+				copy.token = leg.token;
+				copy.productType = leg.productType;
+				copy.tradeType = leg.tradeType;
+				copy.price = leg.price;
+				copy.quantity = quantity;
+				merged.put(key, copy);
+			} else {
+				existing.quantity += quantity;
+			}
+		}
+		return new ArrayList<>(merged.values());
+	}
+
+	String legKey(MarginParams leg) {
+		return leg.exchange + '|' + leg.token + '|' + leg.quantity + '|' + priceBucket(leg.price) + '|'
+				+ leg.productType + '|' + leg.tradeType;
+	}
+
+	private long priceBucket(Double price) {
+		if (price == null || !(price > 0)) {
+			return 0;
+		}
+		return Math.round(Math.log(price) / logPriceBucket);
+	}
+
+	private CompletableFuture<JSONObject> fetch(String batchKey, List<MarginParams> batch) {
+		if (ttlNanos == 0) {
+			return send(batch);
+		}
+		while (true) {
+			Entry entry = entries.get(batchKey);
+			if (entry != null && entry.isFresh(nanoClock.getAsLong())) {
+				return entry.value;
+			}
+			Entry loading = new Entry();
+			boolean owner = entry == null ? entries.putIfAbsent(batchKey, loading) == null
+					: entries.replace(batchKey, entry, loading);
+			if (owner) {
+				if (entry == null && entries.size() > PRUNE_THRESHOLD) {
+					long now = nanoClock.getAsLong();
+					entries.values().removeIf(cached -> !cached.isFresh(now));
+				}
+				send(batch).whenComplete((data, error) -> {
+					if (error != null) {
+						entries.remove(batchKey, loading);
+						loading.value.completeExceptionally(error);
+					} else {
+						loading.expiresAt = nanoClock.getAsLong() + ttlNanos;
+						loading.value.complete(data);
+					}
+				});
+				return loading.value;
+			}
+		}
+	}
+
+	private CompletableFuture<JSONObject> send(List<MarginParams> batch) {
+		CompletableFuture<JSONObject> response;
+		try {
+			response = fetcher.apply(batch);
+		} catch (RuntimeException e) {
+			response = new CompletableFuture<>();
+			response.completeExceptionally(e);
+		}
+		return response.thenCompose(body -> {
+			CompletableFuture<JSONObject> data = new CompletableFuture<>();
+			try {
+				data.complete(RESPONSE_HANDLER.checkStatus(body).getJSONObject("data"));
+			} catch (SmartAPIException e) {
+				data.completeExceptionally(e);
+			}
+			return data;
+		});
+	}
+
+	private static MarginResult combine(List<CompletableFuture<JSONObject>> batches) {
+		double total = 0;
+		Map<String, Double> components = new TreeMap<>();
+		List<JSONObject> data = new ArrayList<>(batches.size());
+		for (CompletableFuture<JSONObject> batch : batches) {
+			JSONObject result = batch.join();
+			data.add(result);
+			total += result.optDouble("totalMarginRequired", 0);
+			JSONObject marginComponents = result.optJSONObject("marginComponents");
+			if (marginComponents != null) {
+				for (String name : marginComponents.keySet()) {
+					double value = marginComponents.optDouble(name, Double.NaN);
+					if (!Double.isNaN(value)) {
+						components.merge(name, value, Double::sum);
+					}
+				}
+			}
+		}
+		return new MarginResult(total, Collections.unmodifiableMap(components), Collections.unmodifiableList(data));
+	}
+
+	private static final class Entry {
+		private final CompletableFuture<JSONObject> value = new CompletableFuture<>();
+		private volatile long expiresAt;
+
+		boolean isFresh(long now) {
+			if (!value.isDone()) {
+				return true;
+			}
+			return !value.isCompletedExceptionally() && now - expiresAt < 0;
+		}
+	}
+}
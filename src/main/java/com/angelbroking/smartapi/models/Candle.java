@@ -0,0 +1,68 @@
+package com.angelbroking.smartapi.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A wrapper for one candle of historic data.
+ *
+ * The server sends candles as arrays of timestamp, open, high, low, close and
+ * volume, e.g. ["2023-09-06T11:15:00+05:30", 19571.2, 19573.35, 19534.4,
+ * 19552.05, 0].
+ */
+@JsonAdapter(Candle.Adapter.class)
+public class Candle {
+
+	public String timestamp;
+	public double open;
+	public double high;
+	public double low;
+	public double close;
+	public long volume;
+
+	@Override
+	public String toString() {
+		return "Candle [timestamp=" + timestamp + ", open=" + open + ", high=" + high + ", low=" + low + ", close="
+				+ close + ", volume=" + volume + "]";
+	}
+
+	static final class Adapter extends TypeAdapter<Candle> {
+
+		@Override
+		public void write(JsonWriter out, Candle candle) throws IOException {
+			if (candle == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginArray();
+			out.value(candle.timestamp);
+			out.value(candle.open);
+			out.value(candle.high);
+			out.value(candle.low);
+			out.value(candle.close);
+			out.value(candle.volume);
+			out.endArray();
+		}
+
+		@Override
+		public Candle read(JsonReader in) throws IOException {
+			Candle candle = new Candle();
+			in.beginArray();
+			candle.timestamp = in.nextString();
+			candle.open = in.nextDouble();
+			candle.high = in.nextDouble();
+			candle.low = in.nextDouble();
+			candle.close = in.nextDouble();
+			candle.volume = in.nextLong();
+			while (in.hasNext()) {
+				in.skipValue();
+			}
+			in.endArray();
+			return candle;
+		}
+	}
+}
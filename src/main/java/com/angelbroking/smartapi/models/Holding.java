@@ -0,0 +1,51 @@
+package com.angelbroking.smartapi.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A wrapper for a holding in the demat account.
+ */
+public class Holding {
+
+	@SerializedName("tradingsymbol")
+	public String tradingSymbol;
+	@SerializedName("exchange")
+	public String exchange;
+	@SerializedName("isin")
+	public String isin;
+	@SerializedName("t1quantity")
+	public Integer t1Quantity;
+	@SerializedName("realisedquantity")
+	public Integer realisedQuantity;
+	@SerializedName("quantity")
+	public Integer quantity;
+	@SerializedName("authorisedquantity")
+	public Integer authorisedQuantity;
+	@SerializedName("product")
+	public String product;
+	@SerializedName("collateralquantity")
+	public Integer collateralQuantity;
+	@SerializedName("collateraltype")
+	public String collateralType;
+	@SerializedName("haircut")
+	public Double haircut;
+	@SerializedName("averageprice")
+	public Double averagePrice;
+	@SerializedName("ltp")
+	public Double ltp;
+	@SerializedName("symboltoken")
+	public String symbolToken;
+	@SerializedName("close")
+	public Double close;
+	@SerializedName("profitandloss")
+	public Double profitAndLoss;
+	@SerializedName("pnlpercentage")
+	public Double pnlPercentage;
+
+	@Override
+	public String toString() {
+		return "Holding [tradingSymbol=" + tradingSymbol + ", exchange=" + exchange + ", isin=" + isin
+				+ ", quantity=" + quantity + ", product=" + product + ", averagePrice=" + averagePrice + ", ltp="
+				+ ltp + ", symbolToken=" + symbolToken + ", profitAndLoss=" + profitAndLoss + "]";
+	}
+}
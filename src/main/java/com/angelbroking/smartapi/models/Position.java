@@ -0,0 +1,94 @@
+package com.angelbroking.smartapi.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A wrapper for a net or day position.
+ */
+public class Position {
+
+	@SerializedName("exchange")
+	public String exchange;
+	@SerializedName("symboltoken")
+	public String symbolToken;
+	@SerializedName("producttype")
+	public String productType;
+	@SerializedName("tradingsymbol")
+	public String tradingSymbol;
+	@SerializedName("symbolname")
+	public String symbolName;
+	@SerializedName("instrumenttype")
+	public String instrumentType;
+	@SerializedName("priceden")
+	public String priceDen;
+	@SerializedName("pricenum")
+	public String priceNum;
+	@SerializedName("genden")
+	public String genDen;
+	@SerializedName("gennum")
+	public String genNum;
+	@SerializedName("precision")
+	public String precision;
+	@SerializedName("multiplier")
+	public String multiplier;
+	@SerializedName("boardlotsize")
+	public String boardLotSize;
+	@SerializedName("buyqty")
+	public String buyQuantity;
+	@SerializedName("sellqty")
+	public String sellQuantity;
+	@SerializedName("buyamount")
+	public String buyAmount;
+	@SerializedName("sellamount")
+	public String sellAmount;
+	@SerializedName("symbolgroup")
+	public String symbolGroup;
+	@SerializedName("strikeprice")
+	public String strikePrice;
+	@SerializedName("optiontype")
+	public String optionType;
+	@SerializedName("expirydate")
+	public String expiryDate;
+	@SerializedName("lotsize")
+	public String lotSize;
+	@SerializedName("cfbuyqty")
+	public String cfBuyQuantity;
+	@SerializedName("cfsellqty")
+	public String cfSellQuantity;
+	@SerializedName("cfbuyamount")
+	public String cfBuyAmount;
+	@SerializedName("cfsellamount")
+	public String cfSellAmount;
+	@SerializedName("buyavgprice")
+	public String buyAveragePrice;
+	@SerializedName("sellavgprice")
+	public String sellAveragePrice;
+	@SerializedName("avgnetprice")
+	public String averageNetPrice;
+	@SerializedName("netvalue")
+	public String netValue;
+	@SerializedName("netqty")
+	public String netQuantity;
+	@SerializedName("totalbuyvalue")
+	public String totalBuyValue;
+	@SerializedName("totalsellvalue")
+	public String totalSellValue;
+	@SerializedName("cfbuyavgprice")
+	public String cfBuyAveragePrice;
+	@SerializedName("cfsellavgprice")
+	public String cfSellAveragePrice;
+	@SerializedName("totalbuyavgprice")
+	public String totalBuyAveragePrice;
+	@SerializedName("totalsellavgprice")
+	public String totalSellAveragePrice;
+	@SerializedName("netprice")
+	public String netPrice;
+
+	@Override
+	public String toString() {
+		return "Position [exchange=" + exchange + ", symbolToken=" + symbolToken + ", productType=" + productType
+				+ ", tradingSymbol=" + tradingSymbol + ", buyQuantity=" + buyQuantity + ", sellQuantity="
+				+ sellQuantity + ", netQuantity=" + netQuantity + ", buyAveragePrice=" + buyAveragePrice
+				+ ", sellAveragePrice=" + sellAveragePrice + ", netValue=" + netValue + "]";
+	}
+}
@@ -3,7 +3,7 @@ package com.angelbroking.smartapi.models;
 import com.google.gson.annotations.SerializedName;
 
 /**
- * A wrapper for user id, access token, refresh token.
+ * A wrapper for user id, access token, refresh token, feed token.
  */
 public class TokenSet {
 
@@ -13,6 +13,8 @@ public class TokenSet {
 	public String accessToken;
 	@SerializedName("refresh_token")
 	public String refreshToken;
+	@SerializedName("feed_token")
+	public String feedToken;
 
 	public String getUserId() {
 		return userId;
@@ -38,4 +40,12 @@ public class TokenSet {
 		this.refreshToken = refreshToken;
 	}
 
+	public String getFeedToken() {
+		return feedToken;
+	}
+
+	public void setFeedToken(String feedToken) {
+		this.feedToken = feedToken;
+	}
+
 }
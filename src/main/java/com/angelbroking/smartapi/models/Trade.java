@@ -5,9 +5,9 @@ import java.util.Date;
 import com.google.gson.annotations.SerializedName;
 
 public class Trade {
-	@SerializedName("trade_id")
+	@SerializedName(value = "trade_id", alternate = "fillid")
 	public String tradeId;
-	@SerializedName("order_id")
+	@SerializedName(value = "order_id", alternate = "orderid")
 	public String orderId;
 	@SerializedName("exchange_order_id")
 	public String exchangeOrderId;
@@ -17,17 +17,17 @@ public class Trade {
 	public String exchange;
 	@SerializedName("instrument_token")
 	public String instrumentToken;
-	@SerializedName("product")
+	@SerializedName(value = "product", alternate = "producttype")
 	public String product;
-	@SerializedName("average_price")
+	@SerializedName(value = "average_price", alternate = "fillprice")
 	public String averagePrice;
-	@SerializedName("quantity")
+	@SerializedName(value = "quantity", alternate = "fillsize")
 	public String quantity;
 	@SerializedName("fill_timestamp")
 	public Date fillTimestamp;
 	@SerializedName("exchange_timestamp")
 	public Date exchangeTimestamp;
-	@SerializedName("transaction_type")
+	@SerializedName(value = "transaction_type", alternate = "transactiontype")
 	public String transactionType;
 
 }
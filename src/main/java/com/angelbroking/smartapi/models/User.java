@@ -1,8 +1,5 @@
 package com.angelbroking.smartapi.models;
 
-import java.lang.reflect.Type;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 
@@ -10,12 +7,8 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.angelbroking.smartapi.utils.JsonMapper;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
 
 /**
@@ -61,21 +54,7 @@ public class User {
 	 * @return User is the parsed data.
 	 */
 	public User parseResponse(JSONObject response) throws JSONException {
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(Date.class, new JsonDeserializer<Date>() {
-
-			@Override
-			public Date deserialize(JsonElement jsonElement, Type type,
-					JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-				try {
-					SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-					return format.parse(jsonElement.getAsString());
-				} catch (ParseException e) {
-					return null;
-				}
-			}
-		});
-		Gson gson = gsonBuilder.setDateFormat("yyyy-MM-dd HH:mm:ss").create();
+		Gson gson = JsonMapper.gson();
 		User user = gson.fromJson(String.valueOf(response.get("data")), User.class);
 		user = parseArray(user, response.getJSONObject("data"));
 		return user;
@@ -0,0 +1,30 @@
+package com.angelbroking.smartapi.orders;
+
+import com.angelbroking.smartapi.models.Order;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Outcome of one order of a batch.
+ */
+@Getter
+@ToString
+public class BatchOrderResult {
+
+	/** Position of the order in the batch. */
+	private final int index;
+	/** The order, which contains only orderId, null if it failed. */
+	private final Order order;
+	/** The failure, null if the order was accepted. */
+	private final Throwable error;
+
+	BatchOrderResult(int index, Order order, Throwable error) {
+		this.index = index;
+		this.order = order;
+		this.error = error;
+	}
+
+	public boolean isSuccess() {
+		return error == null;
+	}
+}
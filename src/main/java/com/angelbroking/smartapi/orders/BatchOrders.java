@@ -0,0 +1,222 @@
+package com.angelbroking.smartapi.orders;
+
+import com.angelbroking.smartapi.models.Order;
+import com.angelbroking.smartapi.models.OrderParams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Places, modifies or cancels many orders at once.
+ *
+ * The orders of a batch are sent concurrently through {@link OrderEntry}, with
+ * at most the configured number in flight, and in the order given by an
+ * {@link OrderSequencing}. Each order gets its own {@link BatchOrderResult};
+ * a failed order does not stop the others. The order rate limit is enforced by
+ * the {@link com.angelbroking.smartapi.http.RequestScheduler} of the session
+ * when one is set, e.g. {@code RequestScheduler.withDefaultLimits()}, and
+ * {@link com.angelbroking.smartapi.SmartConnect#prewarm(int)} opens the
+ * connections ahead of the first batch.
+ */
+public class BatchOrders {
+
+	/** Default number of orders in flight at once. */
+	public static final int DEFAULT_MAX_IN_FLIGHT = 20;
+
+	private final OrderEntry orderEntry;
+	private final OrderSequencing sequencing;
+	private final int maxInFlight;
+
+	/**
+	 * Initializes batches keeping the order per symbol, with
+	 * {@link #DEFAULT_MAX_IN_FLIGHT} orders in flight.
+	 *
+	 * @param orderEntry is the order entry path the orders are sent through.
+	 */
+	public BatchOrders(OrderEntry orderEntry) {
+		this(orderEntry, OrderSequencing.PER_SYMBOL, DEFAULT_MAX_IN_FLIGHT);
+	}
+
+	/**
+	 * Initializes batches.
+	 *
+	 * @param orderEntry  is the order entry path the orders are sent through.
+	 * @param sequencing  is the order in which the orders are sent.
+	 * @param maxInFlight is the number of orders in flight at once.
+	 */
+	public BatchOrders(OrderEntry orderEntry, OrderSequencing sequencing, int maxInFlight) {
+		if (orderEntry == null || sequencing == null) {
+			throw new IllegalArgumentException("orderEntry and sequencing should not be null");
+		}
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException("maxInFlight should be positive");
+		}
+		this.orderEntry = orderEntry;
+		this.sequencing = sequencing;
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Places orders.
+	 *
+	 * @param orders  are the Order params, in the order of the batch.
+	 * @param variety variety="regular". Order variety can be bo, co, amo, regular.
+	 * @return future of the results, one per order in the order of the batch,
+	 *         completed once every order was answered.
+	 */
+	public CompletableFuture<List<BatchOrderResult>> placeOrders(List<OrderParams> orders, String variety) {
+		List<String> lanes = new ArrayList<>(orders.size());
+		List<Supplier<CompletableFuture<Order>>> calls = new ArrayList<>(orders.size());
+		for (OrderParams orderParams : orders) {
+			lanes.add(symbolOf(orderParams));
+			calls.add(() -> orderEntry.placeOrderAsync(orderParams, variety));
+		}
+		return dispatch(lanes, calls, sequencing, maxInFlight);
+	}
+
+	/**
+	 * Modifies open orders.
+	 *
+	 * @param orders  are the Order params by order id, in the iteration order of
+	 *                the map, e.g. a LinkedHashMap.
+	 * @param variety variety="regular". Order variety can be bo, co, amo, regular.
+	 * @return future of the results, one per order in the iteration order of the
+	 *         map, completed once every order was answered.
+	 */
+	public CompletableFuture<List<BatchOrderResult>> modifyOrders(Map<String, OrderParams> orders, String variety) {
+		List<String> lanes = new ArrayList<>(orders.size());
+		List<Supplier<CompletableFuture<Order>>> calls = new ArrayList<>(orders.size());
+		for (Map.Entry<String, OrderParams> order : orders.entrySet()) {
+			lanes.add(symbolOf(order.getValue()));
+			calls.add(() -> orderEntry.modifyOrderAsync(order.getKey(), order.getValue(), variety));
+		}
+		return dispatch(lanes, calls, sequencing, maxInFlight);
+	}
+
+	/**
+	 * Cancels orders. As the instrument of an order is not known from its id,
+	 * {@link OrderSequencing#PER_SYMBOL} keeps the order per order id.
+	 *
+	 * @param orderIds are the ids of the orders to cancel.
+	 * @param variety  variety="regular". Order variety can be bo, co, amo,
+	 *                 regular.
+	 * @return future of the results, one per order id in the given order,
+	 *         completed once every order was answered.
+	 */
+	public CompletableFuture<List<BatchOrderResult>> cancelOrders(List<String> orderIds, String variety) {
+		List<Supplier<CompletableFuture<Order>>> calls = new ArrayList<>(orderIds.size());
+		for (String orderId : orderIds) {
+			calls.add(() -> orderEntry.cancelOrderAsync(orderId, variety));
+		}
+		return dispatch(orderIds, calls, sequencing, maxInFlight);
+	}
+
+	private static String symbolOf(OrderParams orderParams) {
+		String symbol = orderParams.symboltoken != null ? orderParams.symboltoken : orderParams.tradingsymbol;
+		return orderParams.exchange + ":" + symbol;
+	}
+
+	/**
+	 * Sends calls in lanes: the calls of one lane one after another, and up to
+	 * maxInFlight lanes at once.
+	 *
+	 * @param symbols are the symbols of the calls, which decide the lanes under
+	 *                {@link OrderSequencing#PER_SYMBOL}.
+	 */
+	static CompletableFuture<List<BatchOrderResult>> dispatch(List<String> symbols,
+			List<Supplier<CompletableFuture<Order>>> calls, OrderSequencing sequencing, int maxInFlight) {
+		if (calls.isEmpty()) {
+			return CompletableFuture.completedFuture(Collections.emptyList());
+		}
+		Queue<List<Integer>> lanes = new ConcurrentLinkedQueue<>();
+		switch (sequencing) {
+		case SEQUENTIAL:
+			List<Integer> all = new ArrayList<>(calls.size());
+			for (int i = 0; i < calls.size(); i++) {
+				all.add(i);
+			}
+			lanes.add(all);
+			break;
+		case PER_SYMBOL:
+			Map<String, List<Integer>> bySymbol = new LinkedHashMap<>();
+			for (int i = 0; i < calls.size(); i++) {
+				bySymbol.computeIfAbsent(symbols.get(i), symbol -> new ArrayList<>()).add(i);
+			}
+			lanes.addAll(bySymbol.values());
+			break;
+		default:
+			for (int i = 0; i < calls.size(); i++) {
+				lanes.add(Collections.singletonList(i));
+			}
+		}
+		Dispatch dispatch = new Dispatch(calls, lanes);
+		int workers = Math.min(maxInFlight, lanes.size());
+		for (int i = 0; i < workers; i++) {
+			dispatch.nextLane();
+		}
+		return dispatch.done;
+	}
+
+	private static final class Dispatch {
+		private final List<Supplier<CompletableFuture<Order>>> calls;
+		private final Queue<List<Integer>> lanes;
+		private final BatchOrderResult[] results;
+		private final AtomicInteger remaining;
+		private final CompletableFuture<List<BatchOrderResult>> done = new CompletableFuture<>();
+
+		Dispatch(List<Supplier<CompletableFuture<Order>>> calls, Queue<List<Integer>> lanes) {
+			this.calls = calls;
+			this.lanes = lanes;
+			this.results = new BatchOrderResult[calls.size()];
+			this.remaining = new AtomicInteger(calls.size());
+		}
+
+		void nextLane() {
+			List<Integer> lane = lanes.poll();
+			if (lane != null) {
+				send(lane, 0);
+			}
+		}
+
+		private void send(List<Integer> lane, int position) {
+			if (position == lane.size()) {
+				nextLane();
+				return;
+			}
+			int index = lane.get(position);
+			CompletableFuture<Order> call;
+			try {
+				call = calls.get(index).get();
+			} catch (RuntimeException e) {
+				call = new CompletableFuture<>();
+				call.completeExceptionally(e);
+			}
+			call.whenComplete((order, error) -> {
+				results[index] = new BatchOrderResult(index, error == null ? order : null, unwrap(error));
+				if (remaining.decrementAndGet() == 0) {
+					done.complete(Collections.unmodifiableList(Arrays.asList(results)));
+				}
+				send(lane, position + 1);
+			});
+		}
+	}
+
+	private static Throwable unwrap(Throwable error) {
+		while ((error instanceof CompletionException || error instanceof ExecutionException)
+				&& error.getCause() != null) {
+			error = error.getCause();
+		}
+		return error;
+	}
+}
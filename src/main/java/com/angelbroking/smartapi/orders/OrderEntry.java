@@ -0,0 +1,271 @@
+package com.angelbroking.smartapi.orders;
+
+import com.angelbroking.smartapi.Routes;
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.ApiHeaderContext;
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.http.exceptions.RiskException;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.models.Order;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.risk.PreTradeRiskEngine;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Order placement path with per session request templates.
+ *
+ * The URLs, the media type and the complete header set of a session, including
+ * authorization and api key, are built once and reused for every order; only
+ * the body is encoded per call, directly from {@link OrderParams} to bytes. The
+ * templates are rebuilt when the access token, the api key, the request handler
+ * or the client identification headers of the session change.
+ *
+ * Unlike {@link SmartConnect#placeOrder}, failures are thrown to the caller
+ * instead of being logged and returned as null.
+ */
+public class OrderEntry {
+
+	private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+	private static final Routes ROUTES = new Routes();
+	private static final HttpUrl PLACE_URL = HttpUrl.get(ROUTES.get("api.order.place"));
+	private static final HttpUrl MODIFY_URL = HttpUrl.get(ROUTES.get("api.order.modify"));
+	private static final HttpUrl CANCEL_URL = HttpUrl.get(ROUTES.get("api.order.cancel"));
+
+	private final SmartConnect smartConnect;
+	private volatile Template template;
+
+	/**
+	 * Initializes the order entry path of a session.
+	 *
+	 * @param smartConnect is the session whose api key, access token and request
+	 *                     handler are used for all orders.
+	 */
+	public OrderEntry(SmartConnect smartConnect) {
+		if (smartConnect == null) {
+			throw new IllegalArgumentException("smartConnect should not be null");
+		}
+		this.smartConnect = smartConnect;
+	}
+
+	/**
+	 * Places an order.
+	 *
+	 * @param orderParams is Order params.
+	 * @param variety     variety="regular". Order variety can be bo, co, amo,
+	 *                    regular.
+	 * @return Order which contains only orderId.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 */
+	public Order placeOrder(OrderParams orderParams, String variety) throws IOException, SmartAPIException {
+		checkRisk(orderParams, false);
+		Template current = template();
+		try {
+			return toOrder(current.handler.send(current.request(PLACE_URL,
+					OrderRequestEncoder.placeOrder(orderParams, variety))));
+		} finally {
+			smartConnect.invalidateOrderData();
+		}
+	}
+
+	/**
+	 * Places an order without blocking the calling thread.
+	 *
+	 * @param orderParams is Order params.
+	 * @param variety     variety="regular". Order variety can be bo, co, amo,
+	 *                    regular.
+	 * @return future of Order which contains only orderId.
+	 */
+	public CompletableFuture<Order> placeOrderAsync(OrderParams orderParams, String variety) {
+		return sendAsync(PLACE_URL, orderParams, false, () -> OrderRequestEncoder.placeOrder(orderParams, variety));
+	}
+
+	/**
+	 * Modifies an open order without blocking the calling thread.
+	 *
+	 * @param orderId     order id of the order being modified.
+	 * @param orderParams is Order params.
+	 * @param variety     variety="regular". Order variety can be bo, co, amo,
+	 *                    regular.
+	 * @return future of Order which contains only orderId.
+	 */
+	public CompletableFuture<Order> modifyOrderAsync(String orderId, OrderParams orderParams, String variety) {
+		return sendAsync(MODIFY_URL, orderParams, true,
+				() -> OrderRequestEncoder.modifyOrder(orderId, orderParams, variety));
+	}
+
+	/**
+	 * Cancels an order without blocking the calling thread.
+	 *
+	 * @param orderId order id of the order to be cancelled.
+	 * @param variety variety="regular". Order variety can be bo, co, amo,
+	 *                regular.
+	 * @return future of Order which contains only orderId.
+	 */
+	public CompletableFuture<Order> cancelOrderAsync(String orderId, String variety) {
+		return sendAsync(CANCEL_URL, null, false, () -> OrderRequestEncoder.cancelOrder(orderId, variety));
+	}
+
+	private CompletableFuture<Order> sendAsync(HttpUrl url, OrderParams orderParams, boolean modify,
+			Supplier<byte[]> body) {
+		try {
+			if (orderParams != null) {
+				checkRisk(orderParams, modify);
+			}
+			Template current = template();
+			return current.handler.sendAsync(current.request(url, body.get()))
+					.whenComplete((response, error) -> smartConnect.invalidateOrderData())
+					.thenApply(OrderEntry::toOrder);
+		} catch (IOException | RuntimeException e) {
+			CompletableFuture<Order> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		} catch (RiskException e) {
+			CompletableFuture<Order> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+	private void checkRisk(OrderParams orderParams, boolean modify) throws RiskException {
+		PreTradeRiskEngine riskEngine = smartConnect.getRiskEngine();
+		if (riskEngine == null) {
+			return;
+		}
+		if (modify) {
+			riskEngine.enforceModify(orderParams);
+		} else {
+			riskEngine.enforce(orderParams);
+		}
+	}
+
+	/**
+	 * Modifies an open order.
+	 *
+	 * @param orderId     order id of the order being modified.
+	 * @param orderParams is Order params.
+	 * @param variety     variety="regular". Order variety can be bo, co, amo,
+	 *                    regular.
+	 * @return Order which contains only orderId.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 */
+	public Order modifyOrder(String orderId, OrderParams orderParams, String variety)
+			throws IOException, SmartAPIException {
+		checkRisk(orderParams, true);
+		Template current = template();
+		try {
+			return toOrder(current.handler.send(current.request(MODIFY_URL,
+					OrderRequestEncoder.modifyOrder(orderId, orderParams, variety))));
+		} finally {
+			smartConnect.invalidateOrderData();
+		}
+	}
+
+	/**
+	 * Cancels an order.
+	 *
+	 * @param orderId order id of the order to be cancelled.
+	 * @param variety variety="regular". Order variety can be bo, co, amo,
+	 *                regular.
+	 * @return Order which contains only orderId.
+	 * @throws IOException       is thrown when there is a connection related error.
+	 * @throws SmartAPIException is thrown for all Smart API Trade related errors.
+	 */
+	public Order cancelOrder(String orderId, String variety) throws IOException, SmartAPIException {
+		Template current = template();
+		try {
+			return toOrder(current.handler.send(current.request(CANCEL_URL,
+					OrderRequestEncoder.cancelOrder(orderId, variety))));
+		} finally {
+			smartConnect.invalidateOrderData();
+		}
+	}
+
+	/**
+	 * Builds the request for placing an order without sending it.
+	 *
+	 * @throws IOException if the client identification headers could not be
+	 *                     resolved.
+	 */
+	public Request placeOrderRequest(OrderParams orderParams, String variety) throws IOException {
+		return template().request(PLACE_URL, OrderRequestEncoder.placeOrder(orderParams, variety));
+	}
+
+	/**
+	 * Builds the request for modifying an order without sending it.
+	 *
+	 * @throws IOException if the client identification headers could not be
+	 *                     resolved.
+	 */
+	public Request modifyOrderRequest(String orderId, OrderParams orderParams, String variety) throws IOException {
+		return template().request(MODIFY_URL, OrderRequestEncoder.modifyOrder(orderId, orderParams, variety));
+	}
+
+	/**
+	 * Builds the request for cancelling an order without sending it.
+	 *
+	 * @throws IOException if the client identification headers could not be
+	 *                     resolved.
+	 */
+	public Request cancelOrderRequest(String orderId, String variety) throws IOException {
+		return template().request(CANCEL_URL, OrderRequestEncoder.cancelOrder(orderId, variety));
+	}
+
+	private Template template() throws IOException {
+		SmartAPIRequestHandler handler = smartConnect.getSmartAPIRequestHandler();
+		ApiHeaderContext.Snapshot snapshot = handler.getApiHeaderContext().snapshot();
+		String apiKey = smartConnect.getApiKey();
+		String accessToken = smartConnect.getAccessToken();
+		Template current = template;
+		if (current == null || !current.matches(handler, snapshot, apiKey, accessToken)) {
+			current = new Template(handler, snapshot, apiKey, accessToken);
+			template = current;
+		}
+		return current;
+	}
+
+	private static Order toOrder(JSONObject response) {
+		Order order = new Order();
+		order.orderId = response.getJSONObject("data").getString("orderid");
+		return order;
+	}
+
+	private static final class Template {
+		private final SmartAPIRequestHandler handler;
+		private final ApiHeaderContext.Snapshot snapshot;
+		private final String apiKey;
+		private final String accessToken;
+		private final Headers headers;
+
+		private Template(SmartAPIRequestHandler handler, ApiHeaderContext.Snapshot snapshot, String apiKey,
+				String accessToken) {
+			this.handler = handler;
+			this.snapshot = snapshot;
+			this.apiKey = apiKey;
+			this.accessToken = accessToken;
+			this.headers = snapshot.postHeaders().newBuilder().add("Authorization", "Bearer " + accessToken)
+					.add("X-PrivateKey", apiKey).build();
+		}
+
+		private boolean matches(SmartAPIRequestHandler handler, ApiHeaderContext.Snapshot snapshot, String apiKey,
+				String accessToken) {
+			return this.handler == handler && this.snapshot == snapshot
+					&& Objects.equals(this.apiKey, apiKey) && Objects.equals(this.accessToken, accessToken);
+		}
+
+		private Request request(HttpUrl url, byte[] body) {
+			return new Request.Builder().url(url).headers(headers).post(RequestBody.create(body, JSON)).build();
+		}
+	}
+}
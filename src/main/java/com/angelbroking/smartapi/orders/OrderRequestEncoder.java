@@ -0,0 +1,244 @@
+package com.angelbroking.smartapi.orders;
+
+import com.angelbroking.smartapi.models.OrderParams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes order requests straight to UTF-8 JSON bytes.
+ *
+ * The fields and their order are those of the JSONObject bodies built by
+ * SmartConnect, but no intermediate JSONObject, String or StringBuilder is
+ * created: each thread encodes into its own reusable buffer and only the final,
+ * exactly sized byte array is allocated. The array has to be a copy because
+ * OkHttp may write a request body again on a retry.
+ */
+final class OrderRequestEncoder {
+
+	private static final byte[] EXCHANGE = name("exchange");
+	private static final byte[] TRADING_SYMBOL = name("tradingsymbol");
+	private static final byte[] TRANSACTION_TYPE = name("transactiontype");
+	private static final byte[] QUANTITY = name("quantity");
+	private static final byte[] PRICE = name("price");
+	private static final byte[] PRODUCT_TYPE = name("producttype");
+	private static final byte[] ORDER_TYPE = name("ordertype");
+	private static final byte[] DURATION = name("duration");
+	private static final byte[] SYMBOL_TOKEN = name("symboltoken");
+	private static final byte[] SQUARE_OFF = name("squareoff");
+	private static final byte[] STOP_LOSS = name("stoploss");
+	private static final byte[] TRIGGER_PRICE = name("triggerprice");
+	private static final byte[] VARIETY = name("variety");
+	private static final byte[] ORDER_ID = name("orderid");
+
+	private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+	private static final int INITIAL_CAPACITY = 512;
+
+	private static final ThreadLocal<OrderRequestEncoder> ENCODERS = ThreadLocal.withInitial(OrderRequestEncoder::new);
+
+	private byte[] buffer = new byte[INITIAL_CAPACITY];
+	private int length;
+	private boolean firstField;
+
+	private OrderRequestEncoder() {
+	}
+
+	/**
+	 * Returns the body of an api.order.place request.
+	 */
+	static byte[] placeOrder(OrderParams orderParams, String variety) {
+		OrderRequestEncoder encoder = ENCODERS.get().begin();
+		encoder.field(EXCHANGE, orderParams.exchange);
+		encoder.field(TRADING_SYMBOL, orderParams.tradingsymbol);
+		encoder.field(TRANSACTION_TYPE, orderParams.transactiontype);
+		encoder.field(QUANTITY, orderParams.quantity);
+		encoder.field(PRICE, orderParams.price);
+		encoder.field(PRODUCT_TYPE, orderParams.producttype);
+		encoder.field(ORDER_TYPE, orderParams.ordertype);
+		encoder.field(DURATION, orderParams.duration);
+		encoder.field(SYMBOL_TOKEN, orderParams.symboltoken);
+		encoder.field(SQUARE_OFF, orderParams.squareoff);
+		encoder.field(STOP_LOSS, orderParams.stoploss);
+		encoder.field(TRIGGER_PRICE, orderParams.triggerprice);
+		encoder.field(VARIETY, variety);
+		return encoder.end();
+	}
+
+	/**
+	 * Returns the body of an api.order.modify request.
+	 */
+	static byte[] modifyOrder(String orderId, OrderParams orderParams, String variety) {
+		OrderRequestEncoder encoder = ENCODERS.get().begin();
+		encoder.field(EXCHANGE, orderParams.exchange);
+		encoder.field(TRADING_SYMBOL, orderParams.tradingsymbol);
+		encoder.field(SYMBOL_TOKEN, orderParams.symboltoken);
+		encoder.field(QUANTITY, orderParams.quantity);
+		encoder.field(PRICE, orderParams.price);
+		encoder.field(PRODUCT_TYPE, orderParams.producttype);
+		encoder.field(ORDER_TYPE, orderParams.ordertype);
+		encoder.field(DURATION, orderParams.duration);
+		encoder.field(VARIETY, variety);
+		encoder.field(ORDER_ID, orderId);
+		return encoder.end();
+	}
+
+	/**
+	 * Returns the body of an api.order.cancel request.
+	 */
+	static byte[] cancelOrder(String orderId, String variety) {
+		OrderRequestEncoder encoder = ENCODERS.get().begin();
+		encoder.field(VARIETY, variety);
+		encoder.field(ORDER_ID, orderId);
+		return encoder.end();
+	}
+
+	private OrderRequestEncoder begin() {
+		length = 0;
+		firstField = true;
+		write('{');
+		return this;
+	}
+
+	private byte[] end() {
+		write('}');
+		return Arrays.copyOf(buffer, length);
+	}
+
+	private void field(byte[] name, String value) {
+		if (value == null) {
+			return;
+		}
+		name(name);
+		write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				ascii(c);
+			} else if (c < 0x800) {
+				write(0xC0 | (c >> 6));
+				write(0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				write(0xF0 | (codePoint >> 18));
+				write(0x80 | ((codePoint >> 12) & 0x3F));
+				write(0x80 | ((codePoint >> 6) & 0x3F));
+				write(0x80 | (codePoint & 0x3F));
+			} else {
+				write(0xE0 | (c >> 12));
+				write(0x80 | ((c >> 6) & 0x3F));
+				write(0x80 | (c & 0x3F));
+			}
+		}
+		write('"');
+	}
+
+	private void field(byte[] name, Integer value) {
+		if (value == null) {
+			return;
+		}
+		name(name);
+		digits(value);
+	}
+
+	private void field(byte[] name, Double value) {
+		if (value == null) {
+			return;
+		}
+		name(name);
+		double price = value;
+		if (Double.isNaN(price) || Double.isInfinite(price)) {
+			throw new IllegalArgumentException("price should be a finite number");
+		}
+		// whole prices are written without ".0", as JSONObject does
+		if (price == Math.rint(price) && Math.abs(price) < 1e15) {
+			digits((long) price);
+			return;
+		}
+		String text = Double.toString(price);
+		for (int i = 0; i < text.length(); i++) {
+			write(text.charAt(i));
+		}
+	}
+
+	private void name(byte[] name) {
+		if (!firstField) {
+			write(',');
+		}
+		firstField = false;
+		ensureCapacity(name.length);
+		System.arraycopy(name, 0, buffer, length, name.length);
+		length += name.length;
+	}
+
+	private void ascii(char c) {
+		switch (c) {
+			case '"':
+			case '\\':
+				write('\\');
+				write(c);
+				break;
+			case '\n':
+				write('\\');
+				write('n');
+				break;
+			case '\r':
+				write('\\');
+				write('r');
+				break;
+			case '\t':
+				write('\\');
+				write('t');
+				break;
+			default:
+				if (c < 0x20) {
+					write('\\');
+					write('u');
+					write('0');
+					write('0');
+					write(HEX[c >> 4]);
+					write(HEX[c & 0xF]);
+				} else {
+					write(c);
+				}
+		}
+	}
+
+	private void digits(long value) {
+		if (value == Long.MIN_VALUE) {
+			for (char c : Long.toString(value).toCharArray()) {
+				write(c);
+			}
+			return;
+		}
+		if (value < 0) {
+			write('-');
+			value = -value;
+		}
+		int start = length;
+		do {
+			write((int) ('0' + value % 10));
+			value /= 10;
+		} while (value != 0);
+		for (int i = start, j = length - 1; i < j; i++, j--) {
+			byte swap = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = swap;
+		}
+	}
+
+	private void write(int b) {
+		ensureCapacity(1);
+		buffer[length++] = (byte) b;
+	}
+
+	private void ensureCapacity(int extra) {
+		if (length + extra > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+		}
+	}
+
+	private static byte[] name(String name) {
+		return ("\"" + name + "\":").getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,20 @@
+package com.angelbroking.smartapi.orders;
+
+/**
+ * Order in which the orders of a batch reach the exchange.
+ */
+public enum OrderSequencing {
+
+	/** Every order is sent as soon as a slot is free. */
+	NONE,
+
+	/**
+	 * Orders of the same instrument are sent one after another, in the order of
+	 * the batch, each once the previous one was answered; different instruments
+	 * are sent concurrently.
+	 */
+	PER_SYMBOL,
+
+	/** All orders are sent one after another, in the order of the batch. */
+	SEQUENTIAL
+}
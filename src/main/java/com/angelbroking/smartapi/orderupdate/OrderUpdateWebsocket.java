@@ -23,7 +23,7 @@ public class OrderUpdateWebsocket {
     private final Routes routes = new Routes();
     private final String wsuri = routes.getOrderUpdateUri();
     private WebSocket ws;
-    private String accessToken;
+    private volatile String accessToken;
     private final OrderUpdateListner orderUpdateListner;
 
     private Timer pingTimer;
@@ -166,6 +166,19 @@ public class OrderUpdateWebsocket {
         return error;
     }
 
+    /**
+     * Sets the access token used when the websocket connects again, e.g. after
+     * the session was renewed. The current connection is not affected.
+     *
+     * @param accessToken is the renewed access token.
+     */
+    public void setAccessToken(String accessToken) {
+        if (StringUtils.isEmpty(accessToken)) {
+            throw new IllegalArgumentException("accessToken should not be empty or null");
+        }
+        this.accessToken = accessToken;
+    }
+
     public void connect() throws WebSocketException {
         ws.connect();
         log.info("connected to uri: {}", wsuri);
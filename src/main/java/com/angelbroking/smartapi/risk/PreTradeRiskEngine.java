@@ -0,0 +1,332 @@
+package com.angelbroking.smartapi.risk;
+
+import com.angelbroking.smartapi.http.exceptions.RiskException;
+import com.angelbroking.smartapi.instruments.Instrument;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.models.Position;
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.LTP;
+import com.angelbroking.smartapi.smartstream.models.Quote;
+import com.angelbroking.smartapi.smartstream.models.SnapQuote;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process pre-trade risk checks of orders.
+ *
+ * An order is checked against the {@link RiskLimits} of its instrument, or the
+ * default limits, using state kept locally: last traded prices and circuit
+ * limits from the market data stream, net positions seeded from
+ * {@link #setPositions(List)} and moved by {@link #onFill}, and a lock-free
+ * per instrument order counter. A check reads a few volatile fields and does
+ * not allocate, so it costs well under a microsecond on the order path. Set on
+ * a session with {@link com.angelbroking.smartapi.SmartConnect#setRiskEngine},
+ * it guards placeOrder and modifyOrder of SmartConnect and OrderEntry.
+ *
+ * Positions count filled quantities only; orders which are open but not filled
+ * are not reserved against the position limit.
+ */
+@Slf4j
+public class PreTradeRiskEngine {
+
+	private final Map<ExchangeType, Map<String, InstrumentState>> instruments = new EnumMap<>(ExchangeType.class);
+	// instruments of exchanges without a stream exchange type, by exchange and token
+	private final Map<String, InstrumentState> unstreamed = new ConcurrentHashMap<>();
+	private final LongSupplier clock;
+	private volatile RiskLimits defaultLimits;
+
+	/**
+	 * Creates an engine.
+	 *
+	 * @param defaultLimits are the limits of instruments without their own.
+	 */
+	public PreTradeRiskEngine(RiskLimits defaultLimits) {
+		this(defaultLimits, System::currentTimeMillis);
+	}
+
+	PreTradeRiskEngine(RiskLimits defaultLimits, LongSupplier clock) {
+		setDefaultLimits(defaultLimits);
+		this.clock = clock;
+		for (ExchangeType exchangeType : ExchangeType.values()) {
+			instruments.put(exchangeType, new ConcurrentHashMap<>());
+		}
+	}
+
+	/**
+	 * Sets the limits of instruments without their own.
+	 */
+	public void setDefaultLimits(RiskLimits defaultLimits) {
+		if (defaultLimits == null) {
+			throw new IllegalArgumentException("defaultLimits should not be null");
+		}
+		this.defaultLimits = defaultLimits;
+	}
+
+	/**
+	 * Sets the limits of one instrument.
+	 *
+	 * @param exchange    is the exchange, e.g. NSE.
+	 * @param symbolToken is the symbol token of the instrument.
+	 * @param limits      are the limits, or null to use the default limits.
+	 */
+	public void setLimits(String exchange, String symbolToken, RiskLimits limits) {
+		state(exchange, symbolToken).limits = limits;
+	}
+
+	/**
+	 * Checks a new order, and counts it against the order rate of its instrument
+	 * if it passes.
+	 */
+	public RiskCheck check(OrderParams orderParams) {
+		return check(orderParams, true);
+	}
+
+	/**
+	 * Checks a modification of an order: its quantity, price and the order rate,
+	 * but not the position limit.
+	 */
+	public RiskCheck checkModify(OrderParams orderParams) {
+		return check(orderParams, false);
+	}
+
+	/**
+	 * Checks a new order.
+	 *
+	 * @throws RiskException if the order fails a check.
+	 */
+	public void enforce(OrderParams orderParams) throws RiskException {
+		throwIfFailed(check(orderParams, true), orderParams);
+	}
+
+	/**
+	 * Checks a modification of an order.
+	 *
+	 * @throws RiskException if the modification fails a check.
+	 */
+	public void enforceModify(OrderParams orderParams) throws RiskException {
+		throwIfFailed(check(orderParams, false), orderParams);
+	}
+
+	private RiskCheck check(OrderParams orderParams, boolean newOrder) {
+		InstrumentState state = find(orderParams.exchange, orderParams.symboltoken);
+		RiskLimits limits = state == null || state.limits == null ? defaultLimits : state.limits;
+		long quantity = orderParams.quantity == null ? 0 : orderParams.quantity;
+		if (limits.getMaxOrderQuantity() > 0 && quantity > limits.getMaxOrderQuantity()) {
+			return RiskCheck.MAX_QUANTITY;
+		}
+		long lastPrice = state == null ? 0 : state.lastTradedPrice;
+		double divisor = state == null ? 1 : state.priceDivisor;
+		double price = orderParams.price != null && orderParams.price > 0 ? orderParams.price
+				: lastPrice / divisor;
+		if (state != null && limits.isCircuitCheck() && orderParams.price != null && orderParams.price > 0) {
+			long upper = state.upperCircuit;
+			long lower = state.lowerCircuit;
+			if ((upper > 0 && price > upper / divisor) || (lower > 0 && price < lower / divisor)) {
+				return RiskCheck.OUTSIDE_CIRCUIT;
+			}
+		}
+		if (limits.getPriceBand() > 0 && lastPrice > 0) {
+			double last = lastPrice / divisor;
+			if (Math.abs(price - last) > last * limits.getPriceBand()) {
+				return RiskCheck.PRICE_BAND;
+			}
+		}
+		if (limits.getMaxOrderNotional() > 0) {
+			if (price <= 0) {
+				return RiskCheck.NO_PRICE;
+			}
+			if (quantity * price > limits.getMaxOrderNotional()) {
+				return RiskCheck.MAX_NOTIONAL;
+			}
+		}
+		if (newOrder && limits.getMaxPositionQuantity() > 0) {
+			long position = state == null ? 0 : state.netQuantity.get();
+			long after = "SELL".equals(orderParams.transactiontype) ? position - quantity : position + quantity;
+			if (Math.abs(after) > limits.getMaxPositionQuantity() && Math.abs(after) > Math.abs(position)) {
+				return RiskCheck.POSITION_LIMIT;
+			}
+		}
+		if (limits.getMaxOrdersPerSecond() > 0) {
+			if (state == null) {
+				if (orderParams.exchange == null || orderParams.symboltoken == null) {
+					return RiskCheck.UNKNOWN_INSTRUMENT;
+				}
+				state = state(orderParams.exchange, orderParams.symboltoken);
+			}
+			if (!state.tryCountOrder(clock.getAsLong(), limits.getMaxOrdersPerSecond())) {
+				return RiskCheck.ORDER_RATE;
+			}
+		}
+		return RiskCheck.PASSED;
+	}
+
+	private static void throwIfFailed(RiskCheck check, OrderParams orderParams) throws RiskException {
+		if (!check.isPassed()) {
+			throw new RiskException("order of " + orderParams.exchange + ":" + orderParams.symboltoken
+					+ " rejected by pre-trade risk check " + check, check.name());
+		}
+	}
+
+	/**
+	 * Updates the last traded price of an instrument.
+	 */
+	public void onLTP(LTP ltp) {
+		updatePrice(ltp.getExchangeType(), ltp.getToken().getToken(), ltp.getLastTradedPrice());
+	}
+
+	/**
+	 * Updates the last traded price of an instrument.
+	 */
+	public void onQuote(Quote quote) {
+		updatePrice(quote.getExchangeType(), quote.getToken().getToken(), quote.getLastTradedPrice());
+	}
+
+	/**
+	 * Updates the last traded price and the circuit limits of an instrument.
+	 */
+	public void onSnapQuote(SnapQuote snapQuote) {
+		InstrumentState state = state(snapQuote.getExchangeType(), snapQuote.getToken().getToken());
+		state.upperCircuit = snapQuote.getUpperCircuit();
+		state.lowerCircuit = snapQuote.getLowerCircuit();
+		state.lastTradedPrice = snapQuote.getLastTradedPrice();
+	}
+
+	/**
+	 * Updates the last traded price of an instrument.
+	 *
+	 * @param lastTradedPrice is the price as sent by the stream, see
+	 *                        {@link com.angelbroking.smartapi.smartstream.models.FixedPoint}.
+	 */
+	public void updatePrice(ExchangeType exchangeType, String symbolToken, long lastTradedPrice) {
+		state(exchangeType, symbolToken).lastTradedPrice = lastTradedPrice;
+	}
+
+	/**
+	 * Replaces the net positions with those of the position book, e.g. of
+	 * SmartConnect.getPositions at startup. Instruments missing from the list are
+	 * flat, and so are rows whose net quantity is not a number, which are logged
+	 * and skipped.
+	 */
+	public void setPositions(List<Position> positions) {
+		Map<InstrumentState, Long> netQuantities = new HashMap<>();
+		if (positions != null) {
+			for (Position position : positions) {
+				long quantity;
+				try {
+					quantity = position.netQuantity == null ? 0 : Long.parseLong(position.netQuantity.trim());
+				} catch (NumberFormatException e) {
+					log.warn("skipping position {} {} of net quantity {}", position.exchange, position.symbolToken,
+							position.netQuantity);
+					continue;
+				}
+				netQuantities.merge(state(position.exchange, position.symbolToken), quantity, Long::sum);
+			}
+		}
+		for (Map<String, InstrumentState> byToken : instruments.values()) {
+			for (InstrumentState state : byToken.values()) {
+				state.netQuantity.set(netQuantities.getOrDefault(state, 0L));
+			}
+		}
+		for (InstrumentState state : unstreamed.values()) {
+			state.netQuantity.set(netQuantities.getOrDefault(state, 0L));
+		}
+	}
+
+	/**
+	 * Moves the net position of an instrument by a fill, e.g. from the order
+	 * update websocket.
+	 *
+	 * @param transactionType is BUY or SELL.
+	 * @param quantity        is the filled quantity.
+	 */
+	public void onFill(String exchange, String symbolToken, String transactionType, long quantity) {
+		long signed = "SELL".equals(transactionType) ? -quantity : quantity;
+		state(exchange, symbolToken).netQuantity.addAndGet(signed);
+	}
+
+	/**
+	 * Returns the net position of an instrument.
+	 */
+	public long getNetQuantity(String exchange, String symbolToken) {
+		InstrumentState state = find(exchange, symbolToken);
+		return state == null ? 0 : state.netQuantity.get();
+	}
+
+	private InstrumentState find(String exchange, String symbolToken) {
+		if (exchange == null || symbolToken == null) {
+			return null;
+		}
+		ExchangeType exchangeType = streamExchangeType(exchange);
+		return exchangeType == null ? unstreamed.get(exchange + ':' + symbolToken)
+				: instruments.get(exchangeType).get(symbolToken);
+	}
+
+	private InstrumentState state(String exchange, String symbolToken) {
+		if (exchange == null || symbolToken == null) {
+			throw new IllegalArgumentException("exchange and symbolToken should not be null");
+		}
+		ExchangeType exchangeType = streamExchangeType(exchange);
+		if (exchangeType == null) {
+			// no prices are streamed for these, so the divisor is never used
+			return unstreamed.computeIfAbsent(exchange + ':' + symbolToken, key -> new InstrumentState(1));
+		}
+		return state(exchangeType, symbolToken);
+	}
+
+	private static ExchangeType streamExchangeType(String exchange) {
+		try {
+			return Instrument.exchangeType(exchange);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private InstrumentState state(ExchangeType exchangeType, String symbolToken) {
+		if (symbolToken == null) {
+			throw new IllegalArgumentException("symbolToken should not be null");
+		}
+		return instruments.get(exchangeType).computeIfAbsent(symbolToken,
+				token -> new InstrumentState(exchangeType.getPriceDivisor()));
+	}
+
+	private static final class InstrumentState {
+		private final long priceDivisor;
+		private volatile RiskLimits limits;
+		private volatile long lastTradedPrice;
+		private volatile long upperCircuit;
+		private volatile long lowerCircuit;
+		private final AtomicLong netQuantity = new AtomicLong();
+		// epoch second in the upper 32 bits, orders counted in it in the lower 32
+		private final AtomicLong orderWindow = new AtomicLong();
+
+		InstrumentState(long priceDivisor) {
+			this.priceDivisor = priceDivisor;
+		}
+
+		boolean tryCountOrder(long nowMillis, int maxPerSecond) {
+			long second = nowMillis / 1000;
+			while (true) {
+				long window = orderWindow.get();
+				long next;
+				if (window >>> 32 == second) {
+					if ((int) window >= maxPerSecond) {
+						return false;
+					}
+					next = window + 1;
+				} else {
+					next = (second << 32) | 1;
+				}
+				if (orderWindow.compareAndSet(window, next)) {
+					return true;
+				}
+			}
+		}
+	}
+}
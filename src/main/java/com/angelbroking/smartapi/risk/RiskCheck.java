@@ -0,0 +1,38 @@
+package com.angelbroking.smartapi.risk;
+
+/**
+ * Outcome of a pre-trade risk check, see {@link PreTradeRiskEngine}.
+ */
+public enum RiskCheck {
+
+	/** The order is within all limits. */
+	PASSED,
+
+	/** The quantity of the order is above the maximum order quantity. */
+	MAX_QUANTITY,
+
+	/** Quantity times price is above the maximum order notional. */
+	MAX_NOTIONAL,
+
+	/** The price is above the upper or below the lower circuit of the instrument. */
+	OUTSIDE_CIRCUIT,
+
+	/** The price deviates from the last traded price by more than the price band. */
+	PRICE_BAND,
+
+	/** The net position after a fill of the order would exceed the position limit. */
+	POSITION_LIMIT,
+
+	/** The instrument has reached its maximum number of orders per second. */
+	ORDER_RATE,
+
+	/** The order has no price and no last traded price is known to value it. */
+	NO_PRICE,
+
+	/** The order has no exchange or symbol token to count its order rate against. */
+	UNKNOWN_INSTRUMENT;
+
+	public boolean isPassed() {
+		return this == PASSED;
+	}
+}
@@ -0,0 +1,134 @@
+package com.angelbroking.smartapi.risk;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Limits an order of one instrument is checked against. A limit of 0 is not
+ * enforced.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class RiskLimits {
+
+	private final long maxOrderQuantity;
+	private final double maxOrderNotional;
+	private final long maxPositionQuantity;
+	private final double priceBand;
+	private final int maxOrdersPerSecond;
+	private final boolean circuitCheck;
+
+	private RiskLimits(Builder builder) {
+		this.maxOrderQuantity = builder.maxOrderQuantity;
+		this.maxOrderNotional = builder.maxOrderNotional;
+		this.maxPositionQuantity = builder.maxPositionQuantity;
+		this.priceBand = builder.priceBand;
+		this.maxOrdersPerSecond = builder.maxOrdersPerSecond;
+		this.circuitCheck = builder.circuitCheck;
+	}
+
+	/**
+	 * Returns limits which only reject prices outside the circuit limits.
+	 */
+	public static RiskLimits none() {
+		return builder().build();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public Builder toBuilder() {
+		Builder builder = new Builder();
+		builder.maxOrderQuantity = maxOrderQuantity;
+		builder.maxOrderNotional = maxOrderNotional;
+		builder.maxPositionQuantity = maxPositionQuantity;
+		builder.priceBand = priceBand;
+		builder.maxOrdersPerSecond = maxOrdersPerSecond;
+		builder.circuitCheck = circuitCheck;
+		return builder;
+	}
+
+	public static final class Builder {
+		private long maxOrderQuantity;
+		private double maxOrderNotional;
+		private long maxPositionQuantity;
+		private double priceBand;
+		private int maxOrdersPerSecond;
+		private boolean circuitCheck = true;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the maximum quantity of one order.
+		 */
+		public Builder maxOrderQuantity(long maxOrderQuantity) {
+			this.maxOrderQuantity = requireNotNegative(maxOrderQuantity, "maxOrderQuantity");
+			return this;
+		}
+
+		/**
+		 * Sets the maximum quantity times price of one order, in rupees.
+		 */
+		public Builder maxOrderNotional(double maxOrderNotional) {
+			if (!(maxOrderNotional >= 0)) {
+				throw new IllegalArgumentException("maxOrderNotional should not be negative");
+			}
+			this.maxOrderNotional = maxOrderNotional;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum absolute net quantity of the instrument after a fill of
+		 * the order.
+		 */
+		public Builder maxPositionQuantity(long maxPositionQuantity) {
+			this.maxPositionQuantity = requireNotNegative(maxPositionQuantity, "maxPositionQuantity");
+			return this;
+		}
+
+		/**
+		 * Sets the maximum deviation of the order price from the last traded price,
+		 * e.g. 0.05 for 5%.
+		 */
+		public Builder priceBand(double priceBand) {
+			if (!(priceBand >= 0 && priceBand < 1)) {
+				throw new IllegalArgumentException("priceBand should be between 0 and 1");
+			}
+			this.priceBand = priceBand;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of orders and modifications of the instrument per
+		 * second.
+		 */
+		public Builder maxOrdersPerSecond(int maxOrdersPerSecond) {
+			this.maxOrdersPerSecond = (int) requireNotNegative(maxOrdersPerSecond, "maxOrdersPerSecond");
+			return this;
+		}
+
+		/**
+		 * Sets whether prices outside the circuit limits of the last snap quote are
+		 * rejected, which is the default.
+		 */
+		public Builder circuitCheck(boolean circuitCheck) {
+			this.circuitCheck = circuitCheck;
+			return this;
+		}
+
+		public RiskLimits build() {
+			return new RiskLimits(this);
+		}
+
+		private static long requireNotNegative(long value, String name) {
+			if (value < 0) {
+				throw new IllegalArgumentException(name + " should not be negative");
+			}
+			return value;
+		}
+	}
+}
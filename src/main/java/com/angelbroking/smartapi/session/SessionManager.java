@@ -0,0 +1,332 @@
+package com.angelbroking.smartapi.session;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.TokenGate;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.models.TokenSet;
+import com.angelbroking.smartapi.orderupdate.OrderUpdateWebsocket;
+import com.angelbroking.smartapi.smartstream.ticker.SmartStreamTicker;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Renews the tokens of a session ahead of their expiry.
+ *
+ * The expiry is read from the exp claim of the access token, and the renewal
+ * through api.refresh is scheduled the configured time before it, or halfway
+ * to it for short lived tokens. A failed renewal is retried until the token
+ * expires. Renewed tokens are swapped into the {@link SmartConnect} at once,
+ * and, as the manager is the {@link TokenGate} of its request handler, requests
+ * built or queued with the previous token are sent with the new one. Requests
+ * made while a renewal is in flight, or after the token expired, wait for the
+ * renewal up to the configured time instead of failing. Websocket clients get
+ * the renewed tokens through {@link #bind(OrderUpdateWebsocket)},
+ * {@link #bind(SmartStreamTicker)} or a {@link TokenListener}, and use them
+ * when they connect again.
+ */
+@Slf4j
+public class SessionManager implements TokenGate, Closeable {
+
+	private static final long DEFAULT_RENEW_BEFORE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+	private static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+	private static final long DEFAULT_RETRY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	private final SmartConnect smartConnect;
+	private final long renewBeforeMillis;
+	private final long maxWaitMillis;
+	private final long retryMillis;
+	private final LongSupplier clock;
+	private final ScheduledExecutorService executor;
+	private final List<TokenListener> listeners = new CopyOnWriteArrayList<>();
+
+	private volatile TokenSet tokens;
+	private volatile long expiresAtMillis = -1;
+	private volatile String replacedAccessToken;
+	private CompletableFuture<TokenSet> renewal;
+	private ScheduledFuture<?> scheduled;
+	private boolean closed;
+
+	/**
+	 * Creates a manager renewing 10 minutes ahead of expiry and holding requests
+	 * for up to 5 seconds during a renewal.
+	 *
+	 * @param smartConnect is the session to renew.
+	 */
+	public SessionManager(SmartConnect smartConnect) {
+		this(smartConnect, DEFAULT_RENEW_BEFORE_MILLIS, DEFAULT_MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a manager.
+	 *
+	 * @param smartConnect is the session to renew.
+	 * @param renewBefore  is how long ahead of expiry the tokens are renewed.
+	 * @param maxWait      is how long requests wait for a renewal in flight.
+	 */
+	public SessionManager(SmartConnect smartConnect, long renewBefore, long maxWait, TimeUnit unit) {
+		this(smartConnect, unit.toMillis(renewBefore), unit.toMillis(maxWait), DEFAULT_RETRY_MILLIS,
+				System::currentTimeMillis);
+	}
+
+	SessionManager(SmartConnect smartConnect, long renewBeforeMillis, long maxWaitMillis, long retryMillis,
+			LongSupplier clock) {
+		if (smartConnect == null) {
+			throw new IllegalArgumentException("smartConnect should not be null");
+		}
+		if (renewBeforeMillis < 0 || maxWaitMillis < 0 || retryMillis <= 0) {
+			throw new IllegalArgumentException("renewBefore and maxWait should not be negative");
+		}
+		this.smartConnect = smartConnect;
+		this.renewBeforeMillis = renewBeforeMillis;
+		this.maxWaitMillis = maxWaitMillis;
+		this.retryMillis = retryMillis;
+		this.clock = clock;
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "smartapi-session");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts managing the access and refresh tokens currently set on the session,
+	 * e.g. after generateSession, and installs this manager as its token gate.
+	 *
+	 * @throws IllegalStateException if the session has no access or refresh token.
+	 */
+	public void start() {
+		String refreshToken = smartConnect.getRefreshToken();
+		if (!smartConnect.hasAccessToken() || refreshToken == null) {
+			throw new IllegalStateException("session should have an access and a refresh token");
+		}
+		TokenSet current = new TokenSet();
+		current.setAccessToken(smartConnect.getAccessToken());
+		current.setRefreshToken(refreshToken);
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("session manager is closed");
+			}
+			use(current);
+			scheduleRenewal();
+		}
+		smartConnect.setTokenGate(this);
+	}
+
+	/**
+	 * Registers a callback for renewed tokens.
+	 */
+	public void addListener(TokenListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(TokenListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Makes an order update websocket connect again with the renewed access token.
+	 */
+	public void bind(OrderUpdateWebsocket websocket) {
+		addListener(renewed -> websocket.setAccessToken(renewed.getAccessToken()));
+	}
+
+	/**
+	 * Makes a ticker connect again with the renewed feed token.
+	 */
+	public void bind(SmartStreamTicker ticker) {
+		addListener(renewed -> {
+			if (renewed.getFeedToken() != null) {
+				ticker.setFeedToken(renewed.getFeedToken());
+			}
+		});
+	}
+
+	/**
+	 * Returns the tokens in use, null before {@link #start()}.
+	 */
+	public TokenSet getTokens() {
+		return tokens;
+	}
+
+	/**
+	 * Returns the expiry of the access token in epoch milliseconds, -1 if it is
+	 * unknown.
+	 */
+	public long getExpiresAtMillis() {
+		return expiresAtMillis;
+	}
+
+	/**
+	 * Renews the tokens now, unless a renewal is already in flight.
+	 *
+	 * @return future of the renewed tokens, completed exceptionally with
+	 *         SmartAPIException if the renewal failed.
+	 */
+	public synchronized CompletableFuture<TokenSet> renew() {
+		if (renewal != null) {
+			return renewal;
+		}
+		CompletableFuture<TokenSet> pending = new CompletableFuture<>();
+		if (closed || tokens == null) {
+			pending.completeExceptionally(new IllegalStateException("session manager is not running"));
+			return pending;
+		}
+		renewal = pending;
+		executor.execute(() -> renew(pending));
+		return pending;
+	}
+
+	@Override
+	public String accessToken(String accessToken) throws InterruptedIOException {
+		TokenSet current = tokens;
+		if (current == null || accessToken == null) {
+			return accessToken;
+		}
+		if (accessToken.equals(replacedAccessToken)) {
+			return current.getAccessToken();
+		}
+		if (!accessToken.equals(current.getAccessToken())) {
+			// not a token of this session, e.g. of a new login
+			return accessToken;
+		}
+		CompletableFuture<TokenSet> pending;
+		synchronized (this) {
+			pending = renewal;
+		}
+		if (pending == null) {
+			long expiresAt = expiresAtMillis;
+			if (expiresAt < 0 || clock.getAsLong() < expiresAt) {
+				return accessToken;
+			}
+			pending = renew();
+		}
+		try {
+			return pending.get(maxWaitMillis, TimeUnit.MILLISECONDS).getAccessToken();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for the session to be renewed");
+		} catch (ExecutionException | TimeoutException e) {
+			return accessToken;
+		}
+	}
+
+	/**
+	 * Stops renewing and removes this manager as the token gate of the session.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			if (scheduled != null) {
+				scheduled.cancel(false);
+			}
+		}
+		executor.shutdownNow();
+		smartConnect.setTokenGate(null);
+	}
+
+	private void renew(CompletableFuture<TokenSet> pending) {
+		TokenSet current = tokens;
+		TokenSet renewed = null;
+		try {
+			renewed = smartConnect.renewAccessToken(current.getAccessToken(), current.getRefreshToken());
+		} catch (RuntimeException e) {
+			log.error("session renewal failed {}", e.getMessage());
+		}
+		if (renewed == null || renewed.getAccessToken() == null || renewed.getRefreshToken() == null) {
+			synchronized (this) {
+				renewal = null;
+				scheduleRetry();
+			}
+			pending.completeExceptionally(new SmartAPIException("session could not be renewed"));
+			return;
+		}
+		if (renewed.getFeedToken() == null) {
+			renewed.setFeedToken(current.getFeedToken());
+		}
+		if (renewed.getUserId() == null) {
+			renewed.setUserId(current.getUserId());
+		}
+		smartConnect.setRefreshToken(renewed.getRefreshToken());
+		smartConnect.setAccessToken(renewed.getAccessToken());
+		synchronized (this) {
+			replacedAccessToken = current.getAccessToken();
+			use(renewed);
+			renewal = null;
+			scheduleRenewal();
+		}
+		pending.complete(renewed);
+		for (TokenListener listener : listeners) {
+			try {
+				listener.onTokensRenewed(renewed);
+			} catch (RuntimeException e) {
+				log.error("token listener failed {}", e.getMessage());
+			}
+		}
+	}
+
+	private void use(TokenSet current) {
+		tokens = current;
+		expiresAtMillis = expiresAtMillis(current.getAccessToken());
+	}
+
+	private void scheduleRenewal() {
+		long expiresAt = expiresAtMillis;
+		if (expiresAt < 0) {
+			log.warn("expiry of the access token is unknown, the session is not renewed ahead of time");
+			return;
+		}
+		long left = expiresAt - clock.getAsLong();
+		schedule(Math.max(0, left - Math.min(renewBeforeMillis, left / 2)));
+	}
+
+	private void scheduleRetry() {
+		long expiresAt = expiresAtMillis;
+		if (expiresAt < 0 || clock.getAsLong() + retryMillis < expiresAt) {
+			schedule(retryMillis);
+		}
+	}
+
+	private void schedule(long delayMillis) {
+		if (closed) {
+			return;
+		}
+		if (scheduled != null) {
+			scheduled.cancel(false);
+		}
+		scheduled = executor.schedule((Runnable) this::renew, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the exp claim of a JWT in epoch milliseconds, -1 if it has none.
+	 */
+	static long expiresAtMillis(String jwt) {
+		String[] parts = jwt == null ? new String[0] : jwt.split("\\.");
+		if (parts.length < 2) {
+			return -1;
+		}
+		try {
+			JSONObject claims = new JSONObject(
+					new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+			return claims.has("exp") ? TimeUnit.SECONDS.toMillis(claims.getLong("exp")) : -1;
+		} catch (IllegalArgumentException | JSONException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.angelbroking.smartapi.session;
+
+import com.angelbroking.smartapi.models.TokenSet;
+
+/**
+ * A callback whenever the tokens of a session are renewed by a
+ * {@link SessionManager}.
+ */
+@FunctionalInterface
+public interface TokenListener {
+
+	/**
+	 * Called on the renewal thread once the renewed tokens are in use by the
+	 * request handler.
+	 *
+	 * @param tokens are the renewed access, refresh and feed tokens.
+	 */
+	void onTokensRenewed(TokenSet tokens);
+}
@@ -0,0 +1,97 @@
+package com.angelbroking.smartapi.smartstream.gateway;
+
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.SmartStreamAction;
+import com.angelbroking.smartapi.smartstream.models.SmartStreamSubsMode;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wire format of the gateway. Every message is a 4 byte big-endian length
+ * followed by the message. Clients send the JSON subscription requests of
+ * SmartStream, i.e. the action, and the mode and token list as params; the
+ * gateway sends the binary frames of SmartStream unchanged.
+ */
+final class GatewayProtocol {
+
+	/** Maximum size of a subscription request. */
+	static final int MAX_REQUEST_SIZE = 1 << 20;
+
+	/** Maximum size of a frame, which fits every frame of the stream. */
+	static final int MAX_FRAME_SIZE = 1 << 16;
+
+	private GatewayProtocol() {
+
+	}
+
+	static void write(DataOutputStream out, byte[] message) throws IOException {
+		out.writeInt(message.length);
+		out.write(message);
+	}
+
+	/**
+	 * Reads a message.
+	 *
+	 * @throws IOException if the connection is closed, or the message is larger
+	 *                     than the maximum size.
+	 */
+	static byte[] read(DataInputStream in, int maxSize) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > maxSize) {
+			throw new IOException("message of " + length + " bytes exceeds " + maxSize + " bytes");
+		}
+		byte[] message = new byte[length];
+		in.readFully(message);
+		return message;
+	}
+
+	static JSONObject request(SmartStreamAction action, SmartStreamSubsMode mode, Set<TokenID> tokens) {
+		Map<ExchangeType, JSONArray> tokensByExchange = new EnumMap<>(ExchangeType.class);
+		for (TokenID token : tokens) {
+			tokensByExchange.computeIfAbsent(token.getExchangeType(), e -> new JSONArray()).put(token.getToken());
+		}
+		JSONArray tokenList = new JSONArray();
+		tokensByExchange.forEach((exchangeType, exchangeTokens) -> {
+			JSONObject exchangeTokenObj = new JSONObject();
+			exchangeTokenObj.put("exchangeType", exchangeType.getVal());
+			exchangeTokenObj.put("tokens", exchangeTokens);
+			tokenList.put(exchangeTokenObj);
+		});
+		JSONObject params = new JSONObject();
+		params.put("mode", mode.getVal());
+		params.put("tokenList", tokenList);
+		JSONObject request = new JSONObject();
+		request.put("action", action.getVal());
+		request.put("params", params);
+		return request;
+	}
+
+	/**
+	 * Returns the tokens of a request.
+	 *
+	 * @throws org.json.JSONException           if the request is malformed.
+	 * @throws java.util.NoSuchElementException if an exchange type is unknown.
+	 */
+	static Set<TokenID> tokens(JSONObject request) {
+		JSONArray tokenList = request.getJSONObject("params").getJSONArray("tokenList");
+		Set<TokenID> tokens = new HashSet<>();
+		for (int i = 0; i < tokenList.length(); i++) {
+			JSONObject exchangeTokenObj = tokenList.getJSONObject(i);
+			ExchangeType exchangeType = ExchangeType.findByValue(exchangeTokenObj.getInt("exchangeType"));
+			JSONArray exchangeTokens = exchangeTokenObj.getJSONArray("tokens");
+			for (int j = 0; j < exchangeTokens.length(); j++) {
+				tokens.add(new TokenID(exchangeType, exchangeTokens.getString(j)));
+			}
+		}
+		return tokens;
+	}
+}
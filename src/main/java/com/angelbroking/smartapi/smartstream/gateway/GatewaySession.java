@@ -0,0 +1,148 @@
+package com.angelbroking.smartapi.smartstream.gateway;
+
+import com.angelbroking.smartapi.smartstream.models.SmartStreamAction;
+import com.angelbroking.smartapi.smartstream.models.SmartStreamSubsMode;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection of a downstream client to the gateway. A reader thread applies
+ * the subscription requests of the client, and a writer thread drains the
+ * frames queued for it, so a slow client never blocks the upstream ticker: its
+ * frames are dropped once its queue is full.
+ */
+@Slf4j
+final class GatewaySession implements Closeable {
+
+	private final SmartStreamGateway gateway;
+	private final Socket socket;
+	private final BlockingQueue<byte[]> queue;
+	private final AtomicLong dropped = new AtomicLong();
+	private final Thread reader;
+	private final Thread writer;
+	private volatile boolean closed;
+
+	/** Subscriptions of the session, guarded by the gateway. */
+	final Map<SmartStreamSubsMode, Set<TokenID>> subscriptions = new EnumMap<>(SmartStreamSubsMode.class);
+
+	GatewaySession(SmartStreamGateway gateway, Socket socket, int queueSize, String name) {
+		this.gateway = gateway;
+		this.socket = socket;
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		this.reader = new Thread(this::readRequests, name + "-reader");
+		this.reader.setDaemon(true);
+		this.writer = new Thread(this::writeFrames, name + "-writer");
+		this.writer.setDaemon(true);
+	}
+
+	void start() {
+		reader.start();
+		writer.start();
+	}
+
+	/**
+	 * Queues a frame for the client, or drops it if the queue is full.
+	 */
+	void send(byte[] frame) {
+		if (!queue.offer(frame)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	long getDropped() {
+		return dropped.get();
+	}
+
+	private void readRequests() {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			while (!closed) {
+				byte[] message = GatewayProtocol.read(in, GatewayProtocol.MAX_REQUEST_SIZE);
+				handleRequest(new String(message, StandardCharsets.UTF_8));
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				log.debug("gateway client {} disconnected: {}", socket.getRemoteSocketAddress(), e.getMessage());
+			}
+		} finally {
+			close();
+		}
+	}
+
+	private void handleRequest(String message) {
+		try {
+			JSONObject request = new JSONObject(message);
+			SmartStreamAction action = SmartStreamAction.findByVal(request.getInt("action"));
+			SmartStreamSubsMode mode = SmartStreamSubsMode.findByVal(request.getJSONObject("params").getInt("mode"));
+			if (action == null || mode == null) {
+				log.warn("ignoring gateway request {} of an unknown action or mode", message);
+				return;
+			}
+			Set<TokenID> tokens = GatewayProtocol.tokens(request);
+			if (action == SmartStreamAction.SUBS) {
+				gateway.subscribe(this, mode, tokens);
+			} else {
+				gateway.unsubscribe(this, mode, tokens);
+			}
+		} catch (RuntimeException e) {
+			log.warn("ignoring malformed gateway request {}", message, e);
+		}
+	}
+
+	private void writeFrames() {
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			while (!closed) {
+				byte[] frame = queue.take();
+				do {
+					GatewayProtocol.write(out, frame);
+				} while ((frame = queue.poll()) != null);
+				out.flush();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			if (!closed) {
+				log.debug("gateway client {} disconnected: {}", socket.getRemoteSocketAddress(), e.getMessage());
+			}
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * Closes the connection and releases the subscriptions of the session.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		try {
+			socket.close();
+		} catch (IOException e) {
+			log.debug("closing gateway client {} failed", socket.getRemoteSocketAddress(), e);
+		}
+		writer.interrupt();
+		gateway.release(this);
+	}
+}
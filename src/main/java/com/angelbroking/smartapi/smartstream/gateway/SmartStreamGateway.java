@@ -0,0 +1,366 @@
+package com.angelbroking.smartapi.smartstream.gateway;
+
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.FrameValidator;
+import com.angelbroking.smartapi.smartstream.models.SmartStreamSubsMode;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import com.angelbroking.smartapi.smartstream.ticker.RawFrameListener;
+import com.angelbroking.smartapi.smartstream.ticker.SmartStreamTicker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the feed of upstream SmartStreamTickers to many local clients over
+ * TCP, so internal consumers share a few SmartStream connections.
+ *
+ * Clients send the subscription requests of SmartStream and receive its
+ * binary frames unchanged, see {@link SmartStreamGatewayClient}. Subscriptions
+ * are reference counted per mode and token: a token is only subscribed
+ * upstream when the first client subscribes it, and unsubscribed when the last
+ * client unsubscribes it or disconnects. New tokens are spread over the
+ * upstream tickers; tokens of a ticker which is not connected are subscribed
+ * once it connects. DEPTH_20 is only streamed for NSE_CM, so DEPTH_20
+ * subscriptions of tokens of other exchanges are ignored.
+ *
+ * The gateway adds a raw frame listener to the tickers; frames are queued per
+ * client, and dropped for a client whose queue is full.
+ */
+@Slf4j
+public class SmartStreamGateway implements Closeable {
+
+	/** Default number of frames queued per client. */
+	public static final int DEFAULT_CLIENT_QUEUE_SIZE = 4096;
+
+	private static final GatewaySession[] NO_SESSIONS = new GatewaySession[0];
+
+	private static final ThreadLocal<TokenKey> FRAME_KEYS = ThreadLocal.withInitial(TokenKey::new);
+
+	private final List<SmartStreamTicker> upstreams;
+	private final List<RawFrameListener> upstreamListeners = new ArrayList<>();
+	private final List<Map<SmartStreamSubsMode, Set<TokenID>>> pendingTokens = new ArrayList<>();
+	private final int[] upstreamTokenCounts;
+	private final int clientQueueSize;
+	private final ServerSocket serverSocket;
+	private final Thread acceptor;
+	private final Map<SmartStreamSubsMode, Map<TokenKey, Subscription>> subscriptions = new EnumMap<>(
+			SmartStreamSubsMode.class);
+	private final Set<GatewaySession> sessions = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger sessionIds = new AtomicInteger();
+	private volatile boolean closed;
+
+	/**
+	 * Subscription of a token in a mode, with the clients which share it.
+	 */
+	private static final class Subscription {
+
+		private final int upstream;
+		private volatile GatewaySession[] sessions = NO_SESSIONS;
+
+		private Subscription(int upstream) {
+			this.upstream = upstream;
+		}
+	}
+
+	/**
+	 * Starts a gateway serving one ticker on a port of the loopback interface.
+	 *
+	 * @param upstream is the upstream ticker.
+	 * @param port     is the port, or 0 for any free port.
+	 */
+	public SmartStreamGateway(SmartStreamTicker upstream, int port) throws IOException {
+		this(Collections.singletonList(upstream),
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_CLIENT_QUEUE_SIZE);
+	}
+
+	/**
+	 * Starts a gateway.
+	 *
+	 * @param upstreams       are the upstream tickers.
+	 * @param address         is the address the gateway listens on.
+	 * @param clientQueueSize is the number of frames queued per client.
+	 */
+	public SmartStreamGateway(List<SmartStreamTicker> upstreams, InetSocketAddress address, int clientQueueSize)
+			throws IOException {
+		if (upstreams == null || upstreams.isEmpty()) {
+			throw new IllegalArgumentException("upstreams should not be empty");
+		}
+		if (clientQueueSize < 1) {
+			throw new IllegalArgumentException("clientQueueSize should be positive");
+		}
+		this.upstreams = new ArrayList<>(upstreams);
+		this.upstreamTokenCounts = new int[upstreams.size()];
+		this.clientQueueSize = clientQueueSize;
+		for (SmartStreamSubsMode mode : SmartStreamSubsMode.values()) {
+			subscriptions.put(mode, new ConcurrentHashMap<>());
+		}
+		this.serverSocket = new ServerSocket();
+		serverSocket.bind(address);
+		for (int i = 0; i < this.upstreams.size(); i++) {
+			RawFrameListener listener = new UpstreamListener(i);
+			upstreamListeners.add(listener);
+			pendingTokens.add(new EnumMap<>(SmartStreamSubsMode.class));
+			this.upstreams.get(i).addRawFrameListener(listener);
+		}
+		this.acceptor = new Thread(this::accept, "smartapi-gateway-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		log.info("smartstream gateway listening on {}", serverSocket.getLocalSocketAddress());
+	}
+
+	/**
+	 * Receives the frames of an upstream ticker, and subscribes the tokens
+	 * requested while it was not connected once it connects.
+	 */
+	private final class UpstreamListener implements RawFrameListener {
+
+		private final int upstream;
+
+		private UpstreamListener(int upstream) {
+			this.upstream = upstream;
+		}
+
+		@Override
+		public void onFrame(byte[] frame) {
+			forward(frame);
+		}
+
+		@Override
+		public void onConnected() {
+			subscribePending(upstream);
+		}
+	}
+
+	private void accept() {
+		while (!closed) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				GatewaySession session = new GatewaySession(this, socket, clientQueueSize,
+						"smartapi-gateway-session-" + sessionIds.incrementAndGet());
+				sessions.add(session);
+				session.start();
+				log.debug("gateway client {} connected", socket.getRemoteSocketAddress());
+			} catch (IOException e) {
+				if (!closed) {
+					log.error("accepting gateway client failed", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forwards a frame of an upstream ticker to the clients subscribed to its
+	 * token.
+	 */
+	private void forward(byte[] frame) {
+		SmartStreamSubsMode mode = FrameValidator.validate(frame);
+		if (mode == null) {
+			return;
+		}
+		Subscription subscription = subscriptions.get(mode).get(FRAME_KEYS.get().read(frame));
+		if (subscription != null) {
+			for (GatewaySession session : subscription.sessions) {
+				session.send(frame);
+			}
+		}
+	}
+
+	/**
+	 * Subscribes a client, subscribing upstream the tokens no other client
+	 * subscribed yet.
+	 */
+	synchronized void subscribe(GatewaySession session, SmartStreamSubsMode mode, Set<TokenID> tokens) {
+		if (closed || !sessions.contains(session)) {
+			return;
+		}
+		Map<TokenKey, Subscription> modeSubscriptions = subscriptions.get(mode);
+		Set<TokenID> sessionTokens = session.subscriptions.computeIfAbsent(mode, m -> new HashSet<>());
+		Map<Integer, Set<TokenID>> newTokens = new HashMap<>();
+		for (TokenID token : tokens) {
+			if (mode == SmartStreamSubsMode.DEPTH_20 && token.getExchangeType() != ExchangeType.NSE_CM) {
+				log.warn("ignoring DEPTH_20 subscription of {} outside NSE_CM", token);
+				continue;
+			}
+			if (!sessionTokens.add(token)) {
+				continue;
+			}
+			TokenKey key = TokenKey.of(token);
+			Subscription subscription = modeSubscriptions.get(key);
+			if (subscription == null) {
+				subscription = new Subscription(leastLoadedUpstream());
+				upstreamTokenCounts[subscription.upstream]++;
+				modeSubscriptions.put(key, subscription);
+				newTokens.computeIfAbsent(subscription.upstream, u -> new HashSet<>()).add(token);
+			}
+			GatewaySession[] current = subscription.sessions;
+			GatewaySession[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = session;
+			subscription.sessions = updated;
+		}
+		newTokens.forEach((upstream, upstreamTokens) -> subscribeUpstream(upstream, mode, upstreamTokens));
+	}
+
+	private void subscribeUpstream(int upstream, SmartStreamSubsMode mode, Set<TokenID> tokens) {
+		SmartStreamTicker ticker = upstreams.get(upstream);
+		if (ticker.isConnectionOpen()) {
+			ticker.subscribe(mode, tokens);
+		} else {
+			pendingTokens.get(upstream).computeIfAbsent(mode, m -> new HashSet<>()).addAll(tokens);
+		}
+	}
+
+	/**
+	 * Subscribes the tokens requested while an upstream ticker was not connected.
+	 */
+	synchronized void subscribePending(int upstream) {
+		Map<SmartStreamSubsMode, Set<TokenID>> pending = pendingTokens.get(upstream);
+		if (closed || pending.isEmpty()) {
+			return;
+		}
+		Map<SmartStreamSubsMode, Set<TokenID>> tokens = new EnumMap<>(pending);
+		pending.clear();
+		tokens.forEach((mode, modeTokens) -> {
+			if (!modeTokens.isEmpty()) {
+				subscribeUpstream(upstream, mode, modeTokens);
+			}
+		});
+	}
+
+	/**
+	 * Unsubscribes a client, unsubscribing upstream the tokens no other client
+	 * subscribed.
+	 */
+	synchronized void unsubscribe(GatewaySession session, SmartStreamSubsMode mode, Set<TokenID> tokens) {
+		Set<TokenID> sessionTokens = session.subscriptions.get(mode);
+		if (sessionTokens == null) {
+			return;
+		}
+		Map<TokenKey, Subscription> modeSubscriptions = subscriptions.get(mode);
+		Map<Integer, Set<TokenID>> releasedTokens = new HashMap<>();
+		for (TokenID token : tokens) {
+			if (!sessionTokens.remove(token)) {
+				continue;
+			}
+			TokenKey key = TokenKey.of(token);
+			Subscription subscription = modeSubscriptions.get(key);
+			GatewaySession[] current = subscription.sessions;
+			if (current.length == 1) {
+				subscription.sessions = NO_SESSIONS;
+				modeSubscriptions.remove(key);
+				upstreamTokenCounts[subscription.upstream]--;
+				Set<TokenID> pending = pendingTokens.get(subscription.upstream).get(mode);
+				if (pending == null || !pending.remove(token)) {
+					releasedTokens.computeIfAbsent(subscription.upstream, u -> new HashSet<>()).add(token);
+				}
+				continue;
+			}
+			GatewaySession[] updated = new GatewaySession[current.length - 1];
+			int i = 0;
+			for (GatewaySession other : current) {
+				if (other != session) {
+					updated[i++] = other;
+				}
+			}
+			subscription.sessions = updated;
+		}
+		releasedTokens.forEach((upstream, upstreamTokens) -> upstreams.get(upstream).unsubscribe(mode, upstreamTokens));
+	}
+
+	/**
+	 * Releases the subscriptions of a disconnected client.
+	 */
+	synchronized void release(GatewaySession session) {
+		sessions.remove(session);
+		for (SmartStreamSubsMode mode : SmartStreamSubsMode.values()) {
+			Set<TokenID> sessionTokens = session.subscriptions.get(mode);
+			if (sessionTokens != null) {
+				unsubscribe(session, mode, new HashSet<>(sessionTokens));
+			}
+		}
+	}
+
+	private int leastLoadedUpstream() {
+		int least = 0;
+		for (int i = 1; i < upstreamTokenCounts.length; i++) {
+			if (upstreamTokenCounts[i] < upstreamTokenCounts[least]) {
+				least = i;
+			}
+		}
+		return least;
+	}
+
+	/**
+	 * Returns the port the gateway listens on.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Returns the number of connected clients.
+	 */
+	public int getClientCount() {
+		return sessions.size();
+	}
+
+	/**
+	 * Returns the number of tokens subscribed in a mode, including those waiting
+	 * for their upstream ticker to connect.
+	 */
+	public int getSubscribedTokenCount(SmartStreamSubsMode mode) {
+		return subscriptions.get(mode).size();
+	}
+
+	/**
+	 * Returns the number of clients subscribed to a token in a mode.
+	 */
+	public int getSubscriberCount(SmartStreamSubsMode mode, TokenID token) {
+		Subscription subscription = subscriptions.get(mode).get(TokenKey.of(token));
+		return subscription == null ? 0 : subscription.sessions.length;
+	}
+
+	/**
+	 * Returns the number of frames dropped for the connected clients because
+	 * their queues were full.
+	 */
+	public long getDroppedFrames() {
+		long dropped = 0;
+		for (GatewaySession session : sessions) {
+			dropped += session.getDropped();
+		}
+		return dropped;
+	}
+
+	/**
+	 * Stops the gateway and disconnects its clients, unsubscribing their tokens
+	 * upstream. The upstream tickers stay connected.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		for (int i = 0; i < upstreams.size(); i++) {
+			upstreams.get(i).removeRawFrameListener(upstreamListeners.get(i));
+		}
+		serverSocket.close();
+		for (GatewaySession session : sessions) {
+			session.close();
+		}
+	}
+}
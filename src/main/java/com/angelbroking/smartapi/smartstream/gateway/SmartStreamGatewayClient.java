@@ -0,0 +1,111 @@
+package com.angelbroking.smartapi.smartstream.gateway;
+
+import com.angelbroking.smartapi.smartstream.models.SmartStreamAction;
+import com.angelbroking.smartapi.smartstream.models.SmartStreamSubsMode;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import com.angelbroking.smartapi.smartstream.ticker.RawFrameListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Client of a {@link SmartStreamGateway}, receiving the binary frames of the
+ * tokens it subscribes as a SmartStreamTicker would, e.g. to decode them with
+ * {@link com.angelbroking.smartapi.utils.ByteUtils} or
+ * {@link com.angelbroking.smartapi.smartstream.models.TickBatch}.
+ */
+@Slf4j
+public class SmartStreamGatewayClient implements Closeable {
+
+	private final Socket socket;
+	private final DataOutputStream out;
+	private final RawFrameListener listener;
+	private volatile boolean closed;
+
+	/**
+	 * Connects to a gateway.
+	 *
+	 * @param host     is the host of the gateway.
+	 * @param port     is the port of the gateway.
+	 * @param listener receives the frames on the thread of the client.
+	 */
+	public SmartStreamGatewayClient(String host, int port, RawFrameListener listener) throws IOException {
+		if (listener == null) {
+			throw new IllegalArgumentException("listener should not be null");
+		}
+		this.listener = listener;
+		this.socket = new Socket();
+		socket.setTcpNoDelay(true);
+		socket.connect(new InetSocketAddress(host, port));
+		this.out = new DataOutputStream(socket.getOutputStream());
+		Thread reader = new Thread(this::readFrames, "smartapi-gateway-client");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Subscribes tokens.
+	 */
+	public void subscribe(SmartStreamSubsMode mode, Set<TokenID> tokens) throws IOException {
+		send(SmartStreamAction.SUBS, mode, tokens);
+	}
+
+	/**
+	 * Unsubscribes tokens.
+	 */
+	public void unsubscribe(SmartStreamSubsMode mode, Set<TokenID> tokens) throws IOException {
+		send(SmartStreamAction.UNSUBS, mode, tokens);
+	}
+
+	private synchronized void send(SmartStreamAction action, SmartStreamSubsMode mode, Set<TokenID> tokens)
+			throws IOException {
+		byte[] request = GatewayProtocol.request(action, mode, tokens).toString().getBytes(StandardCharsets.UTF_8);
+		GatewayProtocol.write(out, request);
+		out.flush();
+	}
+
+	private void readFrames() {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			while (!closed) {
+				byte[] frame = GatewayProtocol.read(in, GatewayProtocol.MAX_FRAME_SIZE);
+				try {
+					listener.onFrame(frame);
+				} catch (RuntimeException e) {
+					log.error("gateway frame listener failed", e);
+				}
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				log.warn("connection to the gateway lost: {}", e.getMessage());
+			}
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				log.debug("closing the gateway connection failed", e);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the connection to the gateway is open.
+	 */
+	public boolean isConnectionOpen() {
+		return !socket.isClosed();
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		socket.close();
+	}
+}
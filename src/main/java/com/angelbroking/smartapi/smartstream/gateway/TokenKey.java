@@ -0,0 +1,91 @@
+package com.angelbroking.smartapi.smartstream.gateway;
+
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.angelbroking.smartapi.utils.Constants.EXCHANGE_TYPE;
+import static com.angelbroking.smartapi.utils.Constants.TOKEN_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.TOKEN_SIZE;
+
+/**
+ * Key of a token in the subscriptions of the gateway: the exchange type and
+ * the bytes of the token as they appear in a frame.
+ *
+ * The key of a frame is read into a key reused by the thread receiving the
+ * frames, so routing a frame allocates nothing. Reused keys are only used for
+ * lookups, never stored in a map.
+ */
+final class TokenKey {
+
+	private byte[] token;
+	private int length;
+	private int exchangeType;
+	private int hash;
+
+	TokenKey() {
+		this.token = new byte[TOKEN_SIZE];
+	}
+
+	/**
+	 * Returns the key of a token.
+	 */
+	static TokenKey of(TokenID tokenID) {
+		TokenKey key = new TokenKey();
+		key.token = tokenID.getToken().getBytes(StandardCharsets.UTF_8);
+		key.length = key.token.length;
+		key.exchangeType = tokenID.getExchangeType().getVal();
+		key.hash = key.hash();
+		return key;
+	}
+
+	/**
+	 * Reads the key of a frame, which should have been validated, into this key.
+	 *
+	 * @return this key.
+	 */
+	TokenKey read(byte[] frame) {
+		int read = 0;
+		// the token is padded with NUL bytes to its fixed size
+		while (read < TOKEN_SIZE && (token[read] = frame[TOKEN_OFFSET + read]) != 0) {
+			read++;
+		}
+		length = read;
+		exchangeType = frame[EXCHANGE_TYPE];
+		hash = hash();
+		return this;
+	}
+
+	private int hash() {
+		int result = exchangeType;
+		for (int i = 0; i < length; i++) {
+			result = 31 * result + token[i];
+		}
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TokenKey)) {
+			return false;
+		}
+		TokenKey other = (TokenKey) obj;
+		if (hash != other.hash || length != other.length || exchangeType != other.exchangeType) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (token[i] != other.token[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -5,13 +5,25 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 
 public enum ExchangeType {
-	NSE_CM(1), NSE_FO(2), BSE_CM(3), BSE_FO(4), MCX_FO(5), NCX_FO(7), CDE_FO(13);
+	NSE_CM(1), NSE_FO(2), BSE_CM(3), BSE_FO(4), MCX_FO(5), NCX_FO(7), CDE_FO(13, 7);
 
 	private int val;
+	private final int priceScale;
+	private final long priceDivisor;
 	private static final Map<Integer, ExchangeType> valToExchangeTypeMap = new HashMap<>();
 
 	private ExchangeType(int val) {
+		this(val, 2);
+	}
+
+	private ExchangeType(int val, int priceScale) {
 		this.val = val;
+		this.priceScale = priceScale;
+		long divisor = 1;
+		for (int i = 0; i < priceScale; i++) {
+			divisor *= 10;
+		}
+		this.priceDivisor = divisor;
 	}
 	
 	static {
@@ -27,6 +39,22 @@ public enum ExchangeType {
 	public int getVal() {
 		return this.val;
 	}
+
+	/**
+	 * Returns the number of decimals of the prices of the stream, e.g. 2 for
+	 * prices in paise, see {@link FixedPoint}.
+	 */
+	public int getPriceScale() {
+		return priceScale;
+	}
+
+	/**
+	 * Returns the divisor turning the prices of the stream into rupees, i.e. 10
+	 * to the power of the price scale.
+	 */
+	public long getPriceDivisor() {
+		return priceDivisor;
+	}
 	
 	public static ExchangeType findByValue(int val) {
 		ExchangeType exchange = valToExchangeTypeMap.get(val);
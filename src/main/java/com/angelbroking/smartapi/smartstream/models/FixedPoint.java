@@ -0,0 +1,146 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on prices as sent by the stream: longs in fixed point with the
+ * scale of their exchange, see {@link ExchangeType#getPriceScale()}. Prices of
+ * most segments are in paise (scale 2), currency derivatives of CDE_FO carry 7
+ * decimals.
+ *
+ * The helpers stay in long arithmetic, so analytics on ticks neither box nor
+ * lose precision; conversions to double or BigDecimal are only meant for the
+ * edges, e.g. display or order params. Operations which could overflow throw
+ * an ArithmeticException rather than wrap.
+ */
+public final class FixedPoint {
+
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		long power = 1;
+		for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = power;
+			power *= 10;
+		}
+	}
+
+	private FixedPoint() {
+	}
+
+	/**
+	 * Returns a stream price in rupees.
+	 */
+	public static double toDouble(long price, ExchangeType exchangeType) {
+		return (double) price / exchangeType.getPriceDivisor();
+	}
+
+	/**
+	 * Returns a stream price in rupees, exactly.
+	 */
+	public static BigDecimal toBigDecimal(long price, ExchangeType exchangeType) {
+		return BigDecimal.valueOf(price, exchangeType.getPriceScale());
+	}
+
+	/**
+	 * Returns a price in rupees as a stream price, rounded to the scale of the
+	 * exchange.
+	 */
+	public static long fromDouble(double price, ExchangeType exchangeType) {
+		return Math.round(price * exchangeType.getPriceDivisor());
+	}
+
+	/**
+	 * Returns a price in rupees as a stream price, rounded half up to the scale of
+	 * the exchange.
+	 */
+	public static long fromBigDecimal(BigDecimal price, ExchangeType exchangeType) {
+		return price.setScale(exchangeType.getPriceScale(), RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Formats a stream price in rupees with all decimals of its exchange, e.g.
+	 * 123456 of NSE_CM as 1234.56.
+	 */
+	public static String toString(long price, ExchangeType exchangeType) {
+		int scale = exchangeType.getPriceScale();
+		long divisor = exchangeType.getPriceDivisor();
+		StringBuilder text = new StringBuilder(24);
+		if (price < 0) {
+			text.append('-');
+		}
+		long whole = Math.abs(price / divisor);
+		long fraction = Math.abs(price % divisor);
+		text.append(whole).append('.');
+		String digits = Long.toString(fraction);
+		for (int i = digits.length(); i < scale; i++) {
+			text.append('0');
+		}
+		return text.append(digits).toString();
+	}
+
+	/**
+	 * Changes the scale of a price, rounding half away from zero when decimals
+	 * are dropped, e.g. to compare prices of exchanges of different scales.
+	 */
+	public static long rescale(long price, int fromScale, int toScale) {
+		if (toScale >= fromScale) {
+			return Math.multiplyExact(price, POWERS_OF_TEN[toScale - fromScale]);
+		}
+		return divideRounded(price, POWERS_OF_TEN[fromScale - toScale]);
+	}
+
+	/**
+	 * Returns price times quantity, in the scale of the price.
+	 */
+	public static long notional(long price, long quantity) {
+		return Math.multiplyExact(price, quantity);
+	}
+
+	/**
+	 * Returns the average price of a notional over a quantity, e.g. a VWAP,
+	 * rounded half away from zero.
+	 */
+	public static long average(long notional, long quantity) {
+		return divideRounded(notional, quantity);
+	}
+
+	/**
+	 * Returns the mid of two prices, rounded down, without overflowing.
+	 */
+	public static long mid(long bid, long ask) {
+		return (bid & ask) + ((bid ^ ask) >> 1);
+	}
+
+	/**
+	 * Rounds a price to the nearest multiple of a tick size of the same scale,
+	 * half away from zero.
+	 */
+	public static long roundToTick(long price, long tickSize) {
+		return Math.multiplyExact(divideRounded(price, tickSize), tickSize);
+	}
+
+	/**
+	 * Returns the change from one price to another in basis points, rounded half
+	 * away from zero.
+	 */
+	public static long changeBasisPoints(long from, long to) {
+		return divideRounded(Math.multiplyExact(Math.subtractExact(to, from), 10_000L), from);
+	}
+
+	/**
+	 * Divides, rounding half away from zero.
+	 */
+	public static long divideRounded(long dividend, long divisor) {
+		if (divisor == 0) {
+			throw new ArithmeticException("division by zero");
+		}
+		long quotient = dividend / divisor;
+		long remainder = dividend % divisor;
+		if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+			quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+		}
+		return quotient;
+	}
+}
@@ -0,0 +1,105 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import static com.angelbroking.smartapi.utils.Constants.DEPTH_20_PACKET_SIZE;
+import static com.angelbroking.smartapi.utils.Constants.EXCHANGE_TYPE;
+import static com.angelbroking.smartapi.utils.Constants.LTP_PACKET_SIZE;
+import static com.angelbroking.smartapi.utils.Constants.QUOTE_PACKET_SIZE;
+import static com.angelbroking.smartapi.utils.Constants.SNAP_QUOTE_PACKET_SIZE;
+import static com.angelbroking.smartapi.utils.Constants.SUBSCRIPTION_MODE;
+import static com.angelbroking.smartapi.utils.Constants.TOKEN_OFFSET;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Checks binary frames of the stream before they are decoded.
+ *
+ * A frame is valid if its subscription mode and exchange type are known, its
+ * token is not empty, and it is at least as long as the packet of its mode, so
+ * decoding it reads no byte out of bounds. The checks are table lookups, so a
+ * malformed frame is rejected without throwing.
+ */
+public final class FrameValidator {
+
+	private static final int[] PACKET_SIZES = new int[SmartStreamSubsMode.size() + 1];
+	private static final boolean[] EXCHANGE_TYPES = new boolean[256];
+
+	static {
+		PACKET_SIZES[SmartStreamSubsMode.LTP.getVal()] = LTP_PACKET_SIZE;
+		PACKET_SIZES[SmartStreamSubsMode.QUOTE.getVal()] = QUOTE_PACKET_SIZE;
+		PACKET_SIZES[SmartStreamSubsMode.SNAP_QUOTE.getVal()] = SNAP_QUOTE_PACKET_SIZE;
+		PACKET_SIZES[SmartStreamSubsMode.DEPTH_20.getVal()] = DEPTH_20_PACKET_SIZE;
+		for (ExchangeType exchangeType : ExchangeType.values()) {
+			EXCHANGE_TYPES[exchangeType.getVal()] = true;
+		}
+	}
+
+	private FrameValidator() {
+
+	}
+
+	/**
+	 * Returns the mode of a valid frame, or null if the frame is malformed.
+	 */
+	public static SmartStreamSubsMode validate(byte[] frame) {
+		if (frame == null || frame.length < LTP_PACKET_SIZE) {
+			return null;
+		}
+		SmartStreamSubsMode mode = SmartStreamSubsMode.findByVal(frame[SUBSCRIPTION_MODE]);
+		if (mode == null || frame.length < PACKET_SIZES[mode.getVal()]
+				|| !EXCHANGE_TYPES[frame[EXCHANGE_TYPE] & 0xFF] || frame[TOKEN_OFFSET] == 0) {
+			return null;
+		}
+		return mode;
+	}
+
+	/**
+	 * Returns the mode of a valid frame, or null if the frame is malformed.
+	 *
+	 * @param frame holds the frame from index 0 to its limit.
+	 */
+	public static SmartStreamSubsMode validate(ByteBuffer frame) {
+		int length = frame.limit();
+		if (length < LTP_PACKET_SIZE) {
+			return null;
+		}
+		SmartStreamSubsMode mode = SmartStreamSubsMode.findByVal(frame.get(SUBSCRIPTION_MODE));
+		if (mode == null || length < PACKET_SIZES[mode.getVal()]
+				|| !EXCHANGE_TYPES[frame.get(EXCHANGE_TYPE) & 0xFF] || frame.get(TOKEN_OFFSET) == 0) {
+			return null;
+		}
+		return mode;
+	}
+
+	/**
+	 * Returns why a frame is malformed, or null if it is valid. Meant for
+	 * reporting frames rejected by {@link #validate(byte[])}.
+	 */
+	public static String describe(byte[] frame) {
+		if (frame == null || frame.length == 0) {
+			return "empty frame";
+		}
+		SmartStreamSubsMode mode = SmartStreamSubsMode.findByVal(frame[SUBSCRIPTION_MODE]);
+		if (mode == null) {
+			return "Invalid SubsMode=" + frame[SUBSCRIPTION_MODE] + " in the response binary packet";
+		}
+		if (frame.length < PACKET_SIZES[mode.getVal()]) {
+			return mode + " frame of " + frame.length + " bytes is shorter than " + PACKET_SIZES[mode.getVal()]
+					+ " bytes";
+		}
+		if (!EXCHANGE_TYPES[frame[EXCHANGE_TYPE] & 0xFF]) {
+			return "Invalid ExchangeType=" + frame[EXCHANGE_TYPE] + " in the response binary packet";
+		}
+		if (frame[TOKEN_OFFSET] == 0) {
+			return "empty token in the response binary packet";
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the size of the packet of a mode, which frames of the mode are at
+	 * least as long as.
+	 */
+	public static int packetSize(SmartStreamSubsMode mode) {
+		return PACKET_SIZES[mode.getVal()];
+	}
+}
@@ -51,8 +51,8 @@ public class Quote {
         this.lastTradedQty = buffer.getLong(LAST_TRADED_QTY_OFFSET);
         this.avgTradedPrice = buffer.getLong(AVG_TRADED_PRICE_OFFSET);
         this.volumeTradedToday = buffer.getLong(VOLUME_TRADED_TODAY_OFFSET);
-        this.totalBuyQty = buffer.getLong(TOTAL_BUY_QTY_OFFSET);
-        this.totalSellQty = buffer.getLong(TOTAL_SELL_QTY_OFFSET);
+        this.totalBuyQty = buffer.getDouble(TOTAL_BUY_QTY_OFFSET);
+        this.totalSellQty = buffer.getDouble(TOTAL_SELL_QTY_OFFSET);
         this.openPrice = buffer.getLong(OPEN_PRICE_OFFSET);
         this.highPrice = buffer.getLong(HIGH_PRICE_OFFSET);
         this.lowPrice = buffer.getLong(LOW_PRICE_OFFSET);
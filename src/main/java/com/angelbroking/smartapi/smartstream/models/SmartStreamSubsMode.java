@@ -4,6 +4,7 @@ public enum SmartStreamSubsMode {
 	LTP(1), QUOTE(2), SNAP_QUOTE(3), DEPTH_20(4);
 	
 	private static final int SIZE = SmartStreamSubsMode.values().length;
+	private static final SmartStreamSubsMode[] BY_VAL;
 	
 	private int val;
 	
@@ -11,13 +12,23 @@ public enum SmartStreamSubsMode {
 		this.val = val;
 	}
 	
-	public static SmartStreamSubsMode findByVal(int val) {
-		for(SmartStreamSubsMode entry : SmartStreamSubsMode.values()) {
-			if(entry.getVal() == val) {
-				return entry;
-			}
+	static {
+		int maxVal = 0;
+		for (SmartStreamSubsMode entry : SmartStreamSubsMode.values()) {
+			maxVal = Math.max(maxVal, entry.getVal());
+		}
+		BY_VAL = new SmartStreamSubsMode[maxVal + 1];
+		for (SmartStreamSubsMode entry : SmartStreamSubsMode.values()) {
+			BY_VAL[entry.getVal()] = entry;
 		}
-		return null;
+	}
+	
+	/**
+	 * Returns the mode of a value, or null if there is none. The lookup is an
+	 * array access, as it runs for every frame of the stream.
+	 */
+	public static SmartStreamSubsMode findByVal(int val) {
+		return val >= 0 && val < BY_VAL.length ? BY_VAL[val] : null;
 	}
 	
 	public static int size() {
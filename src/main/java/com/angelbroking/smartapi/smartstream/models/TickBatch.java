@@ -0,0 +1,304 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import static com.angelbroking.smartapi.utils.Constants.AVG_TRADED_PRICE_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.CLOSE_PRICE_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.EXCHANGE_FEED_TIME_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.EXCHANGE_TYPE;
+import static com.angelbroking.smartapi.utils.Constants.HIGH_PRICE_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.LAST_TRADED_PRICE_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.LAST_TRADED_QTY_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.LOWER_CIRCUIT_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.LOW_PRICE_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.OPEN_INTEREST_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.OPEN_PRICE_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.SEQUENCE_NUMBER_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.TOKEN_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.TOKEN_SIZE;
+import static com.angelbroking.smartapi.utils.Constants.TOTAL_BUY_QTY_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.TOTAL_SELL_QTY_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.UPPER_CIRCUIT_OFFSET;
+import static com.angelbroking.smartapi.utils.Constants.VOLUME_TRADED_TODAY_OFFSET;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Columnar decoder of bursts of LTP, QUOTE and SNAP_QUOTE frames.
+ *
+ * {@link #decode(byte[][], int, int)} reads the fields of many frames straight
+ * into preallocated primitive arrays, one per field, in a single loop without
+ * building an object per tick, so analytics can scan a burst of ticks column by
+ * column instead of walking one object per tick. Tick i of the batch is at index i of every
+ * column. Fields which the mode of a tick does not carry are 0, e.g. the open
+ * price of an LTP tick, and the circuits of a QUOTE tick.
+ *
+ * A batch is reused: every decode overwrites the previous ticks, and the
+ * columns are only valid up to {@link #size()}. It is not thread-safe.
+ */
+public final class TickBatch {
+
+	private final int capacity;
+	private final byte[][] frames;
+	private final byte[] modes;
+	private final byte[] exchangeTypes;
+	private final long[] tokens;
+	private final long[] sequenceNumbers;
+	private final long[] exchangeFeedTimes;
+	private final long[] lastTradedPrices;
+	private final long[] lastTradedQuantities;
+	private final long[] averageTradedPrices;
+	private final long[] volumes;
+	private final double[] totalBuyQuantities;
+	private final double[] totalSellQuantities;
+	private final long[] openPrices;
+	private final long[] highPrices;
+	private final long[] lowPrices;
+	private final long[] closePrices;
+	private final long[] openInterests;
+	private final long[] upperCircuits;
+	private final long[] lowerCircuits;
+	private int size;
+	private int skipped;
+
+	/**
+	 * Allocates the columns of a batch.
+	 *
+	 * @param capacity is the maximum number of ticks decoded at once.
+	 */
+	public TickBatch(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity should be positive");
+		}
+		this.capacity = capacity;
+		this.frames = new byte[capacity][];
+		this.modes = new byte[capacity];
+		this.exchangeTypes = new byte[capacity];
+		this.tokens = new long[capacity];
+		this.sequenceNumbers = new long[capacity];
+		this.exchangeFeedTimes = new long[capacity];
+		this.lastTradedPrices = new long[capacity];
+		this.lastTradedQuantities = new long[capacity];
+		this.averageTradedPrices = new long[capacity];
+		this.volumes = new long[capacity];
+		this.totalBuyQuantities = new double[capacity];
+		this.totalSellQuantities = new double[capacity];
+		this.openPrices = new long[capacity];
+		this.highPrices = new long[capacity];
+		this.lowPrices = new long[capacity];
+		this.closePrices = new long[capacity];
+		this.openInterests = new long[capacity];
+		this.upperCircuits = new long[capacity];
+		this.lowerCircuits = new long[capacity];
+	}
+
+	/**
+	 * Decodes frames as received from the stream, replacing the ticks of the
+	 * previous decode. Frames of other modes, e.g. DEPTH_20, and frames rejected
+	 * by {@link FrameValidator} are skipped and counted in {@link #getSkipped()}.
+	 *
+	 * @param frames are the raw binary frames.
+	 * @param offset is the index of the first frame to decode.
+	 * @param length is the number of frames to decode, at most the capacity.
+	 * @return the number of decoded ticks.
+	 */
+	public int decode(byte[][] frames, int offset, int length) {
+		if (length > capacity) {
+			throw new IllegalArgumentException("length " + length + " exceeds the capacity " + capacity);
+		}
+		int count = 0;
+		int rejected = 0;
+		for (int f = offset, end = offset + length; f < end; f++) {
+			byte[] frame = frames[f];
+			SmartStreamSubsMode subsMode = FrameValidator.validate(frame);
+			if (subsMode == null || subsMode == SmartStreamSubsMode.DEPTH_20) {
+				rejected++;
+				continue;
+			}
+			int mode = subsMode.getVal();
+			int i = count++;
+			ByteBuffer buffer = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+			this.frames[i] = frame;
+			modes[i] = (byte) mode;
+			exchangeTypes[i] = frame[EXCHANGE_TYPE];
+			tokens[i] = parseToken(frame);
+			sequenceNumbers[i] = buffer.getLong(SEQUENCE_NUMBER_OFFSET);
+			exchangeFeedTimes[i] = buffer.getLong(EXCHANGE_FEED_TIME_OFFSET);
+			lastTradedPrices[i] = buffer.getLong(LAST_TRADED_PRICE_OFFSET);
+			if (mode == 1) {
+				lastTradedQuantities[i] = 0;
+				averageTradedPrices[i] = 0;
+				volumes[i] = 0;
+				totalBuyQuantities[i] = 0;
+				totalSellQuantities[i] = 0;
+				openPrices[i] = 0;
+				highPrices[i] = 0;
+				lowPrices[i] = 0;
+				closePrices[i] = 0;
+			} else {
+				lastTradedQuantities[i] = buffer.getLong(LAST_TRADED_QTY_OFFSET);
+				averageTradedPrices[i] = buffer.getLong(AVG_TRADED_PRICE_OFFSET);
+				volumes[i] = buffer.getLong(VOLUME_TRADED_TODAY_OFFSET);
+				totalBuyQuantities[i] = buffer.getDouble(TOTAL_BUY_QTY_OFFSET);
+				totalSellQuantities[i] = buffer.getDouble(TOTAL_SELL_QTY_OFFSET);
+				openPrices[i] = buffer.getLong(OPEN_PRICE_OFFSET);
+				highPrices[i] = buffer.getLong(HIGH_PRICE_OFFSET);
+				lowPrices[i] = buffer.getLong(LOW_PRICE_OFFSET);
+				closePrices[i] = buffer.getLong(CLOSE_PRICE_OFFSET);
+			}
+			if (mode == 3) {
+				openInterests[i] = buffer.getLong(OPEN_INTEREST_OFFSET);
+				upperCircuits[i] = buffer.getLong(UPPER_CIRCUIT_OFFSET);
+				lowerCircuits[i] = buffer.getLong(LOWER_CIRCUIT_OFFSET);
+			} else {
+				openInterests[i] = 0;
+				upperCircuits[i] = 0;
+				lowerCircuits[i] = 0;
+			}
+		}
+		for (int i = count; i < size; i++) {
+			this.frames[i] = null;
+		}
+		size = count;
+		skipped = rejected;
+		return count;
+	}
+
+	/**
+	 * Parses the NUL padded ASCII token of a frame, or returns -1 if it is not a
+	 * number.
+	 */
+	private static long parseToken(byte[] frame) {
+		long token = 0;
+		int i = TOKEN_OFFSET;
+		for (int end = TOKEN_OFFSET + TOKEN_SIZE; i < end; i++) {
+			int digit = frame[i] - '0';
+			if (frame[i] == 0) {
+				break;
+			}
+			if (digit < 0 || digit > 9 || token > (Long.MAX_VALUE - digit) / 10) {
+				return -1;
+			}
+			token = token * 10 + digit;
+		}
+		return i == TOKEN_OFFSET ? -1 : token;
+	}
+
+	/**
+	 * Returns the number of ticks of the last decode.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of frames skipped by the last decode.
+	 */
+	public int getSkipped() {
+		return skipped;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the subscription mode of a tick.
+	 */
+	public SmartStreamSubsMode mode(int i) {
+		return SmartStreamSubsMode.findByVal(modes[i]);
+	}
+
+	public ExchangeType exchangeType(int i) {
+		return ExchangeType.findByValue(exchangeTypes[i]);
+	}
+
+	/**
+	 * Returns the token of a tick as a string, which allocates; prefer
+	 * {@link #tokens()} for numeric tokens.
+	 */
+	public String token(int i) {
+		byte[] frame = frames[i];
+		int length = 0;
+		while (length < TOKEN_SIZE && frame[TOKEN_OFFSET + length] != 0) {
+			length++;
+		}
+		return new String(frame, TOKEN_OFFSET, length, StandardCharsets.US_ASCII);
+	}
+
+	/** Subscription mode values of the ticks, see {@link SmartStreamSubsMode#getVal()}. */
+	public byte[] modes() {
+		return modes;
+	}
+
+	/** Exchange type values of the ticks, see {@link ExchangeType#getVal()}. */
+	public byte[] exchangeTypes() {
+		return exchangeTypes;
+	}
+
+	/** Numeric tokens of the ticks, -1 for a token which is not a number. */
+	public long[] tokens() {
+		return tokens;
+	}
+
+	public long[] sequenceNumbers() {
+		return sequenceNumbers;
+	}
+
+	public long[] exchangeFeedTimes() {
+		return exchangeFeedTimes;
+	}
+
+	/** Last traded prices in the scale of the exchange, see {@link FixedPoint}. */
+	public long[] lastTradedPrices() {
+		return lastTradedPrices;
+	}
+
+	public long[] lastTradedQuantities() {
+		return lastTradedQuantities;
+	}
+
+	public long[] averageTradedPrices() {
+		return averageTradedPrices;
+	}
+
+	public long[] volumes() {
+		return volumes;
+	}
+
+	public double[] totalBuyQuantities() {
+		return totalBuyQuantities;
+	}
+
+	public double[] totalSellQuantities() {
+		return totalSellQuantities;
+	}
+
+	public long[] openPrices() {
+		return openPrices;
+	}
+
+	public long[] highPrices() {
+		return highPrices;
+	}
+
+	public long[] lowPrices() {
+		return lowPrices;
+	}
+
+	public long[] closePrices() {
+		return closePrices;
+	}
+
+	public long[] openInterests() {
+		return openInterests;
+	}
+
+	public long[] upperCircuits() {
+		return upperCircuits;
+	}
+
+	public long[] lowerCircuits() {
+		return lowerCircuits;
+	}
+}
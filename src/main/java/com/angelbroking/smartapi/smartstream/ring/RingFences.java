@@ -0,0 +1,77 @@
+package com.angelbroking.smartapi.smartstream.ring;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Memory fences ordering the plain accesses of the mapped ring buffer.
+ *
+ * This is the Java 8 variant, which has no public fence API: it binds the
+ * fences of sun.misc.Unsafe once by reflection, so that the class compiles
+ * without referencing the internal API, and falls back to a volatile write and
+ * a volatile read where Unsafe is not accessible. The multi-release jar carries
+ * a JDK 21 variant under META-INF/versions/21 using the fences of VarHandle.
+ */
+final class RingFences {
+
+	private static final MethodHandle STORE_FENCE;
+	private static final MethodHandle LOAD_FENCE;
+
+	static {
+		MethodHandle storeFence = null;
+		MethodHandle loadFence = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			Object unsafe = field.get(null);
+			MethodType fence = MethodType.methodType(void.class);
+			storeFence = MethodHandles.lookup().findVirtual(unsafeClass, "storeFence", fence).bindTo(unsafe);
+			loadFence = MethodHandles.lookup().findVirtual(unsafeClass, "loadFence", fence).bindTo(unsafe);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			storeFence = null;
+			loadFence = null;
+		}
+		STORE_FENCE = storeFence;
+		LOAD_FENCE = loadFence;
+	}
+
+	private static volatile int fence;
+
+	private RingFences() {
+
+	}
+
+	/**
+	 * Keeps stores before the fence from being reordered with stores after it.
+	 */
+	static void release() {
+		if (STORE_FENCE == null) {
+			fence = 0;
+			return;
+		}
+		try {
+			STORE_FENCE.invokeExact();
+		} catch (Throwable e) {
+			throw new IllegalStateException("store fence failed", e);
+		}
+	}
+
+	/**
+	 * Keeps loads before the fence from being reordered with loads after it.
+	 */
+	static void acquire() {
+		if (LOAD_FENCE == null) {
+			// the volatile read is the fence, its value does not matter
+			int ignored = fence;
+			return;
+		}
+		try {
+			LOAD_FENCE.invokeExact();
+		} catch (Throwable e) {
+			throw new IllegalStateException("load fence failed", e);
+		}
+	}
+}
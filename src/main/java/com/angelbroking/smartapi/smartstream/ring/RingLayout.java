@@ -0,0 +1,53 @@
+package com.angelbroking.smartapi.smartstream.ring;
+
+/**
+ * Layout of a tick ring file.
+ *
+ * The file starts with a 128 byte header: magic, version, slot count, slot
+ * size and the epoch of the ring, and at offset 64, on a cache line of its own,
+ * the sequence of the next frame to be written. The epoch is a random non-zero
+ * number chosen by the writer creating the ring, and zeroed once another writer
+ * replaces the file. The slots follow, frame n being written to slot n modulo
+ * the slot count. A slot holds a stamp, the length of the frame and the frame:
+ * the stamp is 2n+1 while frame n is being written and 2n+2 once it is
+ * complete, so a reader detects a frame overwritten while it copied it.
+ */
+final class RingLayout {
+
+	static final int MAGIC = 0x53524E47;
+	static final int VERSION = 2;
+
+	static final int MAGIC_OFFSET = 0;
+	static final int VERSION_OFFSET = 4;
+	static final int SLOT_COUNT_OFFSET = 8;
+	static final int SLOT_SIZE_OFFSET = 12;
+	static final int EPOCH_OFFSET = 16;
+	static final int WRITE_SEQUENCE_OFFSET = 64;
+	static final int HEADER_SIZE = 128;
+
+	static final int STAMP_OFFSET = 0;
+	static final int LENGTH_OFFSET = 8;
+	static final int FRAME_OFFSET = 16;
+
+	static final long RETIRED_EPOCH = 0;
+
+	private RingLayout() {
+
+	}
+
+	static long slotOffset(long sequence, int slotCount, int slotSize) {
+		return HEADER_SIZE + (sequence & (slotCount - 1)) * (long) slotSize;
+	}
+
+	static long fileSize(int slotCount, int slotSize) {
+		return HEADER_SIZE + (long) slotCount * slotSize;
+	}
+
+	static long writingStamp(long sequence) {
+		return 2 * sequence + 1;
+	}
+
+	static long writtenStamp(long sequence) {
+		return 2 * sequence + 2;
+	}
+}
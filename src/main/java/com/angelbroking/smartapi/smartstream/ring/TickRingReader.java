@@ -0,0 +1,192 @@
+package com.angelbroking.smartapi.smartstream.ring;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.EPOCH_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.FRAME_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.LENGTH_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.MAGIC;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.MAGIC_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.RETIRED_EPOCH;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.SLOT_COUNT_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.SLOT_SIZE_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.STAMP_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.VERSION;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.VERSION_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.WRITE_SEQUENCE_OFFSET;
+
+/**
+ * Consumes the frames which a {@link TickRingWriter} publishes to a
+ * memory-mapped ring buffer, typically from another process.
+ *
+ * A reader never blocks the writer: when it falls more than the slot count
+ * behind, the overwritten frames are skipped and counted in
+ * {@link #getLost()}. The frames can be decoded as received from the stream,
+ * e.g. with {@link com.angelbroking.smartapi.smartstream.models.TickBatch}.
+ * A reader stays attached to the ring it opened: once a writer creates the
+ * ring again, {@link #isReplaced()} turns true and the ring has to be opened
+ * again to read the frames of the new writer. A reader is not thread-safe;
+ * every consumer thread opens its own.
+ */
+public class TickRingReader implements Closeable {
+
+	/**
+	 * Receives the frames read from the ring.
+	 */
+	public interface FrameHandler {
+
+		/**
+		 * Called for every frame read.
+		 *
+		 * @param sequence is the sequence of the frame in the ring.
+		 * @param frame    holds the frame; it is reused for the next frame.
+		 * @param length   is the length of the frame.
+		 */
+		void onFrame(long sequence, byte[] frame, int length);
+	}
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final int slotCount;
+	private final int slotSize;
+	private final byte[] frame;
+	private final long epoch;
+	private long next;
+	private long lost;
+
+	private TickRingReader(FileChannel channel, ByteBuffer buffer, int slotCount, int slotSize) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.slotCount = slotCount;
+		this.slotSize = slotSize;
+		this.frame = new byte[slotSize - FRAME_OFFSET];
+		this.epoch = buffer.getLong(EPOCH_OFFSET);
+		this.next = buffer.getLong(WRITE_SEQUENCE_OFFSET);
+	}
+
+	/**
+	 * Opens a ring created by a {@link TickRingWriter}. Reading starts with the
+	 * next frame published.
+	 *
+	 * @param file is the file of the ring.
+	 * @throws IOException if the file is not a tick ring, or not yet fully
+	 *                     created.
+	 */
+	public static TickRingReader open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if (channel.size() < RingLayout.HEADER_SIZE) {
+				throw new IOException(file + " is not a tick ring");
+			}
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, RingLayout.HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+				throw new IOException(file + " is not a tick ring");
+			}
+			RingFences.acquire();
+			if (header.getInt(VERSION_OFFSET) != VERSION) {
+				throw new IOException("unsupported version " + header.getInt(VERSION_OFFSET) + " of tick ring " + file);
+			}
+			int slotCount = header.getInt(SLOT_COUNT_OFFSET);
+			int slotSize = header.getInt(SLOT_SIZE_OFFSET);
+			long size = RingLayout.fileSize(slotCount, slotSize);
+			if (slotCount < 2 || Integer.bitCount(slotCount) != 1 || slotSize <= FRAME_OFFSET
+					|| size > channel.size()) {
+				throw new IOException("corrupted header of tick ring " + file);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return new TickRingReader(channel, buffer, slotCount, slotSize);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the frames published since the last poll, at most limit of them.
+	 *
+	 * @return the number of frames passed to the handler.
+	 */
+	public int poll(FrameHandler handler, int limit) {
+		long written = buffer.getLong(WRITE_SEQUENCE_OFFSET);
+		RingFences.acquire();
+		if (written < next) {
+			// the writer restarted on the same file
+			next = written;
+		} else if (written - next > slotCount) {
+			lost += written - next - slotCount;
+			next = written - slotCount;
+		}
+		int read = 0;
+		while (read < limit && next < written) {
+			long sequence = next++;
+			int slot = (int) RingLayout.slotOffset(sequence, slotCount, slotSize);
+			long stamp = buffer.getLong(slot + STAMP_OFFSET);
+			RingFences.acquire();
+			if (stamp != RingLayout.writtenStamp(sequence)) {
+				lost++;
+				continue;
+			}
+			int length = buffer.getInt(slot + LENGTH_OFFSET);
+			if (length < 0 || length > frame.length) {
+				lost++;
+				continue;
+			}
+			((Buffer) buffer).position(slot + FRAME_OFFSET);
+			buffer.get(frame, 0, length);
+			RingFences.acquire();
+			if (buffer.getLong(slot + STAMP_OFFSET) != stamp) {
+				// overwritten while being copied
+				lost++;
+				continue;
+			}
+			handler.onFrame(sequence, frame, length);
+			read++;
+		}
+		return read;
+	}
+
+	/**
+	 * Returns true once a writer created the ring again, replacing the file
+	 * this reader opened, which no frame is published to any more.
+	 */
+	public boolean isReplaced() {
+		return buffer.getLong(EPOCH_OFFSET) == RETIRED_EPOCH;
+	}
+
+	/**
+	 * Returns the epoch of the ring read, as in {@link TickRingWriter#getEpoch()}.
+	 */
+	public long getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * Returns the number of frames skipped because the writer overwrote them
+	 * before they were read.
+	 */
+	public long getLost() {
+		return lost;
+	}
+
+	/**
+	 * Returns the sequence of the next frame to read.
+	 */
+	public long getNextSequence() {
+		return next;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
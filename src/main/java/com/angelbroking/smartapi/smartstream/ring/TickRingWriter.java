@@ -0,0 +1,212 @@
+package com.angelbroking.smartapi.smartstream.ring;
+
+import com.angelbroking.smartapi.smartstream.ticker.RawFrameListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.EPOCH_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.FRAME_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.LENGTH_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.MAGIC;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.MAGIC_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.RETIRED_EPOCH;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.SLOT_COUNT_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.SLOT_SIZE_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.STAMP_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.VERSION;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.VERSION_OFFSET;
+import static com.angelbroking.smartapi.smartstream.ring.RingLayout.WRITE_SEQUENCE_OFFSET;
+
+/**
+ * Publishes the frames of a SmartStreamTicker to a memory-mapped ring buffer
+ * which {@link TickRingReader}s of other processes on the host consume, so one
+ * websocket connection serves all of them.
+ *
+ * Add the writer to the ticker with
+ * {@link com.angelbroking.smartapi.smartstream.ticker.SmartStreamTicker#addRawFrameListener}.
+ * Frames are copied into the ring as received, without being decoded; a slow
+ * reader is overtaken rather than blocking the writer. There must be a single
+ * writer per file. On Linux, placing the file on a tmpfs such as /dev/shm keeps
+ * the ring out of the page cache writeback.
+ */
+@Slf4j
+public class TickRingWriter implements RawFrameListener, Closeable {
+
+	/** Default number of slots, which is a power of two. */
+	public static final int DEFAULT_SLOT_COUNT = 1 << 16;
+
+	/** Default slot size, which fits every frame of the stream, DEPTH_20 included. */
+	public static final int DEFAULT_SLOT_SIZE = 512;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int slotCount;
+	private final int slotSize;
+	private final long epoch;
+	private long sequence;
+	private long dropped;
+
+	private TickRingWriter(FileChannel channel, MappedByteBuffer buffer, int slotCount, int slotSize, long epoch) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.slotCount = slotCount;
+		this.slotSize = slotSize;
+		this.epoch = epoch;
+	}
+
+	/**
+	 * Creates a ring with the default slot count and size, replacing an existing
+	 * file.
+	 *
+	 * @param file is the file of the ring.
+	 */
+	public static TickRingWriter create(Path file) throws IOException {
+		return create(file, DEFAULT_SLOT_COUNT, DEFAULT_SLOT_SIZE);
+	}
+
+	/**
+	 * Creates a ring, replacing an existing file. The ring is prepared in a
+	 * temporary file which is then moved into place. The replaced ring is retired
+	 * first, so readers attached to it see {@link TickRingReader#isReplaced()}
+	 * and have to open the ring again.
+	 *
+	 * @param file      is the file of the ring.
+	 * @param slotCount is the number of frames held, a power of two.
+	 * @param slotSize  is the size of a slot, a multiple of 8 of at least 64;
+	 *                  frames of up to the slot size less 16 bytes fit.
+	 */
+	public static TickRingWriter create(Path file, int slotCount, int slotSize) throws IOException {
+		if (slotCount < 2 || Integer.bitCount(slotCount) != 1) {
+			throw new IllegalArgumentException("slotCount should be a power of two");
+		}
+		if (slotSize < 64 || slotSize % 8 != 0) {
+			throw new IllegalArgumentException("slotSize should be a multiple of 8 of at least 64");
+		}
+		long size = RingLayout.fileSize(slotCount, slotSize);
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("ring of " + size + " bytes is too large to map");
+		}
+		long epoch = ThreadLocalRandom.current().nextLong();
+		if (epoch == RETIRED_EPOCH) {
+			epoch = 1;
+		}
+		Path directory = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(VERSION_OFFSET, VERSION);
+			buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+			buffer.putInt(SLOT_SIZE_OFFSET, slotSize);
+			buffer.putLong(EPOCH_OFFSET, epoch);
+			buffer.putLong(WRITE_SEQUENCE_OFFSET, 0);
+			RingFences.release();
+			// readers only accept the ring once the magic is in place
+			buffer.putInt(MAGIC_OFFSET, MAGIC);
+			retire(file);
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			log.info("created tick ring {} of {} slots of {} bytes", file, slotCount, slotSize);
+			return new TickRingWriter(channel, buffer, slotCount, slotSize, epoch);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Marks the ring of the file, if any, as replaced.
+	 */
+	private static void retire(Path file) throws IOException {
+		try (FileChannel replaced = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			if (replaced.size() < RingLayout.HEADER_SIZE) {
+				return;
+			}
+			MappedByteBuffer header = replaced.map(FileChannel.MapMode.READ_WRITE, 0, RingLayout.HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(MAGIC_OFFSET) == MAGIC && header.getInt(VERSION_OFFSET) == VERSION) {
+				header.putLong(EPOCH_OFFSET, RETIRED_EPOCH);
+			}
+		} catch (NoSuchFileException e) {
+			// nothing to replace
+		}
+	}
+
+	/**
+	 * Publishes a frame of the ticker.
+	 */
+	@Override
+	public void onFrame(byte[] frame) {
+		publish(frame, 0, frame.length);
+	}
+
+	/**
+	 * Publishes a frame. Frames larger than a slot are dropped.
+	 *
+	 * @return whether the frame was published.
+	 */
+	public boolean publish(byte[] frame, int offset, int length) {
+		if (length > slotSize - FRAME_OFFSET) {
+			dropped++;
+			return false;
+		}
+		long next = sequence;
+		int slot = (int) RingLayout.slotOffset(next, slotCount, slotSize);
+		buffer.putLong(slot + STAMP_OFFSET, RingLayout.writingStamp(next));
+		RingFences.release();
+		buffer.putInt(slot + LENGTH_OFFSET, length);
+		((Buffer) buffer).position(slot + FRAME_OFFSET);
+		buffer.put(frame, offset, length);
+		RingFences.release();
+		buffer.putLong(slot + STAMP_OFFSET, RingLayout.writtenStamp(next));
+		RingFences.release();
+		buffer.putLong(WRITE_SEQUENCE_OFFSET, next + 1);
+		sequence = next + 1;
+		return true;
+	}
+
+	/**
+	 * Returns the number of frames published.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Returns the epoch of the ring, which tells it apart from the rings created
+	 * before and after it on the same file.
+	 */
+	public long getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * Returns the number of frames dropped because they did not fit in a slot.
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
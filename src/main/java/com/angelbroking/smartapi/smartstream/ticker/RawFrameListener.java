@@ -0,0 +1,26 @@
+package com.angelbroking.smartapi.smartstream.ticker;
+
+/**
+ * Receives the binary frames of a {@link SmartStreamTicker} as they arrive,
+ * before they are decoded, e.g. to forward them to other processes.
+ */
+public interface RawFrameListener {
+
+	/**
+	 * Called on the websocket thread for every binary frame. The array is not
+	 * reused by the ticker, but should not be changed since the frame is decoded
+	 * from it afterwards.
+	 *
+	 * @param frame is the frame as received.
+	 */
+	void onFrame(byte[] frame);
+
+	/**
+	 * Called on the websocket thread once the ticker connected, before the
+	 * frames of the connection, e.g. to subscribe tokens requested while it was
+	 * not connected.
+	 */
+	default void onConnected() {
+
+	}
+}
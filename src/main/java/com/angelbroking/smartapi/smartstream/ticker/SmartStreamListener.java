@@ -1,5 +1,6 @@
 package com.angelbroking.smartapi.smartstream.ticker;
 
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
 import com.angelbroking.smartapi.smartstream.models.*;
 
 public interface SmartStreamListener {
@@ -15,4 +16,19 @@ public interface SmartStreamListener {
 	void onPong();
 
 	SmartStreamError onErrorCustom();
+
+	/**
+	 * Called for a binary frame which is not decoded because it is malformed,
+	 * see {@link FrameValidator}. By default the frame is reported to
+	 * {@link #onError(SmartStreamError)} as a SmartAPIException; override it to
+	 * count or log such frames without building an exception.
+	 *
+	 * @param frame  is the frame as received.
+	 * @param reason describes why the frame is malformed.
+	 */
+	default void onMalformedFrame(byte[] frame, String reason) {
+		SmartStreamError error = new SmartStreamError();
+		error.setException(new SmartAPIException(reason));
+		onError(error);
+	}
 }
\ No newline at end of file
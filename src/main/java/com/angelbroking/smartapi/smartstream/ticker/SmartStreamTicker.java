@@ -1,17 +1,27 @@
 package com.angelbroking.smartapi.smartstream.ticker;
 
 import java.io.IOException;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.time.LocalDateTime;
 import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.angelbroking.smartapi.smartstream.models.*;
+import com.angelbroking.smartapi.smartstream.transport.NvWebSocketTransport;
+import com.angelbroking.smartapi.smartstream.transport.StreamConnection;
+import com.angelbroking.smartapi.smartstream.transport.StreamTransport;
+import com.angelbroking.smartapi.smartstream.transport.StreamTransportListener;
+import com.angelbroking.smartapi.smartstream.transport.StreamTransports;
 import com.neovisionaries.ws.client.*;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
@@ -40,10 +50,14 @@ public class SmartStreamTicker {
 	private final String wsuri = routes.getSmartStreamWSURI();
 
 	private final SmartStreamListener smartStreamListener;
-	private WebSocket ws;
+	private final StreamTransport transport;
+	private final StreamTransportListener transportListener = new TransportListener();
+	private StreamConnection ws;
 	private final String clientId;
-	private final String feedToken;
-	private EnumMap<SmartStreamSubsMode, Set<TokenID>> tokensByModeMap = new EnumMap<>(SmartStreamSubsMode.class);
+	private volatile String feedToken;
+	private final List<RawFrameListener> rawFrameListeners = new CopyOnWriteArrayList<>();
+	private final AtomicLong malformedFrames = new AtomicLong();
+	private final EnumMap<SmartStreamSubsMode, Set<TokenID>> tokensByModeMap = new EnumMap<>(SmartStreamSubsMode.class);
 	private Timer pingTimer;
 	private LocalDateTime lastPongReceivedTime = LocalDateTime.now();
 
@@ -64,6 +78,7 @@ public class SmartStreamTicker {
         this.clientId = clientId;
         this.feedToken = feedToken;
         this.smartStreamListener = smartStreamListener;
+        this.transport = new NvWebSocketTransport();
         init();
     }
 
@@ -87,20 +102,40 @@ public class SmartStreamTicker {
 		this.clientId = clientId;
 		this.feedToken = feedToken;
 		this.smartStreamListener = smartStreamListener;
+		this.transport = new NvWebSocketTransport();
+		init();
+	}
+
+	/**
+	 * Initializes the SmartStreamTicker with another transport than the default
+	 * nv-websocket-client, see {@link StreamTransports}.
+	 *
+	 * @param clientId            - the client ID used for authentication
+	 * @param feedToken           - the feed token used for authentication
+	 * @param smartStreamListener - the SmartStreamListener for receiving callbacks
+	 * @param transport           - the transport carrying the websocket connection
+	 * @throws IllegalArgumentException - if the clientId, feedToken, SmartStreamListener or transport is null or empty
+	 */
+	public SmartStreamTicker(String clientId, String feedToken, SmartStreamListener smartStreamListener, StreamTransport transport) {
+		if (StringUtils.isEmpty(clientId) || StringUtils.isEmpty(feedToken) || Utils.validateInputNullCheck(smartStreamListener) || Utils.validateInputNullCheck(transport)) {
+			throw new IllegalArgumentException(
+					"clientId, feedToken, SmartStreamListener and transport should not be empty or null");
+		}
+		this.clientId = clientId;
+		this.feedToken = feedToken;
+		this.smartStreamListener = smartStreamListener;
+		this.transport = transport;
 		init();
 	}
 
 
 	private void init() {
 		try {
-			ws = new WebSocketFactory()
-					.setVerifyHostname(false)
-					.createSocket(wsuri)
-					.setPingInterval(pingIntervalInMilliSeconds);
-			ws.addHeader(clientIdHeader, clientId);
-			ws.addHeader(feedTokenHeader, feedToken);
-			ws.addHeader(clientLibHeader, "JAVA");
-			ws.addListener(getWebsocketAdapter());
+			Map<String, String> headers = new LinkedHashMap<>();
+			headers.put(clientIdHeader, clientId);
+			headers.put(feedTokenHeader, feedToken);
+			headers.put(clientLibHeader, "JAVA");
+			ws = transport.create(wsuri, headers, pingIntervalInMilliSeconds, transportListener);
 		} catch (IOException e) {
 			if (Utils.validateInputNotNullCheck(smartStreamListener)) {
 				smartStreamListener.onError(getErrorHolder(e));
@@ -117,116 +152,137 @@ public class SmartStreamTicker {
 
 	/** Returns a WebSocketAdapter to listen to ticker related events. */
 	public WebSocketAdapter getWebsocketAdapter() {
-		return new WebSocketAdapter() {
-			@Override
-			public void onConnected(WebSocket websocket, Map<String, List<String>> headers) throws WebSocketException {
-				smartStreamListener.onConnected();
-                startPingTimer(websocket);
-			}
+		return NvWebSocketTransport.adapter(transportListener);
+	}
 
-			@Override
-			public void onTextMessage(WebSocket websocket, String message) throws Exception {
-				super.onTextMessage(websocket, message);
-			}
+	/** Receives the events of the websocket connection from the transport. */
+	private final class TransportListener implements StreamTransportListener {
 
-			@Override
-			public void onBinaryMessage(WebSocket websocket, byte[] binary) {
-				SmartStreamSubsMode mode = SmartStreamSubsMode.findByVal(binary[0]);
-				if (Utils.validateInputNullCheck(mode)) {
-					StringBuilder sb = new StringBuilder();
-					sb.append("Invalid SubsMode=");
-					sb.append(binary[0]);
-					sb.append(" in the response binary packet");
-					smartStreamListener.onError(getErrorHolder(new SmartAPIException(sb.toString())));
-				}
+		@Override
+		public void onConnected() {
+			smartStreamListener.onConnected();
+			for (RawFrameListener rawListener : rawFrameListeners) {
 				try {
-					switch (mode) {
-						case LTP: {
-							ByteBuffer packet = ByteBuffer.wrap(binary).order(ByteOrder.LITTLE_ENDIAN);
-							LTP ltp = ByteUtils.mapToLTP(packet);
-							smartStreamListener.onLTPArrival(ltp);
-							break;
-						}
-						case QUOTE: {
-							ByteBuffer packet = ByteBuffer.wrap(binary).order(ByteOrder.LITTLE_ENDIAN);
-							Quote quote = ByteUtils.mapToQuote(packet);
-							smartStreamListener.onQuoteArrival(quote);
-							break;
-						}
-						case SNAP_QUOTE: {
-							ByteBuffer packet = ByteBuffer.wrap(binary).order(ByteOrder.LITTLE_ENDIAN);
-							SnapQuote snapQuote = ByteUtils.mapToSnapQuote(packet);
-							smartStreamListener.onSnapQuoteArrival(snapQuote);
-							break;
-						}
-						case DEPTH_20: {
-							ByteBuffer packet = ByteBuffer.wrap(binary).order(ByteOrder.LITTLE_ENDIAN);
-							Depth depth = ByteUtils.mapToDepth20(packet);
-							smartStreamListener.onDepthArrival(depth);
-							break;
-						}
-						default: {
-							smartStreamListener.onError(getErrorHolder(
-									new SmartAPIException("SubsMode=" + mode + " in the response is not handled.")));
-							break;
-						}
-					}
+					rawListener.onConnected();
 				} catch (Exception e) {
 					smartStreamListener.onError(getErrorHolder(e));
 				}
 			}
+			startPingTimer(ws);
+		}
 
-			@Override
-			public void onPongFrame(WebSocket websocket, WebSocketFrame frame) throws Exception {
+		@Override
+		public void onFrame(ByteBuffer frame) {
+			ByteBuffer packet = frame.order(ByteOrder.LITTLE_ENDIAN);
+			if (!rawFrameListeners.isEmpty()) {
+				byte[] binary = toArray(packet);
+				for (RawFrameListener rawListener : rawFrameListeners) {
+					try {
+						rawListener.onFrame(binary);
+					} catch (Exception e) {
+						smartStreamListener.onError(getErrorHolder(e));
+					}
+				}
+			}
+			SmartStreamSubsMode mode = FrameValidator.validate(packet);
+			if (mode == null) {
+				malformedFrames.incrementAndGet();
 				try {
-                    lastPongReceivedTime = LocalDateTime.now();
-                    smartStreamListener.onPong();
-                } catch (Exception e) {
-                    SmartStreamError error = new SmartStreamError();
-                    error.setException(e);
-                    smartStreamListener.onError(error);
-                }
+					byte[] binary = toArray(packet);
+					smartStreamListener.onMalformedFrame(binary, FrameValidator.describe(binary));
+				} catch (Exception e) {
+					smartStreamListener.onError(getErrorHolder(e));
+				}
+				return;
 			}
+			try {
+				switch (mode) {
+					case LTP: {
+						LTP ltp = ByteUtils.mapToLTP(packet);
+						smartStreamListener.onLTPArrival(ltp);
+						break;
+					}
+					case QUOTE: {
+						Quote quote = ByteUtils.mapToQuote(packet);
+						smartStreamListener.onQuoteArrival(quote);
+						break;
+					}
+					case SNAP_QUOTE: {
+						SnapQuote snapQuote = ByteUtils.mapToSnapQuote(packet);
+						smartStreamListener.onSnapQuoteArrival(snapQuote);
+						break;
+					}
+					case DEPTH_20: {
+						Depth depth = ByteUtils.mapToDepth20(packet);
+						smartStreamListener.onDepthArrival(depth);
+						break;
+					}
+					default: {
+						smartStreamListener.onError(getErrorHolder(
+								new SmartAPIException("SubsMode=" + mode + " in the response is not handled.")));
+						break;
+					}
+				}
+			} catch (Exception e) {
+				smartStreamListener.onError(getErrorHolder(e));
+			}
+		}
 
-			/**
-			 * On disconnection, return statement ensures that the thread ends.
-			 *
-			 * @param websocket
-			 * @param serverCloseFrame
-			 * @param clientCloseFrame
-			 * @param closedByServer
-			 * @throws Exception
-			 */
-			@Override
-			public void onDisconnected(WebSocket websocket, WebSocketFrame serverCloseFrame,
-					WebSocketFrame clientCloseFrame, boolean closedByServer) {
-				try {
-                    if (closedByServer) {
-                        reconnectAndResubscribe();
-                    } else {
-                        stopPingTimer();
-                        smartStreamListener.onDisconnected();
-                    }
-                } catch (Exception e) {
-                	SmartStreamError error = new SmartStreamError();
-                    error.setException(e);
-                    smartStreamListener.onError(error);
+		@Override
+		public void onPong() {
+			try {
+                lastPongReceivedTime = LocalDateTime.now();
+                smartStreamListener.onPong();
+            } catch (Exception e) {
+                SmartStreamError error = new SmartStreamError();
+                error.setException(e);
+                smartStreamListener.onError(error);
+            }
+		}
+
+		/**
+		 * On disconnection, return statement ensures that the thread ends.
+		 *
+		 * @param closedByServer
+		 */
+		@Override
+		public void onDisconnected(boolean closedByServer) {
+			try {
+                if (closedByServer) {
+                    reconnectAndResubscribe();
+                } else {
+                    stopPingTimer();
+                    smartStreamListener.onDisconnected();
                 }
-			}
+            } catch (Exception e) {
+            	SmartStreamError error = new SmartStreamError();
+                error.setException(e);
+                smartStreamListener.onError(error);
+            }
+		}
 
-			@Override
-			public void onCloseFrame(WebSocket websocket, WebSocketFrame frame) throws Exception {
-				super.onCloseFrame(websocket, frame);
-			}
+		@Override
+		public void onError(Throwable cause) {
+			smartStreamListener.onErrorCustom();
+		}
+	}
 
-			@Override
-			public void onError(WebSocket websocket, WebSocketException cause) throws Exception {
-				smartStreamListener.onErrorCustom();
-			}
-		};
+	/**
+	 * Returns the bytes of a frame, without copying them if the frame wraps a
+	 * whole array.
+	 */
+	private static byte[] toArray(ByteBuffer frame) {
+		if (frame.hasArray() && frame.arrayOffset() == 0 && frame.array().length == frame.limit()) {
+			return frame.array();
+		}
+		byte[] bytes = new byte[frame.limit()];
+		ByteBuffer copy = frame.duplicate();
+		((Buffer) copy).position(0);
+		copy.get(bytes);
+		return bytes;
 	}
 
-	private void startPingTimer(final WebSocket websocket) {
+	private void startPingTimer(final StreamConnection websocket) {
 
         pingTimer = new Timer();
         pingTimer.scheduleAtFixedRate(new TimerTask() {
@@ -257,8 +313,15 @@ public class SmartStreamTicker {
 		init();
 		connect();
 		// resubscribing the existing tokens as per the mode
-		tokensByModeMap.forEach((mode,tokens) -> {
-			subscribe(mode, tokens);
+		EnumMap<SmartStreamSubsMode, Set<TokenID>> subscribedTokens;
+		synchronized (tokensByModeMap) {
+			subscribedTokens = new EnumMap<>(SmartStreamSubsMode.class);
+			tokensByModeMap.forEach((mode, tokens) -> subscribedTokens.put(mode, new HashSet<>(tokens)));
+		}
+		subscribedTokens.forEach((mode,tokens) -> {
+			if (!tokens.isEmpty()) {
+				subscribe(mode, tokens);
+			}
 		});
 		log.info("reconnectAndResubscribe - done");
 	}
@@ -291,29 +354,28 @@ public class SmartStreamTicker {
 	}
 
 	/**
-	 * Subscribes tokens.
+	 * Subscribes tokens, in addition to the tokens already subscribed in the
+	 * mode, which are subscribed again on reconnection.
 	 */
 	public void subscribe(SmartStreamSubsMode mode, Set<TokenID> tokens) {
 		if (ws != null) {
 			if (ws.isOpen()) {
-				for (TokenID token : tokens) {
-					if (ExchangeType.NSE_CM.equals(token.getExchangeType()) && SmartStreamSubsMode.DEPTH_20.equals(mode)) {
-						if (tokens.size() < 50) {
-							JSONObject wsMWJSONRequest = getApiRequest(SmartStreamAction.SUBS, mode, tokens);
-							ws.sendText(wsMWJSONRequest.toString());
-							tokensByModeMap.put(mode, tokens);
-						} else {
-							smartStreamListener.onError(getErrorHolder(new SmartAPIException("Token size should be less than 50", "504")));
-						}
-					} else {
-						if (!ExchangeType.NSE_CM.equals(token.getExchangeType()) && SmartStreamSubsMode.DEPTH_20.equals(mode)) {
+				if (SmartStreamSubsMode.DEPTH_20.equals(mode)) {
+					for (TokenID token : tokens) {
+						if (!ExchangeType.NSE_CM.equals(token.getExchangeType())) {
 							smartStreamListener.onError(getErrorHolder(new SmartAPIException("Invalid Exchange Type: Please check the exchange type and try again", "504")));
-						} else {
-							JSONObject wsMWJSONRequest = getApiRequest(SmartStreamAction.SUBS, mode, tokens);
-							ws.sendText(wsMWJSONRequest.toString());
-							tokensByModeMap.put(mode, tokens);
+							return;
 						}
 					}
+					if (tokens.size() >= 50) {
+						smartStreamListener.onError(getErrorHolder(new SmartAPIException("Token size should be less than 50", "504")));
+						return;
+					}
+				}
+				JSONObject wsMWJSONRequest = getApiRequest(SmartStreamAction.SUBS, mode, tokens);
+				ws.sendText(wsMWJSONRequest.toString());
+				synchronized (tokensByModeMap) {
+					tokensByModeMap.computeIfAbsent(mode, m -> new HashSet<>()).addAll(tokens);
 				}
 			} else {
 				smartStreamListener.onError(getErrorHolder(new SmartAPIException("ticker is not connected", "504")));
@@ -331,9 +393,11 @@ public class SmartStreamTicker {
 			if (ws.isOpen()) {
 				JSONObject wsMWJSONRequest = getApiRequest(SmartStreamAction.UNSUBS, mode, tokens);
 				ws.sendText(wsMWJSONRequest.toString());
-				Set<TokenID> currentlySubscribedTokens = tokensByModeMap.get(mode);
-				if(currentlySubscribedTokens != null) {
-					currentlySubscribedTokens.removeAll(tokens);
+				synchronized (tokensByModeMap) {
+					Set<TokenID> currentlySubscribedTokens = tokensByModeMap.get(mode);
+					if(currentlySubscribedTokens != null) {
+						currentlySubscribedTokens.removeAll(tokens);
+					}
 				}
 			} else {
 				smartStreamListener.onError(getErrorHolder(new SmartAPIException("ticker is not connected", "504")));
@@ -379,8 +443,64 @@ public class SmartStreamTicker {
 		return wsMWJSONRequest;
 	}
 
+	/**
+	 * Sets the feed token used when the websocket connects again, e.g. after the
+	 * session was renewed. The current connection is not affected.
+	 *
+	 * @param feedToken - the renewed feed token
+	 * @throws IllegalArgumentException - if the feedToken is null or empty
+	 */
+	public void setFeedToken(String feedToken) {
+		if (StringUtils.isEmpty(feedToken)) {
+			throw new IllegalArgumentException("feedToken should not be empty or null");
+		}
+		this.feedToken = feedToken;
+	}
+
+	/**
+	 * Adds a listener receiving every binary frame before it is decoded, e.g. a
+	 * {@link com.angelbroking.smartapi.smartstream.ring.TickRingWriter} sharing
+	 * the feed with other processes. The listeners share the same array of a
+	 * frame.
+	 *
+	 * @param rawFrameListener - the listener
+	 * @throws IllegalArgumentException - if the rawFrameListener is null
+	 */
+	public void addRawFrameListener(RawFrameListener rawFrameListener) {
+		if (Utils.validateInputNullCheck(rawFrameListener)) {
+			throw new IllegalArgumentException("rawFrameListener should not be null");
+		}
+		rawFrameListeners.add(rawFrameListener);
+	}
+
+	/**
+	 * Removes a listener added with {@link #addRawFrameListener}.
+	 *
+	 * @param rawFrameListener - the listener
+	 */
+	public void removeRawFrameListener(RawFrameListener rawFrameListener) {
+		rawFrameListeners.remove(rawFrameListener);
+	}
+
+	/**
+	 * Returns the number of binary frames which were not decoded because they
+	 * were malformed.
+	 *
+	 * @return long
+	 */
+	public long getMalformedFrameCount() {
+		return malformedFrames.get();
+	}
+
 	public void connect() throws WebSocketException {
-		ws.connect();
+		try {
+			ws.connect();
+		} catch (IOException e) {
+			if (e.getCause() instanceof WebSocketException) {
+				throw (WebSocketException) e.getCause();
+			}
+			throw new WebSocketException(WebSocketError.SOCKET_CONNECT_ERROR, e.getMessage(), e);
+		}
 		log.info("connected to uri: {}", wsuri);
 	}
 
@@ -0,0 +1,99 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct buffers into which transports receive frames, so receiving
+ * does not allocate and the decoders read the frames where they were received.
+ *
+ * Buffers are little-endian, as the frames of the stream, and of a fixed size;
+ * a frame larger than a buffer gets a direct buffer of its own, which is not
+ * pooled. The pool is thread-safe.
+ */
+public class FrameBufferPool {
+
+	/** Default buffer size, which fits every frame of the stream, DEPTH_20 included. */
+	public static final int DEFAULT_BUFFER_SIZE = 512;
+
+	/** Default maximum number of idle buffers kept. */
+	public static final int DEFAULT_MAX_IDLE = 64;
+
+	private final int bufferSize;
+	private final int maxIdle;
+	private final ConcurrentLinkedQueue<ByteBuffer> idle = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger idleCount = new AtomicInteger();
+	private final AtomicInteger allocated = new AtomicInteger();
+
+	public FrameBufferPool() {
+		this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_IDLE);
+	}
+
+	/**
+	 * Initializes a pool.
+	 *
+	 * @param bufferSize is the size of the buffers.
+	 * @param maxIdle    is the maximum number of idle buffers kept.
+	 */
+	public FrameBufferPool(int bufferSize, int maxIdle) {
+		if (bufferSize < 1 || maxIdle < 0) {
+			throw new IllegalArgumentException("bufferSize should be positive and maxIdle not negative");
+		}
+		this.bufferSize = bufferSize;
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * Returns a cleared buffer of the pool, allocating one if none is idle.
+	 */
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = idle.poll();
+		if (buffer == null) {
+			allocated.incrementAndGet();
+			return ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		idleCount.decrementAndGet();
+		((Buffer) buffer).clear();
+		return buffer;
+	}
+
+	/**
+	 * Returns a cleared buffer of at least a capacity: a buffer of the pool if the
+	 * capacity fits, else a buffer of its own.
+	 */
+	public ByteBuffer acquire(int capacity) {
+		if (capacity <= bufferSize) {
+			return acquire();
+		}
+		return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Returns a buffer to the pool. Buffers not acquired from a pool of this size
+	 * are ignored, as are buffers beyond the maximum number of idle buffers.
+	 */
+	public void release(ByteBuffer buffer) {
+		if (!buffer.isDirect() || buffer.capacity() != bufferSize) {
+			return;
+		}
+		if (idleCount.incrementAndGet() > maxIdle) {
+			idleCount.decrementAndGet();
+			return;
+		}
+		idle.offer(buffer);
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Returns the number of buffers allocated by the pool so far.
+	 */
+	public int getAllocated() {
+		return allocated.get();
+	}
+}
@@ -0,0 +1,32 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+/**
+ * Access point for the WebSocket transport of the JDK.
+ *
+ * This is the Java 8 variant which reports the transport as unavailable. The
+ * multi-release jar carries a JDK 21 variant under META-INF/versions/21 that
+ * creates transports based on java.net.http.WebSocket.
+ */
+final class JdkWebSockets {
+
+	private JdkWebSockets() {
+
+	}
+
+	/**
+	 * Returns true if the running JVM supports the transport.
+	 */
+	static boolean isSupported() {
+		return false;
+	}
+
+	/**
+	 * Creates a transport.
+	 *
+	 * @param pool is the pool of the buffers receiving the messages.
+	 * @throws UnsupportedOperationException if the transport is not supported.
+	 */
+	static StreamTransport newTransport(FrameBufferPool pool) {
+		throw new UnsupportedOperationException("the JDK websocket transport requires JDK 21 or newer");
+	}
+}
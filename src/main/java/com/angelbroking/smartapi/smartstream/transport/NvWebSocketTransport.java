@@ -0,0 +1,135 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+import com.neovisionaries.ws.client.WebSocket;
+import com.neovisionaries.ws.client.WebSocketAdapter;
+import com.neovisionaries.ws.client.WebSocketException;
+import com.neovisionaries.ws.client.WebSocketFactory;
+import com.neovisionaries.ws.client.WebSocketFrame;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport based on nv-websocket-client, the default of SmartStreamTicker.
+ *
+ * The library delivers every message as a new byte array. Without a pool the
+ * array is wrapped as is; with a pool it is copied into a pooled direct
+ * buffer, so the frames are decoded from direct memory as with the other
+ * transports.
+ */
+public class NvWebSocketTransport implements StreamTransport {
+
+	private final FrameBufferPool pool;
+
+	public NvWebSocketTransport() {
+		this(null);
+	}
+
+	/**
+	 * Initializes a transport passing the frames in buffers of a pool.
+	 *
+	 * @param pool is the pool of the buffers, or null to wrap the arrays of the
+	 *             library.
+	 */
+	public NvWebSocketTransport(FrameBufferPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public StreamConnection create(String uri, Map<String, String> headers, int pingIntervalMillis,
+			StreamTransportListener listener) throws IOException {
+		WebSocket ws = new WebSocketFactory()
+				.setVerifyHostname(false)
+				.createSocket(uri)
+				.setPingInterval(pingIntervalMillis);
+		headers.forEach(ws::addHeader);
+		ws.addListener(adapter(listener, pool));
+		return new Connection(ws);
+	}
+
+	/**
+	 * Returns a WebSocketAdapter forwarding the events of a WebSocket to a
+	 * listener.
+	 */
+	public static WebSocketAdapter adapter(StreamTransportListener listener) {
+		return adapter(listener, null);
+	}
+
+	private static WebSocketAdapter adapter(StreamTransportListener listener, FrameBufferPool pool) {
+		return new WebSocketAdapter() {
+			@Override
+			public void onConnected(WebSocket websocket, Map<String, List<String>> headers) {
+				listener.onConnected();
+			}
+
+			@Override
+			public void onBinaryMessage(WebSocket websocket, byte[] binary) {
+				if (pool == null) {
+					listener.onFrame(ByteBuffer.wrap(binary).order(ByteOrder.LITTLE_ENDIAN));
+					return;
+				}
+				ByteBuffer frame = pool.acquire(binary.length);
+				frame.put(binary);
+				((Buffer) frame).flip();
+				try {
+					listener.onFrame(frame);
+				} finally {
+					pool.release(frame);
+				}
+			}
+
+			@Override
+			public void onPongFrame(WebSocket websocket, WebSocketFrame frame) {
+				listener.onPong();
+			}
+
+			@Override
+			public void onDisconnected(WebSocket websocket, WebSocketFrame serverCloseFrame,
+					WebSocketFrame clientCloseFrame, boolean closedByServer) {
+				listener.onDisconnected(closedByServer);
+			}
+
+			@Override
+			public void onError(WebSocket websocket, WebSocketException cause) {
+				listener.onError(cause);
+			}
+		};
+	}
+
+	private static final class Connection implements StreamConnection {
+
+		private final WebSocket ws;
+
+		private Connection(WebSocket ws) {
+			this.ws = ws;
+		}
+
+		@Override
+		public void connect() throws IOException {
+			try {
+				ws.connect();
+			} catch (WebSocketException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public void sendText(String text) {
+			ws.sendText(text);
+		}
+
+		@Override
+		public boolean isOpen() {
+			return ws.isOpen();
+		}
+
+		@Override
+		public void disconnect() {
+			ws.disconnect();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+import java.io.IOException;
+
+/**
+ * WebSocket connection created by a {@link StreamTransport}.
+ */
+public interface StreamConnection {
+
+	/**
+	 * Opens the connection, blocking until the handshake completes.
+	 *
+	 * @throws IOException if the connection cannot be opened.
+	 */
+	void connect() throws IOException;
+
+	/**
+	 * Sends a text message, e.g. a subscription request, without waiting for it
+	 * to be written.
+	 */
+	void sendText(String text);
+
+	/**
+	 * Returns true if the connection is open.
+	 */
+	boolean isOpen();
+
+	/**
+	 * Closes the connection. The listener is notified by
+	 * {@link StreamTransportListener#onDisconnected(boolean)} with closedByServer
+	 * false.
+	 */
+	void disconnect();
+}
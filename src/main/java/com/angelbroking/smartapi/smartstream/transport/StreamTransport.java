@@ -0,0 +1,28 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * WebSocket implementation carrying the SmartStream connection of a
+ * SmartStreamTicker.
+ *
+ * The ticker uses nv-websocket-client by default, see
+ * {@link NvWebSocketTransport}; {@link StreamTransports} lists the other
+ * transports of the library. A transport creates one connection per connect
+ * of the ticker, and a new one on every reconnection.
+ */
+public interface StreamTransport {
+
+	/**
+	 * Creates a connection, which is connected by {@link StreamConnection#connect()}.
+	 *
+	 * @param uri                is the URI of the stream.
+	 * @param headers            are the headers of the opening handshake.
+	 * @param pingIntervalMillis is the interval of the pings keeping the
+	 *                           connection alive.
+	 * @param listener           receives the events of the connection.
+	 */
+	StreamConnection create(String uri, Map<String, String> headers, int pingIntervalMillis,
+			StreamTransportListener listener) throws IOException;
+}
@@ -0,0 +1,33 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the events of a {@link StreamConnection}. The events of a
+ * connection are delivered one at a time.
+ */
+public interface StreamTransportListener {
+
+	void onConnected();
+
+	/**
+	 * Called for every binary message.
+	 *
+	 * @param frame holds the message from index 0 to its limit, in little-endian
+	 *              order. It may be a pooled direct buffer, which is only valid
+	 *              until the method returns: copy what has to be kept.
+	 */
+	void onFrame(ByteBuffer frame);
+
+	void onPong();
+
+	/**
+	 * Called once the connection is closed.
+	 *
+	 * @param closedByServer is false if the connection was closed by
+	 *                       {@link StreamConnection#disconnect()}.
+	 */
+	void onDisconnected(boolean closedByServer);
+
+	void onError(Throwable cause);
+}
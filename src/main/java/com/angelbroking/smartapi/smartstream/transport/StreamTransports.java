@@ -0,0 +1,52 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+/**
+ * Transports of the library, to be passed to a SmartStreamTicker.
+ */
+public final class StreamTransports {
+
+	private StreamTransports() {
+
+	}
+
+	/**
+	 * Returns the default transport, based on nv-websocket-client.
+	 */
+	public static StreamTransport nvWebSocket() {
+		return new NvWebSocketTransport();
+	}
+
+	/**
+	 * Returns a transport based on nv-websocket-client which copies every message
+	 * into a buffer of a pool.
+	 *
+	 * @param pool is the pool of the buffers.
+	 */
+	public static StreamTransport nvWebSocket(FrameBufferPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("pool should not be null");
+		}
+		return new NvWebSocketTransport(pool);
+	}
+
+	/**
+	 * Returns true if the running JVM supports {@link #jdkWebSocket(FrameBufferPool)}.
+	 */
+	public static boolean isJdkWebSocketSupported() {
+		return JdkWebSockets.isSupported();
+	}
+
+	/**
+	 * Returns a transport based on the java.net.http WebSocket of the JDK, which
+	 * receives every message, fragmented or not, into a buffer of a pool.
+	 *
+	 * @param pool is the pool of the buffers.
+	 * @throws UnsupportedOperationException if the JVM is older than JDK 21.
+	 */
+	public static StreamTransport jdkWebSocket(FrameBufferPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("pool should not be null");
+		}
+		return JdkWebSockets.newTransport(pool);
+	}
+}
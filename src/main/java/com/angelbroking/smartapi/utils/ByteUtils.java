@@ -9,8 +9,6 @@ import static com.angelbroking.smartapi.utils.Constants.*;
 
 public class ByteUtils {
 	
-	private static final int CHAR_ARRAY_SIZE = 25;
-	
 	private ByteUtils() {
 		
 	}
@@ -30,11 +28,14 @@ public class ByteUtils {
         return new Depth(packet);
     }
 	public static TokenID getTokenID(ByteBuffer byteBuffer) {
-		byte[] token = new byte[CHAR_ARRAY_SIZE];
-		for (int i = 0; i < CHAR_ARRAY_SIZE; i++) {
-			token[i] = byteBuffer.get(2 + i);
+		byte[] token = new byte[TOKEN_SIZE];
+		int length = 0;
+		// the token is padded with NUL bytes to its fixed size
+		while (length < TOKEN_SIZE && (token[length] = byteBuffer.get(TOKEN_OFFSET + length)) != 0) {
+			length++;
 		}
-		return new TokenID(ExchangeType.findByValue(byteBuffer.get(1)), new String(token, StandardCharsets.UTF_8));
+		return new TokenID(ExchangeType.findByValue(byteBuffer.get(EXCHANGE_TYPE)),
+				new String(token, 0, length, StandardCharsets.UTF_8));
 	}
 	
 	public static SmartApiBBSInfo[] getBestFiveBuyData(ByteBuffer buffer) {
@@ -77,6 +77,12 @@ public class Constants {
     public static final int PRICE_OFFSET = 10;
     public static final int NUMBER_OF_ORDERS_OFFSET = 18;
     public static final int PRICE_CONVERSION_FACTOR = 100;
+    public static final int TOKEN_OFFSET = 2;
+    public static final int TOKEN_SIZE = 25;
+    public static final int LTP_PACKET_SIZE = 51;
+    public static final int QUOTE_PACKET_SIZE = 123;
+    public static final int SNAP_QUOTE_PACKET_SIZE = 379;
+    public static final int DEPTH_20_PACKET_SIZE = 443;
 
 
     public static final String SMART_API_EXCEPTION_ERROR_MSG = "The operation failed to execute because of a SmartAPIException error";
@@ -0,0 +1,53 @@
+package com.angelbroking.smartapi.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Shared, thread safe JSON mappers.
+ *
+ * Gson and ObjectMapper instances cache the reflective adapters of every type
+ * they have seen, so building one per response throws that work away. Both are
+ * safe for concurrent use once configured.
+ */
+public final class JsonMapper {
+
+	private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+	private static final Gson GSON = new GsonBuilder()
+			.registerTypeAdapter(Date.class, (JsonDeserializer<Date>) (json, type, context) -> {
+				try {
+					return new SimpleDateFormat(DATE_FORMAT).parse(json.getAsString());
+				} catch (ParseException e) {
+					return null;
+				}
+			})
+			.setDateFormat(DATE_FORMAT)
+			.create();
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private JsonMapper() {
+
+	}
+
+	/**
+	 * Returns the Gson used to decode Smart API models.
+	 */
+	public static Gson gson() {
+		return GSON;
+	}
+
+	/**
+	 * Returns the Jackson mapper used to decode Smart API models.
+	 */
+	public static ObjectMapper objectMapper() {
+		return OBJECT_MAPPER;
+	}
+}
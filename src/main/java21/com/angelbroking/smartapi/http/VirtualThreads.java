@@ -0,0 +1,32 @@
+package com.angelbroking.smartapi.http;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access point for virtual threads.
+ *
+ * JDK 21 variant, packaged under META-INF/versions/21 of the multi-release jar.
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+
+	}
+
+	/**
+	 * Returns true if the running JVM supports virtual threads.
+	 */
+	static boolean isSupported() {
+		return true;
+	}
+
+	/**
+	 * Creates an executor which starts a new virtual thread for every task.
+	 *
+	 * @param namePrefix is the prefix of the thread names.
+	 */
+	static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+	}
+}
@@ -0,0 +1,29 @@
+package com.angelbroking.smartapi.smartstream.ring;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Memory fences ordering the plain accesses of the mapped ring buffer.
+ *
+ * JDK 21 variant, packaged under META-INF/versions/21 of the multi-release jar.
+ */
+final class RingFences {
+
+	private RingFences() {
+
+	}
+
+	/**
+	 * Keeps stores before the fence from being reordered with stores after it.
+	 */
+	static void release() {
+		VarHandle.storeStoreFence();
+	}
+
+	/**
+	 * Keeps loads before the fence from being reordered with loads after it.
+	 */
+	static void acquire() {
+		VarHandle.loadLoadFence();
+	}
+}
@@ -0,0 +1,197 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Access point for the WebSocket transport of the JDK.
+ *
+ * JDK 21 variant, packaged under META-INF/versions/21 of the multi-release jar.
+ */
+final class JdkWebSockets {
+
+	private static final Logger log = LoggerFactory.getLogger(JdkWebSockets.class);
+
+	private JdkWebSockets() {
+
+	}
+
+	/**
+	 * Returns true if the running JVM supports the transport.
+	 */
+	static boolean isSupported() {
+		return true;
+	}
+
+	/**
+	 * Creates a transport.
+	 *
+	 * @param pool is the pool of the buffers receiving the messages.
+	 */
+	static StreamTransport newTransport(FrameBufferPool pool) {
+		HttpClient client = HttpClient.newHttpClient();
+		return (uri, headers, pingIntervalMillis, listener) ->
+				new Connection(client, URI.create(uri), headers, pingIntervalMillis, listener, pool);
+	}
+
+	private static final class Connection implements StreamConnection, WebSocket.Listener {
+
+		private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+		private final HttpClient client;
+		private final URI uri;
+		private final Map<String, String> headers;
+		private final int pingIntervalMillis;
+		private final StreamTransportListener listener;
+		private final FrameBufferPool pool;
+		private final ScheduledExecutorService pinger;
+		private volatile WebSocket webSocket;
+		private volatile boolean closing;
+		private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+		private ByteBuffer partial;
+
+		private Connection(HttpClient client, URI uri, Map<String, String> headers, int pingIntervalMillis,
+				StreamTransportListener listener, FrameBufferPool pool) {
+			this.client = client;
+			this.uri = uri;
+			this.headers = Map.copyOf(headers);
+			this.pingIntervalMillis = pingIntervalMillis;
+			this.listener = listener;
+			this.pool = pool;
+			this.pinger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "smartapi-stream-ping");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		@Override
+		public void connect() throws IOException {
+			WebSocket.Builder builder = client.newWebSocketBuilder();
+			headers.forEach(builder::header);
+			try {
+				webSocket = builder.buildAsync(uri, this).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while connecting to " + uri, e);
+			} catch (ExecutionException e) {
+				throw new IOException("connecting to " + uri + " failed", e.getCause());
+			}
+			if (pingIntervalMillis > 0) {
+				pinger.scheduleAtFixedRate(() -> send(ws -> ws.sendPing(EMPTY.duplicate())),
+						pingIntervalMillis, pingIntervalMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		@Override
+		public void sendText(String text) {
+			send(ws -> ws.sendText(text, true));
+		}
+
+		/**
+		 * Sends a message once the previous one is sent, as the JDK WebSocket
+		 * rejects concurrent sends.
+		 */
+		private synchronized void send(Function<WebSocket, CompletableFuture<WebSocket>> message) {
+			WebSocket ws = webSocket;
+			if (ws == null || ws.isOutputClosed()) {
+				return;
+			}
+			lastSend = lastSend.handle((result, error) -> null)
+					.thenCompose(ignored -> message.apply(ws))
+					.whenComplete((result, error) -> {
+						if (error != null && !closing) {
+							log.warn("sending to {} failed", uri, error);
+						}
+					});
+		}
+
+		@Override
+		public boolean isOpen() {
+			WebSocket ws = webSocket;
+			return ws != null && !ws.isInputClosed() && !ws.isOutputClosed();
+		}
+
+		@Override
+		public void disconnect() {
+			closing = true;
+			pinger.shutdownNow();
+			send(ws -> ws.sendClose(WebSocket.NORMAL_CLOSURE, ""));
+		}
+
+		@Override
+		public void onOpen(WebSocket webSocket) {
+			// set before buildAsync completes, so the listener can subscribe
+			this.webSocket = webSocket;
+			listener.onConnected();
+			webSocket.request(1);
+		}
+
+		@Override
+		public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+			// the data is only valid until the method returns, so it is copied
+			append(data);
+			if (last) {
+				ByteBuffer frame = partial;
+				partial = null;
+				((Buffer) frame).flip();
+				try {
+					listener.onFrame(frame);
+				} finally {
+					pool.release(frame);
+				}
+			}
+			webSocket.request(1);
+			return null;
+		}
+
+		private void append(ByteBuffer data) {
+			if (partial == null) {
+				partial = pool.acquire(data.remaining());
+			} else if (partial.remaining() < data.remaining()) {
+				ByteBuffer larger = pool.acquire(partial.position() + data.remaining() * 2);
+				((Buffer) partial).flip();
+				larger.put(partial);
+				pool.release(partial);
+				partial = larger;
+			}
+			partial.put(data);
+		}
+
+		@Override
+		public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+			listener.onPong();
+			webSocket.request(1);
+			return null;
+		}
+
+		@Override
+		public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+			pinger.shutdownNow();
+			listener.onDisconnected(!closing);
+			return null;
+		}
+
+		@Override
+		public void onError(WebSocket webSocket, Throwable error) {
+			pinger.shutdownNow();
+			listener.onError(error);
+			listener.onDisconnected(!closing);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.angelbroking.smartapi;
+
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class MarketDataBatcherTest {
+
+    @Mock
+    private SmartConnectAsync smartConnectAsync;
+
+    private final List<JSONObject> requests = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        when(smartConnectAsync.marketData(any(JSONObject.class))).thenAnswer(invocation -> {
+            JSONObject params = invocation.getArgument(0);
+            requests.add(params);
+            return CompletableFuture.completedFuture(respond(params));
+        });
+    }
+
+    @Test
+    public void testConcurrentQuotesAreCoalescedIntoOneRequest() throws Exception {
+        MarketDataBatcher batcher = new MarketDataBatcher(smartConnectAsync, "LTP", 50, 50);
+
+        CompletableFuture<JSONObject> sbin = batcher.quote("NSE", "3045");
+        CompletableFuture<JSONObject> infy = batcher.quote("NSE", "1594");
+        CompletableFuture<JSONObject> nifty = batcher.quote("NFO", "43208");
+        CompletableFuture<JSONObject> sbinAgain = batcher.quote("NSE", "3045");
+
+        assertEquals("3045", sbin.get(5, TimeUnit.SECONDS).getString("symbolToken"));
+        assertEquals("1594", infy.get(5, TimeUnit.SECONDS).getString("symbolToken"));
+        assertEquals("NFO", nifty.get(5, TimeUnit.SECONDS).getString("exchange"));
+        assertEquals("3045", sbinAgain.get(5, TimeUnit.SECONDS).getString("symbolToken"));
+        assertEquals(1, requests.size());
+        assertEquals("LTP", requests.get(0).getString("mode"));
+        assertEquals(2, requests.get(0).getJSONObject("exchangeTokens").getJSONArray("NSE").length());
+        batcher.close();
+    }
+
+    @Test
+    public void testFullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        MarketDataBatcher batcher = new MarketDataBatcher(smartConnectAsync, "FULL", 60_000, 50);
+
+        List<CompletableFuture<JSONObject>> futures = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            futures.add(batcher.quote("NSE", String.valueOf(i)));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), futures.get(i).get(5, TimeUnit.SECONDS).getString("symbolToken"));
+        }
+        assertEquals(2, requests.size());
+
+        batcher.close();
+        assertEquals("119", futures.get(119).get(5, TimeUnit.SECONDS).getString("symbolToken"));
+        assertEquals(3, requests.size());
+        assertEquals(20, requests.get(2).getJSONObject("exchangeTokens").getJSONArray("NSE").length());
+    }
+
+    @Test
+    public void testUnfetchedTokenFailsOnlyItsCaller() throws Exception {
+        MarketDataBatcher batcher = new MarketDataBatcher(smartConnectAsync, "LTP", 10, 50);
+
+        CompletableFuture<JSONObject> valid = batcher.quote("NSE", "3045");
+        CompletableFuture<JSONObject> invalid = batcher.quote("NSE", "bad");
+
+        assertEquals("3045", valid.get(5, TimeUnit.SECONDS).getString("symbolToken"));
+        try {
+            invalid.get(5, TimeUnit.SECONDS);
+            fail("expected SmartAPIException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SmartAPIException);
+            assertEquals("AB1018", ((SmartAPIException) e.getCause()).code);
+        }
+        batcher.close();
+    }
+
+    @Test
+    public void testFailedRequestFailsEveryCallerOfTheBatch() throws Exception {
+        CompletableFuture<JSONObject> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new SmartAPIException("Access denied because of exceeding access rate", "AB1019"));
+        when(smartConnectAsync.marketData(any(JSONObject.class))).thenReturn(failed);
+        MarketDataBatcher batcher = new MarketDataBatcher(smartConnectAsync, "LTP", 10, 50);
+
+        CompletableFuture<JSONObject> first = batcher.quote("NSE", "3045");
+        CompletableFuture<JSONObject> second = batcher.quote("BSE", "500112");
+
+        for (CompletableFuture<JSONObject> future : Arrays.asList(first, second)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("expected SmartAPIException");
+            } catch (ExecutionException e) {
+                assertEquals("AB1019", ((SmartAPIException) e.getCause()).code);
+            }
+        }
+        batcher.close();
+    }
+
+    private static JSONObject respond(JSONObject params) {
+        JSONArray fetched = new JSONArray();
+        JSONArray unfetched = new JSONArray();
+        JSONObject exchangeTokens = params.getJSONObject("exchangeTokens");
+        for (String exchange : exchangeTokens.keySet()) {
+            JSONArray tokens = exchangeTokens.getJSONArray(exchange);
+            for (int i = 0; i < tokens.length(); i++) {
+                JSONObject entry = new JSONObject();
+                entry.put("exchange", exchange);
+                entry.put("symbolToken", tokens.getString(i));
+                if ("bad".equals(tokens.getString(i))) {
+                    entry.put("message", "Invalid Token");
+                    entry.put("errorCode", "AB1018");
+                    unfetched.put(entry);
+                } else {
+                    entry.put("ltp", 100.5);
+                    fetched.put(entry);
+                }
+            }
+        }
+        JSONObject data = new JSONObject();
+        data.put("fetched", fetched);
+        data.put("unfetched", unfetched);
+        return data;
+    }
+}
@@ -0,0 +1,170 @@
+package com.angelbroking.smartapi;
+
+import com.angelbroking.smartapi.http.ApiHeaderContext;
+import com.angelbroking.smartapi.http.ClientIdentity;
+import com.angelbroking.smartapi.http.SmartAPIClientConfig;
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.http.exceptions.OrderException;
+import com.angelbroking.smartapi.http.exceptions.RiskException;
+import com.angelbroking.smartapi.http.exceptions.TokenException;
+import com.angelbroking.smartapi.models.Order;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.risk.PreTradeRiskEngine;
+import com.angelbroking.smartapi.risk.RiskLimits;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class SmartConnectAsyncTest {
+
+    @Mock
+    private SmartConnect smartConnect;
+
+    @Mock
+    private SmartAPIRequestHandler handler;
+
+    private MockWebServer server;
+    private SmartConnectAsync smartConnectAsync;
+
+    @Before
+    public void setup() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        SmartAPIRequestHandler serverHandler = SmartAPIRequestHandler.create(
+                SmartAPIClientConfig.builder().http2(false).build());
+        serverHandler.setApiHeaderContext(new ApiHeaderContext(
+                () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+        // the routes point at the live api, so calls are sent to the same path on the mock server
+        when(handler.postRequestAsync(anyString(), anyString(), any(JSONObject.class), anyString()))
+                .thenAnswer(invocation -> serverHandler.postRequestAsync(invocation.getArgument(0),
+                        onServer(invocation.getArgument(1)), invocation.getArgument(2), invocation.getArgument(3)));
+        when(handler.getRequestAsync(anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> serverHandler.getRequestAsync(invocation.getArgument(0),
+                        onServer(invocation.getArgument(1)), invocation.getArgument(2)));
+        when(smartConnect.getSmartAPIRequestHandler()).thenReturn(handler);
+        when(smartConnect.getApiKey()).thenReturn("api-key");
+        when(smartConnect.getAccessToken()).thenReturn("access-token");
+        smartConnectAsync = new SmartConnectAsync(smartConnect);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testPlaceOrderCompletesWithTheOrderAndInvalidatesOrderData() throws Exception {
+        server.enqueue(json("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\","
+                + "\"data\":{\"orderid\":\"231009000001039\"}}"));
+
+        Order order = smartConnectAsync.placeOrder(orderParams(), "NORMAL").get(5, TimeUnit.SECONDS);
+
+        assertEquals("231009000001039", order.orderId);
+        RecordedRequest recorded = server.takeRequest();
+        assertEquals(HttpUrl.get(new Routes().get("api.order.place")).encodedPath(), recorded.getPath());
+        assertEquals("Bearer access-token", recorded.getHeader("Authorization"));
+        assertEquals("SBIN-EQ", new JSONObject(recorded.getBody().readUtf8()).getString("tradingsymbol"));
+        verify(smartConnect).invalidateOrderData();
+    }
+
+    @Test
+    public void testOrderFailingTheRiskCheckIsNotSent() throws Exception {
+        when(smartConnect.getRiskEngine()).thenReturn(
+                new PreTradeRiskEngine(RiskLimits.builder().maxOrderQuantity(5).build()));
+
+        try {
+            smartConnectAsync.placeOrder(orderParams(), "NORMAL").get(5, TimeUnit.SECONDS);
+            fail("expected RiskException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RiskException);
+        }
+        assertEquals(0, server.getRequestCount());
+        verify(smartConnect, never()).invalidateOrderData();
+    }
+
+    @Test
+    public void testRejectedOrderCompletesWithOrderException() throws Exception {
+        server.enqueue(json("{\"status\":false,\"message\":\"Invalid Order\",\"errorcode\":\"AB1008\","
+                + "\"data\":null}"));
+
+        try {
+            smartConnectAsync.placeOrder(orderParams(), "NORMAL").get(5, TimeUnit.SECONDS);
+            fail("expected OrderException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof OrderException);
+            assertEquals("AB1008", ((OrderException) e.getCause()).code);
+            assertEquals("Invalid Order", ((OrderException) e.getCause()).message);
+        }
+        verify(smartConnect).invalidateOrderData();
+    }
+
+    @Test
+    public void testCallCompletesWithSmartAPIException() throws Exception {
+        server.enqueue(json("{\"message\":\"Invalid Token\",\"errorcode\":\"AG8001\",\"data\":null}"));
+
+        try {
+            smartConnectAsync.getPosition().get(5, TimeUnit.SECONDS);
+            fail("expected TokenException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TokenException);
+        }
+    }
+
+    @Test
+    public void testCallCompletesWithIOException() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+        try {
+            smartConnectAsync.cancelOrder("231009000001039", "NORMAL").get(5, TimeUnit.SECONDS);
+            fail("expected IOException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        verify(smartConnect).invalidateOrderData();
+    }
+
+    private String onServer(String url) {
+        return server.url(HttpUrl.get(url).encodedPath()).toString();
+    }
+
+    private static OrderParams orderParams() {
+        OrderParams orderParams = new OrderParams();
+        orderParams.exchange = "NSE";
+        orderParams.tradingsymbol = "SBIN-EQ";
+        orderParams.symboltoken = "3045";
+        orderParams.transactiontype = "BUY";
+        orderParams.quantity = 10;
+        orderParams.price = 612.35;
+        orderParams.producttype = "INTRADAY";
+        orderParams.ordertype = "LIMIT";
+        orderParams.duration = "DAY";
+        return orderParams;
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
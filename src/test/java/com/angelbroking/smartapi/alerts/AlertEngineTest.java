@@ -0,0 +1,120 @@
+package com.angelbroking.smartapi.alerts;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.models.Order;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.orders.OrderEntry;
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AlertEngineTest {
+
+    private final List<Long> fired = new ArrayList<>();
+    private final AlertListener listener = (alert, lastTradedPrice) -> fired.add(alert.getId());
+
+    @Test
+    public void testOnlyCrossedAlertsTrigger() {
+        AlertEngine engine = new AlertEngine();
+        PriceAlert above510 = engine.addAlert(ExchangeType.NSE_CM, "3045", AlertCondition.ABOVE, 510, listener);
+        PriceAlert above520 = engine.addAlert(ExchangeType.NSE_CM, "3045", AlertCondition.ABOVE, 520, listener);
+        PriceAlert below490 = engine.addAlert(ExchangeType.NSE_CM, "3045", AlertCondition.BELOW, 490, listener);
+        engine.addAlert(ExchangeType.NSE_CM, "2885", AlertCondition.ABOVE, 100, listener);
+        assertEquals(4, engine.size());
+
+        engine.onTick(ExchangeType.NSE_CM, "3045", 500_00);
+        assertTrue(fired.isEmpty());
+
+        engine.onTick(ExchangeType.NSE_CM, "3045", 515_00);
+        assertEquals(Arrays.asList(above510.getId()), fired);
+        assertFalse(above510.isActive());
+
+        engine.onTick(ExchangeType.NSE_CM, "3045", 480_00);
+        engine.onTick(ExchangeType.NSE_CM, "3045", 480_00);
+        assertEquals(Arrays.asList(above510.getId(), below490.getId()), fired);
+
+        engine.onTick(ExchangeType.NSE_FO, "3045", 600_00);
+        engine.onTick(ExchangeType.NSE_CM, "3045", 520_00);
+        assertEquals(Arrays.asList(above510.getId(), below490.getId(), above520.getId()), fired);
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    public void testCancelledAlertsDoNotTrigger() {
+        AlertEngine engine = new AlertEngine();
+        List<PriceAlert> alerts = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            alerts.add(engine.addAlert(ExchangeType.NSE_CM, "3045", AlertCondition.BELOW, 100 - i, listener));
+        }
+        for (int i = 0; i < 9; i++) {
+            assertTrue(engine.cancel(alerts.get(i)));
+        }
+        assertFalse(engine.cancel(alerts.get(0)));
+        assertEquals(1, engine.size());
+
+        engine.onTick(ExchangeType.NSE_CM, "3045", 1_00);
+        assertEquals(Arrays.asList(alerts.get(9).getId()), fired);
+        assertFalse(engine.cancel(alerts.get(9)));
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    public void testTriggeredAlertPlacesItsOrder() {
+        SmartConnect smartConnect = mock(SmartConnect.class);
+        OrderEntry orderEntry = mock(OrderEntry.class);
+        OrderParams stopLoss = new OrderParams();
+        Order placed = new Order();
+        placed.orderId = "201020000000080";
+        when(smartConnect.getOrderEntry()).thenReturn(orderEntry);
+        when(orderEntry.placeOrderAsync(stopLoss, "NORMAL")).thenReturn(CompletableFuture.completedFuture(placed));
+        List<Order> orders = new ArrayList<>();
+
+        AlertEngine engine = new AlertEngine(smartConnect);
+        engine.addOrderAlert(ExchangeType.NSE_CM, "3045", AlertCondition.BELOW, 490, stopLoss, "NORMAL",
+                new AlertListener() {
+                    @Override
+                    public void onAlert(PriceAlert alert, long lastTradedPrice) {
+                        fired.add(alert.getId());
+                    }
+
+                    @Override
+                    public void onOrderPlaced(PriceAlert alert, Order order) {
+                        orders.add(order);
+                    }
+                });
+        engine.onTick(ExchangeType.NSE_CM, "3045", 489_95);
+
+        assertEquals(1, fired.size());
+        assertEquals(Arrays.asList(placed), orders);
+    }
+
+    @Test
+    public void testTickWithoutTradedPriceTriggersNothing() {
+        SmartConnect smartConnect = mock(SmartConnect.class);
+        OrderEntry orderEntry = mock(OrderEntry.class);
+        when(smartConnect.getOrderEntry()).thenReturn(orderEntry);
+
+        AlertEngine engine = new AlertEngine(smartConnect);
+        PriceAlert stop = engine.addOrderAlert(ExchangeType.NSE_CM, "3045", AlertCondition.BELOW, 490,
+                new OrderParams(), "NORMAL", listener);
+        engine.onTick(ExchangeType.NSE_CM, "3045", 0);
+
+        assertTrue(fired.isEmpty());
+        assertTrue(stop.isActive());
+        verify(orderEntry, never()).placeOrderAsync(any(OrderParams.class), anyString());
+    }
+}
@@ -0,0 +1,160 @@
+package com.angelbroking.smartapi.cache;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.exceptions.NetworkException;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.risk.PreTradeRiskEngine;
+import com.angelbroking.smartapi.risk.RiskLimits;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResponseCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ResponseCache cache = new ResponseCache(now::get)
+            .setTtl("api.order.rms.data", 2, TimeUnit.SECONDS)
+            .setTtl("api.gtt.list", 5, TimeUnit.SECONDS);
+
+    @Test
+    public void testResponseIsServedUntilItExpires() throws Exception, SmartAPIException {
+        assertEquals("1", cache.get("api.order.rms.data", "", this::load));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1999));
+        assertEquals("1", cache.get("api.order.rms.data", "", this::load));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals("2", cache.get("api.order.rms.data", "", this::load));
+    }
+
+    @Test
+    public void testRoutesWithoutTtlAreNotCached() throws Exception, SmartAPIException {
+        assertFalse(cache.isCached("api.ltp.data"));
+        assertEquals("1", cache.get("api.ltp.data", "", this::load));
+        assertEquals("2", cache.get("api.ltp.data", "", this::load));
+    }
+
+    @Test
+    public void testKeysOfARouteAreCachedApart() throws Exception, SmartAPIException {
+        assertEquals("1", cache.get("api.gtt.list", "[NEW]|1|10", this::load));
+        assertEquals("2", cache.get("api.gtt.list", "[NEW]|2|10", this::load));
+        assertEquals("1", cache.get("api.gtt.list", "[NEW]|1|10", this::load));
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws Exception, SmartAPIException {
+        try {
+            cache.get("api.order.rms.data", "", () -> {
+                throw new NetworkException("unreachable", "AB1004");
+            });
+            fail("expected NetworkException");
+        } catch (NetworkException e) {
+            assertEquals("AB1004", e.code);
+        }
+
+        assertEquals("1", cache.get("api.order.rms.data", "", this::load));
+    }
+
+    @Test
+    public void testOrderEventsInvalidateOrderData() throws Exception, SmartAPIException {
+        cache.get("api.order.rms.data", "", this::load);
+        cache.get("api.gtt.list", "", this::load);
+
+        cache.invalidateOrderData();
+
+        assertEquals("3", cache.get("api.order.rms.data", "", this::load));
+        assertEquals("2", cache.get("api.gtt.list", "", this::load));
+
+        cache.invalidateGttRules();
+        assertEquals("4", cache.get("api.gtt.list", "", this::load));
+    }
+
+    @Test
+    public void testOrderRejectedBeforeSendingKeepsOrderData() throws Exception, SmartAPIException {
+        SmartConnect smartConnect = new SmartConnect("key");
+        smartConnect.setResponseCache(cache);
+        smartConnect.setRiskEngine(new PreTradeRiskEngine(RiskLimits.builder().maxOrderQuantity(1).build()));
+        cache.get("api.order.rms.data", "", this::load);
+
+        OrderParams orderParams = new OrderParams();
+        orderParams.exchange = "NSE";
+        orderParams.symboltoken = "3045";
+        orderParams.transactiontype = "BUY";
+        orderParams.quantity = 10;
+        orderParams.price = 500.0;
+        assertNull(smartConnect.placeOrder(orderParams, "NORMAL"));
+
+        assertEquals("1", cache.get("api.order.rms.data", "", this::load));
+    }
+
+    @Test
+    public void testJsonResponsesAreCopiedForEveryCaller() throws Exception, SmartAPIException {
+        JSONObject loaded = new JSONObject().put("net", "1000.00");
+        JSONObject first = cache.get("api.order.rms.data", "", () -> loaded);
+        first.put("net", "0.00");
+
+        JSONObject second = cache.get("api.order.rms.data", "", () -> loaded);
+        assertEquals("1000.00", second.getString("net"));
+        second.put("net", "0.00");
+        assertEquals("1000.00", cache.<JSONObject>get("api.order.rms.data", "", () -> loaded).getString("net"));
+    }
+
+    @Test
+    public void testConcurrentMissesSendOneRequest() throws Exception {
+        int threads = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return cache.get("api.order.rms.data", "", () -> {
+                            started.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                throw new InterruptedIOException();
+                            }
+                            return load();
+                        });
+                    } catch (SmartAPIException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String load() {
+        return String.valueOf(loads.incrementAndGet());
+    }
+}
@@ -0,0 +1,143 @@
+package com.angelbroking.smartapi.gtt;
+
+import com.angelbroking.smartapi.SmartConnectAsync;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class GttRuleStoreTest {
+
+    @Mock
+    private SmartConnectAsync smartConnectAsync;
+
+    private final List<Integer> requestedPages = new ArrayList<>();
+    private final List<CompletableFuture<JSONArray>> pages = new ArrayList<>();
+    private JSONObject details;
+
+    @Before
+    public void setup() {
+        when(smartConnectAsync.gttRuleList(anyList(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            requestedPages.add(invocation.getArgument(1));
+            CompletableFuture<JSONArray> page = new CompletableFuture<>();
+            pages.add(page);
+            return page;
+        });
+        when(smartConnectAsync.gttRuleDetails(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(details));
+    }
+
+    @Test
+    public void testPagesAreFetchedConcurrentlyUntilAShortPage() {
+        GttRuleStore store = new GttRuleStore(smartConnectAsync, GttRuleStore.DEFAULT_STATUSES, 2, 2);
+
+        CompletableFuture<Void> refreshed = store.refresh();
+        assertEquals(Arrays.asList(1, 2), requestedPages);
+        pages.get(1).complete(page(rule(3, "3045", 510), rule(4, "2885", 2400)));
+        pages.get(0).complete(page(rule(1, "3045", 490), rule(2, "3045", 550)));
+        assertEquals(Arrays.asList(1, 2, 3, 4), requestedPages);
+        assertFalse(refreshed.isDone());
+        pages.get(2).complete(page(rule(5, "1594", 1500)));
+        pages.get(3).complete(new JSONArray());
+
+        assertTrue(refreshed.isDone());
+        assertEquals(5, store.size());
+        assertEquals("2885", store.getRule(4).getSymbolToken());
+        List<GttRule> sbin = store.getRules("NSE", "3045");
+        assertEquals(Arrays.asList(1, 3, 2), ids(sbin));
+    }
+
+    @Test
+    public void testRulesNearTheLastTradedPrice() {
+        GttRuleStore store = loaded(rule(1, "3045", 490), rule(2, "3045", 550), rule(3, "3045", 510),
+                rule(4, "3045", 500));
+
+        assertEquals(Arrays.asList(1, 4, 3), ids(store.getRulesNear("NSE", "3045", 500, 0.02)));
+        assertEquals(Arrays.asList(2), ids(store.getRulesNear("NSE", "3045", 560, 0.02)));
+        assertTrue(store.getRulesNear("NSE", "3045", 700, 0.02).isEmpty());
+        assertTrue(store.getRulesNear("NSE", "2885", 500, 0.02).isEmpty());
+    }
+
+    @Test
+    public void testRulesAreUpdatedOneByOne() {
+        GttRuleStore store = loaded(rule(1, "3045", 490), rule(2, "3045", 550));
+
+        details = rule(2, "3045", 480).put("status", "NEW");
+        assertEquals(480, store.refreshRule(2).join().getTriggerPrice(), 0.001);
+        assertEquals(Arrays.asList(2, 1), ids(store.getRules("NSE", "3045")));
+
+        details = rule(7, "2885", 2400).put("status", "NEW");
+        store.refreshRule(7).join();
+        assertEquals(3, store.size());
+
+        details = rule(1, "3045", 490).put("status", "CANCELLED");
+        assertNull(store.refreshRule(1).join());
+        assertNull(store.getRule(1));
+        assertEquals(Arrays.asList(2), ids(store.getRules("NSE", "3045")));
+    }
+
+    @Test
+    public void testRuleUpdatedDuringRefreshIsKept() {
+        GttRuleStore store = new GttRuleStore(smartConnectAsync, GttRuleStore.DEFAULT_STATUSES, 10, 1);
+        CompletableFuture<Void> refreshed = store.refresh();
+
+        details = rule(1, "3045", 480).put("status", "NEW");
+        store.refreshRule(1).join();
+        pages.get(0).complete(page(rule(1, "3045", 490), rule(2, "3045", 550)));
+
+        refreshed.join();
+        assertEquals(480, store.getRule(1).getTriggerPrice(), 0.001);
+        assertEquals(2, store.size());
+    }
+
+    private GttRuleStore loaded(JSONObject... rules) {
+        GttRuleStore store = new GttRuleStore(smartConnectAsync, GttRuleStore.DEFAULT_STATUSES, 50, 1);
+        CompletableFuture<Void> refreshed = store.refresh();
+        pages.get(0).complete(page(rules));
+        refreshed.join();
+        return store;
+    }
+
+    private static JSONArray page(JSONObject... rules) {
+        return new JSONArray(Arrays.asList(rules));
+    }
+
+    private static JSONObject rule(int id, String symbolToken, double triggerPrice) {
+        return new JSONObject()
+                .put("id", id)
+                .put("status", "NEW")
+                .put("exchange", "NSE")
+                .put("symboltoken", symbolToken)
+                .put("transactiontype", "BUY")
+                .put("producttype", "DELIVERY")
+                .put("price", triggerPrice)
+                .put("qty", 10)
+                .put("triggerprice", triggerPrice);
+    }
+
+    private static List<Integer> ids(List<GttRule> rules) {
+        List<Integer> ids = new ArrayList<>();
+        for (GttRule rule : rules) {
+            ids.add(rule.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,170 @@
+package com.angelbroking.smartapi.historical;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CandleCacheTest {
+
+    private static final DateTimeFormatter PARAM_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private SmartConnect smartConnect;
+
+    @Mock
+    private SmartAPIRequestHandler handler;
+
+    private final List<JSONObject> requests = new CopyOnWriteArrayList<>();
+
+    private CandleCache cache;
+
+    @Before
+    public void setup() {
+        when(smartConnect.getSmartAPIRequestHandler()).thenReturn(handler);
+        when(smartConnect.getApiKey()).thenReturn("api-key");
+        when(smartConnect.getAccessToken()).thenReturn("access-token");
+        when(handler.postRequestAsync(anyString(), anyString(), any(JSONObject.class), anyString(), any(Type.class)))
+                .thenAnswer(invocation -> {
+                    JSONObject params = invocation.getArgument(2);
+                    requests.add(params);
+                    return CompletableFuture.completedFuture(daily(
+                            LocalDateTime.parse(params.getString("fromdate"), PARAM_FORMAT).toLocalDate(),
+                            LocalDateTime.parse(params.getString("todate"), PARAM_FORMAT).toLocalDate()));
+                });
+        cache = new CandleCache(folder.getRoot().toPath(),
+                Clock.fixed(LocalDate.of(2023, 6, 30).atTime(12, 0).atZone(CandleCache.EXCHANGE_ZONE).toInstant(),
+                        CandleCache.EXCHANGE_ZONE));
+    }
+
+    @Test
+    public void testDayFileRoundTrip() throws Exception {
+        LocalDate day = LocalDate.of(2023, 6, 1);
+        CandleSeries series = daily(day, day.plusDays(2));
+
+        cache.put("NSE", "3045", CandleInterval.ONE_DAY, day, series);
+        CandleSeries read = cache.get("NSE", "3045", CandleInterval.ONE_DAY, day);
+
+        assertArrayEquals(series.getTimestamps(), read.getTimestamps());
+        assertArrayEquals(series.getCloses(), read.getCloses(), 0);
+        assertArrayEquals(series.getVolumes(), read.getVolumes());
+        assertNull(cache.get("NSE", "3045", CandleInterval.ONE_MINUTE, day));
+    }
+
+    @Test
+    public void testCurrentDayIsNotStoredAndCorruptFilesAreDiscarded() throws Exception {
+        LocalDate today = LocalDate.of(2023, 6, 30);
+        cache.put("NSE", "3045", CandleInterval.ONE_DAY, today, daily(today, today));
+        assertNull(cache.get("NSE", "3045", CandleInterval.ONE_DAY, today));
+
+        LocalDate day = LocalDate.of(2023, 6, 1);
+        Path file = cache.path("NSE", "3045", CandleInterval.ONE_DAY, day);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        assertNull(cache.get("NSE", "3045", CandleInterval.ONE_DAY, day));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testNamesEscapingTheDirectoryAreRejected() throws Exception {
+        LocalDate day = LocalDate.of(2023, 6, 1);
+        for (String name : new String[]{"..", "../NSE", "NSE/3045", "NSE\\3045", ""}) {
+            try {
+                cache.put(name, "3045", CandleInterval.ONE_DAY, day, daily(day, day));
+                fail("accepted exchange " + name);
+            } catch (IllegalArgumentException expected) {
+                // rejected before any file is touched
+            }
+            try {
+                cache.get("NSE", name, CandleInterval.ONE_DAY, day);
+                fail("accepted symbol token " + name);
+            } catch (IllegalArgumentException expected) {
+                // rejected before any file is touched
+            }
+        }
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testOnlyMissingDaysAreRequested() throws Exception {
+        CandleRangeFetcher fetcher = new CandleRangeFetcher(smartConnect, 2, cache);
+
+        CandleSeries first = fetcher.fetch("NSE", "3045", CandleInterval.ONE_DAY,
+                LocalDateTime.of(2023, 6, 1, 0, 0), LocalDateTime.of(2023, 6, 3, 23, 59)).get(5, TimeUnit.SECONDS);
+        assertEquals(1, requests.size());
+        assertEquals(3, first.size());
+
+        requests.clear();
+        CandleSeries second = fetcher.fetch("NSE", "3045", CandleInterval.ONE_DAY,
+                LocalDateTime.of(2023, 6, 2, 0, 0), LocalDateTime.of(2023, 6, 5, 23, 59)).get(5, TimeUnit.SECONDS);
+        assertEquals(1, requests.size());
+        assertEquals("2023-06-04 00:00", requests.get(0).getString("fromdate"));
+        assertEquals("2023-06-05 23:59", requests.get(0).getString("todate"));
+        assertEquals(4, second.size());
+        for (int i = 1; i < second.size(); i++) {
+            assertTrue(second.getTimestamp(i) > second.getTimestamp(i - 1));
+        }
+
+        requests.clear();
+        CandleSeries cached = fetcher.fetch("NSE", "3045", CandleInterval.ONE_DAY,
+                LocalDateTime.of(2023, 6, 1, 12, 0), LocalDateTime.of(2023, 6, 5, 0, 0)).get(5, TimeUnit.SECONDS);
+        assertTrue(requests.isEmpty());
+        assertEquals(3, cached.size());
+    }
+
+    @Test
+    public void testCurrentDayIsAlwaysRequested() throws Exception {
+        CandleRangeFetcher fetcher = new CandleRangeFetcher(smartConnect, 2, cache);
+        LocalDateTime from = LocalDateTime.of(2023, 6, 29, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 6, 30, 23, 59);
+
+        fetcher.fetch("NSE", "3045", CandleInterval.ONE_DAY, from, to).get(5, TimeUnit.SECONDS);
+        requests.clear();
+        CandleSeries series = fetcher.fetch("NSE", "3045", CandleInterval.ONE_DAY, from, to).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, requests.size());
+        assertEquals("2023-06-30 00:00", requests.get(0).getString("fromdate"));
+        assertEquals(2, series.size());
+    }
+
+    private static CandleSeries daily(LocalDate from, LocalDate to) {
+        CandleSeries.Builder builder = new CandleSeries.Builder(8);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            long timestamp = day.atTime(9, 15).atZone(CandleCache.EXCHANGE_ZONE).toInstant().toEpochMilli();
+            builder.add(timestamp, 1, 2, 0.5, 1.5 + day.getDayOfMonth(), day.getDayOfMonth() * 10L);
+        }
+        return builder.build();
+    }
+}
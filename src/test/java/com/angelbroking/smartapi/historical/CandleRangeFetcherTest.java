@@ -0,0 +1,172 @@
+package com.angelbroking.smartapi.historical;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.http.SmartAPIResponseHandler;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CandleRangeFetcherTest {
+
+    @Mock
+    private SmartConnect smartConnect;
+
+    @Mock
+    private SmartAPIRequestHandler handler;
+
+    private final List<JSONObject> requests = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        when(smartConnect.getSmartAPIRequestHandler()).thenReturn(handler);
+        when(smartConnect.getApiKey()).thenReturn("api-key");
+        when(smartConnect.getAccessToken()).thenReturn("access-token");
+    }
+
+    @Test
+    public void testRangeIsSplitByIntervalLimit() {
+        List<LocalDateTime[]> chunks = CandleRangeFetcher.split(CandleInterval.ONE_MINUTE,
+                LocalDateTime.of(2023, 1, 1, 9, 15), LocalDateTime.of(2023, 3, 15, 15, 30));
+
+        assertEquals(3, chunks.size());
+        assertEquals(LocalDateTime.of(2023, 1, 31, 9, 15), chunks.get(0)[1]);
+        assertEquals(LocalDateTime.of(2023, 1, 31, 9, 16), chunks.get(1)[0]);
+        assertEquals(LocalDateTime.of(2023, 3, 15, 15, 30), chunks.get(2)[1]);
+        assertEquals(1, CandleRangeFetcher.split(CandleInterval.ONE_DAY, LocalDateTime.of(2020, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 1, 1, 0, 0)).size());
+    }
+
+    @Test
+    public void testChunksAreFetchedWithBoundedConcurrencyAndJoinedInOrder() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(handler.postRequestAsync(anyString(), anyString(), any(JSONObject.class), anyString(), any(Type.class)))
+                .thenAnswer(invocation -> {
+                    JSONObject params = invocation.getArgument(2);
+                    requests.add(params);
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        sleep(20);
+                        inFlight.decrementAndGet();
+                        return decode(candles(params.getString("fromdate"), params.getString("todate")));
+                    });
+                });
+
+        CandleSeries series = new CandleRangeFetcher(smartConnect, 2).fetch("NSE", "3045", CandleInterval.ONE_DAY,
+                LocalDateTime.of(2010, 1, 1, 0, 0), LocalDateTime.of(2023, 6, 30, 0, 0)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(3, requests.size());
+        assertTrue(maxInFlight.get() <= 2);
+        assertEquals("ONE_DAY", requests.get(0).getString("interval"));
+        assertEquals(6, series.size());
+        for (int i = 1; i < series.size(); i++) {
+            assertTrue(series.getTimestamp(i) > series.getTimestamp(i - 1));
+        }
+    }
+
+    @Test
+    public void testFailedChunkFailsTheRange() throws Exception {
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new SmartAPIException("Access denied because of exceeding access rate", "AB1019"));
+        when(handler.postRequestAsync(anyString(), anyString(), any(JSONObject.class), anyString(), any(Type.class)))
+                .thenReturn(failed);
+
+        try {
+            new CandleRangeFetcher(smartConnect).fetch("NSE", "3045", CandleInterval.ONE_MINUTE,
+                    LocalDateTime.of(2023, 1, 1, 9, 15), LocalDateTime.of(2023, 6, 1, 15, 30)).get(5, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertEquals("AB1019", ((SmartAPIException) e.getCause()).code);
+        }
+    }
+
+    @Test
+    public void testSeriesIsDecodedIntoPrimitiveColumns() throws Exception {
+        CandleSeries series = decode("[[\"2023-09-06T11:15:00+05:30\",19571.2,19573.35,19534.4,19552.05,0],"
+                + "[\"2023-09-06T11:16:00+05:30\",19552.05,19560,19550.1,19558.9,1500]]");
+
+        assertEquals(2, series.size());
+        assertArrayEquals(new long[]{
+                OffsetDateTime.parse("2023-09-06T11:15:00+05:30").toInstant().toEpochMilli(),
+                OffsetDateTime.parse("2023-09-06T11:16:00+05:30").toInstant().toEpochMilli()}, series.getTimestamps());
+        assertArrayEquals(new double[]{19573.35, 19560}, series.getHighs(), 0);
+        assertArrayEquals(new long[]{0, 1500}, series.getVolumes());
+    }
+
+    @Test
+    public void testTimestampParsingMatchesJavaTime() {
+        for (String text : Arrays.asList("1999-12-31T23:59:59+05:30", "2024-02-29T09:15:00+05:30",
+                "2023-03-01T00:00:00-04:00", "1970-01-01T00:00:00+00:00", "2023-09-06T11:15:00.123+05:30")) {
+            assertEquals(text, OffsetDateTime.parse(text).toInstant().toEpochMilli(), CandleSeries.parseTimestamp(text));
+        }
+    }
+
+    @Test
+    public void testConcatDropsOverlappingCandles() throws Exception {
+        CandleSeries first = decode(candles("2023-01-01 00:00", "2023-01-02 00:00"));
+        CandleSeries second = decode(candles("2023-01-02 00:00", "2023-01-03 00:00"));
+
+        CandleSeries joined = CandleSeries.concat(Arrays.asList(first, second, CandleSeries.empty()));
+
+        assertEquals(3, joined.size());
+    }
+
+    private static String candles(String from, String to) {
+        return "[[\"" + from.replace(' ', 'T') + ":00+05:30\",1,2,0.5,1.5,10],[\"" + to.replace(' ', 'T')
+                + ":00+05:30\",1.5,2.5,1,2,20]]";
+    }
+
+    private static CandleSeries decode(String data) {
+        try {
+            Response response = new Response.Builder()
+                    .request(new Request.Builder().url("https://apiconnect.angelbroking.com/test").build())
+                    .protocol(Protocol.HTTP_1_1).code(200).message("OK")
+                    .header("Content-Type", "application/json")
+                    .body(ResponseBody.create("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\",\"data\":"
+                            + data + "}", MediaType.get("application/json")))
+                    .build();
+            return new SmartAPIResponseHandler().handle(response, CandleSeries.class);
+        } catch (Exception | SmartAPIException e) {
+            throw new IllegalStateException(e.toString());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
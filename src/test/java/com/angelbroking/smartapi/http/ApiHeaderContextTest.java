@@ -0,0 +1,90 @@
+package com.angelbroking.smartapi.http;
+
+import okhttp3.Request;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ApiHeaderContextTest {
+
+    @Test
+    public void testIdentityIsResolvedOnceForAllHandlers() throws Exception {
+        AtomicInteger resolutions = new AtomicInteger();
+        ApiHeaderContext context = new ApiHeaderContext(() -> {
+            resolutions.incrementAndGet();
+            return new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF");
+        });
+
+        for (int i = 0; i < 3; i++) {
+            SmartAPIRequestHandler handler = new SmartAPIRequestHandler(null);
+            handler.setApiHeaderContext(context);
+            handler.createPostRequest("key", "https://apiconnect.angelbroking.com/test", new JSONObject(), "token");
+        }
+
+        assertEquals(1, resolutions.get());
+        assertSame(context.snapshot(), context.snapshot());
+    }
+
+    @Test
+    public void testRequestsCarryPrebuiltHeaders() throws Exception {
+        SmartAPIRequestHandler handler = new SmartAPIRequestHandler(null);
+        handler.setApiHeaderContext(new ApiHeaderContext(
+                () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+
+        Request post = handler.createPostRequest("key", "https://apiconnect.angelbroking.com/test", new JSONObject(),
+                "token");
+        assertEquals("10.0.0.2", post.header("X-ClientLocalIP"));
+        assertEquals("203.0.113.7", post.header("X-ClientPublicIP"));
+        assertEquals("AA-BB-CC-DD-EE-FF", post.header("X-MACAddress"));
+        assertEquals("Bearer token", post.header("Authorization"));
+        assertEquals("key", post.header("X-PrivateKey"));
+        assertEquals("WEB", post.header("X-SourceID"));
+
+        Request get = handler.createGetRequest("key", "https://apiconnect.angelbroking.com/test", "token");
+        assertEquals("javasmartapiconnect/3.0.0", get.header("User-Agent"));
+        assertEquals("USER", get.header("X-UserType"));
+        assertEquals("Bearer token", get.header("Authorization"));
+        assertEquals(1, get.headers("Authorization").size());
+    }
+
+    @Test
+    public void testFailedResolutionIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        ApiHeaderContext context = new ApiHeaderContext(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("network unreachable");
+            }
+            return new ClientIdentity("10.0.0.2", "203.0.113.7", null);
+        });
+
+        try {
+            context.snapshot();
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("network unreachable", e.getMessage());
+        }
+        assertNull(context.snapshot().postHeaders().get("X-MACAddress"));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void testRefreshAndSourceReplacement() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ApiHeaderContext context = new ApiHeaderContext(
+                () -> new ClientIdentity("10.0.0." + counter.incrementAndGet(), "203.0.113.7", null));
+
+        assertEquals("10.0.0.1", context.snapshot().getIdentity().getClientLocalIP());
+        context.refresh();
+        assertEquals("10.0.0.2", context.snapshot().getIdentity().getClientLocalIP());
+
+        context.setSource(() -> new ClientIdentity("192.168.1.5", "198.51.100.1", null));
+        assertEquals("192.168.1.5", context.snapshot().toJSONObject().getString("clientLocalIP"));
+    }
+}
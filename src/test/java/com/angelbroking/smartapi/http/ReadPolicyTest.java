@@ -0,0 +1,144 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.http.exceptions.DataException;
+import com.angelbroking.smartapi.http.exceptions.RateLimitException;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.http.exceptions.TokenException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadPolicyTest {
+
+    private static final String POSITION = "/rest/secure/angelbroking/order/v1/getPosition";
+    private static final String PLACE_ORDER = "/rest/secure/angelbroking/order/v1/placeOrder";
+    private static final String SUCCESS = "{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\",\"data\":[]}";
+
+    private MockWebServer server;
+    private SmartAPIRequestHandler handler;
+
+    @Before
+    public void setup() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        handler = SmartAPIRequestHandler.create(SmartAPIClientConfig.builder().http2(false).build());
+        handler.setApiHeaderContext(new ApiHeaderContext(
+                () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testTransientFailureOfReadIsRetried() throws Exception, SmartAPIException {
+        handler.setRetryPolicy(new RetryPolicy(3, 1, 5, 2));
+        server.enqueue(new MockResponse().setResponseCode(502).setHeader("Content-Type", "text/html")
+                .setBody("<html>Bad Gateway</html>"));
+        server.enqueue(json(SUCCESS));
+
+        JSONObject response = handler.getRequest("key", server.url(POSITION).toString(), "token");
+
+        assertTrue(response.getBoolean("status"));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testRetriesAreBounded() throws Exception {
+        handler.setRetryPolicy(new RetryPolicy(2, 1, 5, 2));
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(502).setHeader("Content-Type", "text/html"));
+        }
+
+        try {
+            handler.getRequest("key", server.url(POSITION).toString(), "token");
+            fail("expected DataException");
+        } catch (DataException e) {
+            assertEquals(2, server.getRequestCount());
+        } catch (SmartAPIException e) {
+            fail("expected DataException but was " + e);
+        }
+    }
+
+    @Test
+    public void testTokenFailureAndOrderRoutesAreNotRetried() throws Exception {
+        handler.setRetryPolicy(new RetryPolicy(3, 1, 5, 2));
+        server.enqueue(json("{\"message\":\"Invalid Token\",\"errorcode\":\"AG8001\",\"data\":null}"));
+        try {
+            handler.getRequest("key", server.url(POSITION).toString(), "token");
+            fail("expected TokenException");
+        } catch (TokenException e) {
+            assertEquals(1, server.getRequestCount());
+        } catch (SmartAPIException e) {
+            fail("expected TokenException but was " + e);
+        }
+
+        server.enqueue(new MockResponse().setResponseCode(502).setHeader("Content-Type", "text/html"));
+        try {
+            handler.postRequest("key", server.url(PLACE_ORDER).toString(), new JSONObject(), "token");
+            fail("expected DataException");
+        } catch (SmartAPIException e) {
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testSlowReadIsHedged() throws Exception {
+        HedgePolicy hedgePolicy = new HedgePolicy(0.9, 50, 10, 100, 1);
+        handler.setHedgePolicy(hedgePolicy);
+        server.enqueue(json(SUCCESS).setHeadersDelay(3, TimeUnit.SECONDS));
+        server.enqueue(json(SUCCESS));
+
+        long started = System.nanoTime();
+        JSONObject response = handler.getRequestAsync("key", server.url(POSITION).toString(), "token")
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(response.getBoolean("status"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 2000);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, hedgePolicy.getHedgesSent());
+    }
+
+    @Test
+    public void testHedgeDelayFollowsObservedLatency() {
+        HedgePolicy hedgePolicy = new HedgePolicy(0.5, 500, 10, 1000, 4);
+        assertEquals(500, hedgePolicy.delayMillis("api.ltp.data"));
+
+        for (long latency : new long[]{5, 30, 40, 50}) {
+            hedgePolicy.recordLatency("api.ltp.data", latency);
+        }
+
+        assertEquals(30, hedgePolicy.delayMillis("api.ltp.data"));
+        assertEquals(500, hedgePolicy.delayMillis("api.order.rms.data"));
+    }
+
+    @Test
+    public void testRetryClassification() {
+        RetryPolicy retryPolicy = RetryPolicy.defaults();
+
+        assertTrue(retryPolicy.isRetryable(new SocketTimeoutException()));
+        assertTrue(retryPolicy.isRetryable(new ConnectException()));
+        assertFalse(retryPolicy.isRetryable(new InterruptedIOException()));
+        assertFalse(retryPolicy.isRetryable(new TokenException("Invalid Token", "AG8001")));
+        assertFalse(retryPolicy.isRetryable(new RateLimitException("rate limited", "429")));
+        assertTrue(retryPolicy.backoffMillis(3) <= 200);
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
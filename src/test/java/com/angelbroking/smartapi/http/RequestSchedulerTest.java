@@ -0,0 +1,184 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.Routes;
+import com.angelbroking.smartapi.http.exceptions.RateLimitException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestSchedulerTest {
+
+    @Test
+    public void testBurstIsServedImmediately() throws Exception, RateLimitException {
+        RequestScheduler scheduler = new RequestScheduler().setLimit("api.market.data", new RateLimit(1, 3, 0));
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.acquire("api.market.data");
+        }
+
+        RateLimitStats stats = scheduler.getStats("api.market.data");
+        assertEquals(3, stats.getAcquired());
+        assertEquals(0, stats.getDelayed());
+    }
+
+    @Test
+    public void testRejectsWhenBucketIsEmptyAndWaitIsNotAllowed() throws Exception, RateLimitException {
+        RequestScheduler scheduler = new RequestScheduler().setLimit("api.candle.data", new RateLimit(1, 1, 0));
+        scheduler.acquire("api.candle.data");
+        try {
+            scheduler.acquire("api.candle.data");
+            fail("expected RateLimitException");
+        } catch (RateLimitException e) {
+            assertEquals("429", e.code);
+        }
+        assertEquals(1, scheduler.getStats("api.candle.data").getRejected());
+    }
+
+    @Test
+    public void testQueuesUntilPermitIsRefilled() throws Exception, RateLimitException {
+        RequestScheduler scheduler = new RequestScheduler().setLimit("api.ltp.data", new RateLimit(20, 1, 1000));
+        scheduler.acquire("api.ltp.data");
+
+        long start = System.nanoTime();
+        scheduler.acquire("api.ltp.data");
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("waited " + waitedMillis + "ms", waitedMillis >= 30);
+        assertEquals(1, scheduler.getStats("api.ltp.data").getDelayed());
+    }
+
+    @Test
+    public void testOrderTrafficIsServedBeforeQueuedDataTraffic() throws Exception, RateLimitException {
+        RequestScheduler scheduler = new RequestScheduler().setGlobalLimit(new RateLimit(4, 1, 5000));
+        scheduler.acquire("api.market.data");
+
+        List<String> served = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        Thread data = new Thread(() -> acquireAndRecord(scheduler, "api.market.data", served, done));
+        Thread order = new Thread(() -> acquireAndRecord(scheduler, "api.order.place", served, done));
+        data.start();
+        Thread.sleep(50);
+        order.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("api.order.place", served.get(0));
+        assertEquals("api.market.data", served.get(1));
+    }
+
+    @Test
+    public void testReservationsDoNotBlock() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler().setLimit("api.ltp.data", new RateLimit(10, 1, 1000));
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> first = scheduler.reserve("api.ltp.data");
+        CompletableFuture<Void> second = scheduler.reserve("api.ltp.data");
+        CompletableFuture<Void> third = scheduler.reserve("api.ltp.data");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        assertFalse(third.isDone());
+
+        // the cancelled reservation hands its place in the queue to the next one
+        assertTrue(second.cancel(false));
+        third.get(3, TimeUnit.SECONDS);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("waited " + waitedMillis + "ms", waitedMillis < 180);
+        assertEquals(2, scheduler.getStats("api.ltp.data").getAcquired());
+    }
+
+    @Test
+    public void testOrderTrafficIsServedBeforeReservedDataTraffic() throws Exception, RateLimitException {
+        RequestScheduler scheduler = new RequestScheduler().setGlobalLimit(new RateLimit(4, 1, 5000));
+        scheduler.acquire("api.market.data");
+
+        List<String> served = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 2; i++) {
+            scheduler.reserve("api.market.data").whenComplete((granted, error) -> {
+                served.add(error == null ? "api.market.data" : "failed api.market.data");
+                done.countDown();
+            });
+        }
+        Thread.sleep(50);
+        Thread order = new Thread(() -> acquireAndRecord(scheduler, "api.order.place", served, done));
+        order.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("api.order.place", "api.market.data", "api.market.data"), served);
+    }
+
+    @Test
+    public void testCancelledAsyncRequestIsNotSentAndReturnsItsPermit() throws Exception {
+        MockWebServer server = new MockWebServer();
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                    .setBody("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\",\"data\":[]}"));
+        }
+        server.start();
+        try {
+            SmartAPIRequestHandler handler = SmartAPIRequestHandler.create(
+                    SmartAPIClientConfig.builder().http2(false).build());
+            handler.setApiHeaderContext(new ApiHeaderContext(
+                    () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+            handler.setRequestScheduler(new RequestScheduler().setGlobalLimit(new RateLimit(1, 1, 5000)));
+            String url = server.url("/rest/secure/angelbroking/order/v1/getPosition").toString();
+
+            assertTrue(handler.getRequestAsync("key", url, "token").get(3, TimeUnit.SECONDS).getBoolean("status"));
+            CompletableFuture<JSONObject> cancelled = handler.getRequestAsync("key", url, "token");
+            assertTrue(cancelled.cancel(false));
+            long start = System.nanoTime();
+            assertTrue(handler.getRequestAsync("key", url, "token").get(3, TimeUnit.SECONDS).getBoolean("status"));
+
+            // the permit of the cancelled request was handed to the next one
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+            assertEquals(2, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnlimitedRoutesAreNotThrottled() throws Exception, RateLimitException {
+        RequestScheduler scheduler = RequestScheduler.withDefaultLimits();
+        for (int i = 0; i < 100; i++) {
+            scheduler.acquire(null);
+        }
+        assertNull(scheduler.getStats("api.user.logout"));
+    }
+
+    @Test
+    public void testRouteKeyResolution() {
+        Routes routes = new Routes();
+        assertEquals("api.order.place", routes.keyOf(routes.get("api.order.place")));
+        assertEquals("api.individual.order", routes.keyOf(routes.get("api.individual.order") + "231009000001039"));
+        assertNull(routes.keyOf("https://example.com/rest/secure/angelbroking/order/v1/placeOrder"));
+        assertEquals(RequestPriority.ORDER, RequestScheduler.priorityOf("api.order.cancel"));
+        assertEquals(RequestPriority.DATA, RequestScheduler.priorityOf("api.candle.data"));
+    }
+
+    private static void acquireAndRecord(RequestScheduler scheduler, String routeKey, List<String> served,
+                                         CountDownLatch done) {
+        try {
+            scheduler.acquire(routeKey);
+            served.add(routeKey);
+        } catch (Exception | RateLimitException e) {
+            served.add("failed " + routeKey);
+        } finally {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.SmartConnect;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SmartAPIClientFactoryTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testEqualConfigsShareOneClient() {
+        SmartAPIClientConfig config = SmartAPIClientConfig.builder().maxRequestsPerHost(20).build();
+
+        assertSame(SmartAPIClientFactory.client(config),
+                SmartAPIClientFactory.client(SmartAPIClientConfig.builder().maxRequestsPerHost(20).build()));
+        assertSame(SmartAPIRequestHandler.create(config).getClientConfig(), config);
+        assertNotSame(SmartAPIClientFactory.client(config),
+                SmartAPIClientFactory.client(config.toBuilder().http2(false).build()));
+    }
+
+    @Test
+    public void testConfigIsAppliedToClient() {
+        OkHttpClient client = SmartAPIClientFactory.build(SmartAPIClientConfig.builder()
+                .connectTimeout(2, TimeUnit.SECONDS)
+                .readTimeout(3, TimeUnit.SECONDS)
+                .writeTimeout(4, TimeUnit.SECONDS)
+                .callTimeout(5, TimeUnit.SECONDS)
+                .http2(false)
+                .maxRequests(32)
+                .maxRequestsPerHost(16)
+                .build());
+
+        assertEquals(2000, client.connectTimeoutMillis());
+        assertEquals(3000, client.readTimeoutMillis());
+        assertEquals(4000, client.writeTimeoutMillis());
+        assertEquals(5000, client.callTimeoutMillis());
+        assertEquals(Collections.singletonList(Protocol.HTTP_1_1), client.protocols());
+        assertEquals(32, client.dispatcher().getMaxRequests());
+        assertEquals(16, client.dispatcher().getMaxRequestsPerHost());
+    }
+
+    @Test
+    public void testLimitsFollowExecutionModeUnlessSet() {
+        SmartAPIClientConfig platform = SmartAPIClientConfig.defaults();
+        assertEquals(64, platform.getMaxRequests());
+        assertEquals(5, platform.getMaxRequestsPerHost());
+
+        SmartAPIClientConfig virtual = platform.toBuilder().executionMode(ExecutionMode.VIRTUAL_THREADS)
+                .maxRequestsPerHost(8).build();
+        assertEquals(8, virtual.getMaxRequestsPerHost());
+        assertEquals(VirtualThreads.isSupported() ? 4096 : 64, virtual.getMaxRequests());
+    }
+
+    @Test
+    public void testVirtualThreadModeFallsBackToPlatformThreadsWhenUnsupported() throws Exception {
+        assertEquals(ExecutionMode.PLATFORM_THREADS, SmartAPIClientConfig.defaults().getExecutionMode());
+        OkHttpClient client = SmartAPIClientFactory.build(SmartAPIClientConfig.builder()
+                .executionMode(ExecutionMode.VIRTUAL_THREADS).build());
+
+        String threadName = client.dispatcher().executorService()
+                .submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        if (VirtualThreads.isSupported()) {
+            assertTrue(threadName, threadName.startsWith("smartapi-http-"));
+        } else {
+            assertEquals("OkHttp Dispatcher", threadName);
+            try {
+                VirtualThreads.newThreadPerTaskExecutor("smartapi-http-");
+                fail("expected UnsupportedOperationException");
+            } catch (UnsupportedOperationException expected) {
+                // the Java 8 variant
+            }
+        }
+        client.dispatcher().executorService().shutdown();
+    }
+
+    @Test
+    public void testPrewarmLeavesConnectionsInPool() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(401));
+        server.enqueue(new MockResponse().setResponseCode(401));
+        OkHttpClient client = SmartAPIClientFactory.build(SmartAPIClientConfig.builder().http2(false).build());
+
+        SmartAPIClientFactory.prewarm(client, server.url("/").toString(), 2).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals("HEAD", server.takeRequest().getMethod());
+        assertEquals(client.connectionPool().connectionCount(), client.connectionPool().idleConnectionCount());
+        assertEquals(true, client.connectionPool().idleConnectionCount() >= 1);
+    }
+
+    @Test
+    public void testSessionKeepsHandlerAcrossConfigChanges() {
+        SmartConnect smartConnect = new SmartConnect("api-key");
+        SmartAPIRequestHandler handler = smartConnect.getSmartAPIRequestHandler();
+
+        smartConnect.setExecutionMode(ExecutionMode.VIRTUAL_THREADS);
+
+        assertSame(handler, smartConnect.getSmartAPIRequestHandler());
+        assertEquals(ExecutionMode.VIRTUAL_THREADS, handler.getClientConfig().getExecutionMode());
+    }
+}
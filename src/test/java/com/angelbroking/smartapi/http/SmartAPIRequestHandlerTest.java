@@ -0,0 +1,92 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.http.exceptions.TokenException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SmartAPIRequestHandlerTest {
+
+    private static final String POSITION = "/rest/secure/angelbroking/order/v1/getPosition";
+    private static final String PLACE_ORDER = "/rest/secure/angelbroking/order/v1/placeOrder";
+
+    private MockWebServer server;
+    private SmartAPIRequestHandler handler;
+
+    @Before
+    public void setup() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        handler = SmartAPIRequestHandler.create(SmartAPIClientConfig.builder().http2(false).build());
+        handler.setApiHeaderContext(new ApiHeaderContext(
+                () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testAsyncRequestsCompleteWithTheResponse() throws Exception {
+        server.enqueue(json("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\","
+                + "\"data\":{\"orderid\":\"231009000001039\"}}"));
+        server.enqueue(json("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\",\"data\":[]}"));
+
+        JSONObject placed = handler.postRequestAsync("key", server.url(PLACE_ORDER).toString(),
+                new JSONObject().put("tradingsymbol", "SBIN-EQ"), "token").get(5, TimeUnit.SECONDS);
+        JSONObject positions = handler.getRequestAsync("key", server.url(POSITION).toString(), "token")
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("231009000001039", placed.getJSONObject("data").getString("orderid"));
+        assertTrue(positions.getBoolean("status"));
+        RecordedRequest post = server.takeRequest();
+        assertEquals("POST", post.getMethod());
+        assertEquals("Bearer token", post.getHeader("Authorization"));
+        assertEquals("SBIN-EQ", new JSONObject(post.getBody().readUtf8()).getString("tradingsymbol"));
+        assertEquals("GET", server.takeRequest().getMethod());
+    }
+
+    @Test
+    public void testAsyncRequestCompletesWithSmartAPIException() throws Exception {
+        server.enqueue(json("{\"message\":\"Invalid Token\",\"errorcode\":\"AG8001\",\"data\":null}"));
+
+        try {
+            handler.getRequestAsync("key", server.url(POSITION).toString(), "token").get(5, TimeUnit.SECONDS);
+            fail("expected TokenException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TokenException);
+            assertEquals("AG8001", ((TokenException) e.getCause()).code);
+        }
+    }
+
+    @Test
+    public void testAsyncRequestCompletesWithIOException() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+        try {
+            handler.postRequestAsync("key", server.url(PLACE_ORDER).toString(), new JSONObject(), "token")
+                    .get(5, TimeUnit.SECONDS);
+            fail("expected IOException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
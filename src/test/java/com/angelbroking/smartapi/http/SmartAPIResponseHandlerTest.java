@@ -0,0 +1,114 @@
+package com.angelbroking.smartapi.http;
+
+import com.angelbroking.smartapi.http.exceptions.DataException;
+import com.angelbroking.smartapi.http.exceptions.OrderException;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.models.Candle;
+import com.angelbroking.smartapi.models.Holding;
+import com.angelbroking.smartapi.models.Order;
+import com.angelbroking.smartapi.models.Position;
+import com.angelbroking.smartapi.models.Trade;
+import com.angelbroking.smartapi.models.User;
+import com.google.gson.reflect.TypeToken;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SmartAPIResponseHandlerTest {
+
+    private final SmartAPIResponseHandler handler = new SmartAPIResponseHandler();
+
+    @Test
+    public void testDecodesOrderBook() throws Exception, SmartAPIException {
+        List<Order> orders = handler.handle(response("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\","
+                        + "\"data\":[{\"orderid\":\"231009000001039\",\"tradingsymbol\":\"SBIN-EQ\",\"price\":612.35,"
+                        + "\"quantity\":\"10\",\"unknownfield\":{\"nested\":[1,2]}}]}"),
+                new TypeToken<List<Order>>() {}.getType());
+
+        assertEquals(1, orders.size());
+        assertEquals("231009000001039", orders.get(0).orderId);
+        assertEquals("612.35", orders.get(0).price);
+        assertEquals("10", orders.get(0).quantity);
+    }
+
+    @Test
+    public void testDecodesTradesPositionsAndHoldings() throws Exception, SmartAPIException {
+        List<Trade> trades = handler.handle(response("{\"status\":true,\"data\":[{\"orderid\":\"1\",\"fillid\":\"7\","
+                + "\"fillsize\":\"5\",\"transactiontype\":\"BUY\"}]}"), new TypeToken<List<Trade>>() {}.getType());
+        assertEquals("1", trades.get(0).orderId);
+        assertEquals("7", trades.get(0).tradeId);
+        assertEquals("BUY", trades.get(0).transactionType);
+
+        List<Position> positions = handler.handle(response("{\"status\":true,\"data\":[{\"tradingsymbol\":\"SBIN-EQ\","
+                + "\"netqty\":\"-5\",\"buyavgprice\":\"0.00\"}]}"), new TypeToken<List<Position>>() {}.getType());
+        assertEquals("-5", positions.get(0).netQuantity);
+
+        List<Holding> holdings = handler.handle(response("{\"status\":true,\"data\":[{\"tradingsymbol\":\"TATASTEEL-EQ\","
+                + "\"quantity\":2,\"averageprice\":111.87,\"ltp\":130.15}]}"), new TypeToken<List<Holding>>() {}.getType());
+        assertEquals(Integer.valueOf(2), holdings.get(0).quantity);
+        assertEquals(130.15, holdings.get(0).ltp, 0);
+    }
+
+    @Test
+    public void testDecodesCandlesAndUser() throws Exception, SmartAPIException {
+        List<Candle> candles = handler.handle(response("{\"data\":[[\"2023-09-06T11:15:00+05:30\",19571.2,19573.35,"
+                + "19534.4,19552.05,1200]],\"status\":true}"), new TypeToken<List<Candle>>() {}.getType());
+        assertEquals("2023-09-06T11:15:00+05:30", candles.get(0).timestamp);
+        assertEquals(19534.4, candles.get(0).low, 0);
+        assertEquals(1200, candles.get(0).volume);
+
+        User user = handler.handle(response("{\"status\":true,\"data\":{\"clientcode\":\"A123\",\"name\":\"Test\","
+                + "\"products\":[\"MARGIN\",\"MIS\"],\"exchanges\":[\"NSE\"]}}"), User.class);
+        assertEquals("A123", user.getUserId());
+        assertEquals(2, user.getProducts().length);
+    }
+
+    @Test
+    public void testErrorEnvelopeIsMappedToException() throws Exception {
+        try {
+            handler.handle(response("{\"data\":\"\",\"success\":false,\"message\":\"Order not found\","
+                    + "\"errorCode\":\"AB1008\"}"), new TypeToken<List<Order>>() {}.getType());
+            fail("expected OrderException");
+        } catch (OrderException e) {
+            assertEquals("AB1008", e.code);
+            assertEquals("Order not found", e.message);
+        } catch (SmartAPIException e) {
+            fail("expected OrderException but was " + e);
+        }
+    }
+
+    @Test
+    public void testMissingDataIsNull() throws Exception, SmartAPIException {
+        assertNull(handler.handle(response("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\",\"data\":null}"),
+                new TypeToken<List<Order>>() {}.getType()));
+    }
+
+    @Test(expected = DataException.class)
+    public void testNonJsonContentTypeIsRejected() throws Exception, SmartAPIException {
+        handler.handle(response("text/html", "<html></html>"), User.class);
+    }
+
+    private static Response response(String body) {
+        return response("application/json", body);
+    }
+
+    private static Response response(String contentType, String body) {
+        return new Response.Builder()
+                .request(new Request.Builder().url("https://apiconnect.angelbroking.com/test").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .header("Content-Type", contentType)
+                .body(ResponseBody.create(body, MediaType.get(contentType)))
+                .build();
+    }
+}
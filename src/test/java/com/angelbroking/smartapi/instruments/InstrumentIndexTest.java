@@ -0,0 +1,105 @@
+package com.angelbroking.smartapi.instruments;
+
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InstrumentIndexTest {
+
+    private static final String SCRIP_MASTER = "["
+            + "{\"token\":\"3045\",\"symbol\":\"SBIN-EQ\",\"name\":\"SBIN\",\"expiry\":\"\",\"strike\":\"-1.000000\","
+            + "\"lotsize\":\"1\",\"instrumenttype\":\"\",\"exch_seg\":\"NSE\",\"tick_size\":\"5.000000\"},"
+            + "{\"token\":\"500112\",\"symbol\":\"SBIN\",\"name\":\"SBIN\",\"expiry\":\"\",\"strike\":\"-1.000000\","
+            + "\"lotsize\":\"1\",\"instrumenttype\":\"\",\"exch_seg\":\"BSE\",\"tick_size\":\"5.000000\"},"
+            + "{\"token\":\"3045\",\"symbol\":\"SBIN23OCTFUT\",\"name\":\"SBIN\",\"expiry\":\"26OCT2023\","
+            + "\"strike\":\"-1.000000\",\"lotsize\":\"1500\",\"instrumenttype\":\"FUTSTK\",\"exch_seg\":\"NFO\","
+            + "\"tick_size\":\"5.000000\",\"extra\":{\"ignored\":[1]}},"
+            + "{\"token\":\"2885\",\"symbol\":\"RELIANCE-EQ\",\"name\":\"RELIANCE\",\"expiry\":null,\"strike\":-1,"
+            + "\"lotsize\":1,\"instrumenttype\":\"\",\"exch_seg\":\"NSE\",\"tick_size\":5},"
+            + "{\"token\":\"\",\"symbol\":\"BROKEN\",\"exch_seg\":\"NSE\"}"
+            + "]";
+
+    private InstrumentIndex index;
+
+    @Before
+    public void setup() throws IOException {
+        index = InstrumentIndex.load(new ByteArrayInputStream(SCRIP_MASTER.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testTokensAndSymbolsResolvePerExchange() {
+        assertEquals(4, index.size());
+        assertEquals("SBIN-EQ", index.byToken("NSE", "3045").getSymbol());
+        assertEquals("SBIN23OCTFUT", index.byToken("NFO", "3045").getSymbol());
+        assertEquals(1500, index.bySymbol("NFO", "SBIN23OCTFUT").getLotSize());
+        assertEquals("500112", index.tokenOf("BSE", "SBIN"));
+        assertEquals(new TokenID(ExchangeType.NSE_FO, "3045"), index.tokenID("NFO", "SBIN23OCTFUT"));
+        assertEquals("RELIANCE-EQ", index.byTokenID(new TokenID(ExchangeType.NSE_CM, "2885")).getSymbol());
+        assertNull(index.byToken("BSE", "3045"));
+        assertNull(index.bySymbol("NSE", "BROKEN"));
+        assertEquals(-1, index.indexOfSymbol("NSE", null));
+    }
+
+    @Test
+    public void testSharedValuesAndNumbers() {
+        Instrument sbin = index.bySymbol("NSE", "SBIN-EQ");
+        Instrument reliance = index.bySymbol("NSE", "RELIANCE-EQ");
+
+        assertSame(sbin.getExchange(), reliance.getExchange());
+        assertEquals(-1, reliance.getStrike(), 0);
+        assertEquals(5, reliance.getTickSize(), 0);
+        assertEquals("", reliance.getExpiry());
+    }
+
+    @Test
+    public void testPrefixSearch() {
+        List<Instrument> all = index.search("sbin", 10);
+        assertEquals(3, all.size());
+        assertEquals("SBIN", all.get(0).getSymbol());
+        assertEquals("SBIN-EQ", all.get(1).getSymbol());
+        assertEquals("SBIN23OCTFUT", all.get(2).getSymbol());
+
+        assertEquals(1, index.search("SBIN", 1).size());
+        assertEquals("NFO", index.search("NFO", "SBIN", 10).get(0).getExchange());
+        assertEquals(0, index.search("TCS", 10).size());
+    }
+
+    @Test
+    public void testPrefixSearchIgnoresCaseOfIndexedSymbols() throws IOException {
+        InstrumentIndex mixedCase = InstrumentIndex.load(new ByteArrayInputStream(("["
+                + "{\"token\":\"1\",\"symbol\":\"Nifty50\",\"exch_seg\":\"NSE\"},"
+                + "{\"token\":\"2\",\"symbol\":\"NIFTYBEES-EQ\",\"exch_seg\":\"NSE\"}"
+                + "]").getBytes(StandardCharsets.UTF_8)));
+
+        List<Instrument> found = mixedCase.search("nifty", 10);
+        assertEquals(2, found.size());
+        assertEquals("Nifty50", found.get(0).getSymbol());
+        assertEquals("NIFTYBEES-EQ", found.get(1).getSymbol());
+        assertEquals("Nifty50", mixedCase.search("NIFTY5", 10).get(0).getSymbol());
+    }
+
+    @Test
+    public void testInstrumentFillsOrderParams() {
+        OrderParams params = index.bySymbol("NSE", "SBIN-EQ").applyTo(new OrderParams());
+
+        assertEquals("NSE", params.exchange);
+        assertEquals("SBIN-EQ", params.tradingsymbol);
+        assertEquals("3045", params.symboltoken);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedScripMasterFails() throws IOException {
+        InstrumentIndex.load(new ByteArrayInputStream("{\"token\":1}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
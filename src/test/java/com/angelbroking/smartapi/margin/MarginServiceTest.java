@@ -0,0 +1,149 @@
+package com.angelbroking.smartapi.margin;
+
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.http.exceptions.TokenException;
+import com.angelbroking.smartapi.models.MarginParams;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MarginServiceTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<List<MarginParams>> sent = new ArrayList<>();
+    private final List<CompletableFuture<JSONObject>> responses = new ArrayList<>();
+    private final MarginService service = new MarginService(batch -> {
+        sent.add(batch);
+        CompletableFuture<JSONObject> response = new CompletableFuture<>();
+        responses.add(response);
+        return response;
+    }, 5000, 0.005, now::get);
+
+    @Test
+    public void testIdenticalLegsAreMerged() {
+        List<MarginParams> merged = MarginService.merge(Arrays.asList(
+                leg("3045", 10, 500.0, "BUY"), leg("3045", 5, 500.0, "BUY"), leg("3045", 5, 500.0, "SELL")));
+
+        assertEquals(2, merged.size());
+        assertEquals(Integer.valueOf(15), merged.get(0).quantity);
+        assertEquals("SELL", merged.get(1).tradeType);
+    }
+
+    @Test
+    public void testLegsAtDifferentPricesOfOneBucketAreAllSent() {
+        service.getMargin(Arrays.asList(leg("3045", 10, 500.0, "BUY"), leg("3045", 10, 500.1, "BUY")));
+
+        assertEquals(1, sent.size());
+        assertEquals(2, sent.get(0).size());
+        assertEquals(500.0, sent.get(0).get(0).price, 0);
+        assertEquals(500.1, sent.get(0).get(1).price, 0);
+    }
+
+    @Test
+    public void testOversizeBasketIsSplitIntoConcurrentBatches() {
+        List<MarginParams> basket = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            basket.add(leg(String.valueOf(1000 + i), 1, 100.0, "BUY"));
+        }
+
+        CompletableFuture<MarginResult> result = service.getMargin(basket);
+
+        assertEquals(3, sent.size());
+        assertEquals(50, sent.get(0).size());
+        assertEquals(50, sent.get(1).size());
+        assertEquals(20, sent.get(2).size());
+        responses.get(0).complete(response(1000, 800));
+        responses.get(2).complete(response(300, 200));
+        assertFalse(result.isDone());
+        responses.get(1).complete(response(700, 500));
+
+        assertEquals(2000, result.join().getTotalMarginRequired(), 0.001);
+        assertEquals(1500, result.join().getMarginComponents().get("spanMargin"), 0.001);
+        assertEquals(3, result.join().getBatches().size());
+    }
+
+    @Test
+    public void testBasketIsCachedAcrossOrderAndPriceBucket() {
+        CompletableFuture<MarginResult> first = service.getMargin(Arrays.asList(
+                leg("3045", 10, 500.0, "BUY"), leg("2885", 5, 2400.0, "SELL")));
+        CompletableFuture<MarginResult> concurrent = service.getMargin(Arrays.asList(
+                leg("2885", 5, 2400.0, "SELL"), leg("3045", 10, 500.0, "BUY")));
+        assertEquals(1, sent.size());
+        responses.get(0).complete(response(1234, 1000));
+        assertEquals(1234, first.join().getTotalMarginRequired(), 0.001);
+        assertEquals(1234, concurrent.join().getTotalMarginRequired(), 0.001);
+
+        // within the same price buckets
+        CompletableFuture<MarginResult> cached = service.getMargin(Arrays.asList(
+                leg("2885", 5, 2400.5, "SELL"), leg("3045", 10, 500.1, "BUY")));
+        assertTrue(cached.isDone());
+        assertEquals(1, sent.size());
+
+        // another quantity is another leg
+        service.getMargin(Arrays.asList(leg("2885", 5, 2400.0, "SELL"), leg("3045", 11, 500.0, "BUY")));
+        assertEquals(2, sent.size());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        service.getMargin(Arrays.asList(leg("3045", 10, 500.0, "BUY"), leg("2885", 5, 2400.0, "SELL")));
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testFailedBatchIsNotCached() {
+        CompletableFuture<MarginResult> failed = service.getMargin(Arrays.asList(leg("3045", 10, 500.0, "BUY")));
+        responses.get(0).completeExceptionally(new SmartAPIException("Invalid Token", "AG8001"));
+        assertTrue(failed.isCompletedExceptionally());
+
+        CompletableFuture<MarginResult> retried = service.getMargin(Arrays.asList(leg("3045", 10, 500.0, "BUY")));
+        assertEquals(2, sent.size());
+        responses.get(1).complete(response(5000, 5000));
+        assertEquals(5000, retried.join().getTotalMarginRequired(), 0.001);
+    }
+
+    @Test
+    public void testRejectedBatchRaisesTheBrokerError() {
+        CompletableFuture<MarginResult> rejected = service.getMargin(Arrays.asList(leg("3045", 10, 500.0, "BUY")));
+        responses.get(0).complete(new JSONObject().put("status", false).put("message", "Invalid Token")
+                .put("errorcode", "AG8001").put("data", JSONObject.NULL));
+        try {
+            rejected.join();
+            fail("rejected margin batch completed normally");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof TokenException);
+            assertEquals("AG8001", ((TokenException) e.getCause()).code);
+        }
+
+        service.getMargin(Arrays.asList(leg("3045", 10, 500.0, "BUY")));
+        assertEquals(2, sent.size());
+    }
+
+    private static MarginParams leg(String token, int quantity, Double price, String tradeType) {
+        MarginParams leg = new MarginParams();
+        leg.exchange = "NSE";
+        leg.token = token;
+        leg.quantity = quantity;
+        leg.price = price;
+        leg.productType = "INTRADAY";
+        leg.tradeType = tradeType;
+        return leg;
+    }
+
+    private static JSONObject response(double total, double span) {
+        JSONObject data = new JSONObject();
+        data.put("totalMarginRequired", total);
+        data.put("marginComponents", new JSONObject().put("spanMargin", span).put("netPremium", 0.0));
+        return new JSONObject().put("status", true).put("data", data);
+    }
+}
@@ -0,0 +1,167 @@
+package com.angelbroking.smartapi.orders;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.ApiHeaderContext;
+import com.angelbroking.smartapi.http.ClientIdentity;
+import com.angelbroking.smartapi.http.SmartAPIClientConfig;
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.http.exceptions.OrderException;
+import com.angelbroking.smartapi.models.Order;
+import com.angelbroking.smartapi.models.OrderParams;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchOrdersTest {
+
+    private final List<Integer> sent = new ArrayList<>();
+    private final List<CompletableFuture<Order>> inFlight = new ArrayList<>();
+
+    @Test
+    public void testOrdersOfASymbolAreSentInSequence() {
+        List<String> symbols = Arrays.asList("NSE:3045", "NSE:2885", "NSE:3045", "NSE:2885", "NSE:1594");
+
+        CompletableFuture<List<BatchOrderResult>> results = BatchOrders.dispatch(symbols, calls(5),
+                OrderSequencing.PER_SYMBOL, 10);
+
+        assertEquals(Arrays.asList(0, 1, 4), sent);
+        inFlight.get(0).complete(order("0"));
+        assertEquals(Arrays.asList(0, 1, 4, 2), sent);
+        inFlight.get(1).complete(order("1"));
+        assertEquals(Arrays.asList(0, 1, 4, 2, 3), sent);
+        inFlight.get(2).complete(order("2"));
+        inFlight.get(3).complete(order("3"));
+        assertFalse(results.isDone());
+        inFlight.get(4).complete(order("4"));
+
+        assertTrue(results.isDone());
+        List<String> orderIds = new ArrayList<>();
+        for (BatchOrderResult result : results.join()) {
+            orderIds.add(result.getOrder().orderId);
+        }
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4"), orderIds);
+    }
+
+    @Test
+    public void testInFlightOrdersAreBounded() {
+        List<String> symbols = Arrays.asList("a", "b", "c", "d", "e");
+
+        CompletableFuture<List<BatchOrderResult>> results = BatchOrders.dispatch(symbols, calls(5),
+                OrderSequencing.NONE, 2);
+
+        assertEquals(Arrays.asList(0, 1), sent);
+        inFlight.get(1).complete(order("B"));
+        assertEquals(Arrays.asList(0, 1, 2), sent);
+        for (int i = 0; i < 5; i++) {
+            inFlight.get(i).complete(order(String.valueOf(i)));
+        }
+        assertEquals(5, results.join().size());
+    }
+
+    @Test
+    public void testFailedOrderDoesNotStopTheBatch() {
+        List<String> symbols = Arrays.asList("a", "a", "a");
+
+        CompletableFuture<List<BatchOrderResult>> results = BatchOrders.dispatch(symbols, calls(3),
+                OrderSequencing.SEQUENTIAL, 5);
+
+        inFlight.get(0).complete(order("A"));
+        inFlight.get(1).completeExceptionally(new OrderException("Order rejected", "AB4008"));
+        inFlight.get(2).complete(order("C"));
+
+        List<BatchOrderResult> batch = results.join();
+        assertTrue(batch.get(0).isSuccess());
+        assertFalse(batch.get(1).isSuccess());
+        assertNull(batch.get(1).getOrder());
+        assertTrue(batch.get(1).getError() instanceof OrderException);
+        assertEquals(2, batch.get(2).getIndex());
+        assertEquals("C", batch.get(2).getOrder().orderId);
+    }
+
+    @Test
+    public void testRejectedLegKeepsTheErrorcodeOfTheBroker() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(json("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\","
+                    + "\"data\":{\"orderid\":\"231009000001039\"}}"));
+            server.enqueue(json("{\"status\":false,\"message\":\"Invalid Order\",\"errorcode\":\"AB1008\","
+                    + "\"data\":null}"));
+            server.start();
+            SmartAPIRequestHandler serverHandler = SmartAPIRequestHandler.create(
+                    SmartAPIClientConfig.builder().http2(false).build());
+            serverHandler.setApiHeaderContext(new ApiHeaderContext(
+                    () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+            // the order urls point at the live api, so orders are sent to the same path on the mock server
+            SmartAPIRequestHandler handler = mock(SmartAPIRequestHandler.class);
+            when(handler.getApiHeaderContext()).thenReturn(serverHandler.getApiHeaderContext());
+            when(handler.sendAsync(any(Request.class))).thenAnswer(invocation -> {
+                Request request = invocation.getArgument(0);
+                return serverHandler.sendAsync(
+                        request.newBuilder().url(server.url(request.url().encodedPath())).build());
+            });
+            SmartConnect smartConnect = mock(SmartConnect.class);
+            when(smartConnect.getSmartAPIRequestHandler()).thenReturn(handler);
+            when(smartConnect.getApiKey()).thenReturn("api-key");
+            when(smartConnect.getAccessToken()).thenReturn("access-token");
+
+            List<BatchOrderResult> batch = new BatchOrders(new OrderEntry(smartConnect), OrderSequencing.SEQUENTIAL, 1)
+                    .placeOrders(Arrays.asList(orderParams(), orderParams()), "NORMAL").get(5, TimeUnit.SECONDS);
+
+            assertEquals("231009000001039", batch.get(0).getOrder().orderId);
+            assertTrue(batch.get(1).getError() instanceof OrderException);
+            assertEquals("AB1008", ((OrderException) batch.get(1).getError()).code);
+        }
+    }
+
+    private List<Supplier<CompletableFuture<Order>>> calls(int count) {
+        List<Supplier<CompletableFuture<Order>>> calls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            inFlight.add(new CompletableFuture<>());
+            calls.add(() -> {
+                sent.add(index);
+                return inFlight.get(index);
+            });
+        }
+        return calls;
+    }
+
+    private static OrderParams orderParams() {
+        OrderParams orderParams = new OrderParams();
+        orderParams.exchange = "NSE";
+        orderParams.tradingsymbol = "SBIN-EQ";
+        orderParams.symboltoken = "3045";
+        orderParams.transactiontype = "BUY";
+        orderParams.quantity = 10;
+        orderParams.price = 612.35;
+        orderParams.producttype = "INTRADAY";
+        orderParams.ordertype = "LIMIT";
+        orderParams.duration = "DAY";
+        return orderParams;
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    private static Order order(String orderId) {
+        Order order = new Order();
+        order.orderId = orderId;
+        return order;
+    }
+}
@@ -0,0 +1,96 @@
+package com.angelbroking.smartapi.orders;
+
+import com.angelbroking.smartapi.Routes;
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.ApiHeaderContext;
+import com.angelbroking.smartapi.http.ClientIdentity;
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.models.OrderParams;
+import okhttp3.Request;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request build time per order of {@link OrderEntry} against the JSONObject
+ * path used by {@link SmartConnect#placeOrder}.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.angelbroking.smartapi.orders.OrderEntryBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderEntryBenchmark {
+
+    private SmartAPIRequestHandler handler;
+    private OrderEntry orderEntry;
+    private OrderParams orderParams;
+    private String url;
+
+    @Setup
+    public void setup() {
+        SmartConnect smartConnect = new SmartConnect("api-key", "access-token", "refresh-token");
+        handler = smartConnect.getSmartAPIRequestHandler();
+        handler.setApiHeaderContext(new ApiHeaderContext(
+                () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+        orderEntry = new OrderEntry(smartConnect);
+        url = new Routes().get("api.order.place");
+
+        orderParams = new OrderParams();
+        orderParams.exchange = "NSE";
+        orderParams.tradingsymbol = "SBIN-EQ";
+        orderParams.symboltoken = "3045";
+        orderParams.transactiontype = "BUY";
+        orderParams.quantity = 10;
+        orderParams.price = 612.35;
+        orderParams.producttype = "INTRADAY";
+        orderParams.ordertype = "LIMIT";
+        orderParams.duration = "DAY";
+    }
+
+    @Benchmark
+    public Request jsonObjectRequest() {
+        JSONObject params = new JSONObject();
+        params.put("exchange", orderParams.exchange);
+        params.put("tradingsymbol", orderParams.tradingsymbol);
+        params.put("transactiontype", orderParams.transactiontype);
+        params.put("quantity", orderParams.quantity);
+        params.put("price", orderParams.price);
+        params.put("producttype", orderParams.producttype);
+        params.put("ordertype", orderParams.ordertype);
+        params.put("duration", orderParams.duration);
+        params.put("symboltoken", orderParams.symboltoken);
+        params.put("variety", "NORMAL");
+        return handler.createPostRequest("api-key", url, params, "access-token");
+    }
+
+    @Benchmark
+    public Request orderEntryRequest() throws IOException {
+        return orderEntry.placeOrderRequest(orderParams, "NORMAL");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OrderEntryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
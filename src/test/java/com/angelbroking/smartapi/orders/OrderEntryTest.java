@@ -0,0 +1,178 @@
+package com.angelbroking.smartapi.orders;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.ApiHeaderContext;
+import com.angelbroking.smartapi.http.ClientIdentity;
+import com.angelbroking.smartapi.http.exceptions.OrderException;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.models.OrderParams;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OrderEntryTest {
+
+    private SmartConnect smartConnect;
+    private OrderEntry orderEntry;
+
+    @Before
+    public void setup() {
+        smartConnect = new SmartConnect("api-key", "access-token", "refresh-token");
+        smartConnect.getSmartAPIRequestHandler().setApiHeaderContext(new ApiHeaderContext(
+                () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+        orderEntry = new OrderEntry(smartConnect);
+    }
+
+    @Test
+    public void testPlaceOrderBodyMatchesJsonObjectEncoding() throws IOException {
+        OrderParams orderParams = orderParams();
+
+        JSONObject body = body(orderEntry.placeOrderRequest(orderParams, "NORMAL"));
+
+        JSONObject expected = new JSONObject();
+        expected.put("exchange", "NSE");
+        expected.put("tradingsymbol", "SBIN-EQ");
+        expected.put("transactiontype", "BUY");
+        expected.put("quantity", 10);
+        expected.put("price", 612.35);
+        expected.put("producttype", "INTRADAY");
+        expected.put("ordertype", "LIMIT");
+        expected.put("duration", "DAY");
+        expected.put("symboltoken", "3045");
+        expected.put("variety", "NORMAL");
+        assertTrue(body.toString(), expected.similar(body));
+    }
+
+    @Test
+    public void testStringsAreEscapedAndWholePricesHaveNoFraction() throws IOException {
+        OrderParams orderParams = orderParams();
+        orderParams.tradingsymbol = "A\"B\\Cé€😀\n";
+        orderParams.price = 600.0;
+
+        Request request = orderEntry.modifyOrderRequest("231009000001039", orderParams, "NORMAL");
+        String raw = raw(request);
+        JSONObject body = new JSONObject(raw);
+
+        assertEquals(orderParams.tradingsymbol, body.getString("tradingsymbol"));
+        assertTrue(raw, raw.contains("\"price\":600,"));
+        assertEquals("231009000001039", body.getString("orderid"));
+        assertFalse(body.has("transactiontype"));
+    }
+
+    @Test
+    public void testTemplateFollowsAccessTokenChanges() throws IOException {
+        Request first = orderEntry.cancelOrderRequest("1", "NORMAL");
+        assertEquals("Bearer access-token", first.header("Authorization"));
+        assertEquals("api-key", first.header("X-PrivateKey"));
+        assertEquals("203.0.113.7", first.header("X-ClientPublicIP"));
+
+        smartConnect.setAccessToken("renewed-token");
+        Request second = orderEntry.cancelOrderRequest("1", "NORMAL");
+        assertEquals("Bearer renewed-token", second.header("Authorization"));
+        assertEquals(1, second.headers("Authorization").size());
+    }
+
+    @Test
+    public void testPlaceOrderIsSentThroughTheSessionHandler() throws Exception, SmartAPIException {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody(
+                    "{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\",\"data\":{\"orderid\":\"231009000001039\"}}"));
+            server.start();
+
+            Request template = orderEntry.placeOrderRequest(orderParams(), "NORMAL");
+            Request request = template.newBuilder().url(server.url("/order/v1/placeOrder")).build();
+            JSONObject response = smartConnect.getSmartAPIRequestHandler().send(request);
+
+            RecordedRequest recorded = server.takeRequest();
+            assertEquals("Bearer access-token", recorded.getHeader("Authorization"));
+            assertEquals("SBIN-EQ", new JSONObject(recorded.getBody().readUtf8()).getString("tradingsymbol"));
+            assertEquals("231009000001039", response.getJSONObject("data").getString("orderid"));
+        }
+    }
+
+    @Test
+    public void testRejectedOrderRaisesOrderException() throws Exception, SmartAPIException {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody(
+                    "{\"status\":false,\"message\":\"Invalid Order\",\"errorcode\":\"AB1008\",\"data\":null}"));
+            server.start();
+
+            Request template = orderEntry.placeOrderRequest(orderParams(), "NORMAL");
+            Request request = template.newBuilder().url(server.url("/order/v1/placeOrder")).build();
+            try {
+                smartConnect.getSmartAPIRequestHandler().send(request);
+                fail("expected OrderException");
+            } catch (OrderException e) {
+                assertEquals("AB1008", e.code);
+                assertEquals("Invalid Order", e.message);
+            }
+        }
+    }
+
+    @Test
+    public void testSessionCreatesOneOrderEntryForConcurrentCallers() throws Exception {
+        SmartConnect session = new SmartConnect("api-key", "access-token", "refresh-token");
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<OrderEntry>> entries = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                entries.add(executor.submit(() -> {
+                    start.await();
+                    return session.getOrderEntry();
+                }));
+            }
+            start.countDown();
+            for (Future<OrderEntry> entry : entries) {
+                assertSame(session.getOrderEntry(), entry.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static OrderParams orderParams() {
+        OrderParams orderParams = new OrderParams();
+        orderParams.exchange = "NSE";
+        orderParams.tradingsymbol = "SBIN-EQ";
+        orderParams.symboltoken = "3045";
+        orderParams.transactiontype = "BUY";
+        orderParams.quantity = 10;
+        orderParams.price = 612.35;
+        orderParams.producttype = "INTRADAY";
+        orderParams.ordertype = "LIMIT";
+        orderParams.duration = "DAY";
+        return orderParams;
+    }
+
+    private static JSONObject body(Request request) throws IOException {
+        return new JSONObject(raw(request));
+    }
+
+    private static String raw(Request request) throws IOException {
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return buffer.readUtf8();
+    }
+}
@@ -0,0 +1,147 @@
+package com.angelbroking.smartapi.risk;
+
+import com.angelbroking.smartapi.http.exceptions.RiskException;
+import com.angelbroking.smartapi.models.OrderParams;
+import com.angelbroking.smartapi.models.Position;
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PreTradeRiskEngineTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    public void testQuantityAndNotionalLimits() {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.builder()
+                .maxOrderQuantity(100).maxOrderNotional(50_000).build(), now::get);
+
+        assertEquals(RiskCheck.MAX_QUANTITY, engine.check(order("BUY", 101, 10.0)));
+        assertEquals(RiskCheck.PASSED, engine.check(order("BUY", 100, 500.0)));
+        assertEquals(RiskCheck.MAX_NOTIONAL, engine.check(order("BUY", 100, 500.05)));
+
+        // a market order is valued at the last traded price
+        assertEquals(RiskCheck.NO_PRICE, engine.check(order("BUY", 10, null)));
+        engine.updatePrice(ExchangeType.NSE_CM, "3045", 600_00);
+        assertEquals(RiskCheck.MAX_NOTIONAL, engine.check(order("BUY", 100, null)));
+        assertEquals(RiskCheck.PASSED, engine.check(order("BUY", 50, null)));
+    }
+
+    @Test
+    public void testPriceBandAroundLastTradedPrice() {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.builder().priceBand(0.05).build(), now::get);
+        engine.updatePrice(ExchangeType.NSE_CM, "3045", 500_00);
+
+        assertEquals(RiskCheck.PASSED, engine.check(order("BUY", 1, 525.0)));
+        assertEquals(RiskCheck.PRICE_BAND, engine.check(order("BUY", 1, 525.5)));
+        assertEquals(RiskCheck.PRICE_BAND, engine.check(order("SELL", 1, 474.0)));
+    }
+
+    @Test
+    public void testPositionLimitFollowsPositionsAndFills() {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.builder().maxPositionQuantity(100).build(),
+                now::get);
+        engine.setPositions(Arrays.asList(position("60"), position("20")));
+        assertEquals(80, engine.getNetQuantity("NSE", "3045"));
+
+        assertEquals(RiskCheck.POSITION_LIMIT, engine.check(order("BUY", 21, 500.0)));
+        assertEquals(RiskCheck.PASSED, engine.check(order("SELL", 150, 500.0)));
+        // a modification does not change the position
+        assertEquals(RiskCheck.PASSED, engine.checkModify(order("BUY", 21, 500.0)));
+
+        engine.onFill("NSE", "3045", "SELL", 80);
+        assertEquals(RiskCheck.PASSED, engine.check(order("BUY", 100, 500.0)));
+        // an order reducing an oversized position is let through
+        engine.onFill("NSE", "3045", "BUY", 150);
+        assertEquals(RiskCheck.PASSED, engine.check(order("SELL", 10, 500.0)));
+    }
+
+    @Test
+    public void testMalformedPositionRowsAreSkipped() {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.builder().maxPositionQuantity(100).build(),
+                now::get);
+        Position infy = position("-40");
+        infy.symbolToken = "1594";
+        engine.setPositions(Arrays.asList(position("60"), position("12.5"), position(""), infy));
+
+        assertEquals(60, engine.getNetQuantity("NSE", "3045"));
+        assertEquals(-40, engine.getNetQuantity("NSE", "1594"));
+    }
+
+    @Test
+    public void testOrderRatePerSecond() {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.builder().maxOrdersPerSecond(2).build(),
+                now::get);
+
+        assertEquals(RiskCheck.PASSED, engine.check(order("BUY", 1, 500.0)));
+        assertEquals(RiskCheck.PASSED, engine.checkModify(order("BUY", 1, 500.0)));
+        assertEquals(RiskCheck.ORDER_RATE, engine.check(order("BUY", 1, 500.0)));
+
+        now.addAndGet(1000);
+        assertEquals(RiskCheck.PASSED, engine.check(order("BUY", 1, 500.0)));
+    }
+
+    @Test
+    public void testOrderRateOfExchangesWithoutStreamExchangeType() {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.builder().maxOrdersPerSecond(1).build(),
+                now::get);
+        OrderParams currency = order("BUY", 1, 83.5);
+        currency.exchange = "BCD";
+
+        assertEquals(RiskCheck.PASSED, engine.check(currency));
+        assertEquals(RiskCheck.ORDER_RATE, engine.check(currency));
+        assertEquals(RiskCheck.PASSED, engine.check(order("BUY", 1, 500.0)));
+        engine.onFill("BCD", "3045", "BUY", 1);
+        assertEquals(1, engine.getNetQuantity("BCD", "3045"));
+        assertEquals(0, engine.getNetQuantity("NSE", "3045"));
+    }
+
+    @Test
+    public void testOrderRateOfOrdersWithoutSymbolToken() {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.builder().maxOrdersPerSecond(1).build(),
+                now::get);
+        OrderParams noToken = order("BUY", 1, 500.0);
+        noToken.symboltoken = null;
+
+        assertEquals(RiskCheck.UNKNOWN_INSTRUMENT, engine.check(noToken));
+    }
+
+    @Test
+    public void testInstrumentLimitsOverrideDefaults() throws Exception, RiskException {
+        PreTradeRiskEngine engine = new PreTradeRiskEngine(RiskLimits.none(), now::get);
+        engine.setLimits("NSE", "3045", RiskLimits.builder().maxOrderQuantity(10).build());
+
+        engine.enforce(order("BUY", 10, 500.0));
+        try {
+            engine.enforce(order("BUY", 11, 500.0));
+            fail("order above the instrument limit should be rejected");
+        } catch (RiskException e) {
+            assertEquals("MAX_QUANTITY", e.code);
+        }
+        engine.setLimits("NSE", "3045", null);
+        engine.enforce(order("BUY", 11, 500.0));
+    }
+
+    private static OrderParams order(String transactionType, int quantity, Double price) {
+        OrderParams orderParams = new OrderParams();
+        orderParams.exchange = "NSE";
+        orderParams.symboltoken = "3045";
+        orderParams.transactiontype = transactionType;
+        orderParams.quantity = quantity;
+        orderParams.price = price;
+        return orderParams;
+    }
+
+    private static Position position(String netQuantity) {
+        Position position = new Position();
+        position.exchange = "NSE";
+        position.symbolToken = "3045";
+        position.netQuantity = netQuantity;
+        return position;
+    }
+}
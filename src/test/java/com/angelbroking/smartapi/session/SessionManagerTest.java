@@ -0,0 +1,178 @@
+package com.angelbroking.smartapi.session;
+
+import com.angelbroking.smartapi.SmartConnect;
+import com.angelbroking.smartapi.http.ApiHeaderContext;
+import com.angelbroking.smartapi.http.ClientIdentity;
+import com.angelbroking.smartapi.http.SmartAPIClientConfig;
+import com.angelbroking.smartapi.http.SmartAPIRequestHandler;
+import com.angelbroking.smartapi.http.exceptions.SmartAPIException;
+import com.angelbroking.smartapi.models.TokenSet;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SessionManagerTest {
+
+    private SmartConnect smartConnect;
+    private SessionManager sessionManager;
+
+    @Before
+    public void setup() {
+        smartConnect = mock(SmartConnect.class);
+        when(smartConnect.hasAccessToken()).thenReturn(true);
+        when(smartConnect.getRefreshToken()).thenReturn("refresh-1");
+    }
+
+    @After
+    public void tearDown() {
+        if (sessionManager != null) {
+            sessionManager.close();
+        }
+    }
+
+    @Test
+    public void testExpiryIsReadFromJwt() {
+        assertEquals(1700000000000L, SessionManager.expiresAtMillis(jwt(1700000000L)));
+        assertEquals(-1, SessionManager.expiresAtMillis("not-a-jwt"));
+        assertEquals(-1, SessionManager.expiresAtMillis("a.%%%.c"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStartRequiresAnAccessToken() {
+        when(smartConnect.hasAccessToken()).thenReturn(false);
+        sessionManager = new SessionManager(smartConnect, 1500, 1000, 100, System::currentTimeMillis);
+        sessionManager.start();
+    }
+
+    @Test
+    public void testTokensAreRenewedAheadOfExpiry() throws Exception {
+        String first = jwt(System.currentTimeMillis() / 1000 + 2);
+        String second = jwt(System.currentTimeMillis() / 1000 + 3600);
+        when(smartConnect.getAccessToken()).thenReturn(first);
+        when(smartConnect.renewAccessToken(first, "refresh-1")).thenReturn(tokens(second, "refresh-2", "feed-2"));
+        AtomicReference<TokenSet> renewed = new AtomicReference<>();
+        CountDownLatch notified = new CountDownLatch(1);
+
+        sessionManager = new SessionManager(smartConnect, 1500, 1000, 100, System::currentTimeMillis);
+        sessionManager.addListener(tokens -> {
+            renewed.set(tokens);
+            notified.countDown();
+        });
+        sessionManager.start();
+
+        assertTrue(notified.await(3, TimeUnit.SECONDS));
+        assertEquals("feed-2", renewed.get().getFeedToken());
+        verify(smartConnect).setAccessToken(second);
+        verify(smartConnect).setRefreshToken("refresh-2");
+        verify(smartConnect).setTokenGate(sessionManager);
+        assertEquals(second, sessionManager.accessToken(first));
+        assertEquals(second, sessionManager.accessToken(second));
+        assertEquals("other", sessionManager.accessToken("other"));
+    }
+
+    @Test
+    public void testRequestsWaitForRenewalInFlight() throws Exception {
+        String first = jwt(System.currentTimeMillis() / 1000 + 3600);
+        String second = jwt(System.currentTimeMillis() / 1000 + 7200);
+        CountDownLatch release = new CountDownLatch(1);
+        when(smartConnect.getAccessToken()).thenReturn(first);
+        when(smartConnect.renewAccessToken(first, "refresh-1")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return tokens(second, "refresh-2", null);
+        });
+
+        sessionManager = new SessionManager(smartConnect, 60000, 5000, 100, System::currentTimeMillis);
+        sessionManager.start();
+        CompletableFuture<TokenSet> renewal = sessionManager.renew();
+        CompletableFuture<String> request = CompletableFuture.supplyAsync(() -> {
+            try {
+                return sessionManager.accessToken(first);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(100);
+        assertFalse(request.isDone());
+        release.countDown();
+
+        assertEquals(second, request.get(5, TimeUnit.SECONDS));
+        assertEquals(second, renewal.get().getAccessToken());
+    }
+
+    @Test
+    public void testFailedRenewalIsRetried() throws Exception {
+        String first = jwt(System.currentTimeMillis() / 1000 + 3600);
+        String second = jwt(System.currentTimeMillis() / 1000 + 7200);
+        when(smartConnect.getAccessToken()).thenReturn(first);
+        when(smartConnect.renewAccessToken(first, "refresh-1")).thenReturn(null, tokens(second, "refresh-2", null));
+
+        sessionManager = new SessionManager(smartConnect, 60000, 1000, 50, System::currentTimeMillis);
+        sessionManager.start();
+
+        try {
+            sessionManager.renew().get(2, TimeUnit.SECONDS);
+            fail("expected the first renewal to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SmartAPIException);
+        }
+        verify(smartConnect, timeout(2000)).setAccessToken(second);
+        verify(smartConnect, times(2)).renewAccessToken(anyString(), anyString());
+    }
+
+    @Test
+    public void testHandlerSendsTokenOfGate() throws Exception, SmartAPIException {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            server.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                    .setBody("{\"status\":true,\"message\":\"SUCCESS\",\"errorcode\":\"\",\"data\":[]}"));
+            SmartAPIRequestHandler handler = SmartAPIRequestHandler.create(SmartAPIClientConfig.builder().http2(false).build());
+            handler.setApiHeaderContext(new ApiHeaderContext(
+                    () -> new ClientIdentity("10.0.0.2", "203.0.113.7", "AA-BB-CC-DD-EE-FF")));
+            handler.setTokenGate(accessToken -> "old".equals(accessToken) ? "new" : accessToken);
+
+            handler.getRequest("key", server.url("/rest/secure/angelbroking/order/v1/getPosition").toString(), "old");
+
+            assertEquals("Bearer new", server.takeRequest().getHeader("Authorization"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static TokenSet tokens(String accessToken, String refreshToken, String feedToken) {
+        TokenSet tokens = new TokenSet();
+        tokens.setAccessToken(accessToken);
+        tokens.setRefreshToken(refreshToken);
+        tokens.setFeedToken(feedToken);
+        return tokens;
+    }
+
+    private static String jwt(long exp) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS512\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"username\":\"A123\",\"exp\":" + exp + "}")
+                .getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
@@ -0,0 +1,179 @@
+package com.angelbroking.smartapi.smartstream.gateway;
+
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.SmartStreamSubsMode;
+import com.angelbroking.smartapi.smartstream.models.StreamFrames;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import com.angelbroking.smartapi.smartstream.ticker.RawFrameListener;
+import com.angelbroking.smartapi.smartstream.ticker.SmartStreamTicker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class SmartStreamGatewayTest {
+
+    private static final TokenID RELIANCE = new TokenID(ExchangeType.NSE_CM, "2885");
+    private static final TokenID INFY = new TokenID(ExchangeType.NSE_CM, "1594");
+
+    @Mock
+    private SmartStreamTicker upstream;
+
+    @Mock
+    private SmartStreamTicker secondUpstream;
+
+    private SmartStreamGateway gateway;
+    private RawFrameListener upstreamListener;
+
+    @Before
+    public void setUp() throws Exception {
+        when(upstream.isConnectionOpen()).thenReturn(true);
+        when(secondUpstream.isConnectionOpen()).thenReturn(true);
+        gateway = new SmartStreamGateway(Arrays.asList(upstream, secondUpstream),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16);
+        ArgumentCaptor<RawFrameListener> listener = ArgumentCaptor.forClass(RawFrameListener.class);
+        verify(upstream).addRawFrameListener(listener.capture());
+        upstreamListener = listener.getValue();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        gateway.close();
+        verify(upstream).removeRawFrameListener(upstreamListener);
+    }
+
+    @Test
+    public void testTokenIsSubscribedUpstreamOnceForAllClients() throws Exception {
+        BlockingQueue<byte[]> firstFrames = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> secondFrames = new LinkedBlockingQueue<>();
+        try (SmartStreamGatewayClient first = client(firstFrames);
+             SmartStreamGatewayClient second = client(secondFrames)) {
+            first.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            verify(upstream, timeout(2000)).subscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            second.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            awaitSubscribers(SmartStreamSubsMode.LTP, RELIANCE, 2);
+
+            byte[] frame = StreamFrames.frame(SmartStreamSubsMode.LTP, RELIANCE, 2400_00);
+            upstreamListener.onFrame(frame);
+            assertArrayEquals(frame, firstFrames.poll(2, TimeUnit.SECONDS));
+            assertArrayEquals(frame, secondFrames.poll(2, TimeUnit.SECONDS));
+
+            first.unsubscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            awaitSubscribers(SmartStreamSubsMode.LTP, RELIANCE, 1);
+            verify(upstream, never()).unsubscribe(any(), any());
+            upstreamListener.onFrame(frame);
+            assertArrayEquals(frame, secondFrames.poll(2, TimeUnit.SECONDS));
+            assertNull(firstFrames.poll(200, TimeUnit.MILLISECONDS));
+
+            second.close();
+            verify(upstream, timeout(2000)).unsubscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            verify(upstream, times(1)).subscribe(any(), any());
+            assertEquals(0, gateway.getSubscribedTokenCount(SmartStreamSubsMode.LTP));
+        }
+    }
+
+    @Test
+    public void testFramesAreRoutedByModeAndToken() throws Exception {
+        BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        try (SmartStreamGatewayClient client = client(frames)) {
+            client.subscribe(SmartStreamSubsMode.QUOTE, new HashSet<>(Arrays.asList(RELIANCE, INFY)));
+            awaitSubscribers(SmartStreamSubsMode.QUOTE, INFY, 1);
+
+            upstreamListener.onFrame(StreamFrames.frame(SmartStreamSubsMode.LTP, RELIANCE, 2400_00));
+            TokenID sbin = new TokenID(ExchangeType.NSE_CM, "3045");
+            upstreamListener.onFrame(StreamFrames.frame(SmartStreamSubsMode.QUOTE, sbin, 612_00));
+            byte[] quote = StreamFrames.frame(SmartStreamSubsMode.QUOTE, INFY, 1500_00);
+            upstreamListener.onFrame(quote);
+            upstreamListener.onFrame(new byte[] {9});
+
+            assertArrayEquals(quote, frames.poll(2, TimeUnit.SECONDS));
+            assertNull(frames.poll(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void testNewTokensAreSpreadOverUpstreams() throws Exception {
+        try (SmartStreamGatewayClient client = client(new LinkedBlockingQueue<>())) {
+            client.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            verify(upstream, timeout(2000)).subscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            client.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(INFY));
+            verify(secondUpstream, timeout(2000)).subscribe(SmartStreamSubsMode.LTP, Collections.singleton(INFY));
+        }
+        verify(upstream, timeout(2000)).unsubscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+        verify(secondUpstream, timeout(2000)).unsubscribe(SmartStreamSubsMode.LTP, Collections.singleton(INFY));
+        verify(upstream, never()).subscribe(eq(SmartStreamSubsMode.LTP), eq(Collections.singleton(INFY)));
+    }
+
+    @Test
+    public void testTokensAreSubscribedOnceTheUpstreamConnects() throws Exception {
+        TokenID tcs = new TokenID(ExchangeType.NSE_CM, "11536");
+        when(upstream.isConnectionOpen()).thenReturn(false);
+        try (SmartStreamGatewayClient client = client(new LinkedBlockingQueue<>())) {
+            client.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            awaitSubscribers(SmartStreamSubsMode.LTP, RELIANCE, 1);
+            client.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(INFY));
+            verify(secondUpstream, timeout(2000)).subscribe(SmartStreamSubsMode.LTP, Collections.singleton(INFY));
+            client.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(tcs));
+            awaitSubscribers(SmartStreamSubsMode.LTP, tcs, 1);
+            client.unsubscribe(SmartStreamSubsMode.LTP, Collections.singleton(tcs));
+            awaitSubscribers(SmartStreamSubsMode.LTP, tcs, 0);
+            verify(upstream, never()).subscribe(any(), any());
+
+            when(upstream.isConnectionOpen()).thenReturn(true);
+            upstreamListener.onConnected();
+            verify(upstream).subscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+            upstreamListener.onConnected();
+            verify(upstream, times(1)).subscribe(any(), any());
+        }
+        verify(upstream, timeout(2000)).unsubscribe(SmartStreamSubsMode.LTP, Collections.singleton(RELIANCE));
+        verify(upstream, never()).unsubscribe(SmartStreamSubsMode.LTP, Collections.singleton(tcs));
+    }
+
+    @Test
+    public void testDepth20IsOnlySubscribedForNseCash() throws Exception {
+        TokenID nifty = new TokenID(ExchangeType.NSE_FO, "35003");
+        try (SmartStreamGatewayClient client = client(new LinkedBlockingQueue<>())) {
+            client.subscribe(SmartStreamSubsMode.DEPTH_20, new HashSet<>(Arrays.asList(RELIANCE, nifty)));
+            verify(upstream, timeout(2000)).subscribe(SmartStreamSubsMode.DEPTH_20, Collections.singleton(RELIANCE));
+            assertEquals(1, gateway.getSubscribedTokenCount(SmartStreamSubsMode.DEPTH_20));
+            assertEquals(0, gateway.getSubscriberCount(SmartStreamSubsMode.DEPTH_20, nifty));
+            verify(secondUpstream, never()).subscribe(any(), any());
+        }
+    }
+
+    private SmartStreamGatewayClient client(BlockingQueue<byte[]> frames) throws Exception {
+        return new SmartStreamGatewayClient("127.0.0.1", gateway.getPort(), frames::add);
+    }
+
+    private void awaitSubscribers(SmartStreamSubsMode mode, TokenID token, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (gateway.getSubscriberCount(mode, token) != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, gateway.getSubscriberCount(mode, token));
+    }
+}
@@ -0,0 +1,47 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixedPointTest {
+
+    @Test
+    public void testConversionsUseTheScaleOfTheExchange() {
+        assertEquals(100, ExchangeType.NSE_CM.getPriceDivisor());
+        assertEquals(10_000_000, ExchangeType.CDE_FO.getPriceDivisor());
+
+        assertEquals(1234.56, FixedPoint.toDouble(123456, ExchangeType.NSE_CM), 0);
+        assertEquals(new BigDecimal("83.1234567"), FixedPoint.toBigDecimal(831234567, ExchangeType.CDE_FO));
+        assertEquals(831234567, FixedPoint.fromDouble(83.1234567, ExchangeType.CDE_FO));
+        assertEquals(123457, FixedPoint.fromBigDecimal(new BigDecimal("1234.565"), ExchangeType.BSE_CM));
+
+        assertEquals("1234.56", FixedPoint.toString(123456, ExchangeType.NSE_CM));
+        assertEquals("-0.05", FixedPoint.toString(-5, ExchangeType.NSE_FO));
+        assertEquals("83.0004500", FixedPoint.toString(830004500, ExchangeType.CDE_FO));
+    }
+
+    @Test
+    public void testArithmeticStaysExact() {
+        assertEquals(83_12, FixedPoint.rescale(831234567, 7, 2));
+        assertEquals(-83_13, FixedPoint.rescale(-831254567, 7, 2));
+        assertEquals(831200000, FixedPoint.rescale(83_12, 2, 7));
+
+        long notional = FixedPoint.notional(500_05, 10) + FixedPoint.notional(500_10, 30);
+        assertEquals(500_09, FixedPoint.average(notional, 40));
+        assertEquals(500_07, FixedPoint.mid(500_05, 500_10));
+        assertEquals(-3, FixedPoint.mid(-5, -1));
+        assertEquals(500_05, FixedPoint.roundToTick(500_03, 5));
+        assertEquals(500_00, FixedPoint.roundToTick(500_02, 5));
+        assertEquals(250, FixedPoint.changeBasisPoints(400_00, 410_00));
+        assertEquals(-3, FixedPoint.divideRounded(-5, 2));
+        assertEquals(-2, FixedPoint.divideRounded(-7, 4));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOverflowIsNotSilent() {
+        FixedPoint.notional(Long.MAX_VALUE / 2, 3);
+    }
+}
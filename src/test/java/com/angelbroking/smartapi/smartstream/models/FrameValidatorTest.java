@@ -0,0 +1,82 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import com.angelbroking.smartapi.smartstream.ticker.SmartStreamListener;
+import com.angelbroking.smartapi.smartstream.ticker.SmartStreamTicker;
+import com.angelbroking.smartapi.utils.Constants;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class FrameValidatorTest {
+
+    @Test
+    public void testModeLookup() {
+        assertEquals(SmartStreamSubsMode.LTP, SmartStreamSubsMode.findByVal(1));
+        assertEquals(SmartStreamSubsMode.DEPTH_20, SmartStreamSubsMode.findByVal(4));
+        assertNull(SmartStreamSubsMode.findByVal(0));
+        assertNull(SmartStreamSubsMode.findByVal(5));
+        assertNull(SmartStreamSubsMode.findByVal(-1));
+    }
+
+    @Test
+    public void testValidFramesOfEveryMode() {
+        assertEquals(SmartStreamSubsMode.LTP, FrameValidator.validate(
+                StreamFrames.frame(1, ExchangeType.NSE_CM, "3045", Constants.LTP_PACKET_SIZE, 612_35)));
+        assertEquals(SmartStreamSubsMode.QUOTE, FrameValidator.validate(
+                StreamFrames.frame(2, ExchangeType.NSE_FO, "43208", Constants.QUOTE_PACKET_SIZE, 19_850_05)));
+        assertEquals(SmartStreamSubsMode.SNAP_QUOTE, FrameValidator.validate(
+                StreamFrames.frame(3, ExchangeType.CDE_FO, "1185", Constants.SNAP_QUOTE_PACKET_SIZE, 831_234_567)));
+        byte[] depth = StreamFrames.frame(4, ExchangeType.NSE_CM, "1594", Constants.DEPTH_20_PACKET_SIZE, 1500_00);
+        assertEquals(SmartStreamSubsMode.DEPTH_20, FrameValidator.validate(depth));
+        assertNull(FrameValidator.describe(depth));
+    }
+
+    @Test
+    public void testMalformedFramesAreRejected() {
+        byte[] ltp = StreamFrames.frame(1, ExchangeType.NSE_CM, "3045", Constants.LTP_PACKET_SIZE, 612_35);
+
+        assertNull(FrameValidator.validate((byte[]) null));
+        assertNull(FrameValidator.validate(new byte[0]));
+        assertNull(FrameValidator.validate(Arrays.copyOf(ltp, Constants.LTP_PACKET_SIZE - 1)));
+
+        byte[] unknownMode = ltp.clone();
+        unknownMode[Constants.SUBSCRIPTION_MODE] = 9;
+        assertNull(FrameValidator.validate(unknownMode));
+        assertEquals("Invalid SubsMode=9 in the response binary packet", FrameValidator.describe(unknownMode));
+
+        byte[] truncatedQuote = StreamFrames.frame(2, ExchangeType.NSE_CM, "2885", Constants.LTP_PACKET_SIZE, 2400_00);
+        assertNull(FrameValidator.validate(truncatedQuote));
+        assertEquals("QUOTE frame of 51 bytes is shorter than 123 bytes", FrameValidator.describe(truncatedQuote));
+
+        byte[] unknownExchange = ltp.clone();
+        unknownExchange[Constants.EXCHANGE_TYPE] = 6;
+        assertNull(FrameValidator.validate(unknownExchange));
+
+        byte[] emptyToken = StreamFrames.frame(1, ExchangeType.NSE_CM, "", Constants.LTP_PACKET_SIZE, 612_35);
+        assertNull(FrameValidator.validate(emptyToken));
+        assertEquals("empty token in the response binary packet", FrameValidator.describe(emptyToken));
+    }
+
+    @Test
+    public void testTickerCountsMalformedFramesWithoutDecodingThem() throws Exception {
+        SmartStreamListener listener = mock(SmartStreamListener.class);
+        SmartStreamTicker ticker = new SmartStreamTicker("client", "feedToken", listener);
+        byte[] truncatedQuote = StreamFrames.frame(2, ExchangeType.NSE_CM, "2885", Constants.LTP_PACKET_SIZE, 2400_00);
+
+        ticker.getWebsocketAdapter().onBinaryMessage(null, truncatedQuote);
+        ticker.getWebsocketAdapter().onBinaryMessage(null, new byte[] {1});
+
+        assertEquals(2, ticker.getMalformedFrameCount());
+        verify(listener).onMalformedFrame(eq(truncatedQuote), eq("QUOTE frame of 51 bytes is shorter than 123 bytes"));
+        verify(listener, never()).onQuoteArrival(any());
+        verify(listener, never()).onError(any());
+    }
+}
@@ -0,0 +1,70 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import com.angelbroking.smartapi.utils.Constants;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds binary frames of the stream for tests.
+ */
+public final class StreamFrames {
+
+    private StreamFrames() {
+    }
+
+    /**
+     * Returns a frame of the size of a mode.
+     */
+    public static byte[] frame(SmartStreamSubsMode mode, TokenID token, long lastTradedPrice) {
+        return frame(mode.getVal(), token.getExchangeType(), token.getToken(), packetSize(mode), lastTradedPrice);
+    }
+
+    /**
+     * Returns a frame of any size, with the fields of the modes it is large
+     * enough for.
+     */
+    public static byte[] frame(int mode, ExchangeType exchangeType, String token, int size, long lastTradedPrice) {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(Constants.SUBSCRIPTION_MODE, (byte) mode);
+        buffer.put(Constants.EXCHANGE_TYPE, (byte) exchangeType.getVal());
+        byte[] tokenBytes = token.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < tokenBytes.length; i++) {
+            buffer.put(Constants.TOKEN_OFFSET + i, tokenBytes[i]);
+        }
+        buffer.putLong(Constants.SEQUENCE_NUMBER_OFFSET, 1_234_567L);
+        buffer.putLong(Constants.EXCHANGE_FEED_TIME_OFFSET, 1_700_000_000_000L);
+        buffer.putLong(Constants.LAST_TRADED_PRICE_OFFSET, lastTradedPrice);
+        if (size >= Constants.QUOTE_PACKET_SIZE) {
+            buffer.putLong(Constants.LAST_TRADED_QTY_OFFSET, 25);
+            buffer.putLong(Constants.AVG_TRADED_PRICE_OFFSET, lastTradedPrice - 10);
+            buffer.putLong(Constants.VOLUME_TRADED_TODAY_OFFSET, 1_000_000);
+            buffer.putDouble(Constants.TOTAL_BUY_QTY_OFFSET, 125_000.0);
+            buffer.putDouble(Constants.TOTAL_SELL_QTY_OFFSET, 98_000.0);
+            buffer.putLong(Constants.OPEN_PRICE_OFFSET, lastTradedPrice - 100);
+            buffer.putLong(Constants.HIGH_PRICE_OFFSET, lastTradedPrice + 200);
+            buffer.putLong(Constants.LOW_PRICE_OFFSET, lastTradedPrice - 300);
+            buffer.putLong(Constants.CLOSE_PRICE_OFFSET, lastTradedPrice - 50);
+        }
+        if (size >= Constants.SNAP_QUOTE_PACKET_SIZE) {
+            buffer.putLong(Constants.OPEN_INTEREST_OFFSET, 42_000);
+            buffer.putLong(Constants.UPPER_CIRCUIT_OFFSET, lastTradedPrice * 11 / 10);
+            buffer.putLong(Constants.LOWER_CIRCUIT_OFFSET, lastTradedPrice * 9 / 10);
+        }
+        return buffer.array();
+    }
+
+    private static int packetSize(SmartStreamSubsMode mode) {
+        switch (mode) {
+            case LTP:
+                return Constants.LTP_PACKET_SIZE;
+            case QUOTE:
+                return Constants.QUOTE_PACKET_SIZE;
+            case SNAP_QUOTE:
+                return Constants.SNAP_QUOTE_PACKET_SIZE;
+            default:
+                return Constants.DEPTH_20_PACKET_SIZE;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import com.angelbroking.smartapi.utils.ByteUtils;
+import com.angelbroking.smartapi.utils.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode time per tick of a burst of LTP and QUOTE frames with
+ * {@link TickBatch} against the per frame LTP and Quote objects built by
+ * SmartStreamTicker, both summing the last traded prices.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.angelbroking.smartapi.smartstream.models.TickBatchBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBatchBenchmark {
+
+    private static final int BURST = 256;
+
+    private final byte[][] frames = new byte[BURST][];
+    private final TickBatch batch = new TickBatch(BURST);
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < BURST; i++) {
+            frames[i] = i % 4 == 0
+                    ? StreamFrames.frame(2, ExchangeType.NSE_CM, String.valueOf(1000 + i),
+                            Constants.QUOTE_PACKET_SIZE, 500_00 + i)
+                    : StreamFrames.frame(1, ExchangeType.NSE_FO, String.valueOf(40000 + i),
+                            Constants.LTP_PACKET_SIZE, 19_800_00 + i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long perFrameObjects() {
+        long sum = 0;
+        for (byte[] frame : frames) {
+            ByteBuffer packet = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+            switch (SmartStreamSubsMode.findByVal(frame[0])) {
+                case LTP:
+                    sum += ByteUtils.mapToLTP(packet).getLastTradedPrice();
+                    break;
+                case QUOTE:
+                    sum += ByteUtils.mapToQuote(packet).getLastTradedPrice();
+                    break;
+                default:
+                    break;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long columnarBatch() {
+        int size = batch.decode(frames, 0, BURST);
+        long[] lastTradedPrices = batch.lastTradedPrices();
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += lastTradedPrices[i];
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TickBatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
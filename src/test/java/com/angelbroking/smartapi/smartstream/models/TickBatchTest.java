@@ -0,0 +1,75 @@
+package com.angelbroking.smartapi.smartstream.models;
+
+import com.angelbroking.smartapi.utils.Constants;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TickBatchTest {
+
+    @Test
+    public void testColumnsMatchPerFrameDecoding() {
+        byte[] ltp = StreamFrames.frame(1, ExchangeType.NSE_CM, "3045", Constants.LTP_PACKET_SIZE, 612_35);
+        byte[] quote = StreamFrames.frame(2, ExchangeType.NSE_FO, "43208", Constants.QUOTE_PACKET_SIZE, 19_850_05);
+        byte[] snapQuote = StreamFrames.frame(3, ExchangeType.CDE_FO, "1185", Constants.SNAP_QUOTE_PACKET_SIZE,
+                831_234_567);
+
+        TickBatch batch = new TickBatch(8);
+        assertEquals(3, batch.decode(new byte[][] {ltp, quote, snapQuote}, 0, 3));
+
+        LTP ltpTick = new LTP(wrap(ltp));
+        assertEquals(SmartStreamSubsMode.LTP, batch.mode(0));
+        assertEquals(ltpTick.getExchangeType(), batch.exchangeType(0));
+        assertEquals(ltpTick.getToken().getToken(), batch.token(0));
+        assertEquals(3045, batch.tokens()[0]);
+        assertEquals(ltpTick.getSequenceNumber(), batch.sequenceNumbers()[0]);
+        assertEquals(ltpTick.getLastTradedPrice(), batch.lastTradedPrices()[0]);
+        assertEquals(0, batch.volumes()[0]);
+
+        Quote quoteTick = new Quote(wrap(quote));
+        assertEquals("43208", quoteTick.getToken().getToken());
+        assertEquals(quoteTick.getLastTradedPrice(), batch.lastTradedPrices()[1]);
+        assertEquals(quoteTick.getVolumeTradedToday(), batch.volumes()[1]);
+        assertEquals(quoteTick.getTotalBuyQty(), batch.totalBuyQuantities()[1], 0);
+        assertEquals(quoteTick.getHighPrice(), batch.highPrices()[1]);
+        assertEquals(0, batch.upperCircuits()[1]);
+
+        SnapQuote snapQuoteTick = new SnapQuote(wrap(snapQuote));
+        assertEquals(ExchangeType.CDE_FO, batch.exchangeType(2));
+        assertEquals(snapQuoteTick.getLastTradedPrice(), batch.lastTradedPrices()[2]);
+        assertEquals(snapQuoteTick.getOpenInterest(), batch.openInterests()[2]);
+        assertEquals(snapQuoteTick.getUpperCircuit(), batch.upperCircuits()[2]);
+        assertEquals(snapQuoteTick.getLowerCircuit(), batch.lowerCircuits()[2]);
+    }
+
+    @Test
+    public void testShortAndUnsupportedFramesAreSkipped() {
+        byte[] ltp = StreamFrames.frame(1, ExchangeType.NSE_CM, "3045", Constants.LTP_PACKET_SIZE, 612_35);
+        byte[] truncatedQuote = StreamFrames.frame(2, ExchangeType.NSE_CM, "2885", Constants.LTP_PACKET_SIZE, 2400_00);
+        byte[] depth = StreamFrames.frame(4, ExchangeType.NSE_CM, "1594", 443, 1500_00);
+        byte[] symbol = StreamFrames.frame(1, ExchangeType.MCX_FO, "CRUDE", Constants.LTP_PACKET_SIZE, 6000_00);
+
+        TickBatch batch = new TickBatch(4);
+        assertEquals(2, batch.decode(new byte[][] {ltp, truncatedQuote, depth, symbol}, 0, 4));
+        assertEquals(2, batch.getSkipped());
+        assertEquals(-1, batch.tokens()[1]);
+        assertEquals("CRUDE", batch.token(1));
+
+        assertEquals(1, batch.decode(new byte[][] {symbol}, 0, 1));
+        assertEquals(1, batch.size());
+        assertEquals(0, batch.getSkipped());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBurstLargerThanTheCapacityIsRejected() {
+        new TickBatch(1).decode(new byte[2][], 0, 2);
+    }
+
+    private static ByteBuffer wrap(byte[] frame) {
+        return ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,169 @@
+package com.angelbroking.smartapi.smartstream.ring;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TickRingTest {
+
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tick-ring");
+        file = directory.resolve("ticks.ring");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testFramesAreReadInOrder() throws IOException {
+        try (TickRingWriter writer = TickRingWriter.create(file, 8, 64);
+             TickRingReader reader = TickRingReader.open(file)) {
+            writer.onFrame(new byte[] {1, 2, 3});
+            writer.onFrame(new byte[] {4, 5});
+
+            List<byte[]> frames = new ArrayList<>();
+            assertEquals(2, reader.poll(collect(frames), 10));
+            assertArrayEquals(new byte[] {1, 2, 3}, frames.get(0));
+            assertArrayEquals(new byte[] {4, 5}, frames.get(1));
+            assertEquals(0, reader.poll(collect(frames), 10));
+
+            writer.onFrame(new byte[] {6});
+            assertEquals(1, reader.poll(collect(frames), 10));
+            assertArrayEquals(new byte[] {6}, frames.get(2));
+            assertEquals(3, reader.getNextSequence());
+            assertEquals(0, reader.getLost());
+        }
+    }
+
+    @Test
+    public void testLappedReaderSkipsOverwrittenFrames() throws IOException {
+        try (TickRingWriter writer = TickRingWriter.create(file, 4, 64);
+             TickRingReader reader = TickRingReader.open(file)) {
+            for (int i = 0; i < 10; i++) {
+                writer.onFrame(new byte[] {(byte) i});
+            }
+
+            List<byte[]> frames = new ArrayList<>();
+            assertEquals(4, reader.poll(collect(frames), 10));
+            assertEquals(6, reader.getLost());
+            for (int i = 0; i < 4; i++) {
+                assertArrayEquals(new byte[] {(byte) (6 + i)}, frames.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testOversizedFramesAreDropped() throws IOException {
+        try (TickRingWriter writer = TickRingWriter.create(file, 4, 64);
+             TickRingReader reader = TickRingReader.open(file)) {
+            assertFalse(writer.publish(new byte[49], 0, 49));
+            assertTrue(writer.publish(new byte[48], 0, 48));
+            assertEquals(1, writer.getDropped());
+            assertEquals(1, writer.getSequence());
+            assertEquals(1, reader.poll(collect(new ArrayList<>()), 10));
+        }
+    }
+
+    @Test
+    public void testReaderSeesTheRingReplacedByANewWriter() throws IOException {
+        try (TickRingWriter writer = TickRingWriter.create(file, 8, 64);
+             TickRingReader reader = TickRingReader.open(file)) {
+            writer.onFrame(new byte[] {1});
+            assertEquals(writer.getEpoch(), reader.getEpoch());
+            assertFalse(reader.isReplaced());
+
+            try (TickRingWriter replacing = TickRingWriter.create(file, 8, 64)) {
+                assertTrue(reader.isReplaced());
+                assertNotEquals(writer.getEpoch(), replacing.getEpoch());
+                replacing.onFrame(new byte[] {2});
+
+                List<byte[]> frames = new ArrayList<>();
+                assertEquals(1, reader.poll(collect(frames), 10));
+                assertArrayEquals(new byte[] {1}, frames.get(0));
+                try (TickRingReader reopened = TickRingReader.open(file)) {
+                    assertFalse(reopened.isReplaced());
+                    assertEquals(replacing.getEpoch(), reopened.getEpoch());
+                    replacing.onFrame(new byte[] {3});
+                    assertEquals(1, reopened.poll(collect(frames), 10));
+                    assertArrayEquals(new byte[] {3}, frames.get(1));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFilesAreRejected() throws IOException {
+        Files.write(file, new byte[256]);
+        TickRingReader.open(file).close();
+    }
+
+    @Test
+    public void testConcurrentReaderNeverSeesTornFrames() throws Exception {
+        final long frames = 200_000;
+        try (TickRingWriter writer = TickRingWriter.create(file, 64, 128);
+             TickRingReader reader = TickRingReader.open(file)) {
+            Thread producer = new Thread(() -> {
+                ByteBuffer frame = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+                for (long sequence = 0; sequence < frames; sequence++) {
+                    for (int i = 0; i < 8; i++) {
+                        frame.putLong(i * 8, sequence * 31 + i);
+                    }
+                    writer.onFrame(frame.array());
+                }
+            });
+            AtomicLong read = new AtomicLong();
+            AtomicReference<String> torn = new AtomicReference<>();
+            TickRingReader.FrameHandler check = (sequence, frame, length) -> {
+                ByteBuffer buffer = ByteBuffer.wrap(frame, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < 8; i++) {
+                    if (buffer.getLong(i * 8) != sequence * 31 + i) {
+                        torn.compareAndSet(null, "frame " + sequence + " is torn");
+                    }
+                }
+                read.incrementAndGet();
+            };
+            producer.start();
+            while (producer.isAlive()) {
+                reader.poll(check, 16);
+            }
+            producer.join();
+            reader.poll(check, Integer.MAX_VALUE);
+
+            assertNull(torn.get());
+            assertEquals(frames, read.get() + reader.getLost());
+            assertEquals(frames, reader.getNextSequence());
+        }
+    }
+
+    private static TickRingReader.FrameHandler collect(List<byte[]> frames) {
+        return (sequence, frame, length) -> {
+            byte[] copy = new byte[length];
+            System.arraycopy(frame, 0, copy, 0, length);
+            frames.add(copy);
+        };
+    }
+}
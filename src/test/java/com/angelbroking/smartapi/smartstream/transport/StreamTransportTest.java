@@ -0,0 +1,304 @@
+package com.angelbroking.smartapi.smartstream.transport;
+
+import com.angelbroking.smartapi.smartstream.models.ExchangeType;
+import com.angelbroking.smartapi.smartstream.models.LTP;
+import com.angelbroking.smartapi.smartstream.models.SmartStreamSubsMode;
+import com.angelbroking.smartapi.smartstream.models.StreamFrames;
+import com.angelbroking.smartapi.smartstream.models.TokenID;
+import com.angelbroking.smartapi.smartstream.ticker.RawFrameListener;
+import com.angelbroking.smartapi.smartstream.ticker.SmartStreamListener;
+import com.angelbroking.smartapi.smartstream.ticker.SmartStreamTicker;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.ByteString;
+import org.json.JSONObject;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class StreamTransportTest {
+
+    private static final TokenID SBIN = new TokenID(ExchangeType.NSE_CM, "3045");
+
+    @Test
+    public void testTickerDecodesFramesOfPooledDirectBuffers() throws Exception {
+        FakeTransport transport = new FakeTransport();
+        SmartStreamListener listener = mock(SmartStreamListener.class);
+        SmartStreamTicker ticker = new SmartStreamTicker("A123", "feed-token", listener, transport);
+        assertEquals("A123", transport.headers.get("x-client-code"));
+        assertEquals("feed-token", transport.headers.get("x-feed-token"));
+
+        ticker.connect();
+        transport.listener.onConnected();
+        verify(listener).onConnected();
+        ticker.subscribe(SmartStreamSubsMode.LTP, Collections.singleton(SBIN));
+        JSONObject request = new JSONObject(transport.connection.sent.get(0));
+        assertEquals(1, request.getInt("action"));
+        assertEquals(1, request.getJSONObject("params").getInt("mode"));
+
+        FrameBufferPool pool = new FrameBufferPool();
+        ByteBuffer frame = pool.acquire();
+        frame.put(StreamFrames.frame(SmartStreamSubsMode.LTP, SBIN, 612_35));
+        frame.flip();
+        transport.listener.onFrame(frame.slice());
+        pool.release(frame);
+
+        ArgumentCaptor<LTP> ltp = ArgumentCaptor.forClass(LTP.class);
+        verify(listener).onLTPArrival(ltp.capture());
+        assertEquals("3045", ltp.getValue().getToken().getToken());
+        assertEquals(612_35, ltp.getValue().getLastTradedPrice());
+
+        ByteBuffer truncated = ByteBuffer.allocateDirect(10);
+        transport.listener.onFrame(truncated);
+        verify(listener).onMalformedFrame(any(), anyString());
+        assertEquals(1, ticker.getMalformedFrameCount());
+
+        ticker.disconnect();
+        assertTrue(transport.connection.disconnected);
+    }
+
+    @Test
+    public void testRawFrameListenerGetsACopyOfPooledFrames() throws Exception {
+        FakeTransport transport = new FakeTransport();
+        SmartStreamTicker ticker = new SmartStreamTicker("A123", "feed-token", mock(SmartStreamListener.class),
+                transport);
+        List<byte[]> raw = new ArrayList<>();
+        ticker.addRawFrameListener(raw::add);
+        byte[] ltp = StreamFrames.frame(SmartStreamSubsMode.LTP, SBIN, 612_35);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(ltp.length);
+        direct.put(ltp);
+        direct.flip();
+        transport.listener.onFrame(direct);
+        transport.listener.onFrame(ByteBuffer.wrap(ltp));
+
+        assertArrayEquals(ltp, raw.get(0));
+        assertSame(ltp, raw.get(1));
+    }
+
+    @Test
+    public void testEveryRawFrameListenerGetsTheFramesAndConnections() throws Exception {
+        FakeTransport transport = new FakeTransport();
+        SmartStreamTicker ticker = new SmartStreamTicker("A123", "feed-token", mock(SmartStreamListener.class),
+                transport);
+        RawFrameListener first = mock(RawFrameListener.class);
+        RawFrameListener second = mock(RawFrameListener.class);
+        ticker.addRawFrameListener(first);
+        ticker.addRawFrameListener(second);
+        byte[] ltp = StreamFrames.frame(SmartStreamSubsMode.LTP, SBIN, 612_35);
+
+        transport.listener.onConnected();
+        transport.listener.onFrame(ByteBuffer.wrap(ltp));
+        ticker.removeRawFrameListener(first);
+        transport.listener.onFrame(ByteBuffer.wrap(ltp));
+        ticker.disconnect();
+
+        verify(first).onConnected();
+        verify(first).onFrame(ltp);
+        verify(second).onConnected();
+        verify(second, times(2)).onFrame(ltp);
+    }
+
+    @Test
+    public void testNvWebSocketTransportDeliversBinaryMessages() throws Exception {
+        assertDeliversBinaryMessages(StreamTransports.nvWebSocket(), false);
+    }
+
+    @Test
+    public void testPooledNvWebSocketTransportDeliversDirectBuffers() throws Exception {
+        FrameBufferPool pool = new FrameBufferPool();
+        assertDeliversBinaryMessages(StreamTransports.nvWebSocket(pool), true);
+        assertEquals(1, pool.getAllocated());
+    }
+
+    @Test
+    public void testJdkWebSocketTransportDeliversDirectBuffers() throws Exception {
+        Assume.assumeTrue(StreamTransports.isJdkWebSocketSupported());
+        FrameBufferPool pool = new FrameBufferPool();
+        assertDeliversBinaryMessages(StreamTransports.jdkWebSocket(pool), true);
+        assertEquals(1, pool.getAllocated());
+    }
+
+    private static void assertDeliversBinaryMessages(StreamTransport transport, boolean direct) throws Exception {
+        byte[] ltp = StreamFrames.frame(SmartStreamSubsMode.LTP, SBIN, 612_35);
+        BlockingQueue<String> serverMessages = new LinkedBlockingQueue<>();
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                webSocket.send(ByteString.of(ltp));
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                serverMessages.add(text);
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, null);
+            }
+        }));
+        server.start();
+        try {
+            BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+            StreamTransportListener listener = mock(StreamTransportListener.class);
+            StreamConnection connection = transport.create(
+                    "ws://" + server.getHostName() + ":" + server.getPort() + "/",
+                    Collections.singletonMap("x-client-code", "A123"), 0, new StreamTransportListener() {
+                        @Override
+                        public void onConnected() {
+                            listener.onConnected();
+                        }
+
+                        @Override
+                        public void onFrame(ByteBuffer frame) {
+                            assertEquals(ByteOrder.LITTLE_ENDIAN, frame.order());
+                            assertEquals(direct, frame.isDirect());
+                            byte[] bytes = new byte[frame.limit()];
+                            frame.get(bytes);
+                            frames.add(bytes);
+                        }
+
+                        @Override
+                        public void onPong() {
+                        }
+
+                        @Override
+                        public void onDisconnected(boolean closedByServer) {
+                            listener.onDisconnected(closedByServer);
+                        }
+
+                        @Override
+                        public void onError(Throwable cause) {
+                            listener.onError(cause);
+                        }
+                    });
+            connection.connect();
+            assertTrue(connection.isOpen());
+            RecordedRequest handshake = server.takeRequest(2, TimeUnit.SECONDS);
+            assertEquals("A123", handshake.getHeader("x-client-code"));
+
+            assertArrayEquals(ltp, frames.poll(2, TimeUnit.SECONDS));
+            connection.sendText("{\"action\":1}");
+            assertEquals("{\"action\":1}", serverMessages.poll(2, TimeUnit.SECONDS));
+            verify(listener).onConnected();
+            verify(listener, never()).onError(any());
+            connection.disconnect();
+            verify(listener, timeout(2000)).onDisconnected(false);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testPoolReusesItsOwnBuffers() {
+        FrameBufferPool pool = new FrameBufferPool(64, 1);
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        assertTrue(first.isDirect());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, first.order());
+        assertEquals(2, pool.getAllocated());
+
+        first.putLong(42);
+        pool.release(first);
+        pool.release(second);
+        pool.release(ByteBuffer.allocateDirect(64));
+        pool.release(ByteBuffer.allocateDirect(128));
+
+        ByteBuffer reused = pool.acquire();
+        assertSame(first, reused);
+        assertEquals(0, reused.position());
+        assertEquals(64, reused.limit());
+        assertNotSame(second, pool.acquire());
+        assertEquals(3, pool.getAllocated());
+    }
+
+    @Test
+    public void testPoolGivesLargerFramesBuffersOfTheirOwn() {
+        FrameBufferPool pool = new FrameBufferPool(64, 1);
+        ByteBuffer pooled = pool.acquire(48);
+        ByteBuffer large = pool.acquire(100);
+        assertEquals(64, pooled.capacity());
+        assertEquals(100, large.capacity());
+        assertTrue(large.isDirect());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, large.order());
+        assertEquals(1, pool.getAllocated());
+
+        pool.release(large);
+        pool.release(pooled);
+        assertSame(pooled, pool.acquire(64));
+    }
+
+    private static final class FakeTransport implements StreamTransport {
+
+        private Map<String, String> headers;
+        private StreamTransportListener listener;
+        private FakeConnection connection;
+
+        @Override
+        public StreamConnection create(String uri, Map<String, String> headers, int pingIntervalMillis,
+                StreamTransportListener listener) {
+            this.headers = headers;
+            this.listener = listener;
+            this.connection = new FakeConnection();
+            return connection;
+        }
+    }
+
+    private static final class FakeConnection implements StreamConnection {
+
+        private final List<String> sent = new ArrayList<>();
+        private boolean open;
+        private boolean disconnected;
+
+        @Override
+        public void connect() throws IOException {
+            open = true;
+        }
+
+        @Override
+        public void sendText(String text) {
+            sent.add(text);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void disconnect() {
+            open = false;
+            disconnected = true;
+        }
+    }
+}